@@ -126,6 +126,12 @@ if [[ "$RESTART_SERVERS" == "" ]]; then
 fi
 
 
+# Results of probes running in servers are saved next to the driver results, unless configuration sets
+# its own output folder.
+SERVER_OUTPUT_FOLDER="--outputFolder ${results_folder}"
+
+export SERVER_OUTPUT_FOLDER
+
 if [[ "$RESTART_SERVERS" == "false" ]]; then
     /bin/bash ${SCRIPT_DIR}/benchmark-servers-start.sh ${CONFIG_INCLUDE}
 
@@ -177,8 +183,8 @@ function collect_results()
         if [[ $ip != "127.0.0.1" && $ip != "localhost" ]]
         then
             echo "<"$(date +"%H:%M:%S")"><yardstick> Collecting results from the host ${ip}"
-            # Checking if current IP belongs to the driver-host and therefore there should be the "results" directory
-            if [[ ${DRIVER_HOSTS} == *"$ip"* ]]; then
+            # Checking if current IP belongs to the driver or server host and therefore there should be the "results" directory
+            if [[ ${DRIVER_HOSTS} == *"$ip"* ]] || [[ ${SERVER_HOSTS} == *"$ip"* ]]; then
                 scp -o StrictHostKeyChecking=no -rq $ip:$results_folder/../../output/$result_dir_name/* $MAIN_DIR/output/$result_dir_name
             fi
 
@@ -120,9 +120,14 @@ IFS=',' read -ra hosts0 <<< "${SERVER_HOSTS}"
 
 JVM_OPTS_ORIG="$JVM_OPTS"
 
+# Output folder of server probes is not passed if configuration sets its own one.
+if [[ ${CONFIG} == *'-of '* ]] || [[ ${CONFIG} == *'--outputFolder '* ]]; then
+    SERVER_OUTPUT_FOLDER=""
+fi
+
 for host_name in "${hosts0[@]}";
 do
-    CONFIG_PRM="-id ${id} ${CONFIG}"
+    CONFIG_PRM="-id ${id} ${SERVER_OUTPUT_FOLDER} ${CONFIG}"
 
     suffix=`echo "${CONFIG}" | tail -c 60 | sed 's/ *$//g'`
 
@@ -0,0 +1,27 @@
+/*
+ Licensed under the Apache License, Version 2.0 (the "License");
+ you may not use this file except in compliance with the License.
+ You may obtain a copy of the License at
+
+     http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing, software
+ distributed under the License is distributed on an "AS IS" BASIS,
+ WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ See the License for the specific language governing permissions and
+ limitations under the License.
+ */
+
+package org.yardstickframework;
+
+/**
+ * Probe which keeps collected points in {@link BenchmarkProbePointBuffer} instead of
+ * {@link BenchmarkProbePoint} objects. Points are read from the buffer by the thread writing
+ * probe points, {@link #points()} is used only if the writer can not read columns directly.
+ */
+public interface BenchmarkColumnarProbe extends BenchmarkProbe {
+    /**
+     * @return Buffer with collected points, available after the probe is started.
+     */
+    public BenchmarkProbePointBuffer buffer();
+}
@@ -0,0 +1,29 @@
+/*
+ Licensed under the Apache License, Version 2.0 (the "License");
+ you may not use this file except in compliance with the License.
+ You may obtain a copy of the License at
+
+     http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing, software
+ distributed under the License is distributed on an "AS IS" BASIS,
+ WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ See the License for the specific language governing permissions and
+ limitations under the License.
+ */
+
+package org.yardstickframework;
+
+/**
+ * Points writer which reads points of {@link BenchmarkColumnarProbe} directly from the buffer.
+ */
+public interface BenchmarkColumnarProbePointWriter extends BenchmarkProbePointWriter {
+    /**
+     * Writes all points available in the buffer to target and releases them.
+     *
+     * @param probe Probe for which points are collected.
+     * @param buf Buffer with points to write.
+     * @throws Exception If write failed.
+     */
+    public void writePoints(BenchmarkProbe probe, BenchmarkProbePointBuffer buf) throws Exception;
+}
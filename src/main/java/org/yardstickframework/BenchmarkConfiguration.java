@@ -67,8 +67,13 @@ public class BenchmarkConfiguration implements Serializable {
     @Parameter(names = {"-pr", "--probes"}, description = "Comma separated list of probes for benchmarks")
     private List<String> dfltProbeClsNames = Collections.emptyList();
 
-    /** Probe writer class name. */
-    @Parameter(names = {"wr", "--writer"}, description = "Probe point writer class name")
+    /** */
+    @Parameter(names = {"-spr", "--serverProbes"}, description = "Comma separated list of probes for benchmark servers")
+    private List<String> dfltSrvProbeClsNames = Collections.emptyList();
+
+    /** Probe writer class name or comma separated list of class names. */
+    @Parameter(names = {"wr", "--writer"}, description = "Probe point writer class name or comma separated list " +
+        "of class names, points are written by all writers")
     private String probeWriter;
 
     /** */
@@ -126,6 +131,12 @@ public class BenchmarkConfiguration implements Serializable {
     /** Custom properties. */
     private Map<String, String> customProps;
 
+    /** Overhead of execution aware probes per operation in nanoseconds, {@code NaN} if not calibrated. */
+    private double probeOverhead = Double.NaN;
+
+    /** Cost of a clock read in nanoseconds, {@code NaN} if not calibrated. */
+    private double clockReadCost = Double.NaN;
+
     /** Output writer. */
     private transient PrintStream outputWriter;
 
@@ -272,6 +283,34 @@ public class BenchmarkConfiguration implements Serializable {
         this.customProps = customProps;
     }
 
+    /**
+     * @return Overhead of execution aware probes per operation in nanoseconds, {@code NaN} if not calibrated.
+     */
+    public double probeOverhead() {
+        return probeOverhead;
+    }
+
+    /**
+     * @param probeOverhead Overhead of execution aware probes per operation in nanoseconds.
+     */
+    public void probeOverhead(double probeOverhead) {
+        this.probeOverhead = probeOverhead;
+    }
+
+    /**
+     * @return Cost of a clock read in nanoseconds, {@code NaN} if not calibrated.
+     */
+    public double clockReadCost() {
+        return clockReadCost;
+    }
+
+    /**
+     * @param clockReadCost Cost of a clock read in nanoseconds.
+     */
+    public void clockReadCost(double clockReadCost) {
+        this.clockReadCost = clockReadCost;
+    }
+
     /**
      * @return Output writer.
      */
@@ -329,14 +368,28 @@ public class BenchmarkConfiguration implements Serializable {
     }
 
     /**
-     * @return Probe writer class name.
+     * @return Gets list of default probe class names for benchmark servers.
+     */
+    public List<String> defaultServerProbeClassNames() {
+        return dfltSrvProbeClsNames;
+    }
+
+    /**
+     * @param dfltSrvProbeClsNames List of default probe class names for benchmark servers.
+     */
+    public void defaultServerProbeClassNames(List<String> dfltSrvProbeClsNames) {
+        this.dfltSrvProbeClsNames = dfltSrvProbeClsNames;
+    }
+
+    /**
+     * @return Probe writer class name or comma separated list of class names.
      */
     public String probeWriterClassName() {
         return probeWriter;
     }
 
     /**
-     * @param probeWriter Probe writer class name.
+     * @param probeWriter Probe writer class name or comma separated list of class names.
      */
     public void probeWriterClassName(String probeWriter) {
         this.probeWriter = probeWriter;
@@ -429,11 +482,14 @@ public class BenchmarkConfiguration implements Serializable {
             ", duration=" + duration +
             ", warmup=" + warmup +
             ", dfltProbeClsNames=" + dfltProbeClsNames +
+            ", dfltSrvProbeClsNames=" + dfltSrvProbeClsNames +
             ", propsFileName='" + propsFileName + '\'' +
             ", packages=" + packages +
             ", cmdArgs=" + Arrays.toString(cmdArgs) +
             ", probeWriter='" + probeWriter + '\'' +
             ", customProps=" + customProps +
+            ", probeOverhead=" + probeOverhead +
+            ", clockReadCost=" + clockReadCost +
             ", shutdownHook=" + shutdownHook +
             ", currentFolder=" + curFolder +
             ", scriptsFolder=" + scriptsFolder +
@@ -20,6 +20,7 @@ import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import org.yardstickframework.impl.BenchmarkCalibration;
 import org.yardstickframework.impl.BenchmarkLoader;
 import org.yardstickframework.impl.BenchmarkProbeSet;
 import org.yardstickframework.impl.BenchmarkRunner;
@@ -146,6 +147,8 @@ public class BenchmarkDriverStartUp {
             return;
         }
 
+        BenchmarkCalibration.calibrate(cfg, ldr);
+
         int[] weights0 = new int[weights.size()];
 
         for (int i = 0; i < weights.size(); i++)
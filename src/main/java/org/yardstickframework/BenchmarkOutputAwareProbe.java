@@ -0,0 +1,30 @@
+/*
+ Licensed under the Apache License, Version 2.0 (the "License");
+ you may not use this file except in compliance with the License.
+ You may obtain a copy of the License at
+
+     http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing, software
+ distributed under the License is distributed on an "AS IS" BASIS,
+ WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ See the License for the specific language governing permissions and
+ limitations under the License.
+ */
+
+package org.yardstickframework;
+
+import java.io.File;
+
+/**
+ * Probe that saves additional result files (besides probe points) to the benchmark results folder.
+ */
+public interface BenchmarkOutputAwareProbe extends BenchmarkProbe {
+    /**
+     * Sets folder where probe points of the driver are saved. This method is invoked before
+     * {@link #start(BenchmarkDriver, BenchmarkConfiguration)}.
+     *
+     * @param folder Results folder.
+     */
+    public void outputFolder(File folder);
+}
@@ -0,0 +1,309 @@
+/*
+ Licensed under the Apache License, Version 2.0 (the "License");
+ you may not use this file except in compliance with the License.
+ You may obtain a copy of the License at
+
+     http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing, software
+ distributed under the License is distributed on an "AS IS" BASIS,
+ WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ See the License for the specific language governing permissions and
+ limitations under the License.
+ */
+
+package org.yardstickframework;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Preallocated ring buffer keeping probe points in primitive columns: one column of times and
+ * one column per value. Buffer has a single writer (thread building probe points) and a single
+ * reader (thread writing probe points), no objects are allocated for points.
+ * <p>
+ * Writer adds a point by {@link #startPoint(long)}, {@link #set(int, double)} for every column
+ * and {@link #finishPoint()} calls. If buffer is full, the point is dropped and counted.
+ * <p>
+ * Reader gets the number of points by {@link #size()}, reads them by {@link #time(int)}
+ * and {@link #value(int, int)}, and then frees them by {@link #release(int)}.
+ */
+public class BenchmarkProbePointBuffer {
+    /** Buffer capacity in points. */
+    public static final String CAPACITY = "BENCHMARK_PROBE_BUFFER_CAPACITY";
+
+    /** */
+    public static final int DEFAULT_CAPACITY = 4096;
+
+    /** Times. */
+    private final long[] times;
+
+    /** Values by column. */
+    private final double[][] cols;
+
+    /** */
+    private final int mask;
+
+    /** Index of the next point to write, changed by writer only. */
+    private final AtomicLong head = new AtomicLong();
+
+    /** Index of the next point to read, changed by reader only. */
+    private final AtomicLong tail = new AtomicLong();
+
+    /** Dropped points, changed by writer only. */
+    private final AtomicLong dropped = new AtomicLong();
+
+    /** Whether the point is started and not finished yet, accessed by writer only. */
+    private boolean started;
+
+    /**
+     * @param cols Number of value columns.
+     * @param cap Capacity, rounded up to a power of two.
+     */
+    public BenchmarkProbePointBuffer(int cols, int cap) {
+        if (cols < 1)
+            throw new IllegalArgumentException("Number of columns should be positive: " + cols);
+
+        if (cap < 1 || cap > 1 << 30)
+            throw new IllegalArgumentException("Invalid capacity: " + cap);
+
+        int size = Integer.highestOneBit(cap);
+
+        if (size < cap)
+            size <<= 1;
+
+        times = new long[size];
+
+        this.cols = new double[cols][size];
+
+        mask = size - 1;
+    }
+
+    /**
+     * Creates read-only view of the buffer.
+     *
+     * @param src Buffer.
+     * @param size Number of points available in the view.
+     */
+    private BenchmarkProbePointBuffer(BenchmarkProbePointBuffer src, int size) {
+        times = src.times;
+        cols = src.cols;
+        mask = src.mask;
+
+        long t = src.tail.get();
+
+        tail.set(t);
+        head.set(t + size);
+    }
+
+    /**
+     * @param cols Number of value columns.
+     * @param cfg Configuration.
+     * @return Buffer with capacity defined by {@link #CAPACITY} property.
+     */
+    public static BenchmarkProbePointBuffer create(int cols, BenchmarkConfiguration cfg) {
+        return new BenchmarkProbePointBuffer(cols, capacity(cfg));
+    }
+
+    /**
+     * Starts new point. Must be called by writer thread only.
+     *
+     * @param time Point time.
+     * @return {@code False} if buffer is full and point is dropped, values must not be set in this case.
+     */
+    public boolean startPoint(long time) {
+        long h = head.get();
+
+        if (h - tail.get() > mask) {
+            dropped.lazySet(dropped.get() + 1);
+
+            return false;
+        }
+
+        times[(int)h & mask] = time;
+
+        started = true;
+
+        return true;
+    }
+
+    /**
+     * Sets value of the started point. Must be called by writer thread only.
+     *
+     * @param col Column index.
+     * @param val Value.
+     */
+    public void set(int col, double val) {
+        assert started;
+
+        cols[col][(int)head.get() & mask] = val;
+    }
+
+    /**
+     * Makes the started point visible to reader. Must be called by writer thread only.
+     */
+    public void finishPoint() {
+        assert started;
+
+        started = false;
+
+        head.lazySet(head.get() + 1);
+    }
+
+    /**
+     * Adds point with a single value. Must be called by writer thread only.
+     *
+     * @param time Point time.
+     * @param val Value.
+     * @return {@code False} if buffer is full and point is dropped.
+     */
+    public boolean add(long time, double val) {
+        if (!startPoint(time))
+            return false;
+
+        set(0, val);
+
+        finishPoint();
+
+        return true;
+    }
+
+    /**
+     * Adds point with two values. Must be called by writer thread only.
+     *
+     * @param time Point time.
+     * @param val0 First value.
+     * @param val1 Second value.
+     * @return {@code False} if buffer is full and point is dropped.
+     */
+    public boolean add(long time, double val0, double val1) {
+        if (!startPoint(time))
+            return false;
+
+        set(0, val0);
+        set(1, val1);
+
+        finishPoint();
+
+        return true;
+    }
+
+    /**
+     * @return Number of points available to reader.
+     */
+    public int size() {
+        return (int)(head.get() - tail.get());
+    }
+
+    /**
+     * @return Number of value columns.
+     */
+    public int columns() {
+        return cols.length;
+    }
+
+    /**
+     * @return Buffer capacity.
+     */
+    public int capacity() {
+        return times.length;
+    }
+
+    /**
+     * @param idx Point index counted from the oldest available point.
+     * @return Point time.
+     */
+    public long time(int idx) {
+        return times[(int)(tail.get() + idx) & mask];
+    }
+
+    /**
+     * @param idx Point index counted from the oldest available point.
+     * @param col Column index.
+     * @return Point value.
+     */
+    public double value(int idx, int col) {
+        return cols[col][(int)(tail.get() + idx) & mask];
+    }
+
+    /**
+     * Frees the oldest points. Must be called by reader thread only.
+     *
+     * @param cnt Number of points.
+     */
+    public void release(int cnt) {
+        assert cnt >= 0 && cnt <= size();
+
+        tail.lazySet(tail.get() + cnt);
+    }
+
+    /**
+     * Frees all available points. Must be called by reader thread only.
+     */
+    public void clear() {
+        release(size());
+    }
+
+    /**
+     * @return Number of points dropped because buffer was full.
+     */
+    public long dropped() {
+        return dropped.get();
+    }
+
+    /**
+     * Creates view of the oldest points sharing storage with this buffer. The view has its own read position,
+     * so several readers can read and release the same points one after another, points are not freed in this
+     * buffer until {@link #release(int)} is called. View must not be written and must be read before the points
+     * are released in this buffer. Must be called by reader thread only.
+     *
+     * @param size Number of points, not greater than {@link #size()}.
+     * @return View.
+     */
+    public BenchmarkProbePointBuffer view(int size) {
+        assert size >= 0 && size <= size();
+
+        return new BenchmarkProbePointBuffer(this, size);
+    }
+
+    /**
+     * Converts all available points to {@link BenchmarkProbePoint} objects and frees them.
+     * Must be called by reader thread only.
+     *
+     * @return Points.
+     */
+    public Collection<BenchmarkProbePoint> drainPoints() {
+        int size = size();
+
+        Collection<BenchmarkProbePoint> res = new ArrayList<>(size);
+
+        for (int i = 0; i < size; i++) {
+            double[] vals = new double[cols.length];
+
+            for (int j = 0; j < vals.length; j++)
+                vals[j] = value(i, j);
+
+            res.add(new BenchmarkProbePoint(time(i), vals));
+        }
+
+        release(size);
+
+        return res;
+    }
+
+    /**
+     * @param cfg Config.
+     * @return Buffer capacity.
+     */
+    private static int capacity(BenchmarkConfiguration cfg) {
+        try {
+            int res = Integer.parseInt(cfg.customProperties().get(CAPACITY));
+
+            return res > 0 ? res : DEFAULT_CAPACITY;
+        }
+        catch (NumberFormatException | NullPointerException ignored) {
+            return DEFAULT_CAPACITY;
+        }
+    }
+}
@@ -14,7 +14,9 @@
 
 package org.yardstickframework;
 
+import java.util.Collection;
 import org.yardstickframework.impl.BenchmarkLoader;
+import org.yardstickframework.impl.BenchmarkServerProbeRunner;
 
 import static org.yardstickframework.BenchmarkUtils.errorHelp;
 import static org.yardstickframework.BenchmarkUtils.jcommander;
@@ -59,14 +61,29 @@ public class BenchmarkServerStartUp {
                 return;
             }
 
+            BenchmarkServerProbeRunner probeRunner = null;
+
             try {
                 srv.start(cfg);
 
+                Collection<BenchmarkProbe> probes = ldr.loadServerProbes();
+
+                if (!probes.isEmpty()) {
+                    probeRunner = new BenchmarkServerProbeRunner(srv, cfg, probes, ldr);
+
+                    probeRunner.start();
+                }
+
                 final BenchmarkServer srv0 = srv;
 
+                final BenchmarkServerProbeRunner probeRunner0 = probeRunner;
+
                 if (cfg.shutdownHook()) {
                     Runtime.getRuntime().addShutdownHook(new Thread() {
                         @Override public void run() {
+                            if (probeRunner0 != null)
+                                probeRunner0.stop();
+
                             try {
                                 srv0.stop();
                             }
@@ -76,10 +93,21 @@ public class BenchmarkServerStartUp {
                         }
                     });
                 }
+                else if (probeRunner0 != null) {
+                    // Server is stopped by its owner, but probe results are still flushed and closed on exit.
+                    Runtime.getRuntime().addShutdownHook(new Thread() {
+                        @Override public void run() {
+                            probeRunner0.stop();
+                        }
+                    });
+                }
             }
             catch (Exception e) {
                 BenchmarkUtils.error("Failed to start benchmark server (will stop and exit).", e);
 
+                if (probeRunner != null)
+                    probeRunner.stop();
+
                 srv.stop();
             }
         }
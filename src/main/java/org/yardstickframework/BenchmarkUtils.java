@@ -22,8 +22,11 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.PrintStream;
+import java.lang.management.ThreadInfo;
+import java.lang.management.ThreadMXBean;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
@@ -42,6 +45,9 @@ public class BenchmarkUtils {
     /** Weight delimiter. */
     public static final String WEIGHT_DELIMITER = ":";
 
+    /** Name prefix of threads executing benchmark operations. */
+    public static final String WORKER_THREAD_NAME_PREFIX = "benchmark-worker-";
+
     /** Indicates whether current OS is Windows. */
     private static boolean isWin;
 
@@ -178,6 +184,27 @@ public class BenchmarkUtils {
         return fName.length() > 200 ? fName.substring(0, 200) : fName;
     }
 
+    /**
+     * Finds live benchmark threads.
+     *
+     * @param threadBean Thread MX bean.
+     * @return IDs of live benchmark threads.
+     */
+    public static long[] workerThreadIds(ThreadMXBean threadBean) {
+        ThreadInfo[] infos = threadBean.getThreadInfo(threadBean.getAllThreadIds(), 0);
+
+        long[] ids = new long[infos.length];
+
+        int cnt = 0;
+
+        for (ThreadInfo info : infos) {
+            if (info != null && info.getThreadName().startsWith(WORKER_THREAD_NAME_PREFIX))
+                ids[cnt++] = info.getThreadId();
+        }
+
+        return Arrays.copyOf(ids, cnt);
+    }
+
     /**
      * Returns the description corresponding to the given benchmark driver.
      *
@@ -204,6 +231,24 @@ public class BenchmarkUtils {
         return "";
     }
 
+    /**
+     * @param cfg Config.
+     * @return Comma separated driver names or server name if probes are run by benchmark server.
+     */
+    public static String driverNames(BenchmarkConfiguration cfg) {
+        return cfg.driverNames() == null ? cfg.serverName() :
+            cfg.driverNames().toString().replaceAll("\\[", "").replaceAll("]", "");
+    }
+
+    /**
+     * @param cfg Config.
+     * @param drv Driver probes are run for.
+     * @return Simple class name of the driver or server name if probes are run by benchmark server.
+     */
+    public static String driverName(BenchmarkConfiguration cfg, BenchmarkDriver drv) {
+        return cfg.driverNames() == null ? cfg.serverName() : drv.getClass().getSimpleName();
+    }
+
     /**
      * Kills 'Dyardstick.server${ID}' process with -9 option on remote host.
      *
@@ -0,0 +1,203 @@
+/*
+ Licensed under the Apache License, Version 2.0 (the "License");
+ you may not use this file except in compliance with the License.
+ You may obtain a copy of the License at
+
+     http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing, software
+ distributed under the License is distributed on an "AS IS" BASIS,
+ WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ See the License for the specific language governing permissions and
+ limitations under the License.
+ */
+
+package org.yardstickframework.impl;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import org.yardstickframework.BenchmarkConfiguration;
+import org.yardstickframework.BenchmarkDriver;
+import org.yardstickframework.BenchmarkDriverAdapter;
+import org.yardstickframework.BenchmarkExecutionAwareProbe;
+import org.yardstickframework.BenchmarkProbe;
+
+import static org.yardstickframework.BenchmarkUtils.errorHelp;
+import static org.yardstickframework.BenchmarkUtils.println;
+
+/**
+ * Measures the overhead the framework adds to every benchmark operation: the time spent
+ * by execution aware probes before and after the operation, and the cost of a clock read.
+ * <p>
+ * Empty driver is run through {@link BenchmarkProbeSet#onBeforeExecute(int)} and
+ * {@link BenchmarkProbeSet#onAfterExecute(int)} with new instances of the configured probes,
+ * the difference with the same loop without probes is the overhead. Results are saved to
+ * {@link BenchmarkConfiguration#probeOverhead()} and {@link BenchmarkConfiguration#clockReadCost()}.
+ */
+public class BenchmarkCalibration {
+    /** Number of operations in each calibration round, {@code 0} disables calibration. */
+    public static final String OPERATIONS = "BENCHMARK_CALIBRATION_OPERATIONS";
+
+    /** */
+    public static final int DEFAULT_OPERATIONS = 100_000;
+
+    /** Number of calibration rounds, the fastest round is taken. */
+    private static final int ROUNDS = 5;
+
+    /**
+     * @param cfg Configuration.
+     * @param ldr Loader.
+     */
+    public static void calibrate(BenchmarkConfiguration cfg, BenchmarkLoader ldr) {
+        int ops = operations(cfg);
+
+        if (ops <= 0)
+            return;
+
+        try {
+            Collection<BenchmarkProbe> probes = new ArrayList<>();
+
+            for (BenchmarkProbe probe : ldr.loadProbes()) {
+                if (probe instanceof BenchmarkExecutionAwareProbe)
+                    probes.add(probe);
+            }
+
+            double clockRead = Double.MAX_VALUE;
+
+            for (int i = 0; i < ROUNDS; i++)
+                clockRead = Math.min(clockRead, clockRead(ops));
+
+            cfg.clockReadCost(clockRead);
+
+            BenchmarkDriver drv = new CalibrationDriver();
+
+            drv.setUp(cfg);
+
+            double base = Double.MAX_VALUE;
+            double probed = Double.MAX_VALUE;
+
+            File folder = Files.createTempDirectory("yardstick-calibration").toFile();
+
+            BenchmarkProbeSet probeSet = new BenchmarkProbeSet(drv, cfg, probes, ldr);
+
+            try {
+                probeSet.startCalibration(folder);
+
+                Map<Object, Object> ctx = new HashMap<>();
+
+                for (int i = 0; i < ROUNDS; i++) {
+                    base = Math.min(base, run(null, drv, ctx, ops));
+                    probed = Math.min(probed, run(probeSet, drv, ctx, ops));
+                }
+            }
+            finally {
+                probeSet.stop();
+
+                delete(folder);
+            }
+
+            cfg.probeOverhead(Math.max(0, probed - base));
+
+            println(cfg, "Framework overhead is calibrated [probeOverhead=" +
+                String.format(Locale.US, "%.2f", cfg.probeOverhead()) + " nsec/op, clockRead=" +
+                String.format(Locale.US, "%.2f", cfg.clockReadCost()) + " nsec]");
+        }
+        catch (Exception e) {
+            errorHelp(cfg, "Failed to calibrate framework overhead (will continue without it).", e);
+        }
+    }
+
+    /**
+     * @param probeSet Probe set or {@code null} to run without probes.
+     * @param drv Driver.
+     * @param ctx Context.
+     * @param ops Operations.
+     * @return Average operation time in nanoseconds.
+     * @throws Exception If failed.
+     */
+    private static double run(BenchmarkProbeSet probeSet, BenchmarkDriver drv, Map<Object, Object> ctx, int ops)
+        throws Exception {
+        long start = System.nanoTime();
+
+        for (int i = 0; i < ops; i++) {
+            if (probeSet != null)
+                probeSet.onBeforeExecute(0);
+
+            drv.test(ctx);
+
+            if (probeSet != null)
+                probeSet.onAfterExecute(0);
+        }
+
+        return (double)(System.nanoTime() - start) / ops;
+    }
+
+    /**
+     * @param ops Number of clock reads.
+     * @return Average clock read time in nanoseconds.
+     */
+    private static double clockRead(int ops) {
+        long start = System.nanoTime();
+
+        long last = start;
+
+        for (int i = 0; i < ops; i++)
+            last = System.nanoTime();
+
+        return (double)(last - start) / ops;
+    }
+
+    /**
+     * @param folder Folder to delete with its files.
+     */
+    private static void delete(File folder) {
+        File[] files = folder.listFiles();
+
+        if (files != null) {
+            for (File file : files) {
+                if (file.isDirectory())
+                    delete(file);
+                else if (!file.delete())
+                    file.deleteOnExit();
+            }
+        }
+
+        if (!folder.delete())
+            folder.deleteOnExit();
+    }
+
+    /**
+     * @param cfg Config.
+     * @return Number of operations in each calibration round.
+     */
+    private static int operations(BenchmarkConfiguration cfg) {
+        try {
+            return Integer.parseInt(cfg.customProperties().get(OPERATIONS));
+        }
+        catch (NumberFormatException | NullPointerException ignored) {
+            return DEFAULT_OPERATIONS;
+        }
+    }
+
+    /**
+     * Ensure static class.
+     */
+    private BenchmarkCalibration() {
+        // No-op.
+    }
+
+    /**
+     * Driver doing nothing.
+     */
+    private static class CalibrationDriver extends BenchmarkDriverAdapter {
+        /** {@inheritDoc} */
+        @Override public boolean test(Map<Object, Object> ctx) throws Exception {
+            return true;
+        }
+    }
+}
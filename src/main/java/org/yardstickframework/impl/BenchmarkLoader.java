@@ -106,20 +106,15 @@ public class BenchmarkLoader {
 
             switch (key) {
                 case "BENCHMARK_DEFAULT_PROBES":
-                    if (cfg.defaultProbeClassNames().isEmpty()) {
-                        String[] clsArr = val.split(",");
+                    if (cfg.defaultProbeClassNames().isEmpty())
+                        cfg.defaultProbeClassNames(classNames(val));
 
-                        List<String> probes = new ArrayList<>(clsArr.length);
-
-                        for (String clsName : clsArr) {
-                            clsName = clsName.trim();
+                    break;
 
-                            if (!clsName.isEmpty())
-                                probes.add(clsName);
-                        }
+                case "BENCHMARK_DEFAULT_SERVER_PROBES":
+                    if (cfg.defaultServerProbeClassNames().isEmpty())
+                        cfg.defaultServerProbeClassNames(classNames(val));
 
-                        cfg.defaultProbeClassNames(probes);
-                    }
                     break;
 
                 case "BENCHMARK_WRITER":
@@ -142,6 +137,25 @@ public class BenchmarkLoader {
         cfg.customProperties(customProps);
     }
 
+    /**
+     * @param val Comma separated list of class names.
+     * @return Class names.
+     */
+    private static List<String> classNames(String val) {
+        String[] clsArr = val.split(",");
+
+        List<String> res = new ArrayList<>(clsArr.length);
+
+        for (String clsName : clsArr) {
+            clsName = clsName.trim();
+
+            if (!clsName.isEmpty())
+                res.add(clsName);
+        }
+
+        return res;
+    }
+
     /**
      * Loads benchmark probes.
      *
@@ -149,10 +163,29 @@ public class BenchmarkLoader {
      * @throws Exception If failed.
      */
     public Collection<BenchmarkProbe> loadProbes() throws Exception {
+        return loadProbes(cfg.defaultProbeClassNames());
+    }
+
+    /**
+     * Loads probes running in benchmark server.
+     *
+     * @return Loaded probes.
+     * @throws Exception If failed.
+     */
+    public Collection<BenchmarkProbe> loadServerProbes() throws Exception {
+        return loadProbes(cfg.defaultServerProbeClassNames());
+    }
+
+    /**
+     * @param clsNames Probe class names.
+     * @return Loaded probes.
+     * @throws Exception If failed.
+     */
+    private Collection<BenchmarkProbe> loadProbes(Collection<String> clsNames) throws Exception {
         // Init probes.
-        Collection<BenchmarkProbe> probes = new ArrayList<>(cfg.defaultProbeClassNames().size());
+        Collection<BenchmarkProbe> probes = new ArrayList<>(clsNames.size());
 
-        for (String probeClsName : cfg.defaultProbeClassNames()) {
+        for (String probeClsName : clsNames) {
             BenchmarkProbe probe = loadClass(BenchmarkProbe.class, probeClsName);
 
             if (probe != null)
@@ -14,19 +14,27 @@
 
 package org.yardstickframework.impl;
 
+import java.io.File;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.CountDownLatch;
+import org.yardstickframework.BenchmarkColumnarProbe;
+import org.yardstickframework.BenchmarkColumnarProbePointWriter;
 import org.yardstickframework.BenchmarkConfiguration;
 import org.yardstickframework.BenchmarkDriver;
 import org.yardstickframework.BenchmarkExecutionAwareProbe;
+import org.yardstickframework.BenchmarkOutputAwareProbe;
 import org.yardstickframework.BenchmarkProbe;
 import org.yardstickframework.BenchmarkProbePoint;
+import org.yardstickframework.BenchmarkProbePointBuffer;
 import org.yardstickframework.BenchmarkProbePointWriter;
 import org.yardstickframework.BenchmarkTotalsOnlyProbe;
+import org.yardstickframework.writers.BenchmarkProbePointCompositeWriter;
 import org.yardstickframework.writers.BenchmarkProbePointCsvWriter;
 
 import static org.yardstickframework.BenchmarkUtils.errorHelp;
@@ -36,7 +44,10 @@ import static org.yardstickframework.BenchmarkUtils.println;
  * Set of configured benchmark probes.
  */
 public class BenchmarkProbeSet {
-    /** Probe statistics dump frequency. */
+    /** Probe statistics dump frequency in milliseconds. */
+    public static final String DUMP_FREQUENCY = "BENCHMARK_PROBE_DUMP_FREQUENCY";
+
+    /** Default probe statistics dump frequency. */
     public static final int PROBE_DUMP_FREQ = 1_000;
 
     /** Writers. */
@@ -66,6 +77,9 @@ public class BenchmarkProbeSet {
     /** Flag indicating whether benchmark time is over or not. */
     private volatile boolean finished;
 
+    /** Points dropped because write queue was full, accessed by dump thread only. */
+    private long droppedPnts;
+
     /**
      * @param driver Benchmark driver.
      * @param cfg Configuration.
@@ -92,37 +106,53 @@ public class BenchmarkProbeSet {
      */
     @SuppressWarnings("BusyWait")
     public void start() throws Exception {
-        String writerClsName = cfg.probeWriterClassName();
+        List<String> writerClsNames = writerClassNames(cfg.probeWriterClassName());
 
-        if (writerClsName == null) {
+        if (writerClsNames.isEmpty()) {
             println(cfg, "Probe writer is not configured (using default CSV writer)");
 
-            writerClsName = BenchmarkProbePointCsvWriter.class.getName();
+            writerClsNames.add(BenchmarkProbePointCsvWriter.class.getName());
         }
 
-        boolean warn = true;
+        Set<String> failed = new HashSet<>();
 
         long writersStartTime = System.currentTimeMillis();
 
+        File outFolder = null;
+
         for (BenchmarkProbe probe : probes) {
-            BenchmarkProbePointWriter writer = ldr.loadClass(BenchmarkProbePointWriter.class, writerClsName);
+            List<BenchmarkProbePointWriter> probeWriters = new ArrayList<>(writerClsNames.size());
 
-            if (writer == null) {
-                if (warn) {
-                    println(cfg, "Failed to load writer class (will use default CSV writer): " + writerClsName);
+            for (String writerClsName : writerClsNames) {
+                BenchmarkProbePointWriter writer = ldr.loadClass(BenchmarkProbePointWriter.class, writerClsName);
 
-                    warn = false;
+                if (writer == null) {
+                    if (failed.add(writerClsName))
+                        println(cfg, "Failed to load writer class (will use default CSV writer): " + writerClsName);
+
+                    writer = new BenchmarkProbePointCsvWriter();
                 }
 
-                writer = new BenchmarkProbePointCsvWriter();
+                probeWriters.add(writer);
             }
 
+            // Points are fanned out to all writers if several writers are configured.
+            BenchmarkProbePointWriter writer = probeWriters.size() == 1 ? probeWriters.get(0) :
+                new BenchmarkProbePointCompositeWriter(probeWriters);
+
             writers.put(probe, writer);
 
             if (probe instanceof BenchmarkExecutionAwareProbe)
                 execProbes.add((BenchmarkExecutionAwareProbe)probe);
 
             writer.start(driver, cfg, writersStartTime);
+
+            if (probe instanceof BenchmarkOutputAwareProbe) {
+                if (outFolder == null)
+                    outFolder = BenchmarkProbePointCsvWriter.outputFolder(cfg, driver, writersStartTime);
+
+                ((BenchmarkOutputAwareProbe)probe).outputFolder(outFolder);
+            }
         }
 
         try {
@@ -136,6 +166,10 @@ public class BenchmarkProbeSet {
         }
 
         if (!probes.isEmpty()) {
+            final long dumpFreq = dumpFrequency(cfg);
+
+            final BenchmarkProbeWriterPipeline pipeline = BenchmarkProbeWriterPipeline.instance(cfg);
+
             fileWriterThread = new Thread("probe-dump-thread") {
                 @Override
                 public void run() {
@@ -143,7 +177,7 @@ public class BenchmarkProbeSet {
                         warmupFinished.await();
 
                         while (!Thread.currentThread().isInterrupted()) {
-                            Thread.sleep(PROBE_DUMP_FREQ);
+                            Thread.sleep(dumpFreq);
 
                             for (Map.Entry<BenchmarkProbe, BenchmarkProbePointWriter> entry : writers.entrySet()) {
                                 BenchmarkProbe probe = entry.getKey();
@@ -153,13 +187,11 @@ public class BenchmarkProbeSet {
 
                                 BenchmarkProbePointWriter writer = entry.getValue();
 
-                                Collection<BenchmarkProbePoint> points = probe.points();
+                                Collection<BenchmarkProbePoint> points = points(probe, writer);
 
-                                try {
-                                    writer.writePoints(probe, points);
-                                } catch (Exception e) {
-                                    errorHelp(cfg, "Exception is raised during point write.", e);
-                                }
+                                // Points kept in probe buffer are not lost, they are written next time.
+                                if (!pipeline.offer(cfg, probe, writer, points) && points != null)
+                                    droppedPnts += points.size();
                             }
 
                             if (finished)
@@ -170,27 +202,33 @@ public class BenchmarkProbeSet {
                         // No-op.
                     }
                     finally {
-                        for (Map.Entry<BenchmarkProbe, BenchmarkProbePointWriter> entry : writers.entrySet()) {
-                            BenchmarkProbe probe = entry.getKey();
+                        // Clear interrupted status, so that the last points can be queued and awaited.
+                        Thread.interrupted();
 
-                            if (probe instanceof BenchmarkTotalsOnlyProbe) {
-                                BenchmarkProbePointWriter writer = entry.getValue();
+                        try {
+                            for (Map.Entry<BenchmarkProbe, BenchmarkProbePointWriter> entry : writers.entrySet()) {
+                                BenchmarkProbe probe = entry.getKey();
 
-                                try {
-                                    writer.writePoints(probe, probe.points());
-                                } catch (Exception e) {
-                                    errorHelp(cfg, "Exception is raised during point write.", e);
-                                }
-                            }
+                                if (probe instanceof BenchmarkTotalsOnlyProbe)
+                                    pipeline.put(cfg, probe, entry.getValue(), probe.points());
 
-                            try {
-                                entry.getValue().close();
-                            } catch (Exception e) {
-                                errorHelp(cfg, "Failed to gracefully close probe writer " +
-                                    "[probe=" + entry.getKey() + ", writer=" + entry.getValue() +
-                                    ", err=" + e.getMessage() + ']', e);
+                                pipeline.close(cfg, probe, entry.getValue());
                             }
+
+                            pipeline.await();
                         }
+                        catch (InterruptedException e) {
+                            errorHelp(cfg, "Interrupted while waiting for probe points to be written.", e);
+                        }
+
+                        for (BenchmarkProbe probe : writers.keySet()) {
+                            if (probe instanceof BenchmarkColumnarProbe)
+                                reportDropped((BenchmarkColumnarProbe)probe);
+                        }
+
+                        if (droppedPnts > 0)
+                            errorHelp(cfg, "Probe points were dropped because probe write queue was full, " +
+                                "results folder may be too slow [dropped=" + droppedPnts + ']');
                     }
                 }
             };
@@ -199,6 +237,33 @@ public class BenchmarkProbeSet {
         }
     }
 
+    /**
+     * Starts probes without writers and probe points dumping, so the set can only be used to measure
+     * the overhead of execution aware probes.
+     *
+     * @param outFolder Folder for files saved by probes.
+     * @throws Exception If start failed.
+     */
+    void startCalibration(File outFolder) throws Exception {
+        for (BenchmarkProbe probe : probes) {
+            if (probe instanceof BenchmarkExecutionAwareProbe)
+                execProbes.add((BenchmarkExecutionAwareProbe)probe);
+
+            if (probe instanceof BenchmarkOutputAwareProbe)
+                ((BenchmarkOutputAwareProbe)probe).outputFolder(outFolder);
+        }
+
+        try {
+            for (BenchmarkProbe probe : probes)
+                probe.start(driver, cfg);
+        }
+        catch (Exception e) {
+            stopProbes();
+
+            throw e;
+        }
+    }
+
     /**
      * Before benchmark test iteration execute callback.
      *
@@ -240,12 +305,43 @@ public class BenchmarkProbeSet {
         for (Map.Entry<BenchmarkProbe, BenchmarkProbePointWriter> entry : writers.entrySet()) {
             BenchmarkProbe probe = entry.getKey();
 
-            probe.points();
+            // Dump thread does not read points until warmup is finished, so warmup points can be discarded here.
+            if (probe instanceof BenchmarkColumnarProbe)
+                ((BenchmarkColumnarProbe)probe).buffer().clear();
+            else
+                probe.points();
         }
 
         warmupFinished.countDown();
     }
 
+    /**
+     * Collects points to write. Points of columnar probes are read by columnar writers
+     * directly from the buffer, other writers get them converted to objects.
+     *
+     * @param probe Probe.
+     * @param writer Writer.
+     * @return Points or {@code null} if writer reads them from probe buffer.
+     */
+    private static Collection<BenchmarkProbePoint> points(BenchmarkProbe probe, BenchmarkProbePointWriter writer) {
+        if (probe instanceof BenchmarkColumnarProbe && writer instanceof BenchmarkColumnarProbePointWriter)
+            return null;
+
+        return probe.points();
+    }
+
+    /**
+     * @param probe Columnar probe.
+     */
+    private void reportDropped(BenchmarkColumnarProbe probe) {
+        BenchmarkProbePointBuffer buf = probe.buffer();
+
+        if (buf != null && buf.dropped() > 0)
+            errorHelp(cfg, "Probe points were dropped because probe buffer was full, increase " +
+                BenchmarkProbePointBuffer.CAPACITY + " property [probe=" + probe.getClass().getSimpleName() +
+                ", dropped=" + buf.dropped() + ", capacity=" + buf.capacity() + ']');
+    }
+
     /**
      * Benchmark time is over callback.
      */
@@ -270,7 +366,7 @@ public class BenchmarkProbeSet {
      *
      */
     private void stopProbes() {
-        for (BenchmarkProbe probe : writers.keySet()) {
+        for (BenchmarkProbe probe : probes) {
             try {
                 probe.stop();
             }
@@ -279,4 +375,39 @@ public class BenchmarkProbeSet {
             }
         }
     }
+
+    /**
+     * @param val Comma separated list of writer class names or {@code null}.
+     * @return Writer class names.
+     */
+    private static List<String> writerClassNames(String val) {
+        List<String> res = new ArrayList<>();
+
+        if (val == null)
+            return res;
+
+        for (String clsName : val.split(",")) {
+            clsName = clsName.trim();
+
+            if (!clsName.isEmpty())
+                res.add(clsName);
+        }
+
+        return res;
+    }
+
+    /**
+     * @param cfg Config.
+     * @return Probe statistics dump frequency in milliseconds.
+     */
+    private static long dumpFrequency(BenchmarkConfiguration cfg) {
+        try {
+            long res = Long.parseLong(cfg.customProperties().get(DUMP_FREQUENCY));
+
+            return res > 0 ? res : PROBE_DUMP_FREQ;
+        }
+        catch (NumberFormatException | NullPointerException ignored) {
+            return PROBE_DUMP_FREQ;
+        }
+    }
 }
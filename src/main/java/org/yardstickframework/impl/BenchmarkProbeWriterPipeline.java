@@ -0,0 +1,431 @@
+/*
+ Licensed under the Apache License, Version 2.0 (the "License");
+ you may not use this file except in compliance with the License.
+ You may obtain a copy of the License at
+
+     http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing, software
+ distributed under the License is distributed on an "AS IS" BASIS,
+ WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ See the License for the specific language governing permissions and
+ limitations under the License.
+ */
+
+package org.yardstickframework.impl;
+
+import java.io.Flushable;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import org.yardstickframework.BenchmarkColumnarProbe;
+import org.yardstickframework.BenchmarkColumnarProbePointWriter;
+import org.yardstickframework.BenchmarkConfiguration;
+import org.yardstickframework.BenchmarkProbe;
+import org.yardstickframework.BenchmarkProbePoint;
+import org.yardstickframework.BenchmarkProbePointWriter;
+
+import static org.yardstickframework.BenchmarkUtils.errorHelp;
+
+/**
+ * Writes probe points on a single I/O thread shared by all probe sets of the JVM, so a slow disk
+ * never delays probe sampling and benchmark threads.
+ * <p>
+ * Writes are put to a bounded queue ({@code BENCHMARK_PROBE_WRITE_QUEUE_CAPACITY} writes, 1024 by default).
+ * Periodic writes which do not fit to the queue are rejected, so the caller can drop and count them.
+ * The I/O thread drains all queued writes at once and then flushes writers implementing {@link Flushable}
+ * once per batch.
+ * <p>
+ * The I/O thread is a daemon thread living until {@link #stop()} is called, embedding applications and tests
+ * may call it to release the thread once all probe sets are stopped.
+ */
+public class BenchmarkProbeWriterPipeline {
+    /** */
+    public static final String QUEUE_CAPACITY = "BENCHMARK_PROBE_WRITE_QUEUE_CAPACITY";
+
+    /** */
+    public static final int DEFAULT_QUEUE_CAPACITY = 1024;
+
+    /** */
+    private static BenchmarkProbeWriterPipeline instance;
+
+    /** */
+    private final BlockingQueue<Task> queue;
+
+    /** */
+    private final Thread ioThread;
+
+    /** Tasks are queued under read lock and stop task under write lock, so no task is queued after stop task. */
+    private final ReadWriteLock stopLock = new ReentrantReadWriteLock();
+
+    /** Guarded by {@link #stopLock}. */
+    private boolean stopped;
+
+    /**
+     * @param cap Queue capacity.
+     */
+    BenchmarkProbeWriterPipeline(int cap) {
+        queue = new ArrayBlockingQueue<>(cap);
+
+        ioThread = new Thread("probe-io-thread") {
+            @Override public void run() {
+                process();
+            }
+        };
+
+        ioThread.setDaemon(true);
+
+        ioThread.start();
+    }
+
+    /**
+     * @param cfg Configuration, queue capacity is taken from the configuration of the first caller.
+     * @return Pipeline shared by all probe sets.
+     */
+    public static synchronized BenchmarkProbeWriterPipeline instance(BenchmarkConfiguration cfg) {
+        if (instance == null)
+            instance = new BenchmarkProbeWriterPipeline(queueCapacity(cfg));
+
+        return instance;
+    }
+
+    /**
+     * Stops the shared pipeline once writes queued before this call are done. Next call to
+     * {@link #instance(BenchmarkConfiguration)} starts a new pipeline.
+     *
+     * @throws InterruptedException If interrupted.
+     */
+    public static synchronized void stop() throws InterruptedException {
+        if (instance != null) {
+            instance.shutdown();
+
+            instance = null;
+        }
+    }
+
+    /**
+     * Stops I/O thread once writes queued before this call are done, tasks queued after it are rejected.
+     *
+     * @throws InterruptedException If interrupted.
+     */
+    void shutdown() throws InterruptedException {
+        stopLock.writeLock().lock();
+
+        try {
+            if (stopped)
+                return;
+
+            stopped = true;
+
+            queue.put(new StopTask());
+        }
+        finally {
+            stopLock.writeLock().unlock();
+        }
+
+        ioThread.join();
+    }
+
+    /**
+     * Queues points write if there is space in the queue.
+     *
+     * @param cfg Configuration.
+     * @param probe Probe.
+     * @param writer Writer.
+     * @param points Points or {@code null} if columnar writer should read them from probe buffer.
+     * @return {@code False} if queue is full or pipeline is stopped and points are not queued.
+     */
+    public boolean offer(BenchmarkConfiguration cfg, BenchmarkProbe probe, BenchmarkProbePointWriter writer,
+        Collection<BenchmarkProbePoint> points) {
+        stopLock.readLock().lock();
+
+        try {
+            return !stopped && queue.offer(new WriteTask(cfg, probe, writer, points));
+        }
+        finally {
+            stopLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Queues points write waiting for space in the queue if needed.
+     *
+     * @param cfg Configuration.
+     * @param probe Probe.
+     * @param writer Writer.
+     * @param points Points or {@code null} if columnar writer should read them from probe buffer.
+     * @throws InterruptedException If interrupted.
+     */
+    public void put(BenchmarkConfiguration cfg, BenchmarkProbe probe, BenchmarkProbePointWriter writer,
+        Collection<BenchmarkProbePoint> points) throws InterruptedException {
+        enqueue(new WriteTask(cfg, probe, writer, points));
+    }
+
+    /**
+     * Queues writer close waiting for space in the queue if needed.
+     *
+     * @param cfg Configuration.
+     * @param probe Probe.
+     * @param writer Writer.
+     * @throws InterruptedException If interrupted.
+     */
+    public void close(BenchmarkConfiguration cfg, BenchmarkProbe probe, BenchmarkProbePointWriter writer)
+        throws InterruptedException {
+        enqueue(new CloseTask(cfg, probe, writer));
+    }
+
+    /**
+     * Waits until all writes queued before this call are done.
+     *
+     * @throws InterruptedException If interrupted.
+     */
+    public void await() throws InterruptedException {
+        BarrierTask task = new BarrierTask();
+
+        enqueue(task);
+
+        task.latch.await();
+    }
+
+    /**
+     * Queues task waiting for space in the queue if needed, I/O thread keeps draining the queue until
+     * stop task is queued, so waiting never blocks shutdown for long.
+     *
+     * @param task Task.
+     * @throws InterruptedException If interrupted.
+     * @throws IllegalStateException If pipeline is stopped.
+     */
+    private void enqueue(Task task) throws InterruptedException {
+        stopLock.readLock().lock();
+
+        try {
+            if (stopped)
+                throw new IllegalStateException("Probe writer pipeline is stopped.");
+
+            queue.put(task);
+        }
+        finally {
+            stopLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Processes queued tasks.
+     */
+    private void process() {
+        Map<Flushable, BenchmarkConfiguration> dirty = new IdentityHashMap<>();
+
+        while (true) {
+            Task task;
+
+            try {
+                task = queue.take();
+            }
+            catch (InterruptedException ignored) {
+                return;
+            }
+
+            boolean stop = false;
+
+            do {
+                if (task instanceof StopTask) {
+                    stop = true;
+
+                    break;
+                }
+
+                try {
+                    task.run();
+                }
+                catch (Exception e) {
+                    errorHelp(task.cfg, task.error(e), e);
+                }
+
+                if (task.writer instanceof Flushable) {
+                    if (task instanceof CloseTask)
+                        dirty.remove(task.writer);
+                    else
+                        dirty.put((Flushable)task.writer, task.cfg);
+                }
+            }
+            while ((task = queue.poll()) != null);
+
+            for (Map.Entry<Flushable, BenchmarkConfiguration> e : dirty.entrySet()) {
+                try {
+                    e.getKey().flush();
+                }
+                catch (Exception ex) {
+                    errorHelp(e.getValue(), "Failed to flush probe writer [writer=" + e.getKey() + ']', ex);
+                }
+            }
+
+            dirty.clear();
+
+            if (stop)
+                return;
+        }
+    }
+
+    /**
+     * @param cfg Config.
+     * @return Queue capacity.
+     */
+    private static int queueCapacity(BenchmarkConfiguration cfg) {
+        try {
+            int res = Integer.parseInt(cfg.customProperties().get(QUEUE_CAPACITY));
+
+            return res > 0 ? res : DEFAULT_QUEUE_CAPACITY;
+        }
+        catch (NumberFormatException | NullPointerException ignored) {
+            return DEFAULT_QUEUE_CAPACITY;
+        }
+    }
+
+    /**
+     * Task executed by I/O thread.
+     */
+    private abstract static class Task {
+        /** */
+        protected final BenchmarkConfiguration cfg;
+
+        /** */
+        protected final BenchmarkProbe probe;
+
+        /** */
+        protected final BenchmarkProbePointWriter writer;
+
+        /**
+         * @param cfg Configuration.
+         * @param probe Probe.
+         * @param writer Writer.
+         */
+        Task(BenchmarkConfiguration cfg, BenchmarkProbe probe, BenchmarkProbePointWriter writer) {
+            this.cfg = cfg;
+            this.probe = probe;
+            this.writer = writer;
+        }
+
+        /**
+         * @throws Exception If failed.
+         */
+        abstract void run() throws Exception;
+
+        /**
+         * @param e Exception.
+         * @return Error message.
+         */
+        abstract String error(Exception e);
+    }
+
+    /**
+     * Writes points.
+     */
+    private static class WriteTask extends Task {
+        /** Points or {@code null} if they are read from probe buffer. */
+        private final Collection<BenchmarkProbePoint> points;
+
+        /**
+         * @param cfg Configuration.
+         * @param probe Probe.
+         * @param writer Writer.
+         * @param points Points.
+         */
+        WriteTask(BenchmarkConfiguration cfg, BenchmarkProbe probe, BenchmarkProbePointWriter writer,
+            Collection<BenchmarkProbePoint> points) {
+            super(cfg, probe, writer);
+
+            this.points = points;
+        }
+
+        /** {@inheritDoc} */
+        @Override void run() throws Exception {
+            if (points == null)
+                ((BenchmarkColumnarProbePointWriter)writer).writePoints(probe,
+                    ((BenchmarkColumnarProbe)probe).buffer());
+            else
+                writer.writePoints(probe, points);
+        }
+
+        /** {@inheritDoc} */
+        @Override String error(Exception e) {
+            return "Exception is raised during point write.";
+        }
+    }
+
+    /**
+     * Closes writer.
+     */
+    private static class CloseTask extends Task {
+        /**
+         * @param cfg Configuration.
+         * @param probe Probe.
+         * @param writer Writer.
+         */
+        CloseTask(BenchmarkConfiguration cfg, BenchmarkProbe probe, BenchmarkProbePointWriter writer) {
+            super(cfg, probe, writer);
+        }
+
+        /** {@inheritDoc} */
+        @Override void run() throws Exception {
+            writer.close();
+        }
+
+        /** {@inheritDoc} */
+        @Override String error(Exception e) {
+            return "Failed to gracefully close probe writer [probe=" + probe + ", writer=" + writer +
+                ", err=" + e.getMessage() + ']';
+        }
+    }
+
+    /**
+     * Notifies waiting thread that all previous tasks are done.
+     */
+    private static class BarrierTask extends Task {
+        /** */
+        private final CountDownLatch latch = new CountDownLatch(1);
+
+        /**
+         *
+         */
+        BarrierTask() {
+            super(null, null, null);
+        }
+
+        /** {@inheritDoc} */
+        @Override void run() {
+            latch.countDown();
+        }
+
+        /** {@inheritDoc} */
+        @Override String error(Exception e) {
+            return "";
+        }
+    }
+
+    /**
+     * Stops I/O thread.
+     */
+    private static class StopTask extends Task {
+        /**
+         *
+         */
+        StopTask() {
+            super(null, null, null);
+        }
+
+        /** {@inheritDoc} */
+        @Override void run() {
+            // No-op.
+        }
+
+        /** {@inheritDoc} */
+        @Override String error(Exception e) {
+            return "";
+        }
+    }
+}
@@ -27,6 +27,7 @@ import org.yardstickframework.BenchmarkConfiguration;
 import org.yardstickframework.BenchmarkDriver;
 import org.yardstickframework.BenchmarkUtils;
 
+import static org.yardstickframework.BenchmarkUtils.WORKER_THREAD_NAME_PREFIX;
 import static org.yardstickframework.BenchmarkUtils.errorHelp;
 
 /**
@@ -227,7 +228,7 @@ public class BenchmarkRunner {
                         cancel(e);
                     }
                 }
-            }, "benchmark-worker-" + i));
+            }, WORKER_THREAD_NAME_PREFIX + i));
         }
 
         for (Thread t : threads)
@@ -340,7 +341,7 @@ public class BenchmarkRunner {
      * @param cfg Config.
      * @return Interval.
      */
-    private static long interval(BenchmarkConfiguration cfg) {
+    static long interval(BenchmarkConfiguration cfg) {
         try {
             return Long.parseLong(cfg.customProperties().get(INTERVAL));
         }
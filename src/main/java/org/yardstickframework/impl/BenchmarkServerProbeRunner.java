@@ -0,0 +1,152 @@
+/*
+ Licensed under the Apache License, Version 2.0 (the "License");
+ you may not use this file except in compliance with the License.
+ You may obtain a copy of the License at
+
+     http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing, software
+ distributed under the License is distributed on an "AS IS" BASIS,
+ WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ See the License for the specific language governing permissions and
+ limitations under the License.
+ */
+
+package org.yardstickframework.impl;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.yardstickframework.BenchmarkConfiguration;
+import org.yardstickframework.BenchmarkDriverAdapter;
+import org.yardstickframework.BenchmarkProbe;
+import org.yardstickframework.BenchmarkServer;
+
+import static org.yardstickframework.BenchmarkUtils.errorHelp;
+import static org.yardstickframework.BenchmarkUtils.println;
+
+/**
+ * Runs probes inside benchmark server for the whole server lifetime.
+ * <p>
+ * Probe points are built and written the same way as in benchmark driver, results are saved
+ * to the folder starting with {@code server-} prefix in the output folder.
+ */
+public class BenchmarkServerProbeRunner {
+    /** */
+    private final BenchmarkConfiguration cfg;
+
+    /** */
+    private final BenchmarkProbeSet probeSet;
+
+    /** */
+    private Thread buildingThread;
+
+    /** */
+    private final AtomicBoolean stopped = new AtomicBoolean();
+
+    /**
+     * @param srv Benchmark server.
+     * @param cfg Configuration.
+     * @param probes Probes.
+     * @param ldr Loader.
+     * @throws Exception If failed.
+     */
+    public BenchmarkServerProbeRunner(BenchmarkServer srv, BenchmarkConfiguration cfg,
+        Collection<BenchmarkProbe> probes, BenchmarkLoader ldr) throws Exception {
+        this.cfg = cfg;
+
+        ServerDriver drv = new ServerDriver(srv);
+
+        drv.setUp(cfg);
+
+        probeSet = new BenchmarkProbeSet(drv, cfg, probes, ldr);
+    }
+
+    /**
+     * @throws Exception If failed.
+     */
+    public void start() throws Exception {
+        probeSet.start();
+
+        final long interval = BenchmarkRunner.interval(cfg);
+
+        buildingThread = new Thread("server-probe-building-thread") {
+            @SuppressWarnings("BusyWait")
+            @Override public void run() {
+                try {
+                    while (!Thread.currentThread().isInterrupted()) {
+                        probeSet.buildPoint(System.currentTimeMillis());
+
+                        Thread.sleep(interval);
+                    }
+                }
+                catch (InterruptedException ignore) {
+                    // No-op.
+                }
+            }
+        };
+
+        buildingThread.setDaemon(true);
+
+        buildingThread.start();
+
+        // There is no warmup in server, points are written from the very start.
+        probeSet.onWarmupFinished();
+
+        println(cfg, "Server probes are started.");
+    }
+
+    /**
+     * Stops probes and closes probe point writers, subsequent calls are ignored.
+     */
+    public void stop() {
+        if (!stopped.compareAndSet(false, true))
+            return;
+
+        try {
+            if (buildingThread != null) {
+                buildingThread.interrupt();
+
+                buildingThread.join();
+            }
+
+            probeSet.onFinished();
+
+            probeSet.stop();
+
+            println(cfg, "Server probes are stopped.");
+        }
+        catch (Exception e) {
+            errorHelp(cfg, "Failed to gracefully stop server probes.", e);
+        }
+    }
+
+    /**
+     * Describes benchmark server to probes and probe point writers.
+     */
+    private static class ServerDriver extends BenchmarkDriverAdapter {
+        /** */
+        private final BenchmarkServer srv;
+
+        /**
+         * @param srv Benchmark server.
+         */
+        ServerDriver(BenchmarkServer srv) {
+            this.srv = srv;
+        }
+
+        /** {@inheritDoc} */
+        @Override public boolean test(Map<Object, Object> ctx) throws Exception {
+            // Server probes do not execute benchmark operations.
+            return false;
+        }
+
+        /** {@inheritDoc} */
+        @Override public String description() {
+            String host = cfg.remoteHostName() == null || cfg.remoteHostName().isEmpty() ? "" :
+                '-' + cfg.remoteHostName();
+
+            return srv.getClass().getSimpleName() + "-id" + cfg.memberId() + host;
+        }
+    }
+}
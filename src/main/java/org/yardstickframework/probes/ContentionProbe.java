@@ -0,0 +1,321 @@
+/*
+ Licensed under the Apache License, Version 2.0 (the "License");
+ you may not use this file except in compliance with the License.
+ You may obtain a copy of the License at
+
+     http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing, software
+ distributed under the License is distributed on an "AS IS" BASIS,
+ WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ See the License for the specific language governing permissions and
+ limitations under the License.
+ */
+
+package org.yardstickframework.probes;
+
+import java.io.File;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadInfo;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.yardstickframework.BenchmarkConfiguration;
+import org.yardstickframework.BenchmarkDriver;
+import org.yardstickframework.BenchmarkOutputAwareProbe;
+import org.yardstickframework.BenchmarkProbePoint;
+import org.yardstickframework.writers.BenchmarkResultTableWriter;
+
+import static java.util.concurrent.TimeUnit.MINUTES;
+
+import static org.yardstickframework.BenchmarkUtils.errorHelp;
+import static org.yardstickframework.BenchmarkUtils.println;
+import static org.yardstickframework.BenchmarkUtils.workerThreadIds;
+
+/**
+ * Probe that reports how many times and how long benchmark threads were blocked on monitors
+ * and waited (including parking on locks), summed over all benchmark threads.
+ * <p>
+ * Additionally, the lock which every blocked or waiting benchmark thread waits for, and its owner,
+ * are recorded each time a point is built. The most contended locks are saved to
+ * {@code ContentionProbe-locks.tsv} table in the results folder. Warmup is not taken into account.
+ */
+public class ContentionProbe implements BenchmarkOutputAwareProbe {
+    /** */
+    public static final String TOP_LOCKS = "BENCHMARK_PROBE_CONTENTION_TOP_LOCKS";
+
+    /** */
+    public static final int DEFAULT_TOP_LOCKS = 10;
+
+    /** */
+    private BenchmarkConfiguration cfg;
+
+    /** Results folder. */
+    private File outFolder;
+
+    /** Collected points. */
+    private Collection<BenchmarkProbePoint> collected = new ArrayList<>();
+
+    /** Service building probe points. */
+    private ExecutorService buildingService;
+
+    /** */
+    private ThreadMXBean threadBean;
+
+    /** Whether blocked and waited times are measured. */
+    private boolean timeMonitoring;
+
+    /** IDs of benchmark threads, accessed by building service only. */
+    private long[] ids = new long[0];
+
+    /** Counters of benchmark threads at the time of the last point, accessed by building service only. */
+    private final Map<Long, long[]> threadCnts = new HashMap<>();
+
+    /** Contended locks, guarded by {@code this}. */
+    private Map<String, LockStat> locks = new HashMap<>();
+
+    /** Whether warmup statistics are discarded already. */
+    private boolean warmupDiscarded;
+
+    /** {@inheritDoc} */
+    @Override public void outputFolder(File folder) {
+        outFolder = folder;
+    }
+
+    /** {@inheritDoc} */
+    @Override public void start(BenchmarkDriver drv, BenchmarkConfiguration cfg) throws Exception {
+        this.cfg = cfg;
+
+        threadBean = ManagementFactory.getThreadMXBean();
+
+        if (threadBean.isThreadContentionMonitoringSupported()) {
+            if (!threadBean.isThreadContentionMonitoringEnabled())
+                threadBean.setThreadContentionMonitoringEnabled(true);
+
+            timeMonitoring = true;
+        }
+        else
+            errorHelp(cfg, "Thread contention monitoring is not supported by JVM, " + getClass().getSimpleName() +
+                " will not measure blocked and waited time.");
+
+        // Initial values of already started threads, so the first point contains delta only.
+        ids = workerThreadIds(threadBean);
+
+        for (ThreadInfo info : threadBean.getThreadInfo(ids, 0)) {
+            if (info != null)
+                threadCnts.put(info.getThreadId(), counts(info));
+        }
+
+        buildingService = Executors.newSingleThreadExecutor();
+
+        println(cfg, getClass().getSimpleName() + " is started.");
+    }
+
+    /** {@inheritDoc} */
+    @Override public void stop() throws Exception {
+        if (buildingService != null) {
+            buildingService.shutdownNow();
+
+            buildingService.awaitTermination(1, MINUTES);
+
+            saveLocks();
+
+            println(cfg, getClass().getSimpleName() + " is stopped.");
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override public Collection<String> metaInfo() {
+        return Arrays.asList("Time, ms", "Blocked, count", "Blocked Time, ms", "Waited, count", "Waited Time, ms");
+    }
+
+    /** {@inheritDoc} */
+    @Override public synchronized Collection<BenchmarkProbePoint> points() {
+        // Points are requested for the first time when warmup is finished.
+        if (!warmupDiscarded) {
+            locks.clear();
+
+            warmupDiscarded = true;
+        }
+
+        Collection<BenchmarkProbePoint> ret = collected;
+
+        collected = new ArrayList<>(ret.size() + 5);
+
+        return ret;
+    }
+
+    /** {@inheritDoc} */
+    @Override public void buildPoint(final long time) {
+        buildingService.execute(new Runnable() {
+            @Override public void run() {
+                if (ids.length < cfg.threads())
+                    ids = workerThreadIds(threadBean);
+
+                ThreadInfo[] infos = threadBean.getThreadInfo(ids, 0);
+
+                // Blocked count, blocked time, waited count, waited time.
+                long[] sum = new long[4];
+
+                for (ThreadInfo info : infos) {
+                    // Thread is not alive anymore.
+                    if (info == null)
+                        continue;
+
+                    long[] cur = counts(info);
+
+                    long[] prev = threadCnts.get(info.getThreadId());
+
+                    // Lifetime counts of a thread seen for the first time are not attributed to this interval.
+                    if (prev != null) {
+                        for (int i = 0; i < sum.length; i++)
+                            sum[i] += cur[i] - prev[i];
+                    }
+
+                    threadCnts.put(info.getThreadId(), cur);
+
+                    recordLock(info);
+                }
+
+                BenchmarkProbePoint pnt = new BenchmarkProbePoint(
+                    time,
+                    new double[] {
+                        sum[0], timeMonitoring ? sum[1] : Double.NaN,
+                        sum[2], timeMonitoring ? sum[3] : Double.NaN});
+
+                collectPoint(pnt);
+            }
+        });
+    }
+
+    /**
+     * @param info Thread info.
+     * @return Blocked count, blocked time, waited count and waited time of the thread.
+     */
+    private static long[] counts(ThreadInfo info) {
+        return new long[] {info.getBlockedCount(), info.getBlockedTime(), info.getWaitedCount(), info.getWaitedTime()};
+    }
+
+    /**
+     * @param pnt Probe point.
+     */
+    private synchronized void collectPoint(BenchmarkProbePoint pnt) {
+        collected.add(pnt);
+    }
+
+    /**
+     * Records the lock the thread is blocked on or waits for, if any.
+     *
+     * @param info Thread info.
+     */
+    private synchronized void recordLock(ThreadInfo info) {
+        if (info.getLockName() == null)
+            return;
+
+        boolean blocked = info.getThreadState() == Thread.State.BLOCKED;
+
+        // Waiting on a condition without owner is not a contention.
+        if (!blocked && info.getLockOwnerName() == null)
+            return;
+
+        String owner = info.getLockOwnerName() == null ? "" : info.getLockOwnerName();
+
+        String key = info.getLockName() + '\t' + owner;
+
+        LockStat stat = locks.get(key);
+
+        if (stat == null) {
+            stat = new LockStat(info.getLockName(), owner);
+
+            locks.put(key, stat);
+        }
+
+        if (blocked)
+            stat.blocked++;
+        else
+            stat.waited++;
+    }
+
+    /**
+     * Saves the most contended locks to results folder.
+     */
+    private synchronized void saveLocks() {
+        List<LockStat> stats = new ArrayList<>(locks.values());
+
+        Collections.sort(stats, new Comparator<LockStat>() {
+            @Override public int compare(LockStat s1, LockStat s2) {
+                int res = Long.compare(s2.blocked + s2.waited, s1.blocked + s1.waited);
+
+                return res != 0 ? res : (s1.lock + s1.owner).compareTo(s2.lock + s2.owner);
+            }
+        });
+
+        int top = topLocks(cfg);
+
+        List<List<String>> rows = new ArrayList<>();
+
+        for (LockStat stat : stats.subList(0, Math.min(top, stats.size()))) {
+            rows.add(Arrays.asList(stat.lock, stat.owner, Long.toString(stat.blocked), Long.toString(stat.waited)));
+
+            println(cfg, "Contended lock [lock=" + stat.lock + ", owner=" + stat.owner +
+                ", blockedSamples=" + stat.blocked + ", waitingSamples=" + stat.waited + ']');
+        }
+
+        try {
+            BenchmarkResultTableWriter.write(outFolder, getClass().getSimpleName() + "-locks",
+                Arrays.asList("Lock", "Owner", "Blocked Samples", "Waiting Samples"), rows);
+        }
+        catch (Exception e) {
+            errorHelp(cfg, "Failed to save contended locks.", e);
+        }
+    }
+
+    /**
+     * @param cfg Config.
+     * @return Number of the most contended locks to save.
+     */
+    private static int topLocks(BenchmarkConfiguration cfg) {
+        try {
+            int res = Integer.parseInt(cfg.customProperties().get(TOP_LOCKS));
+
+            return res > 0 ? res : DEFAULT_TOP_LOCKS;
+        }
+        catch (NumberFormatException | NullPointerException ignored) {
+            return DEFAULT_TOP_LOCKS;
+        }
+    }
+
+    /**
+     * Number of times benchmark threads were found waiting for the lock owned by the thread.
+     */
+    private static class LockStat {
+        /** */
+        private final String lock;
+
+        /** */
+        private final String owner;
+
+        /** */
+        private long blocked;
+
+        /** */
+        private long waited;
+
+        /**
+         * @param lock Lock name.
+         * @param owner Owner thread name.
+         */
+        LockStat(String lock, String owner) {
+            this.lock = lock;
+            this.owner = owner;
+        }
+    }
+}
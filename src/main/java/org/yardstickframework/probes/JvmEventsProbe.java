@@ -0,0 +1,382 @@
+/*
+ Licensed under the Apache License, Version 2.0 (the "License");
+ you may not use this file except in compliance with the License.
+ You may obtain a copy of the License at
+
+     http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing, software
+ distributed under the License is distributed on an "AS IS" BASIS,
+ WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ See the License for the specific language governing permissions and
+ limitations under the License.
+ */
+
+package org.yardstickframework.probes;
+
+import com.sun.management.GarbageCollectionNotificationInfo;
+import java.io.File;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.OperatingSystemMXBean;
+import java.lang.management.ThreadInfo;
+import java.lang.management.ThreadMXBean;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import javax.management.MBeanServer;
+import javax.management.Notification;
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
+import javax.management.ObjectName;
+import javax.management.openmbean.CompositeData;
+import org.yardstickframework.BenchmarkColumnarProbe;
+import org.yardstickframework.BenchmarkConfiguration;
+import org.yardstickframework.BenchmarkDriver;
+import org.yardstickframework.BenchmarkOutputAwareProbe;
+import org.yardstickframework.BenchmarkProbePoint;
+import org.yardstickframework.BenchmarkProbePointBuffer;
+
+import static java.util.concurrent.TimeUnit.MINUTES;
+
+import static org.yardstickframework.BenchmarkUtils.errorHelp;
+import static org.yardstickframework.BenchmarkUtils.println;
+
+/**
+ * Probe that folds JVM events (garbage collection pauses, monitor contention, thread waits and parks)
+ * and CPU load into probe points, and keeps a Java Flight Recorder recording of the whole benchmark
+ * in the results folder.
+ * <p>
+ * The recording is controlled through the diagnostic command MBean, so it works on any JVM
+ * which supports {@code JFR.start} diagnostic command. If the recording can not be started
+ * the probe still produces the points.
+ */
+public class JvmEventsProbe implements BenchmarkOutputAwareProbe, BenchmarkColumnarProbe {
+    /** */
+    public static final String JFR_ENABLED = "BENCHMARK_PROBE_JVM_EVENTS_JFR";
+
+    /** */
+    public static final String JFR_SETTINGS = "BENCHMARK_PROBE_JVM_EVENTS_JFR_SETTINGS";
+
+    /** */
+    public static final boolean DEFAULT_JFR_ENABLED = true;
+
+    /** */
+    public static final String DEFAULT_JFR_SETTINGS = "default";
+
+    /** */
+    private static final String DIAGNOSTIC_CMD_MBEAN = "com.sun.management:type=DiagnosticCommand";
+
+    /** */
+    private BenchmarkConfiguration cfg;
+
+    /** Results folder. */
+    private File outFolder;
+
+    /** Collected points, written by building service only. */
+    private BenchmarkProbePointBuffer buf;
+
+    /** Service building probe points. */
+    private ExecutorService buildingService;
+
+    /** */
+    private ThreadMXBean threadBean;
+
+    /** */
+    private OperatingSystemMXBean osBean;
+
+    /** Garbage collection notification listener. */
+    private final GcListener gcLsnr = new GcListener();
+
+    /** Blocked and waited counts of live threads at the time of the last point. */
+    private final Map<Long, long[]> threadCnts = new HashMap<>();
+
+    /** Flight recording name, {@code null} if recording is not started. */
+    private String recName;
+
+    /** {@inheritDoc} */
+    @Override public void outputFolder(File folder) {
+        outFolder = folder;
+    }
+
+    /** {@inheritDoc} */
+    @Override public void start(BenchmarkDriver drv, BenchmarkConfiguration cfg) throws Exception {
+        this.cfg = cfg;
+
+        threadBean = ManagementFactory.getThreadMXBean();
+        osBean = ManagementFactory.getOperatingSystemMXBean();
+
+        for (GarbageCollectorMXBean gcBean : ManagementFactory.getGarbageCollectorMXBeans()) {
+            if (gcBean instanceof NotificationEmitter)
+                ((NotificationEmitter)gcBean).addNotificationListener(gcLsnr, null, null);
+        }
+
+        if (jfrEnabled(cfg))
+            startRecording(drv, cfg);
+
+        // Initial values, so the first point contains delta only.
+        threadCounts();
+
+        buf = BenchmarkProbePointBuffer.create(7, cfg);
+
+        buildingService = Executors.newSingleThreadExecutor();
+
+        println(cfg, getClass().getSimpleName() + " is started.");
+    }
+
+    /** {@inheritDoc} */
+    @Override public void stop() throws Exception {
+        for (GarbageCollectorMXBean gcBean : ManagementFactory.getGarbageCollectorMXBeans()) {
+            if (gcBean instanceof NotificationEmitter) {
+                try {
+                    ((NotificationEmitter)gcBean).removeNotificationListener(gcLsnr);
+                }
+                catch (Exception ignored) {
+                    // No-op.
+                }
+            }
+        }
+
+        if (buildingService != null) {
+            buildingService.shutdownNow();
+
+            buildingService.awaitTermination(1, MINUTES);
+        }
+
+        stopRecording();
+
+        if (cfg != null)
+            println(cfg, getClass().getSimpleName() + " is stopped.");
+    }
+
+    /** {@inheritDoc} */
+    @Override public Collection<String> metaInfo() {
+        return Arrays.asList("Time, ms", "GC Pauses, count", "GC Pause Time, ms", "GC Max Pause, ms",
+            "Monitor Blocks, count", "Thread Waits And Parks, count", "Process CPU Load, %",
+            "Machine CPU Load, %");
+    }
+
+    /** {@inheritDoc} */
+    @Override public Collection<BenchmarkProbePoint> points() {
+        return buf.drainPoints();
+    }
+
+    /** {@inheritDoc} */
+    @Override public BenchmarkProbePointBuffer buffer() {
+        return buf;
+    }
+
+    /** {@inheritDoc} */
+    @Override public void buildPoint(final long time) {
+        buildingService.execute(new Runnable() {
+            @Override public void run() {
+                long[] gc = gcLsnr.reset();
+
+                long[] cnts = threadCounts();
+
+                double procCpu = Double.NaN;
+                double machineCpu = Double.NaN;
+
+                if (osBean instanceof com.sun.management.OperatingSystemMXBean) {
+                    com.sun.management.OperatingSystemMXBean os = (com.sun.management.OperatingSystemMXBean)osBean;
+
+                    procCpu = cpuLoad(os.getProcessCpuLoad());
+                    machineCpu = cpuLoad(systemCpuLoad(os));
+                }
+
+                if (buf.startPoint(time)) {
+                    buf.set(0, gc[0]);
+                    buf.set(1, gc[1]);
+                    buf.set(2, gc[2]);
+                    buf.set(3, cnts[0]);
+                    buf.set(4, cnts[1]);
+                    buf.set(5, procCpu);
+                    buf.set(6, machineCpu);
+
+                    buf.finishPoint();
+                }
+            }
+        });
+    }
+
+    /**
+     * Calculates how many times live threads were blocked on monitors and waited (including parks)
+     * since the previous call.
+     *
+     * @return Blocked and waited counts deltas.
+     */
+    private long[] threadCounts() {
+        ThreadInfo[] infos = threadBean.getThreadInfo(threadBean.getAllThreadIds(), 0);
+
+        long blocked = 0;
+        long waited = 0;
+
+        Map<Long, long[]> live = new HashMap<>(infos.length);
+
+        for (ThreadInfo info : infos) {
+            // Thread is not alive anymore.
+            if (info == null)
+                continue;
+
+            long[] cur = {info.getBlockedCount(), info.getWaitedCount()};
+
+            long[] prev = threadCnts.get(info.getThreadId());
+
+            blocked += prev == null ? cur[0] : cur[0] - prev[0];
+            waited += prev == null ? cur[1] : cur[1] - prev[1];
+
+            live.put(info.getThreadId(), cur);
+        }
+
+        threadCnts.clear();
+        threadCnts.putAll(live);
+
+        return new long[] {blocked, waited};
+    }
+
+    /**
+     * @param os Operating system MX bean.
+     * @return CPU load of the machine as returned by the bean.
+     */
+    @SuppressWarnings("deprecation") // Replacing getCpuLoad() is available since Java 14 only.
+    private static double systemCpuLoad(com.sun.management.OperatingSystemMXBean os) {
+        return os.getSystemCpuLoad();
+    }
+
+    /**
+     * @param load CPU load as returned by operating system MX bean.
+     * @return CPU load in percents or {@code NaN} if it is not available.
+     */
+    private static double cpuLoad(double load) {
+        return load < 0 ? Double.NaN : load * 100;
+    }
+
+    /**
+     * @param drv Driver.
+     * @param cfg Config.
+     */
+    private void startRecording(BenchmarkDriver drv, BenchmarkConfiguration cfg) {
+        String name = "yardstick-" + drv.getClass().getName();
+
+        try {
+            String res = diagnosticCommand("jfrStart", "name=" + name, "settings=" + jfrSettings(cfg));
+
+            recName = name;
+
+            println(cfg, "Flight recording is started: " + res.trim());
+        }
+        catch (Exception e) {
+            errorHelp(cfg, "Failed to start flight recording (JvmEventsProbe points will still be collected).", e);
+        }
+    }
+
+    /**
+     * Stops flight recording and saves it to results folder.
+     */
+    private void stopRecording() {
+        if (recName == null)
+            return;
+
+        String fileName = getClass().getSimpleName() + ".jfr";
+
+        File f = outFolder == null ? new File(fileName) : new File(outFolder, fileName);
+
+        try {
+            diagnosticCommand("jfrStop", "name=" + recName, "filename=" + f.getAbsolutePath());
+
+            println(cfg, "Flight recording is saved to: " + f.getAbsolutePath());
+        }
+        catch (Exception e) {
+            errorHelp(cfg, "Failed to stop flight recording.", e);
+        }
+        finally {
+            recName = null;
+        }
+    }
+
+    /**
+     * @param op Diagnostic command operation name.
+     * @param args Operation arguments.
+     * @return Command output.
+     * @throws Exception If failed.
+     */
+    private static String diagnosticCommand(String op, String... args) throws Exception {
+        MBeanServer srv = ManagementFactory.getPlatformMBeanServer();
+
+        Object res = srv.invoke(new ObjectName(DIAGNOSTIC_CMD_MBEAN), op, new Object[] {args},
+            new String[] {String[].class.getName()});
+
+        return res == null ? "" : res.toString();
+    }
+
+    /**
+     * @param cfg Config.
+     * @return Flag indicating whether to start flight recording or not.
+     */
+    private static boolean jfrEnabled(BenchmarkConfiguration cfg) {
+        String val = cfg.customProperties() == null ? null : cfg.customProperties().get(JFR_ENABLED);
+
+        return val == null ? DEFAULT_JFR_ENABLED : Boolean.parseBoolean(val);
+    }
+
+    /**
+     * @param cfg Config.
+     * @return Flight recording settings.
+     */
+    private static String jfrSettings(BenchmarkConfiguration cfg) {
+        String res = cfg.customProperties() == null ? null : cfg.customProperties().get(JFR_SETTINGS);
+
+        return res == null || res.isEmpty() ? DEFAULT_JFR_SETTINGS : res;
+    }
+
+    /**
+     * Accumulates garbage collection pauses between the points.
+     */
+    private static class GcListener implements NotificationListener {
+        /** */
+        private long cnt;
+
+        /** */
+        private long time;
+
+        /** */
+        private long max;
+
+        /** {@inheritDoc} */
+        @Override public void handleNotification(Notification notification, Object handback) {
+            if (!GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION.equals(notification.getType()))
+                return;
+
+            GarbageCollectionNotificationInfo info =
+                GarbageCollectionNotificationInfo.from((CompositeData)notification.getUserData());
+
+            // Concurrent cycles are not pauses.
+            if (info.getGcName().contains("Concurrent") || info.getGcName().contains("Cycles"))
+                return;
+
+            long duration = info.getGcInfo().getDuration();
+
+            synchronized (this) {
+                cnt++;
+                time += duration;
+                max = Math.max(max, duration);
+            }
+        }
+
+        /**
+         * @return Count, total time and maximum duration of pauses since the last call.
+         */
+        synchronized long[] reset() {
+            long[] res = {cnt, time, max};
+
+            cnt = 0;
+            time = 0;
+            max = 0;
+
+            return res;
+        }
+    }
+}
@@ -0,0 +1,212 @@
+/*
+ Licensed under the Apache License, Version 2.0 (the "License");
+ you may not use this file except in compliance with the License.
+ You may obtain a copy of the License at
+
+     http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing, software
+ distributed under the License is distributed on an "AS IS" BASIS,
+ WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ See the License for the specific language governing permissions and
+ limitations under the License.
+ */
+
+package org.yardstickframework.probes;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.yardstickframework.BenchmarkColumnarProbe;
+import org.yardstickframework.BenchmarkConfiguration;
+import org.yardstickframework.BenchmarkDriver;
+import org.yardstickframework.BenchmarkExecutionAwareProbe;
+import org.yardstickframework.BenchmarkProbePoint;
+import org.yardstickframework.BenchmarkProbePointBuffer;
+
+import static java.util.concurrent.TimeUnit.MINUTES;
+
+import static org.yardstickframework.BenchmarkUtils.errorHelp;
+import static org.yardstickframework.BenchmarkUtils.println;
+
+/**
+ * Probe that calculates heap allocation and CPU time spent by benchmark threads per operation.
+ * <p>
+ * Thread counters are sampled once per probe point interval, so the only work done on the benchmark
+ * thread is an operation counter increment. If several drivers share benchmark threads,
+ * the thread totals are attributed to the operations of this driver only.
+ */
+public class OperationCostProbe implements BenchmarkExecutionAwareProbe, BenchmarkColumnarProbe {
+    /** Operations executed. */
+    private ThreadAgent[] agents;
+
+    /** Collected points, written by building service only. */
+    private BenchmarkProbePointBuffer buf;
+
+    /** Service building probe points. */
+    private ExecutorService buildingService;
+
+    /** */
+    private BenchmarkConfiguration cfg;
+
+    /** Thread MX bean, {@code null} if per-thread allocation is not supported by JVM. */
+    private com.sun.management.ThreadMXBean threadBean;
+
+    /** */
+    private boolean cpuTimeSupported;
+
+    /** {@inheritDoc} */
+    @Override public void start(BenchmarkDriver drv, BenchmarkConfiguration cfg) throws Exception {
+        this.cfg = cfg;
+
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+
+        if (bean instanceof com.sun.management.ThreadMXBean &&
+            ((com.sun.management.ThreadMXBean)bean).isThreadAllocatedMemorySupported()) {
+            threadBean = (com.sun.management.ThreadMXBean)bean;
+
+            if (!threadBean.isThreadAllocatedMemoryEnabled())
+                threadBean.setThreadAllocatedMemoryEnabled(true);
+
+            cpuTimeSupported = threadBean.isThreadCpuTimeSupported();
+
+            if (cpuTimeSupported && !threadBean.isThreadCpuTimeEnabled())
+                threadBean.setThreadCpuTimeEnabled(true);
+        }
+        else
+            errorHelp(cfg, "Per-thread memory allocation is not supported by JVM, " +
+                getClass().getSimpleName() + " will produce empty points.");
+
+        agents = new ThreadAgent[cfg.threads()];
+
+        for (int i = 0; i < agents.length; i++)
+            agents[i] = new ThreadAgent();
+
+        buf = BenchmarkProbePointBuffer.create(2, cfg);
+
+        buildingService = Executors.newSingleThreadExecutor();
+
+        println(cfg, getClass().getSimpleName() + " is started.");
+    }
+
+    /** {@inheritDoc} */
+    @Override public void stop() throws Exception {
+        if (buildingService != null) {
+            buildingService.shutdownNow();
+
+            buildingService.awaitTermination(1, MINUTES);
+
+            println(cfg, getClass().getSimpleName() + " is stopped.");
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override public Collection<String> metaInfo() {
+        return Arrays.asList("Time, ms", "Allocated memory, bytes/op (less is better)",
+            "CPU time, nsec/op (less is better)");
+    }
+
+    /** {@inheritDoc} */
+    @Override public Collection<BenchmarkProbePoint> points() {
+        return buf.drainPoints();
+    }
+
+    /** {@inheritDoc} */
+    @Override public BenchmarkProbePointBuffer buffer() {
+        return buf;
+    }
+
+    /** {@inheritDoc} */
+    @Override public void buildPoint(final long time) {
+        buildingService.execute(new Runnable() {
+            @Override public void run() {
+                if (threadBean == null)
+                    return;
+
+                long[] ids = new long[agents.length];
+
+                int cnt = 0;
+
+                for (ThreadAgent agent : agents) {
+                    if (agent.threadId != -1)
+                        ids[cnt++] = agent.threadId;
+                }
+
+                if (cnt < ids.length)
+                    ids = Arrays.copyOf(ids, cnt);
+
+                long[] allocated = threadBean.getThreadAllocatedBytes(ids);
+                long[] cpuTime = cpuTimeSupported ? threadBean.getThreadCpuTime(ids) : null;
+
+                long ops = 0;
+                long allocatedDelta = 0;
+                long cpuTimeDelta = 0;
+
+                int idx = 0;
+
+                for (ThreadAgent agent : agents) {
+                    if (idx == ids.length || agent.threadId != ids[idx])
+                        continue;
+
+                    // Thread may have died between the two calls, -1 is returned in this case.
+                    if (allocated[idx] >= 0) {
+                        long agentOps = agent.execCnt;
+
+                        if (agent.lastAllocated >= 0) {
+                            ops += agentOps - agent.lastExecCnt;
+                            allocatedDelta += allocated[idx] - agent.lastAllocated;
+
+                            if (cpuTime != null && cpuTime[idx] >= 0 && agent.lastCpuTime >= 0)
+                                cpuTimeDelta += cpuTime[idx] - agent.lastCpuTime;
+                        }
+
+                        agent.lastExecCnt = agentOps;
+                        agent.lastAllocated = allocated[idx];
+                        agent.lastCpuTime = cpuTime == null ? -1 : cpuTime[idx];
+                    }
+
+                    idx++;
+                }
+
+                buf.add(time,
+                    ops == 0 ? Double.NaN : (double)allocatedDelta / ops,
+                    ops == 0 || cpuTime == null ? Double.NaN : (double)cpuTimeDelta / ops);
+            }
+        });
+    }
+
+    /** {@inheritDoc} */
+    @Override public void beforeExecute(int threadIdx) {
+        ThreadAgent agent = agents[threadIdx];
+
+        if (agent.threadId == -1)
+            agent.threadId = Thread.currentThread().getId();
+    }
+
+    /** {@inheritDoc} */
+    @Override public void afterExecute(int threadIdx) {
+        agents[threadIdx].execCnt++;
+    }
+
+    /**
+     *
+     */
+    private static class ThreadAgent {
+        /** ID of benchmark thread, {@code -1} until the thread executes the first operation. */
+        private volatile long threadId = -1;
+
+        /** Total execution count by thread, updated by benchmark thread only. */
+        private volatile long execCnt;
+
+        /** Execution count at the time of the last sample. */
+        private long lastExecCnt;
+
+        /** Allocated bytes at the time of the last sample, {@code -1} if thread has not been sampled yet. */
+        private long lastAllocated = -1;
+
+        /** CPU time at the time of the last sample. */
+        private long lastCpuTime = -1;
+    }
+}
@@ -31,6 +31,10 @@ import static org.yardstickframework.BenchmarkUtils.println;
 
 /**
  * Probe that tracks the latency of each individual request and collects the time frame bucket.
+ * <p>
+ * Every point is a bucket: time of the point is the upper bound of the bucket, the lower bound is the upper bound
+ * of the previous bucket (the first point with zero time starts the distribution), values are the fraction and
+ * the raw count of operations in the bucket. Counts let distributions of several drivers be merged correctly.
  */
 public class PercentileProbe implements BenchmarkExecutionAwareProbe, BenchmarkTotalsOnlyProbe {
     /** */
@@ -42,6 +46,9 @@ public class PercentileProbe implements BenchmarkExecutionAwareProbe, BenchmarkT
     /** */
     public static final String TIME_UNIT = "BENCHMARK_PROBE_PERCENTILE_TIME_UNIT";
 
+    /** Meta info of the value with raw operation counts of buckets. */
+    public static final String COUNT_META_INFO = "Operations, count";
+
     /** */
     public static final long DEFAULT_BUCKET_INTERVAL = 100;
 
@@ -90,7 +97,7 @@ public class PercentileProbe implements BenchmarkExecutionAwareProbe, BenchmarkT
 
     /** {@inheritDoc} */
     @Override public Collection<String> metaInfo() {
-        return Arrays.asList("Latency, " + unitAsString(), "Operations, %");
+        return Arrays.asList("Latency, " + unitAsString(), "Operations, %", COUNT_META_INFO);
     }
 
     /**
@@ -114,15 +121,17 @@ public class PercentileProbe implements BenchmarkExecutionAwareProbe, BenchmarkT
         Collection<BenchmarkProbePoint> ret = new ArrayList<>(bucketsCnt + 1);
 
         if (bucketsCnt > 0)
-            ret.add(new BenchmarkProbePoint(0, new double[] {0}));
+            ret.add(new BenchmarkProbePoint(0, new double[] {0, 0}));
 
         long sum = 0;
 
         for (long b : buckets0)
             sum += b;
 
-        for (int i = 0; i < buckets0.length; i++)
-            ret.add(new BenchmarkProbePoint((i + 1) * bucketInterval, new double[] {((double)buckets0[i]) / sum}));
+        for (int i = 0; i < buckets0.length; i++) {
+            ret.add(new BenchmarkProbePoint((i + 1) * bucketInterval,
+                new double[] {((double)buckets0[i]) / sum, buckets0[i]}));
+        }
 
         return ret;
     }
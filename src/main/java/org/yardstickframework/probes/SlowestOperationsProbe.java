@@ -0,0 +1,410 @@
+/*
+ Licensed under the Apache License, Version 2.0 (the "License");
+ you may not use this file except in compliance with the License.
+ You may obtain a copy of the License at
+
+     http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing, software
+ distributed under the License is distributed on an "AS IS" BASIS,
+ WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ See the License for the specific language governing permissions and
+ limitations under the License.
+ */
+
+package org.yardstickframework.probes;
+
+import java.io.File;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import org.yardstickframework.BenchmarkConfiguration;
+import org.yardstickframework.BenchmarkDriver;
+import org.yardstickframework.BenchmarkExecutionAwareProbe;
+import org.yardstickframework.BenchmarkOutputAwareProbe;
+import org.yardstickframework.BenchmarkProbePoint;
+import org.yardstickframework.BenchmarkTotalsOnlyProbe;
+import org.yardstickframework.writers.BenchmarkResultTableWriter;
+
+import static org.yardstickframework.BenchmarkUtils.errorHelp;
+import static org.yardstickframework.BenchmarkUtils.println;
+
+/**
+ * Probe that keeps the slowest operations executed by each benchmark thread and saves the slowest
+ * of them, with start time, duration, thread index, driver name and optional tag, to
+ * {@code SlowestOperationsProbe.tsv} table in the results folder. Probe points contain latencies
+ * of these operations ordered from the slowest one.
+ * <p>
+ * Every benchmark thread has a bounded min-heap of the slowest operations. An operation which
+ * is not slower than the fastest operation in the full heap is skipped after a single comparison,
+ * so fast operations cost no more than two {@link System#nanoTime()} calls and do not allocate.
+ * <p>
+ * Driver may attach a tag (for example, a key or partition) to the current operation by
+ * {@link #tag(Object)} call from {@link BenchmarkDriver#test(java.util.Map)}. The tag is converted
+ * to string only when the table is saved. Operations executed during warmup are discarded.
+ */
+public class SlowestOperationsProbe implements BenchmarkExecutionAwareProbe, BenchmarkOutputAwareProbe,
+    BenchmarkTotalsOnlyProbe {
+    /** */
+    public static final String COUNT = "BENCHMARK_PROBE_SLOWEST_OPERATIONS_COUNT";
+
+    /** */
+    public static final int DEFAULT_COUNT = 100;
+
+    /** Tags of the current operations. */
+    private static final ThreadLocal<TagHolder> TAGS = new ThreadLocal<>();
+
+    /** Operations executed. */
+    private ThreadAgent[] agents;
+
+    /** */
+    private BenchmarkConfiguration cfg;
+
+    /** Results folder. */
+    private File outFolder;
+
+    /** Driver name. */
+    private String drvName;
+
+    /** Number of the slowest operations to keep. */
+    private int cnt;
+
+    /** Wall clock time corresponding to {@link #startNanos}. */
+    private long startMillis;
+
+    /** */
+    private long startNanos;
+
+    /** Whether warmup operations are discarded already. */
+    private boolean warmupDiscarded;
+
+    /**
+     * Attaches the tag to the operation currently executed by the calling benchmark thread.
+     *
+     * @param tag Tag, for example, a key or partition the operation works with.
+     */
+    public static void tag(Object tag) {
+        TagHolder holder = TAGS.get();
+
+        if (holder == null) {
+            holder = new TagHolder();
+
+            TAGS.set(holder);
+        }
+
+        holder.tag = tag;
+        holder.ts = System.nanoTime();
+    }
+
+    /** {@inheritDoc} */
+    @Override public void outputFolder(File folder) {
+        outFolder = folder;
+    }
+
+    /** {@inheritDoc} */
+    @Override public void start(BenchmarkDriver drv, BenchmarkConfiguration cfg) throws Exception {
+        this.cfg = cfg;
+
+        drvName = drv.getClass().getSimpleName();
+
+        cnt = count(cfg);
+
+        startMillis = System.currentTimeMillis();
+        startNanos = System.nanoTime();
+
+        agents = new ThreadAgent[cfg.threads()];
+
+        for (int i = 0; i < agents.length; i++)
+            agents[i] = new ThreadAgent(cnt);
+
+        println(cfg, getClass().getSimpleName() + " is started.");
+    }
+
+    /** {@inheritDoc} */
+    @Override public void stop() throws Exception {
+        if (agents != null) {
+            saveOperations();
+
+            println(cfg, getClass().getSimpleName() + " is stopped.");
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override public Collection<String> metaInfo() {
+        return Arrays.asList("Operation Rank", "Latency, usec");
+    }
+
+    /** {@inheritDoc} */
+    @Override public synchronized Collection<BenchmarkProbePoint> points() {
+        // Points are requested for the first time when warmup is finished. All benchmark threads
+        // are waiting for the main test start at this moment, so their heaps can be cleared safely.
+        if (!warmupDiscarded) {
+            for (ThreadAgent agent : agents)
+                agent.reset();
+
+            warmupDiscarded = true;
+
+            return Collections.emptyList();
+        }
+
+        List<Operation> ops = slowest();
+
+        Collection<BenchmarkProbePoint> ret = new ArrayList<>(ops.size());
+
+        for (int i = 0; i < ops.size(); i++)
+            ret.add(new BenchmarkProbePoint(i + 1, new double[] {ops.get(i).dur / 1000d}));
+
+        return ret;
+    }
+
+    /** {@inheritDoc} */
+    @Override public void buildPoint(long time) {
+        // No-op.
+    }
+
+    /** {@inheritDoc} */
+    @Override public void beforeExecute(int threadIdx) {
+        agents[threadIdx].beforeTs = System.nanoTime();
+    }
+
+    /** {@inheritDoc} */
+    @Override public void afterExecute(int threadIdx) {
+        ThreadAgent agent = agents[threadIdx];
+
+        long dur = System.nanoTime() - agent.beforeTs;
+
+        if (dur > agent.threshold)
+            agent.offer(dur, tag(agent.beforeTs));
+    }
+
+    /**
+     * @param beforeTs Operation start.
+     * @return Tag attached to the operation started at the given time or {@code null}.
+     */
+    private static Object tag(long beforeTs) {
+        TagHolder holder = TAGS.get();
+
+        return holder == null || holder.ts < beforeTs ? null : holder.tag;
+    }
+
+    /**
+     * @return The slowest operations of all benchmark threads, the slowest one goes first.
+     */
+    private List<Operation> slowest() {
+        List<Operation> ops = new ArrayList<>();
+
+        for (int i = 0; i < agents.length; i++) {
+            ThreadAgent agent = agents[i];
+
+            for (int j = 0; j < agent.size; j++)
+                ops.add(new Operation(agent.starts[j], agent.durs[j], i, agent.tags[j]));
+        }
+
+        Collections.sort(ops, new Comparator<Operation>() {
+            @Override public int compare(Operation o1, Operation o2) {
+                return Long.compare(o2.dur, o1.dur);
+            }
+        });
+
+        return ops.size() > cnt ? ops.subList(0, cnt) : ops;
+    }
+
+    /**
+     * Saves the slowest operations to results folder.
+     */
+    private void saveOperations() {
+        SimpleDateFormat fmt = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss.SSS");
+
+        List<List<String>> rows = new ArrayList<>();
+
+        for (Operation op : slowest()) {
+            long start = startMillis + TimeUnit.NANOSECONDS.toMillis(op.start - startNanos);
+
+            rows.add(Arrays.asList(
+                fmt.format(new Date(start)),
+                String.format(Locale.US, "%.1f", op.dur / 1000d),
+                Integer.toString(op.threadIdx),
+                drvName,
+                op.tag == null ? "" : String.valueOf(op.tag)));
+        }
+
+        try {
+            File f = BenchmarkResultTableWriter.write(outFolder, getClass().getSimpleName(),
+                Arrays.asList("Start Time", "Latency, usec", "Thread", "Driver", "Tag"), rows);
+
+            println(cfg, "Slowest operations are saved to: " + f.getAbsolutePath());
+        }
+        catch (Exception e) {
+            errorHelp(cfg, "Failed to save slowest operations.", e);
+        }
+    }
+
+    /**
+     * @param cfg Config.
+     * @return Number of the slowest operations to keep.
+     */
+    private static int count(BenchmarkConfiguration cfg) {
+        try {
+            int res = Integer.parseInt(cfg.customProperties().get(COUNT));
+
+            return res > 0 ? res : DEFAULT_COUNT;
+        }
+        catch (NumberFormatException | NullPointerException ignored) {
+            return DEFAULT_COUNT;
+        }
+    }
+
+    /**
+     * Tag of the current operation.
+     */
+    private static class TagHolder {
+        /** */
+        private Object tag;
+
+        /** Time the tag was attached at. */
+        private long ts;
+    }
+
+    /**
+     * Operation taken from the heap.
+     */
+    private static class Operation {
+        /** */
+        private final long start;
+
+        /** */
+        private final long dur;
+
+        /** */
+        private final int threadIdx;
+
+        /** */
+        private final Object tag;
+
+        /**
+         * @param start Start, nanoseconds.
+         * @param dur Duration, nanoseconds.
+         * @param threadIdx Thread index.
+         * @param tag Tag.
+         */
+        Operation(long start, long dur, int threadIdx, Object tag) {
+            this.start = start;
+            this.dur = dur;
+            this.threadIdx = threadIdx;
+            this.tag = tag;
+        }
+    }
+
+    /**
+     * Min-heap of the slowest operations of benchmark thread, ordered by duration.
+     */
+    private static class ThreadAgent {
+        /** Last before execute timestamp. */
+        private long beforeTs;
+
+        /** Durations. */
+        private final long[] durs;
+
+        /** Starts. */
+        private final long[] starts;
+
+        /** Tags. */
+        private final Object[] tags;
+
+        /** */
+        private int size;
+
+        /** Duration of the fastest operation in the full heap, {@code -1} while heap is not full. */
+        private long threshold = -1;
+
+        /**
+         * @param cap Heap capacity.
+         */
+        ThreadAgent(int cap) {
+            durs = new long[cap];
+            starts = new long[cap];
+            tags = new Object[cap];
+        }
+
+        /**
+         * @param dur Duration.
+         * @param tag Tag.
+         */
+        void offer(long dur, Object tag) {
+            if (size < durs.length) {
+                int i = size++;
+
+                // Sift up.
+                while (i > 0) {
+                    int parent = (i - 1) >>> 1;
+
+                    if (durs[parent] <= dur)
+                        break;
+
+                    set(i, durs[parent], starts[parent], tags[parent]);
+
+                    i = parent;
+                }
+
+                set(i, dur, beforeTs, tag);
+
+                if (size == durs.length)
+                    threshold = durs[0];
+            }
+            else {
+                int i = 0;
+
+                // Sift down replacing the fastest operation.
+                while (true) {
+                    int child = 2 * i + 1;
+
+                    if (child >= size)
+                        break;
+
+                    if (child + 1 < size && durs[child + 1] < durs[child])
+                        child++;
+
+                    if (durs[child] >= dur)
+                        break;
+
+                    set(i, durs[child], starts[child], tags[child]);
+
+                    i = child;
+                }
+
+                set(i, dur, beforeTs, tag);
+
+                threshold = durs[0];
+            }
+        }
+
+        /**
+         * @param i Index.
+         * @param dur Duration.
+         * @param start Start.
+         * @param tag Tag.
+         */
+        private void set(int i, long dur, long start, Object tag) {
+            durs[i] = dur;
+            starts[i] = start;
+            tags[i] = tag;
+        }
+
+        /**
+         * Clears the heap.
+         */
+        void reset() {
+            Arrays.fill(tags, null);
+
+            size = 0;
+            threshold = -1;
+        }
+    }
+}
@@ -0,0 +1,276 @@
+/*
+ Licensed under the Apache License, Version 2.0 (the "License");
+ you may not use this file except in compliance with the License.
+ You may obtain a copy of the License at
+
+     http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing, software
+ distributed under the License is distributed on an "AS IS" BASIS,
+ WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ See the License for the specific language governing permissions and
+ limitations under the License.
+ */
+
+package org.yardstickframework.probes;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadInfo;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import org.yardstickframework.BenchmarkConfiguration;
+import org.yardstickframework.BenchmarkDriver;
+import org.yardstickframework.BenchmarkOutputAwareProbe;
+import org.yardstickframework.BenchmarkProbePoint;
+
+import static org.yardstickframework.BenchmarkUtils.errorHelp;
+import static org.yardstickframework.BenchmarkUtils.println;
+import static org.yardstickframework.BenchmarkUtils.workerThreadIds;
+
+/**
+ * Probe that periodically samples stack traces of benchmark threads and saves them
+ * in collapsed stack format (one line per distinct stack: frames from the root separated by {@code ';'},
+ * space and the number of samples) to {@code StackSamplingProbe.collapsed} file in the results folder.
+ * <p>
+ * Samples taken during warmup are discarded. Probe points contain the share of samples
+ * in which benchmark threads were runnable, blocked on a monitor or waiting.
+ */
+public class StackSamplingProbe implements BenchmarkOutputAwareProbe {
+    /** */
+    public static final String FREQUENCY = "BENCHMARK_PROBE_STACK_SAMPLING_FREQUENCY";
+
+    /** */
+    public static final int DEFAULT_FREQUENCY = 100;
+
+    /** Collapsed stacks file extension. */
+    public static final String COLLAPSED_FILE_EXTENSION = ".collapsed";
+
+    /** Interval between benchmark threads lookups until all of them are found. */
+    private static final long LOOKUP_INTERVAL = 1_000;
+
+    /** */
+    private BenchmarkConfiguration cfg;
+
+    /** Results folder. */
+    private File outFolder;
+
+    /** Collected points. */
+    private Collection<BenchmarkProbePoint> collected = new ArrayList<>();
+
+    /** */
+    private ThreadMXBean threadBean;
+
+    /** Sampling thread. */
+    private Thread samplingThread;
+
+    /** Samples count per collapsed stack, guarded by {@code this}. */
+    private Map<String, long[]> stacks = new TreeMap<>();
+
+    /** Runnable, blocked and waiting samples count since the last point, guarded by {@code this}. */
+    private final long[] states = new long[3];
+
+    /** Whether warmup samples are discarded already. */
+    private boolean warmupDiscarded;
+
+    /** {@inheritDoc} */
+    @Override public void outputFolder(File folder) {
+        outFolder = folder;
+    }
+
+    /** {@inheritDoc} */
+    @Override public void start(BenchmarkDriver drv, final BenchmarkConfiguration cfg) throws Exception {
+        this.cfg = cfg;
+
+        threadBean = ManagementFactory.getThreadMXBean();
+
+        final long intervalNanos = TimeUnit.SECONDS.toNanos(1) / frequency(cfg);
+
+        samplingThread = new Thread("stack-sampling-probe") {
+            @Override public void run() {
+                long[] ids = new long[0];
+
+                long lastLookup = 0;
+
+                try {
+                    while (!isInterrupted()) {
+                        long start = System.nanoTime();
+
+                        if (ids.length < cfg.threads() &&
+                            TimeUnit.NANOSECONDS.toMillis(start - lastLookup) >= LOOKUP_INTERVAL) {
+                            ids = workerThreadIds(threadBean);
+
+                            lastLookup = start;
+                        }
+
+                        if (ids.length > 0)
+                            sample(threadBean.getThreadInfo(ids, Integer.MAX_VALUE));
+
+                        long sleep = intervalNanos - (System.nanoTime() - start);
+
+                        if (sleep > 0)
+                            TimeUnit.NANOSECONDS.sleep(sleep);
+                    }
+                }
+                catch (InterruptedException ignored) {
+                    // No-op.
+                }
+            }
+        };
+
+        samplingThread.setDaemon(true);
+
+        samplingThread.start();
+
+        println(cfg, getClass().getSimpleName() + " is started.");
+    }
+
+    /** {@inheritDoc} */
+    @Override public void stop() throws Exception {
+        if (samplingThread != null) {
+            samplingThread.interrupt();
+
+            samplingThread.join();
+
+            saveStacks();
+
+            println(cfg, getClass().getSimpleName() + " is stopped.");
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override public Collection<String> metaInfo() {
+        return Arrays.asList("Time, ms", "Benchmark Threads Runnable, %", "Benchmark Threads Blocked, %",
+            "Benchmark Threads Waiting, %");
+    }
+
+    /** {@inheritDoc} */
+    @Override public synchronized Collection<BenchmarkProbePoint> points() {
+        // Points are requested for the first time when warmup is finished.
+        if (!warmupDiscarded) {
+            stacks.clear();
+
+            warmupDiscarded = true;
+        }
+
+        Collection<BenchmarkProbePoint> ret = collected;
+
+        collected = new ArrayList<>(ret.size() + 5);
+
+        return ret;
+    }
+
+    /** {@inheritDoc} */
+    @Override public synchronized void buildPoint(long time) {
+        long total = states[0] + states[1] + states[2];
+
+        double[] vals = new double[states.length];
+
+        for (int i = 0; i < states.length; i++) {
+            vals[i] = total == 0 ? Double.NaN : states[i] * 100d / total;
+
+            states[i] = 0;
+        }
+
+        collected.add(new BenchmarkProbePoint(time, vals));
+    }
+
+    /**
+     * @param infos Thread infos.
+     */
+    private void sample(ThreadInfo[] infos) {
+        StringBuilder sb = new StringBuilder();
+
+        for (ThreadInfo info : infos) {
+            // Thread is not alive anymore.
+            if (info == null)
+                continue;
+
+            StackTraceElement[] trace = info.getStackTrace();
+
+            sb.setLength(0);
+
+            for (int i = trace.length - 1; i >= 0; i--) {
+                sb.append(trace[i].getClassName()).append('.').append(trace[i].getMethodName());
+
+                if (i > 0)
+                    sb.append(';');
+            }
+
+            String stack = sb.toString();
+
+            int state;
+
+            switch (info.getThreadState()) {
+                case RUNNABLE:
+                    state = 0;
+
+                    break;
+
+                case BLOCKED:
+                    state = 1;
+
+                    break;
+
+                default:
+                    state = 2;
+            }
+
+            synchronized (this) {
+                states[state]++;
+
+                if (stack.isEmpty())
+                    continue;
+
+                long[] cnt = stacks.get(stack);
+
+                if (cnt == null)
+                    stacks.put(stack, new long[] {1});
+                else
+                    cnt[0]++;
+            }
+        }
+    }
+
+    /**
+     * Saves collected stacks to results folder.
+     */
+    private synchronized void saveStacks() {
+        String fileName = getClass().getSimpleName() + COLLAPSED_FILE_EXTENSION;
+
+        File f = outFolder == null ? new File(fileName) : new File(outFolder, fileName);
+
+        try (PrintWriter writer = new PrintWriter(new OutputStreamWriter(new FileOutputStream(f), "UTF-8"))) {
+            for (Map.Entry<String, long[]> e : stacks.entrySet())
+                writer.println(e.getKey() + ' ' + e.getValue()[0]);
+
+            println(cfg, "Collapsed stacks are saved to: " + f.getAbsolutePath());
+        }
+        catch (Exception e) {
+            errorHelp(cfg, "Failed to save collapsed stacks: " + f.getAbsolutePath(), e);
+        }
+    }
+
+    /**
+     * @param cfg Config.
+     * @return Sampling frequency, samples per second.
+     */
+    private static int frequency(BenchmarkConfiguration cfg) {
+        try {
+            int res = Integer.parseInt(cfg.customProperties().get(FREQUENCY));
+
+            return res > 0 ? res : DEFAULT_FREQUENCY;
+        }
+        catch (NumberFormatException | NullPointerException ignored) {
+            return DEFAULT_FREQUENCY;
+        }
+    }
+}
@@ -14,30 +14,42 @@
 
 package org.yardstickframework.probes;
 
-import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
-import java.util.concurrent.TimeUnit;
+import org.yardstickframework.BenchmarkColumnarProbe;
 import org.yardstickframework.BenchmarkConfiguration;
 import org.yardstickframework.BenchmarkDriver;
 import org.yardstickframework.BenchmarkExecutionAwareProbe;
 import org.yardstickframework.BenchmarkProbePoint;
+import org.yardstickframework.BenchmarkProbePointBuffer;
 
 import static java.util.concurrent.TimeUnit.MINUTES;
 
 import static org.yardstickframework.BenchmarkUtils.println;
 
 /**
- * Probe that calculates throughput and average latency.
+ * Probe that calculates throughput and average latency. Points are built with millisecond precision,
+ * so {@code BENCHMARK_BUILD_PROBE_POINT_INTERVAL} may be less than a second.
+ * <p>
+ * If {@code BENCHMARK_PROBE_THROUGHPUT_LATENCY_SUBTRACT_OVERHEAD} property is {@code true}, the calibrated
+ * overhead of execution aware probes (see {@link BenchmarkConfiguration#probeOverhead()}) is subtracted
+ * from the latency. The overhead is calibrated for all execution aware probes together, including work done
+ * outside the interval this probe measures, so it is an upper bound and the latency may be over-corrected.
  */
-public class ThroughputLatencyProbe implements BenchmarkExecutionAwareProbe {
+public class ThroughputLatencyProbe implements BenchmarkExecutionAwareProbe, BenchmarkColumnarProbe {
+    /**
+     * Property enabling subtraction of the calibrated probe overhead from latency, the overhead is an upper bound
+     * of the share measured by this probe.
+     */
+    public static final String SUBTRACT_OVERHEAD = "BENCHMARK_PROBE_THROUGHPUT_LATENCY_SUBTRACT_OVERHEAD";
+
     /** Operations executed. */
     private ThreadAgent[] agents;
 
-    /** Collected points. */
-    private Collection<BenchmarkProbePoint> collected = new ArrayList<>();
+    /** Collected points, written by building service only. */
+    private BenchmarkProbePointBuffer buf;
 
     /** Service building probe points. */
     private ExecutorService buildingService;
@@ -48,6 +60,9 @@ public class ThroughputLatencyProbe implements BenchmarkExecutionAwareProbe {
     /** Last data collection time stamp. */
     private volatile long lastTstamp;
 
+    /** Overhead subtracted from latency, nanoseconds. */
+    private double overhead;
+
     /** {@inheritDoc} */
     @SuppressWarnings("BusyWait")
     @Override public void start(BenchmarkDriver drv, BenchmarkConfiguration cfg) throws Exception {
@@ -58,6 +73,11 @@ public class ThroughputLatencyProbe implements BenchmarkExecutionAwareProbe {
         for (int i = 0; i < agents.length; i++)
             agents[i] = new ThreadAgent();
 
+        if (subtractOverhead(cfg) && !Double.isNaN(cfg.probeOverhead()))
+            overhead = cfg.probeOverhead();
+
+        buf = BenchmarkProbePointBuffer.create(2, cfg);
+
         buildingService = Executors.newSingleThreadExecutor();
 
         println(cfg, getClass().getSimpleName() + " is started.");
@@ -78,16 +98,17 @@ public class ThroughputLatencyProbe implements BenchmarkExecutionAwareProbe {
 
     /** {@inheritDoc} */
     @Override public Collection<String> metaInfo() {
-        return Arrays.asList("Time, sec", "Operations/sec (more is better)", "Latency, nsec (less is better)");
+        return Arrays.asList("Time, ms", "Operations/sec (more is better)", "Latency, nsec (less is better)");
     }
 
     /** {@inheritDoc} */
-    @Override public synchronized Collection<BenchmarkProbePoint> points() {
-        Collection<BenchmarkProbePoint> ret = collected;
-
-        collected = new ArrayList<>(ret.size() + 5);
+    @Override public Collection<BenchmarkProbePoint> points() {
+        return buf.drainPoints();
+    }
 
-        return ret;
+    /** {@inheritDoc} */
+    @Override public BenchmarkProbePointBuffer buffer() {
+        return buf;
     }
 
     /** {@inheritDoc} */
@@ -100,32 +121,22 @@ public class ThroughputLatencyProbe implements BenchmarkExecutionAwareProbe {
 
                 lastTstamp = lastTstamp1;
 
-                // Time delta in seconds, rounding is used because Thread.sleep(1000) can last less than a second.
-                long delta = (long)Math.floor((lastTstamp1 - lastTstamp0) / 1000d + 0.5);
+                // Time delta in milliseconds, so that throughput is correct for sub-second intervals too.
+                long delta = lastTstamp1 - lastTstamp0;
 
                 ThreadAgent collector = new ThreadAgent();
 
                 for (ThreadAgent agent : agents)
                     agent.collect(collector);
 
-                double latency = collector.execCnt == 0 ? 0 : (double)collector.totalLatency / collector.execCnt;
+                double latency = collector.execCnt == 0 ? 0 :
+                    Math.max(0, (double)collector.totalLatency / collector.execCnt - overhead);
 
-                BenchmarkProbePoint pnt = new BenchmarkProbePoint(
-                    TimeUnit.MILLISECONDS.toSeconds(time),
-                    new double[] { delta == 0 ? Double.NaN : (double)collector.execCnt / delta, latency});
-
-                collectPoint(pnt);
+                buf.add(time, delta == 0 ? Double.NaN : collector.execCnt * 1000d / delta, latency);
             }
         });
     }
 
-    /**
-     * @param pnt Probe point.
-     */
-    private synchronized void collectPoint(BenchmarkProbePoint pnt) {
-        collected.add(pnt);
-    }
-
     /** {@inheritDoc} */
     @Override public void beforeExecute(int threadIdx) {
         agents[threadIdx].beforeExecute();
@@ -136,6 +147,14 @@ public class ThroughputLatencyProbe implements BenchmarkExecutionAwareProbe {
         agents[threadIdx].afterExecute();
     }
 
+    /**
+     * @param cfg Config.
+     * @return Flag indicating whether to subtract probes overhead from latency or not.
+     */
+    private static boolean subtractOverhead(BenchmarkConfiguration cfg) {
+        return cfg.customProperties() != null && Boolean.parseBoolean(cfg.customProperties().get(SUBTRACT_OVERHEAD));
+    }
+
     /**
      *
      */
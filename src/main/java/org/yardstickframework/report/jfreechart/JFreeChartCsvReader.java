@@ -0,0 +1,292 @@
+/*
+ Licensed under the Apache License, Version 2.0 (the "License");
+ you may not use this file except in compliance with the License.
+ You may obtain a copy of the License at
+
+     http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing, software
+ distributed under the License is distributed on an "AS IS" BASIS,
+ WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ See the License for the specific language governing permissions and
+ limitations under the License.
+ */
+
+package org.yardstickframework.report.jfreechart;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+
+/**
+ * Streaming reader of probe results CSV files. Lines are read to a reusable byte buffer and point values are parsed
+ * in place, so no objects are created for point lines.
+ * <p>
+ * Numbers are parsed exactly as {@link Long#parseLong(String)} and {@link Double#parseDouble(String)} do: plain
+ * decimal numbers which mantissa fits to 53 bits are parsed in place, the rest (exponents, {@code NaN},
+ * infinities, long mantissas and malformed values) fall back to the JDK methods.
+ */
+final class JFreeChartCsvReader implements AutoCloseable {
+    /** */
+    private static final double[] POW10 = new double[23];
+
+    /** Maximum mantissa which is exactly represented by double. */
+    private static final long MAX_EXACT_MANTISSA = 1L << 53;
+
+    /** */
+    static {
+        POW10[0] = 1;
+
+        for (int i = 1; i < POW10.length; i++)
+            POW10[i] = POW10[i - 1] * 10;
+    }
+
+    /** */
+    private final InputStream in;
+
+    /** */
+    private final byte[] buf = new byte[64 * 1024];
+
+    /** Position of the next byte in {@link #buf}. */
+    private int bufPos;
+
+    /** Number of bytes in {@link #buf}. */
+    private int bufLen;
+
+    /** Current line without line separator. */
+    private byte[] line = new byte[256];
+
+    /** */
+    private int lineLen;
+
+    /** Position of the next field in current line. */
+    private int pos;
+
+    /**
+     * @param in Input stream.
+     */
+    JFreeChartCsvReader(InputStream in) {
+        this.in = in;
+    }
+
+    /**
+     * Reads next line.
+     *
+     * @return {@code False} if there are no more lines.
+     * @throws IOException If failed.
+     */
+    boolean nextLine() throws IOException {
+        lineLen = 0;
+        pos = 0;
+
+        boolean read = false;
+
+        while (true) {
+            if (bufPos == bufLen) {
+                bufLen = in.read(buf);
+                bufPos = 0;
+
+                if (bufLen <= 0) {
+                    bufLen = 0;
+
+                    break;
+                }
+            }
+
+            read = true;
+
+            int start = bufPos;
+
+            while (bufPos < bufLen && buf[bufPos] != '\n')
+                bufPos++;
+
+            append(start, bufPos - start);
+
+            if (bufPos < bufLen) {
+                // Skip line separator.
+                bufPos++;
+
+                break;
+            }
+        }
+
+        if (lineLen > 0 && line[lineLen - 1] == '\r')
+            lineLen--;
+
+        return read;
+    }
+
+    /**
+     * @param prefix ASCII prefix.
+     * @return {@code True} if current line starts with the prefix.
+     */
+    boolean startsWith(String prefix) {
+        if (prefix.length() > lineLen)
+            return false;
+
+        for (int i = 0; i < prefix.length(); i++) {
+            if (line[i] != prefix.charAt(i))
+                return false;
+        }
+
+        return true;
+    }
+
+    /**
+     * @return Current line decoded by the default charset.
+     */
+    String line() {
+        return new String(line, 0, lineLen, Charset.defaultCharset());
+    }
+
+    /**
+     * Counts comma-separated fields of current line, trailing empty fields are not counted,
+     * as {@link String#split(String)} does.
+     *
+     * @return Number of fields.
+     */
+    int fields() {
+        int end = lineLen;
+
+        while (end > 0 && line[end - 1] == ',')
+            end--;
+
+        int res = 1;
+
+        for (int i = 0; i < end; i++) {
+            if (line[i] == ',')
+                res++;
+        }
+
+        return res;
+    }
+
+    /**
+     * @return Next field of current line parsed as long.
+     * @throws NumberFormatException If field is not a number.
+     */
+    long nextLong() {
+        int start = pos;
+        int end = fieldEnd();
+
+        int i = start;
+
+        boolean neg = i < end && line[i] == '-';
+
+        if (neg)
+            i++;
+
+        long res = 0;
+
+        // At most 18 digits can not overflow.
+        if (end > i && end - i <= 18) {
+            for (; i < end; i++) {
+                int d = line[i] - '0';
+
+                if (d < 0 || d > 9)
+                    break;
+
+                res = res * 10 + d;
+            }
+
+            if (i == end)
+                return neg ? -res : res;
+        }
+
+        return Long.parseLong(field(start, end));
+    }
+
+    /**
+     * @return Next field of current line parsed as double.
+     * @throws NumberFormatException If field is not a number.
+     */
+    double nextDouble() {
+        int start = pos;
+        int end = fieldEnd();
+
+        int i = start;
+
+        boolean neg = i < end && line[i] == '-';
+
+        if (neg)
+            i++;
+
+        long mantissa = 0;
+
+        int digits = 0;
+        int fracDigits = -1;
+
+        for (; i < end; i++) {
+            byte b = line[i];
+
+            if (b == '.' && fracDigits < 0)
+                fracDigits = 0;
+            else if (b >= '0' && b <= '9') {
+                if (mantissa >= MAX_EXACT_MANTISSA / 10)
+                    break;
+
+                mantissa = mantissa * 10 + (b - '0');
+
+                digits++;
+
+                if (fracDigits >= 0)
+                    fracDigits++;
+            }
+            else
+                break;
+        }
+
+        if (i == end && digits > 0 && fracDigits < POW10.length) {
+            // Both mantissa and power of ten are exact, so division result is correctly rounded.
+            double res = fracDigits > 0 ? mantissa / POW10[fracDigits] : mantissa;
+
+            return neg ? -res : res;
+        }
+
+        return Double.parseDouble(field(start, end));
+    }
+
+    /**
+     * Finds end of the next field and moves position to the field after it.
+     *
+     * @return End of the field.
+     */
+    private int fieldEnd() {
+        int end = pos;
+
+        while (end < lineLen && line[end] != ',')
+            end++;
+
+        pos = end + 1;
+
+        return end;
+    }
+
+    /**
+     * @param start Field start.
+     * @param end Field end.
+     * @return Field.
+     */
+    private String field(int start, int end) {
+        return new String(line, start, Math.max(0, end - start), Charset.defaultCharset());
+    }
+
+    /**
+     * @param off Offset in {@link #buf}.
+     * @param len Number of bytes to append to current line.
+     */
+    private void append(int off, int len) {
+        if (lineLen + len > line.length)
+            line = Arrays.copyOf(line, Math.max(line.length * 2, lineLen + len));
+
+        System.arraycopy(buf, off, line, lineLen, len);
+
+        lineLen += len;
+    }
+
+    /** {@inheritDoc} */
+    @Override public void close() throws IOException {
+        in.close();
+    }
+}
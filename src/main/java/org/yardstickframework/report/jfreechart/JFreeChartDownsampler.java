@@ -0,0 +1,105 @@
+/*
+ Licensed under the Apache License, Version 2.0 (the "License");
+ you may not use this file except in compliance with the License.
+ You may obtain a copy of the License at
+
+     http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing, software
+ distributed under the License is distributed on an "AS IS" BASIS,
+ WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ See the License for the specific language governing permissions and
+ limitations under the License.
+ */
+
+package org.yardstickframework.report.jfreechart;
+
+/**
+ * Reduces number of points of a series before it is rendered, keeping the visual shape of the series.
+ * <p>
+ * Largest-Triangle-Three-Buckets algorithm is used: the first and the last points are kept, the rest of points
+ * are split to buckets of equal size, and from every bucket the point forming the largest triangle with the point
+ * selected from the previous bucket and the average point of the next bucket is selected, so peaks and dips
+ * are kept.
+ */
+final class JFreeChartDownsampler {
+    /**
+     * @param data Series data, X values in the first array and Y values in the second one, X values are ascending.
+     * @param threshold Maximum number of points, {@code 0} or less than {@code 3} to keep all points.
+     * @return Downsampled data or the same data if it has not more than threshold points.
+     */
+    static double[][] downsample(double[][] data, int threshold) {
+        double[] x = data[0];
+        double[] y = data[1];
+
+        int len = x.length;
+
+        if (threshold < 3 || len <= threshold)
+            return data;
+
+        double[] resX = new double[threshold];
+        double[] resY = new double[threshold];
+
+        // Bucket size, the first and the last points are selected separately.
+        double every = (double)(len - 2) / (threshold - 2);
+
+        int a = 0;
+
+        resX[0] = x[0];
+        resY[0] = y[0];
+
+        for (int i = 0; i < threshold - 2; i++) {
+            // Average point of the next bucket.
+            int avgStart = (int)Math.floor((i + 1) * every) + 1;
+            int avgEnd = Math.min((int)Math.floor((i + 2) * every) + 1, len);
+
+            double avgX = 0;
+            double avgY = 0;
+
+            for (int j = avgStart; j < avgEnd; j++) {
+                avgX += x[j];
+                avgY += y[j];
+            }
+
+            int avgLen = avgEnd - avgStart;
+
+            avgX /= avgLen;
+            avgY /= avgLen;
+
+            // Point of the current bucket forming the largest triangle.
+            int start = (int)Math.floor(i * every) + 1;
+            int end = (int)Math.floor((i + 1) * every) + 1;
+
+            double maxArea = -1;
+
+            int next = start;
+
+            for (int j = start; j < end; j++) {
+                double area = Math.abs((x[a] - avgX) * (y[j] - y[a]) - (x[a] - x[j]) * (avgY - y[a]));
+
+                if (area > maxArea) {
+                    maxArea = area;
+
+                    next = j;
+                }
+            }
+
+            resX[i + 1] = x[next];
+            resY[i + 1] = y[next];
+
+            a = next;
+        }
+
+        resX[threshold - 1] = x[len - 1];
+        resY[threshold - 1] = y[len - 1];
+
+        return new double[][] {resX, resY};
+    }
+
+    /**
+     * Ensure static class.
+     */
+    private JFreeChartDownsampler() {
+        // No-op.
+    }
+}
@@ -0,0 +1,211 @@
+/*
+ Licensed under the Apache License, Version 2.0 (the "License");
+ you may not use this file except in compliance with the License.
+ You may obtain a copy of the License at
+
+     http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing, software
+ distributed under the License is distributed on an "AS IS" BASIS,
+ WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ See the License for the specific language governing permissions and
+ limitations under the License.
+ */
+
+package org.yardstickframework.report.jfreechart;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.yardstickframework.report.jfreechart.JFreeChartResultPageGenerator.escape;
+
+/**
+ * Builds SVG flame graph from the file with collapsed stacks.
+ */
+public class JFreeChartFlameGraph {
+    /** Graph width in pixels. */
+    private static final int WIDTH = 1200;
+
+    /** Frame height in pixels. */
+    private static final int FRAME_HEIGHT = 16;
+
+    /** Minimal frame width in pixels, narrower frames are not drawn. */
+    private static final double MIN_FRAME_WIDTH = 0.1;
+
+    /** Approximate width of label character in pixels. */
+    private static final int CHAR_WIDTH = 7;
+
+    /**
+     * @param file File with collapsed stacks.
+     * @return SVG element or {@code null} if file contains no samples.
+     * @throws IOException If failed.
+     */
+    public static String svg(File file) throws IOException {
+        Frame root = new Frame("all");
+
+        try (BufferedReader br = new BufferedReader(new InputStreamReader(new FileInputStream(file), "UTF-8"))) {
+            for (String line; (line = br.readLine()) != null; ) {
+                int i = line.lastIndexOf(' ');
+
+                if (i <= 0)
+                    continue;
+
+                long cnt;
+
+                try {
+                    cnt = Long.parseLong(line.substring(i + 1).trim());
+                }
+                catch (NumberFormatException ignored) {
+                    continue;
+                }
+
+                root.cnt += cnt;
+
+                Frame frame = root;
+
+                for (String name : line.substring(0, i).split(";")) {
+                    frame = frame.child(name);
+
+                    frame.cnt += cnt;
+                }
+            }
+        }
+
+        if (root.cnt == 0)
+            return null;
+
+        int height = (root.depth() + 1) * FRAME_HEIGHT;
+
+        StringBuilder sb = new StringBuilder();
+
+        sb.append("<svg xmlns=\"http://www.w3.org/2000/svg\" width=\"").append(WIDTH).append("\" height=\"")
+            .append(height).append("\" style=\"font-family:Helvetica,Arial,sans-serif;font-size:11px\">\n");
+
+        append(sb, root, 0, height - FRAME_HEIGHT, (double)WIDTH / root.cnt, root.cnt);
+
+        sb.append("</svg>");
+
+        return sb.toString();
+    }
+
+    /**
+     * @param sb String builder.
+     * @param frame Frame.
+     * @param x Frame X coordinate.
+     * @param y Frame Y coordinate.
+     * @param scale Pixels per sample.
+     * @param total Total samples count.
+     */
+    private static void append(StringBuilder sb, Frame frame, double x, int y, double scale, long total) {
+        double w = frame.cnt * scale;
+
+        if (w < MIN_FRAME_WIDTH)
+            return;
+
+        String name = escape(frame.name);
+
+        sb.append("<g><title>").append(name).append(" (").append(frame.cnt).append(" samples, ")
+            .append(JFreeChartResultPageGenerator.NUMBER_INSTANCE.format(frame.cnt * 100d / total))
+            .append("%)</title>");
+
+        sb.append(String.format(Locale.US,
+            "<rect x=\"%.1f\" y=\"%d\" width=\"%.1f\" height=\"%d\" fill=\"%s\" rx=\"2\"/>",
+            x, y, w, FRAME_HEIGHT - 1, color(frame.name)));
+
+        int chars = (int)(w / CHAR_WIDTH) - 1;
+
+        if (chars >= 3) {
+            String label = frame.name.length() <= chars ? frame.name :
+                frame.name.substring(0, chars - 2) + "..";
+
+            sb.append(String.format(Locale.US, "<text x=\"%.1f\" y=\"%d\">", x + 3, y + FRAME_HEIGHT - 4))
+                .append(escape(label)).append("</text>");
+        }
+
+        sb.append("</g>\n");
+
+        double childX = x;
+
+        for (Frame child : frame.children.values()) {
+            append(sb, child, childX, y - FRAME_HEIGHT, scale, total);
+
+            childX += child.cnt * scale;
+        }
+    }
+
+    /**
+     * @param name Frame name.
+     * @return Warm color which is always the same for the same frame name.
+     */
+    private static String color(String name) {
+        int hash = name.hashCode() & 0x7fffffff;
+
+        int r = 205 + hash % 50;
+        int g = 80 + (hash >> 8) % 130;
+        int b = (hash >> 16) % 55;
+
+        return "rgb(" + r + "," + g + "," + b + ")";
+    }
+
+    /**
+     * Ensure static class.
+     */
+    private JFreeChartFlameGraph() {
+        // No-op.
+    }
+
+    /**
+     * Stack frame with the number of samples it was found in.
+     */
+    private static class Frame {
+        /** */
+        private final String name;
+
+        /** Children ordered by name. */
+        private final Map<String, Frame> children = new TreeMap<>();
+
+        /** */
+        private long cnt;
+
+        /**
+         * @param name Frame name.
+         */
+        Frame(String name) {
+            this.name = name;
+        }
+
+        /**
+         * @param name Child frame name.
+         * @return Existing or created child frame.
+         */
+        Frame child(String name) {
+            Frame child = children.get(name);
+
+            if (child == null) {
+                child = new Frame(name);
+
+                children.put(name, child);
+            }
+
+            return child;
+        }
+
+        /**
+         * @return Depth of the deepest frame.
+         */
+        int depth() {
+            int res = 0;
+
+            for (Frame child : children.values())
+                res = Math.max(res, child.depth() + 1);
+
+            return res;
+        }
+    }
+}
@@ -19,10 +19,12 @@ import com.beust.jcommander.ParameterException;
 import java.awt.BasicStroke;
 import java.awt.Color;
 import java.awt.Font;
-import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileInputStream;
-import java.io.InputStreamReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.DoubleBuffer;
+import java.nio.LongBuffer;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
@@ -32,8 +34,14 @@ import java.util.Collections;
 import java.util.Comparator;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
 import org.jfree.chart.ChartFactory;
 import org.jfree.chart.ChartRenderingInfo;
 import org.jfree.chart.ChartUtilities;
@@ -49,7 +57,10 @@ import org.jfree.data.xy.DefaultXYDataset;
 import org.jfree.ui.RectangleEdge;
 import org.yardstickframework.probes.PercentileProbe;
 import org.yardstickframework.probes.ThroughputLatencyProbe;
+import org.yardstickframework.writers.BenchmarkCompressedInputStream;
+import org.yardstickframework.writers.BenchmarkProbePointBinaryReader;
 import org.yardstickframework.writers.BenchmarkProbePointCsvWriter;
+import org.yardstickframework.writers.BenchmarkResultsDb;
 
 import static java.awt.Color.GRAY;
 import static java.awt.Color.WHITE;
@@ -60,23 +71,49 @@ import static org.yardstickframework.BenchmarkUtils.println;
 import static org.yardstickframework.report.jfreechart.JFreeChartGenerationMode.COMPARISON;
 import static org.yardstickframework.report.jfreechart.JFreeChartGenerationMode.COMPOUND;
 import static org.yardstickframework.report.jfreechart.JFreeChartGenerationMode.STANDARD;
+import static org.yardstickframework.writers.BenchmarkProbePointBinaryWriter.BINARY_FILE_EXTENSION;
+import static org.yardstickframework.writers.BenchmarkProbePointCsvWriter.CLOCK_READ_PREFIX;
+import static org.yardstickframework.writers.BenchmarkProbePointCsvWriter.CSV_FILE_EXTENSION;
 import static org.yardstickframework.writers.BenchmarkProbePointCsvWriter.DRV_NAMES_PREFIX;
+import static org.yardstickframework.writers.BenchmarkProbePointCsvWriter.GZIP_FILE_EXTENSION;
 import static org.yardstickframework.writers.BenchmarkProbePointCsvWriter.META_INFO_PREFIX;
 import static org.yardstickframework.writers.BenchmarkProbePointCsvWriter.META_INFO_SEPARATOR;
+import static org.yardstickframework.writers.BenchmarkProbePointCsvWriter.PROBE_OVERHEAD_PREFIX;
+import static org.yardstickframework.writers.BenchmarkProbePointCsvWriter.SERVER_FOLDER_PREFIX;
 
 /**
  * JFreeChart graph plotter.
+ * <p>
+ * Probe results files are read and charts are rendered by tasks running on a fork-join pool, parallelism is defined
+ * by {@code --parallelism} argument. Results of the tasks are collected in the order the tasks are created,
+ * so chart files, colors and generated pages do not depend on parallelism.
  */
 public class JFreeChartGraphPlotter {
     /** */
     private static final SimpleDateFormat FORMAT = new SimpleDateFormat("yyyyMMdd");
 
-    /** */
-    private static final String INPUT_FILE_EXTENSION = ".csv";
+    /** Extensions of files with probe results. */
+    private static final String[] INPUT_FILE_EXTENSIONS =
+        {CSV_FILE_EXTENSION, CSV_FILE_EXTENSION + GZIP_FILE_EXTENSION, BINARY_FILE_EXTENSION};
 
     /** */
     private static final String MULTIPLE_DRIVERS_MARKER_FILE = ".multiple-drivers";
 
+    /** Prefix of X axis label of probes which points are time series. */
+    private static final String TIME_AXIS_LABEL_PREFIX = "Time";
+
+    /** Time axis label of probes building points with millisecond precision. */
+    private static final String MS_TIME_AXIS_LABEL = "Time, ms";
+
+    /** Time axis label of charts, time is always shown in seconds. */
+    private static final String SEC_TIME_AXIS_LABEL = "Time, sec";
+
+    /** Chart width in pixels. */
+    private static final int CHART_WIDTH = 1000;
+
+    /** Chart height in pixels. */
+    private static final int CHART_HEIGHT = 500;
+
     /** */
     private static final Color[] PLOT_COLORS = {new Color(39, 174, 96), new Color(41, 128, 185),
         new Color(192, 57, 43), new Color(142, 68, 173), new Color(44, 62, 80), new Color(243, 156, 18),
@@ -104,14 +141,27 @@ public class JFreeChartGraphPlotter {
                 return;
             }
 
-            if (args.inputFolders().isEmpty()) {
+            List<String> inFoldersAsString = new ArrayList<>(args.inputFolders());
+
+            if (args.database() != null) {
+                BenchmarkResultsDb db = new BenchmarkResultsDb(new File(args.database()));
+
+                for (String run : BenchmarkResultsDb.runs(db.query(args.databaseQuery())))
+                    inFoldersAsString.add(db.runFolder(run).getPath());
+
+                if (inFoldersAsString.isEmpty()) {
+                    errorHelp("No runs found in results database: " + new File(args.database()).getAbsolutePath());
+
+                    return;
+                }
+            }
+
+            if (inFoldersAsString.isEmpty()) {
                 errorHelp("Input folders are not defined.");
 
                 return;
             }
 
-            List<String> inFoldersAsString = args.inputFolders();
-
             List<File> inFolders = new ArrayList<>(inFoldersAsString.size());
 
             for (String folderAsString : inFoldersAsString)
@@ -127,6 +177,8 @@ public class JFreeChartGraphPlotter {
 
             List<List<List<File>>> benchFolders = new ArrayList<>();
 
+            List<File> srvFolders = new ArrayList<>();
+
             for (File inFolder : inFolders) {
                 File[] dirs0 = inFolder.listFiles();
 
@@ -137,6 +189,16 @@ public class JFreeChartGraphPlotter {
 
                 Collections.sort(dirs, FILE_NAME_COMP);
 
+                for (Iterator<File> it = dirs.iterator(); it.hasNext(); ) {
+                    File f = it.next();
+
+                    if (serverFolder(f)) {
+                        srvFolders.add(f);
+
+                        it.remove();
+                    }
+                }
+
                 boolean multipleDrivers = false;
 
                 for (File f : dirs) {
@@ -177,14 +239,21 @@ public class JFreeChartGraphPlotter {
 
             JFreeChartGenerationMode mode = args.generationMode();
 
-            if (mode == COMPOUND)
-                processCompoundMode(outputFolder, benchFolders, args);
-            else if (mode == COMPARISON)
-                processComparisonMode(outputFolder, benchFolders, args);
-            else if (mode == STANDARD)
-                processStandardMode(benchFolders, args);
-            else
-                errorHelp("Unknown generation mode: " + args.generationMode());
+            ForkJoinPool pool = new ForkJoinPool(args.parallelism());
+
+            try {
+                if (mode == COMPOUND)
+                    processCompoundMode(pool, outputFolder, benchFolders, args);
+                else if (mode == COMPARISON)
+                    processComparisonMode(pool, outputFolder, benchFolders, args);
+                else if (mode == STANDARD)
+                    processStandardMode(pool, benchFolders, srvFolders, args);
+                else
+                    errorHelp("Unknown generation mode: " + args.generationMode());
+            }
+            finally {
+                pool.shutdown();
+            }
         }
         catch (ParameterException e) {
             errorHelp("Invalid parameter.", e);
@@ -207,7 +276,7 @@ public class JFreeChartGraphPlotter {
         List<File> files = new ArrayList<>(Arrays.asList(dirs));
 
         for (int i = 0; i < files.size();) {
-            if (!files.get(i).isDirectory())
+            if (!files.get(i).isDirectory() || serverFolder(files.get(i)))
                 files.remove(i);
             else
                 i++;
@@ -218,6 +287,14 @@ public class JFreeChartGraphPlotter {
         return files;
     }
 
+    /**
+     * @param f File.
+     * @return {@code True} if the file is a folder with results of probes running in benchmark server.
+     */
+    static boolean serverFolder(File f) {
+        return f.isDirectory() && f.getName().startsWith(SERVER_FOLDER_PREFIX);
+    }
+
     /**
      * @param list List of folders.
      * @return Merged folders.
@@ -252,13 +329,14 @@ public class JFreeChartGraphPlotter {
     }
 
     /**
+     * @param pool Pool.
      * @param outputFolder Output folders.
      * @param benchFolders Input folders.
      * @param args Arguments.
      * @throws Exception If failed.
      */
-    private static void processCompoundMode(String outputFolder, List<List<List<File>>>benchFolders,
-        JFreeChartGraphPlotterArguments args) throws Exception {
+    private static void processCompoundMode(ForkJoinPool pool, String outputFolder,
+        List<List<List<File>>> benchFolders, JFreeChartGraphPlotterArguments args) throws Exception {
         Map<String, List<List<List<File>>>> res = new HashMap<>();
 
         for (List<List<File>> f0 : benchFolders) {
@@ -293,17 +371,18 @@ public class JFreeChartGraphPlotter {
                 throwException("Can not create folder: " + folderToWrite.getAbsolutePath());
         }
 
-        processFilesPerProbe(res, folderToWrite, args, COMPOUND);
+        processFilesPerProbe(pool, res, folderToWrite, args, COMPOUND);
     }
 
     /**
+     * @param pool Pool.
      * @param outputFolder Output folder.
      * @param benchFolders Input folders.
      * @param args Arguments.
      * @throws Exception If failed.
      */
-    private static void processComparisonMode(String outputFolder, List<List<List<File>>> benchFolders,
-        JFreeChartGraphPlotterArguments args) throws Exception {
+    private static void processComparisonMode(ForkJoinPool pool, String outputFolder,
+        List<List<List<File>>> benchFolders, JFreeChartGraphPlotterArguments args) throws Exception {
         String parentFolderName = "results-" + COMPARISON.name().toLowerCase() + '-' + FORMAT.format(new Date());
 
         parentFolderName = fixFolderName(parentFolderName);
@@ -376,47 +455,215 @@ public class JFreeChartGraphPlotter {
                     throwException("Can not create folder: " + folderToWrite.getAbsolutePath());
             }
 
-            processFilesPerProbe(res, folderToWrite, args, COMPARISON);
+            processFilesPerProbe(pool, res, folderToWrite, args, COMPARISON);
         }
     }
 
     /**
+     * @param pool Pool.
      * @param inFolders Input folders.
+     * @param srvFolders Folders with results of probes running in benchmark servers.
      * @param args Arguments.
      * @throws Exception If failed.
      */
-    private static void processStandardMode(List<List<List<File>>> inFolders,
-        JFreeChartGraphPlotterArguments args) throws Exception {
+    private static void processStandardMode(ForkJoinPool pool, List<List<List<File>>> inFolders,
+        List<File> srvFolders, JFreeChartGraphPlotterArguments args) throws Exception {
+        // Time ranges of server files, shared by all runs.
+        Map<File, long[]> srvRanges = new HashMap<>();
+
         for (List<List<File>> f0 : inFolders) {
             for (List<File> f1 : f0) {
                 for (File f2 : f1) {
-                    Map<String, List<JFreeChartPlotInfo>> infoMap = new HashMap<>();
+                    List<File> files = allFiles(files(f2));
 
-                    for (List<File> files : files(f2).values()) {
+                    List<File> inputs = new ArrayList<>(files);
+
+                    // Time range of the benchmark run, used to align server probe points.
+                    long from = Long.MAX_VALUE;
+                    long to = Long.MIN_VALUE;
+
+                    // Server files with points within the time range, other server files do not change the charts.
+                    List<List<File>> srvFiles = new ArrayList<>(srvFolders.size());
+
+                    if (!srvFolders.isEmpty()) {
                         for (File file : files) {
-                            List<PlotData> plotData = readData(file);
+                            long[] range = timeRange(file);
+
+                            if (range != null) {
+                                from = Math.min(from, range[0]);
+                                to = Math.max(to, range[1]);
+                            }
+                        }
+
+                        for (File srvFolder : srvFolders) {
+                            List<File> srvFiles0 = new ArrayList<>();
+
+                            if (from <= to) {
+                                for (File file : allFiles(files(srvFolder))) {
+                                    if (!srvRanges.containsKey(file))
+                                        srvRanges.put(file, timeRange(file));
+
+                                    long[] range = srvRanges.get(file);
+
+                                    if (range != null && range[0] <= to && range[1] >= from)
+                                        srvFiles0.add(file);
+                                }
+                            }
+
+                            srvFiles.add(srvFiles0);
+
+                            inputs.addAll(srvFiles0);
+                        }
+                    }
+
+                    String cacheKey = JFreeChartReportCache.key(inputs, STANDARD, args);
+
+                    Map<String, List<JFreeChartPlotInfo>> cached = JFreeChartReportCache.load(f2, cacheKey, args);
+
+                    if (cached != null) {
+                        JFreeChartResultPageGenerator.generate(f2, args, cached);
+
+                        continue;
+                    }
+
+                    Map<String, List<JFreeChartPlotInfo>> infoMap = new HashMap<>();
+
+                    List<ChartTask> charts = new ArrayList<>();
+
+                    List<ReadTask> reads = read(pool, files, "", Long.MIN_VALUE, Long.MAX_VALUE,
+                        args.maxSeriesPoints());
+
+                    for (int i = 0; i < files.size(); i++) {
+                        List<PlotData> plotData = reads.get(i).join();
+
+                        if (!plotData.isEmpty()) {
+                            processPlots(pool, files.get(i).getParentFile(), Collections.singleton(plotData), STANDARD,
+                                args, charts);
+                        }
+                    }
+
+                    if (from <= to) {
+                        List<ReadTask> srvReads = new ArrayList<>();
+
+                        for (int i = 0; i < srvFolders.size(); i++)
+                            srvReads.addAll(read(pool, srvFiles.get(i), serverPlotPrefix(srvFolders.get(i)), from, to,
+                                args.maxSeriesPoints()));
+
+                        for (ReadTask read : srvReads) {
+                            List<PlotData> plotData = read.join();
 
                             if (!plotData.isEmpty())
-                                processPlots(file.getParentFile(), Collections.singleton(plotData), infoMap, STANDARD);
+                                processPlots(pool, f2, Collections.singleton(plotData), STANDARD, args, charts);
                         }
                     }
 
+                    awaitCharts(charts, infoMap);
+
+                    JFreeChartReportCache.save(f2, cacheKey, infoMap);
+
                     JFreeChartResultPageGenerator.generate(f2, args, infoMap);
                 }
             }
         }
+
+        // Charts for the whole server lifetime.
+        for (File srvFolder : srvFolders) {
+            List<File> files = allFiles(files(srvFolder));
+
+            String cacheKey = JFreeChartReportCache.key(files, STANDARD, args);
+
+            Map<String, List<JFreeChartPlotInfo>> cached = JFreeChartReportCache.load(srvFolder, cacheKey, args);
+
+            if (cached != null) {
+                JFreeChartResultPageGenerator.generate(srvFolder, args, cached);
+
+                continue;
+            }
+
+            Map<String, List<JFreeChartPlotInfo>> infoMap = new HashMap<>();
+
+            List<ChartTask> charts = new ArrayList<>();
+
+            for (ReadTask read : read(pool, files, "", Long.MIN_VALUE, Long.MAX_VALUE, args.maxSeriesPoints())) {
+                List<PlotData> plotData = read.join();
+
+                if (!plotData.isEmpty())
+                    processPlots(pool, srvFolder, Collections.singleton(plotData), STANDARD, args, charts);
+            }
+
+            awaitCharts(charts, infoMap);
+
+            JFreeChartReportCache.save(srvFolder, cacheKey, infoMap);
+
+            JFreeChartResultPageGenerator.generate(srvFolder, args, infoMap);
+        }
     }
 
     /**
+     * @param srvFolder Folder with results of probes running in benchmark server.
+     * @return Prefix of plot names distinguishing server probes from the driver ones.
+     */
+    private static String serverPlotPrefix(File srvFolder) {
+        String name = srvFolder.getName().substring(SERVER_FOLDER_PREFIX.length());
+
+        String time = parseTime(name);
+
+        if (time != null)
+            name = name.substring(time.length());
+
+        name = name.replace('_', '-').replaceAll("^-+", "");
+
+        return name.isEmpty() ? "Server-" : name + '-';
+    }
+
+    /**
+     * @param pool Pool.
      * @param res Resulted map.
      * @param folderToWrite Folder to write results to.
      * @param args Arguments.
      * @param mode Generation mode.
      * @throws Exception If failed.
      */
-    private static void processFilesPerProbe(Map<String, List<List<List<File>>>> res, File folderToWrite,
-        JFreeChartGraphPlotterArguments args, JFreeChartGenerationMode mode) throws Exception {
-        Map<String, List<JFreeChartPlotInfo>> infoMap = new HashMap<>();
+    private static void processFilesPerProbe(ForkJoinPool pool, Map<String, List<List<List<File>>>> res,
+        File folderToWrite, JFreeChartGraphPlotterArguments args, JFreeChartGenerationMode mode) throws Exception {
+        Set<File> inputs = new HashSet<>();
+
+        for (List<List<List<File>>> files0 : res.values()) {
+            for (List<List<File>> files1 : files0) {
+                for (List<File> files2 : files1)
+                    inputs.addAll(files2);
+            }
+        }
+
+        String cacheKey = JFreeChartReportCache.key(inputs, mode, args);
+
+        Map<String, List<JFreeChartPlotInfo>> infoMap = JFreeChartReportCache.load(folderToWrite, cacheKey, args);
+
+        if (infoMap != null) {
+            if (!infoMap.isEmpty())
+                JFreeChartResultPageGenerator.generate(folderToWrite, args, infoMap);
+
+            return;
+        }
+
+        infoMap = new HashMap<>();
+
+        // All files are read in parallel before plots are built.
+        Map<File, ReadTask> data = new HashMap<>();
+
+        for (List<List<List<File>>> files0 : res.values()) {
+            for (List<List<File>> files1 : files0) {
+                for (List<File> files2 : files1) {
+                    for (File file : files2) {
+                        if (!data.containsKey(file))
+                            data.put(file, read(pool, file, "", Long.MIN_VALUE, Long.MAX_VALUE,
+                                args.maxSeriesPoints()));
+                    }
+                }
+            }
+        }
+
+        List<ChartTask> charts = new ArrayList<>();
 
         for (Map.Entry<String, List<List<List<File>>>> entry : res.entrySet()) {
             Collection<List<PlotData>> plots = new ArrayList<>(entry.getValue().size());
@@ -430,7 +677,7 @@ public class JFreeChartGraphPlotter {
 
                         for (List<File> files0 : files) {
                             for (File file : files0) {
-                                List<PlotData> pd = readData(file);
+                                List<PlotData> pd = data.get(file).join();
 
                                 if (!pd.isEmpty())
                                     plots0.add(pd);
@@ -443,7 +690,7 @@ public class JFreeChartGraphPlotter {
                             plots.add(sumPlot);
                     }
                     else {
-                        List<PlotData> pd = readData(files.get(0).get(0));
+                        List<PlotData> pd = data.get(files.get(0).get(0)).join();
 
                         if (!pd.isEmpty())
                             plots.add(pd);
@@ -454,7 +701,7 @@ public class JFreeChartGraphPlotter {
                         List<List<PlotData>> l = new ArrayList<>(files.size());
 
                         for (File f1 : f0) {
-                            List<PlotData> pd = readData(f1);
+                            List<PlotData> pd = data.get(f1).join();
 
                             if (!pd.isEmpty()) {
                                 plots.add(pd);
@@ -472,7 +719,7 @@ public class JFreeChartGraphPlotter {
                                     plots.add(sumPlot);
                             }
                             else {
-                                List<PlotData> pd = readData(f0.get(0));
+                                List<PlotData> pd = data.get(f0.get(0)).join();
 
                                 if (!pd.isEmpty())
                                     plots.add(pd);
@@ -482,9 +729,13 @@ public class JFreeChartGraphPlotter {
                 }
             }
 
-            processPlots(folderToWrite, plots, infoMap, mode);
+            processPlots(pool, folderToWrite, plots, mode, args, charts);
         }
 
+        awaitCharts(charts, infoMap);
+
+        JFreeChartReportCache.save(folderToWrite, cacheKey, infoMap);
+
         if (!infoMap.isEmpty())
             JFreeChartResultPageGenerator.generate(folderToWrite, args, infoMap);
     }
@@ -495,14 +746,22 @@ public class JFreeChartGraphPlotter {
      * @return check if file is the given probe result file.
      */
     private static <T> boolean isProbeResultFile(Map.Entry<String, T> entry, Class probeCls) {
-        return entry.getKey().equals(probeCls.getSimpleName() + INPUT_FILE_EXTENSION);
+        for (String ext : INPUT_FILE_EXTENSIONS) {
+            if (entry.getKey().equals(probeCls.getSimpleName() + ext))
+                return true;
+        }
+
+        return false;
     }
 
     /**
+     * Builds summary plots: values of time series are added point by point, distributions are merged
+     * by {@link #mergeDistributions(List)}.
+     *
      * @param plots Plots.
      * @return Summary Plot.
      */
-    private static List<PlotData> addSummaryPlot(Collection<List<PlotData>> plots) {
+    static List<PlotData> addSummaryPlot(Collection<List<PlotData>> plots) {
         int idx = -1;
 
         List<PlotData> sumPlot = new ArrayList<>();
@@ -510,14 +769,31 @@ public class JFreeChartGraphPlotter {
         while (true) {
             idx++;
 
-            PlotData sumPlotData = null;
+            List<PlotData> same = new ArrayList<>(plots.size());
 
             for (List<PlotData> plotData0 : plots) {
-                if (plotData0.size() <= idx)
-                    continue;
+                if (plotData0.size() > idx)
+                    same.add(plotData0.get(idx));
+            }
 
-                PlotData plotData = plotData0.get(idx);
+            if (same.isEmpty())
+                break;
+
+            if (!same.get(0).timeSeries()) {
+                sumPlot.add(mergeDistributions(same));
+
+                continue;
+            }
+
+            if (aggregated(same)) {
+                sumPlot.add(addAggregated(same));
+
+                continue;
+            }
+
+            PlotData sumPlotData = null;
 
+            for (PlotData plotData : same) {
                 double[][] data = plotData.series().data;
 
                 if (sumPlotData == null) {
@@ -525,6 +801,9 @@ public class JFreeChartGraphPlotter {
 
                     sumSeries.data = new double[data.length][];
 
+                    sumSeries.probeOverhead = plotData.series().probeOverhead;
+                    sumSeries.clockReadCost = plotData.series().clockReadCost;
+
                     sumPlotData = new PlotData(plotData.plotName(), sumSeries,
                         plotData.xAxisLabel, plotData.yAxisLabel);
                 }
@@ -552,15 +831,172 @@ public class JFreeChartGraphPlotter {
                 }
             }
 
-            if (sumPlotData == null)
-                break;
-            else
-                sumPlot.add(sumPlotData);
+            sumPlot.add(sumPlotData);
         }
 
         return sumPlot;
     }
 
+    /**
+     * @param plots Plots.
+     * @return {@code True} if series of any plot is aggregated.
+     */
+    private static boolean aggregated(List<PlotData> plots) {
+        for (PlotData plotData : plots) {
+            if (plotData.series().aggregated())
+                return true;
+        }
+
+        return false;
+    }
+
+    /**
+     * Adds time series bucket by bucket, series are brought to the largest bucket size first. Buckets of the sum
+     * keep sums of the first values and of means of buckets, deviations of values within buckets of the sum
+     * are not known.
+     *
+     * @param plots Time series, at least one of them is aggregated.
+     * @return Summary plot, as long as the shortest series.
+     */
+    private static PlotData addAggregated(List<PlotData> plots) {
+        int stride = 1;
+
+        for (PlotData plotData : plots)
+            stride = Math.max(stride, plotData.series().stride);
+
+        PlotData first = plots.get(0);
+
+        PlotSeries sumSeries = new PlotSeries(first.series().seriesName);
+
+        sumSeries.probeOverhead = first.series().probeOverhead;
+        sumSeries.clockReadCost = first.series().clockReadCost;
+
+        double[][] sum = null;
+
+        long total = Long.MAX_VALUE;
+
+        for (PlotData plotData : plots) {
+            sumSeries.addConfigurations(plotData.series().cfg);
+
+            double[][] buckets = plotData.series().buckets(stride);
+
+            total = Math.min(total, plotData.series().total);
+
+            if (sum == null)
+                sum = buckets;
+            else {
+                if (buckets[0].length < sum[0].length) {
+                    double[][] tmp = sum;
+
+                    sum = buckets;
+                    buckets = tmp;
+                }
+
+                for (int i = 0; i < sum[0].length; i++) {
+                    sum[1][i] += buckets[1][i];
+                    sum[2][i] += buckets[2][i];
+                }
+            }
+        }
+
+        sumSeries.finish(sum[0], sum[1], sum[2], stride, total);
+
+        return new PlotData(first.plotName(), sumSeries, first.xAxisLabel, first.yAxisLabel);
+    }
+
+    /**
+     * Merges latency distributions of several drivers into one distribution. Operation counts of buckets are added,
+     * and if drivers used different bucket layouts, the result has the union of all bucket bounds and a bucket
+     * of a driver is split between the resulting buckets it overlaps in proportion to the overlap, as latencies
+     * are assumed to be uniform within a bucket. Distributions without counts (written by older versions) are
+     * merged with equal weights. Y values of the result are fractions of operations, as Y values of the sources are.
+     *
+     * @param plots Distributions, X values are upper bounds of buckets.
+     * @return Merged distribution.
+     */
+    static PlotData mergeDistributions(List<PlotData> plots) {
+        boolean hasCounts = true;
+
+        TreeSet<Double> bounds = new TreeSet<>();
+
+        for (PlotData plotData : plots) {
+            hasCounts &= plotData.series().counts != null;
+
+            for (double x : plotData.series().data[0])
+                bounds.add(x);
+        }
+
+        double[] xs = new double[bounds.size()];
+
+        int n = 0;
+
+        for (Double x : bounds)
+            xs[n++] = x;
+
+        double[] cnts = new double[xs.length];
+
+        PlotData first = plots.get(0);
+
+        PlotSeries sumSeries = new PlotSeries(first.series().seriesName);
+
+        sumSeries.probeOverhead = first.series().probeOverhead;
+        sumSeries.clockReadCost = first.series().clockReadCost;
+
+        for (PlotData plotData : plots) {
+            sumSeries.addConfigurations(plotData.series().cfg);
+
+            double[] x = plotData.series().data[0];
+            double[] w = hasCounts ? plotData.series().counts : plotData.series().data[1];
+
+            double total = 0;
+
+            for (double w0 : w) {
+                if (w0 > 0)
+                    total += w0;
+            }
+
+            if (total == 0)
+                continue;
+
+            for (int i = 0; i < x.length; i++) {
+                if (!(w[i] > 0))
+                    continue;
+
+                double weight = hasCounts ? w[i] : w[i] / total;
+
+                int hi = Arrays.binarySearch(xs, x[i]);
+
+                if (i == 0 || x[i - 1] >= x[i]) {
+                    cnts[hi] += weight;
+
+                    continue;
+                }
+
+                int lo = Arrays.binarySearch(xs, x[i - 1]);
+
+                for (int j = lo + 1; j <= hi; j++)
+                    cnts[j] += weight * (xs[j] - xs[j - 1]) / (x[i] - x[i - 1]);
+            }
+        }
+
+        double sum = 0;
+
+        for (double cnt : cnts)
+            sum += cnt;
+
+        double[] fractions = new double[xs.length];
+
+        for (int i = 0; i < xs.length; i++)
+            fractions[i] = sum > 0 ? cnts[i] / sum : 0;
+
+        sumSeries.data = new double[][] {xs, fractions};
+
+        if (hasCounts)
+            sumSeries.counts = cnts;
+
+        return new PlotData(first.plotName(), sumSeries, first.xAxisLabel, first.yAxisLabel);
+    }
+
     /**
      * @param src Source array
      * @return Copied array.
@@ -595,7 +1031,7 @@ public class JFreeChartGraphPlotter {
      * @param folder Folder to scan for files.
      * @return Collection of files.
      */
-    private static Map<String, List<File>> files(File folder) {
+    static Map<String, List<File>> files(File folder) {
         File[] dirs = folder.listFiles();
 
         if (dirs == null || dirs.length == 0)
@@ -642,7 +1078,8 @@ public class JFreeChartGraphPlotter {
             return;
         }
 
-        if (file.getName().endsWith(INPUT_FILE_EXTENSION)) {
+        // Probe results file in one of supported formats.
+        if (!probeName(file).equals(file.getName())) {
             List<File> list = res.get(file.getName());
 
             if (list == null) {
@@ -656,125 +1093,220 @@ public class JFreeChartGraphPlotter {
     }
 
     /**
+     * Starts rendering of charts, a chart is rendered for every plot index.
+     *
+     * @param pool Pool.
      * @param folderToWrite Folder to write the resulted charts.
      * @param plots Collections of plots.
-     * @param infoMap Map with additional plot info.
      * @param mode Generation mode.
-     * @throws Exception If failed.
+     * @param args Arguments.
+     * @param charts Started chart tasks.
      */
-    private static void processPlots(File folderToWrite, Collection<List<PlotData>> plots,
-        Map<String, List<JFreeChartPlotInfo>> infoMap, JFreeChartGenerationMode mode) throws Exception {
-        ChartRenderingInfo info = new ChartRenderingInfo(new StandardEntityCollection());
-
-        XYLineAndShapeRenderer renderer = new XYLineAndShapeRenderer(true, false);
-
+    private static void processPlots(ForkJoinPool pool, File folderToWrite, Collection<List<PlotData>> plots,
+        JFreeChartGenerationMode mode, JFreeChartGraphPlotterArguments args, List<ChartTask> charts) {
         int idx = -1;
 
         while (true) {
             idx++;
 
-            DefaultXYDataset dataSet = new DefaultXYDataset();
-
-            List<JFreeChartPlotInfo> infoList = new ArrayList<>();
-
-            String xAxisLabel = "";
-            String yAxisLabel = "";
-            String plotName = "";
-
-            int cnt = 0;
+            List<PlotData> chartPlots = new ArrayList<>();
 
             for (List<PlotData> plotData0 : plots) {
-                if (plotData0.size() <= idx)
-                    continue;
+                if (plotData0.size() > idx)
+                    chartPlots.add(plotData0.get(idx));
+            }
 
-                PlotData plotData = plotData0.get(idx);
+            if (chartPlots.isEmpty())
+                break;
 
-                dataSet.addSeries(plotData.plotName() + "_" + cnt++, plotData.series().data);
+            String plotName = chartPlots.get(chartPlots.size() - 1).plotName();
 
-                xAxisLabel = plotData.xAxisLabel;
-                yAxisLabel = plotData.yAxisLabel;
-                plotName = plotData.plotName();
+            ChartTask task = new ChartTask(new File(folderToWrite, plotName + ".png"), chartPlots, mode, args);
 
-                infoList.add(info(plotData.series(), mode));
+            // Charts saved to the same file are rendered in order, so that the last one is kept.
+            for (ChartTask started : charts) {
+                if (started.file.equals(task.file))
+                    started.join();
             }
 
-            if (infoList.isEmpty())
-                break;
+            pool.execute(task);
 
-            JFreeChart chart = ChartFactory.createXYLineChart(
-                "",
-                xAxisLabel,
-                yAxisLabel,
-                dataSet,
-                PlotOrientation.VERTICAL,
-                false,
-                false,
-                false);
+            charts.add(task);
+        }
+    }
 
-            AxisSpace as = new AxisSpace();
+    /**
+     * Waits for charts to be built and collects plot info in the order the charts were started.
+     *
+     * @param charts Chart tasks.
+     * @param infoMap Map with additional plot info.
+     */
+    private static void awaitCharts(List<ChartTask> charts, Map<String, List<JFreeChartPlotInfo>> infoMap) {
+        for (ChartTask task : charts) {
+            infoMap.put(task.file.getAbsolutePath(), task.join());
 
-            as.add(150, RectangleEdge.LEFT);
+            if (task.render)
+                println("Chart is saved to file: ", task.file);
+        }
+    }
 
-            XYPlot plot = (XYPlot)chart.getPlot();
+    /**
+     * @param pool Pool.
+     * @param files Files.
+     * @param plotPrefix Plot name prefix.
+     * @param from Range start in milliseconds.
+     * @param to Range end in milliseconds.
+     * @param maxSeriesPoints Maximum number of points of a time series kept in memory, {@code 0} to keep all points.
+     * @return Read tasks in the order of files.
+     */
+    private static List<ReadTask> read(ForkJoinPool pool, List<File> files, String plotPrefix, long from, long to,
+        int maxSeriesPoints) {
+        List<ReadTask> res = new ArrayList<>(files.size());
 
-            BasicStroke stroke = new BasicStroke(1);
+        for (File file : files)
+            res.add(read(pool, file, plotPrefix, from, to, maxSeriesPoints));
 
-            plot.setRenderer(renderer);
-            plot.setBackgroundPaint(WHITE);
-            plot.setRangeGridlinePaint(GRAY);
-            plot.setDomainGridlinePaint(GRAY);
-            plot.setFixedRangeAxisSpace(as);
-            plot.setOutlineStroke(stroke);
+        return res;
+    }
 
-            for (int i = 0; i < infoList.size(); i++) {
-                Color color = PLOT_COLORS[i % PLOT_COLORS.length];
+    /**
+     * @param pool Pool.
+     * @param file File.
+     * @param plotPrefix Plot name prefix.
+     * @param from Range start in milliseconds.
+     * @param to Range end in milliseconds.
+     * @param maxSeriesPoints Maximum number of points of a time series kept in memory, {@code 0} to keep all points.
+     * @return Read task.
+     */
+    private static ReadTask read(ForkJoinPool pool, File file, String plotPrefix, long from, long to,
+        int maxSeriesPoints) {
+        ReadTask task = new ReadTask(file, plotPrefix, from, to, maxSeriesPoints);
 
-                renderer.setSeriesPaint(i, color);
-                renderer.setSeriesStroke(i, new BasicStroke(3)); // Line thickness.
+        pool.execute(task);
 
-                infoList.get(i).color(Integer.toHexString(color.getRGB()).substring(2));
-            }
+        return task;
+    }
 
-            ValueAxis axis = plot.getRangeAxis();
+    /**
+     * @param files Files grouped by name.
+     * @return All files.
+     */
+    private static List<File> allFiles(Map<String, List<File>> files) {
+        List<File> res = new ArrayList<>();
 
-            Font font = new Font("Helvetica,Arial,sans-serif", Font.BOLD, axis.getTickLabelFont().getSize() + 5);
+        for (List<File> files0 : files.values())
+            res.addAll(files0);
 
-            axis.setTickLabelFont(font);
-            axis.setLabelFont(font);
-            plot.getDomainAxis().setTickLabelFont(font);
-            plot.getDomainAxis().setLabelFont(font);
+        return res;
+    }
 
-            chart.setTitle(new TextTitle(yAxisLabel, new Font(font.getName(), font.getStyle(), 30)));
+    /**
+     * @param idx Index of plot on the chart.
+     * @return Plot color.
+     */
+    private static Color color(int idx) {
+        return PLOT_COLORS[idx % PLOT_COLORS.length];
+    }
+
+    /**
+     * Calculates statistics of a plot. Intervals of time series excluded by {@code --trim} and
+     * {@code --trimTransients} arguments are not taken into account.
+     * <p>
+     * Intervals of aggregated series are excluded by whole buckets, transients are detected from means of buckets
+     * and percentiles are calculated from the first values of buckets.
+     *
+     * @param plotData Plot data.
+     * @param mode Generation mode.
+     * @param args Arguments.
+     * @return Graph info.
+     */
+    static JFreeChartPlotInfo info(PlotData plotData, JFreeChartGenerationMode mode,
+        JFreeChartGraphPlotterArguments args) {
+        PlotSeries series = plotData.series();
+
+        double[] y = series.data[1];
+
+        int stride = series.stride;
 
-            File res = new File(folderToWrite, plotName + ".png");
+        int[] range = plotData.timeSeries() ? JFreeChartSteadyState.range(series.aggregated() ? series.means : y,
+            (args.trim() + stride - 1) / stride, args.trimTransients()) : new int[] {0, y.length};
 
-            ChartUtilities.saveChartAsPNG(res, chart, 1000, 500, info);
+        JFreeChartPlotInfo info = series.aggregated() ? aggregatedInfo(series, mode, range[0], range[1]) :
+            info0(series, mode, range[0], range[1]);
 
-            infoMap.put(res.getAbsolutePath(), infoList);
+        info.probeOverhead(series.probeOverhead);
+        info.clockReadCost(series.clockReadCost);
 
-            println("Chart is saved to file: ", res);
+        double[] sorted = Arrays.copyOfRange(y, range[0], range[1]);
+
+        Arrays.sort(sorted);
+
+        info.steadyState(JFreeChartSteadyState.percentile(sorted, 0.5),
+            JFreeChartSteadyState.percentile(sorted, 0.05), JFreeChartSteadyState.percentile(sorted, 0.95),
+            series.points(0, range[0]), series.points(range[1], y.length),
+            info.coefficientOfVariation() * 100 <= args.stabilityThreshold());
+
+        return info;
+    }
+
+    /**
+     * Calculates statistics of aggregated series from means and sums of squared deviations of buckets.
+     *
+     * @param series Aggregated plot series.
+     * @param mode Generation mode.
+     * @param from Index of the first bucket.
+     * @param to Index following the last bucket.
+     * @return Graph info.
+     */
+    private static JFreeChartPlotInfo aggregatedInfo(PlotSeries series, JFreeChartGenerationMode mode, int from,
+        int to) {
+        long cnt = 0;
+
+        double avg = 0;
+        double m2 = 0;
+        double min = Double.POSITIVE_INFINITY;
+        double max = Double.NEGATIVE_INFINITY;
+
+        for (int i = from; i < to; i++) {
+            int n = series.bucketSize(i);
+
+            double d = series.means[i] - avg;
+
+            cnt += n;
+
+            avg += d * n / cnt;
+            m2 += series.m2s[i] + d * d * (cnt - n) * n / cnt;
+
+            min = Math.min(min, series.mins[i]);
+            max = Math.max(max, series.maxs[i]);
         }
+
+        double stdDiv = cnt > 1 ? Math.sqrt(m2 / (cnt - 1)) : 0;
+
+        return new JFreeChartPlotInfo(series.seriesName, series.configuration(), avg, min, max, stdDiv, mode);
     }
 
     /**
      * @param series Plot series.
      * @param mode Generation mode.
+     * @param from Index of the first value.
+     * @param to Index following the last value.
      * @return Graph info.
      */
-    private static JFreeChartPlotInfo info(PlotSeries series, JFreeChartGenerationMode mode) {
+    private static JFreeChartPlotInfo info0(PlotSeries series, JFreeChartGenerationMode mode, int from, int to) {
         double sum = 0;
         double min = Long.MAX_VALUE;
         double max = Long.MIN_VALUE;
 
-        int len = series.data[1].length;
+        int len = to - from;
 
         if (len == 1) {
-            double val = series.data[1][0];
+            double val = series.data[1][from];
 
             return new JFreeChartPlotInfo(series.seriesName, series.configuration(), val, val, val, 0, mode);
         }
 
-        for (int i = 0; i < len; i++) {
+        for (int i = from; i < to; i++) {
             double val = series.data[1][i];
 
             min = Math.min(min, val);
@@ -788,7 +1320,7 @@ public class JFreeChartGraphPlotter {
 
         double s = 0;
 
-        for (int i = 0; i < len; i++) {
+        for (int i = from; i < to; i++) {
             double val = series.data[1][i];
 
             s += Math.pow((val - avg), 2);
@@ -800,93 +1332,191 @@ public class JFreeChartGraphPlotter {
     }
 
     /**
+     * Reads plot data. If time range is limited, only time series points within the range are read
+     * and X values are counted from the range start.
+     * <p>
+     * Time may be written either in seconds or, if X axis label is {@code "Time, ms"}, in milliseconds.
+     * Time X values are converted to fractional seconds counted from the first point (or range start).
+     * <p>
+     * Memory taken by a time series is bounded: points of a series longer than {@code maxSeriesPoints} are aggregated
+     * into buckets of consecutive points while the file is read, see {@link PlotSeries}.
+     *
      * @param file File.
+     * @param plotPrefix Plot name prefix.
+     * @param from Range start in milliseconds.
+     * @param to Range end in milliseconds.
+     * @param maxSeriesPoints Maximum number of points of a time series kept in memory, {@code 0} to keep all points.
      * @return Collection of plot data.
-     * @throws Exception If failed.
      */
-    private static List<PlotData> readData(File file) throws Exception {
-        List<PlotData> data = new ArrayList<>();
-
-        try (BufferedReader br = new BufferedReader(new InputStreamReader(new FileInputStream(file)))) {
-            long initTime = 0;
+    static List<PlotData> readData(File file, String plotPrefix, long from, long to, int maxSeriesPoints) {
+        try {
+            DataCollector collector = new DataCollector(file, plotPrefix, from, to, maxSeriesPoints);
 
-            String drvNames = null;
-            String[] metaInfo = null;
+            if (BenchmarkProbePointBinaryReader.binaryFile(file))
+                readBinaryData(file, collector);
+            else
+                readCsvData(file, collector);
 
-            for (String line; (line = br.readLine()) != null; ) {
-                if (line.startsWith("--"))
-                    continue;
+            return collector.finish();
+        }
+        catch (Exception e) {
+            errorHelp("Exception is raised while processing file (will skip): " + file.getAbsolutePath(), e);
 
-                if (line.startsWith(DRV_NAMES_PREFIX)) {
-                    drvNames = line.substring(DRV_NAMES_PREFIX.length());
+            return Collections.emptyList();
+        }
+    }
 
-                    List<String> drvNamesList = Arrays.asList(drvNames.split(","));
+    /**
+     * Reads CSV file, file is decompressed while it is read if it has gzip extension. Points are parsed as the file
+     * is read, no objects are created for point lines.
+     *
+     * @param file CSV file.
+     * @param collector Data collector.
+     * @throws Exception If failed.
+     */
+    private static void readCsvData(File file, DataCollector collector) throws Exception {
+        boolean gzip = file.getName().endsWith(GZIP_FILE_EXTENSION);
+
+        try (InputStream fileIn = new FileInputStream(file);
+             InputStream in = gzip ? new BenchmarkCompressedInputStream(fileIn) : fileIn;
+             JFreeChartCsvReader rdr = new JFreeChartCsvReader(in)) {
+            while (rdr.nextLine()) {
+                if (rdr.startsWith("--")) {
+                    if (rdr.startsWith(PROBE_OVERHEAD_PREFIX))
+                        collector.probeOverhead = headerValue(rdr.line(), PROBE_OVERHEAD_PREFIX);
+                    else if (rdr.startsWith(CLOCK_READ_PREFIX))
+                        collector.clockReadCost = headerValue(rdr.line(), CLOCK_READ_PREFIX);
 
-                    Collections.sort(drvNamesList);
+                    continue;
+                }
 
-                    drvNames = drvNamesList.toString().replaceAll("\\[", "").replaceAll("]", "");
+                if (rdr.startsWith(DRV_NAMES_PREFIX)) {
+                    collector.drvNames = driverNames(rdr.line().substring(DRV_NAMES_PREFIX.length()));
 
                     continue;
                 }
 
-                if (line.startsWith(META_INFO_PREFIX)) {
-                    metaInfo = line.substring(META_INFO_PREFIX.length()).split("\"" + META_INFO_SEPARATOR + "\"");
+                if (rdr.startsWith(META_INFO_PREFIX)) {
+                    String[] metaInfo =
+                        rdr.line().substring(META_INFO_PREFIX.length()).split("\"" + META_INFO_SEPARATOR + "\"");
+
+                    for (int i = 0; i < metaInfo.length; i++)
+                        metaInfo[i] = metaInfo[i].replace("\"", "");
+
+                    collector.metaInfo(metaInfo);
 
                     continue;
                 }
 
-                String[] split = line.split(",");
+                int valCnt = rdr.fields() - 1;
 
-                if (data.isEmpty()) {
-                    initTime = Long.parseLong(split[0]);
+                if (collector.point(rdr.nextLong(), valCnt)) {
+                    for (int i = 0; i < valCnt; i++)
+                        collector.value(i, rdr.nextDouble());
+                }
+            }
 
-                    int plotNum = split.length - 1;
+            if (gzip && ((BenchmarkCompressedInputStream)in).truncated())
+                println("Compressed file is not completed, points are read up to the last flush: " +
+                    file.getAbsolutePath());
+        }
+    }
 
-                    if (plotNum < 1)
-                        throwException("Invalid data file: " + file.getAbsolutePath());
+    /**
+     * @param file Binary file.
+     * @param collector Data collector.
+     * @throws Exception If failed.
+     */
+    private static void readBinaryData(File file, DataCollector collector) throws Exception {
+        BenchmarkProbePointBinaryReader rdr = new BenchmarkProbePointBinaryReader(file);
 
-                    String xAxisLabel = metaInfo == null || metaInfo.length == 0 ? "" : metaInfo[0].replace("\"", "");
+        collector.drvNames = driverNames(rdr.driverNames());
+        collector.probeOverhead = rdr.probeOverhead();
+        collector.clockReadCost = rdr.clockReadCost();
 
-                    for (int i = 0; i < plotNum; i++) {
-                        PlotSeries single = new PlotSeries(drvNames);
+        collector.metaInfo(rdr.metaInfo().toArray(new String[rdr.metaInfo().size()]));
 
-                        single.addConfiguration(file.getParentFile().getName());
+        for (int b = 0; b < rdr.blocks(); b++) {
+            LongBuffer times = rdr.times(b);
 
-                        String yAxisLabel = metaInfo == null || i + 1 >= metaInfo.length ? "" :
-                            metaInfo[i + 1].replace("\"", "");
+            DoubleBuffer[] vals = new DoubleBuffer[rdr.blockColumns(b)];
 
-                        String plotName = file.getName().replace(INPUT_FILE_EXTENSION, "");
+            for (int j = 0; j < vals.length; j++)
+                vals[j] = rdr.values(b, j);
 
-                        String cnt = Integer.toString(i + 1);
+            for (int i = 0; i < rdr.blockSize(b); i++) {
+                if (collector.point(times.get(i), vals.length)) {
+                    for (int j = 0; j < vals.length; j++)
+                        collector.value(j, vals[j].get(i));
+                }
+            }
+        }
+    }
 
-                        cnt = cnt.length() == 1 ? "0" + cnt : cnt;
+    /**
+     * Finds time range of time series points of the file, point values are not parsed.
+     *
+     * @param file Probe results file.
+     * @return Time of the first and the last point in milliseconds, {@code null} if file has no time series points
+     *      or, as the file is skipped when charts are built then, can not be read.
+     */
+    private static long[] timeRange(File file) {
+        try {
+            TimeRangeCollector collector = new TimeRangeCollector(file);
 
-                        data.add(new PlotData("Plot_" + plotName + "_" + cnt, single,
-                            xAxisLabel, yAxisLabel));
-                    }
-                }
+            if (BenchmarkProbePointBinaryReader.binaryFile(file))
+                readBinaryData(file, collector);
+            else
+                readCsvData(file, collector);
 
-                double[] tup = new double[split.length];
+            return collector.first <= collector.last ? new long[] {collector.first, collector.last} : null;
+        }
+        catch (Exception ignored) {
+            return null;
+        }
+    }
 
-                for (int i = 0; i < tup.length; i++) {
-                    double d = i == 0 ? (Long.parseLong(split[0]) - initTime) : Double.parseDouble(split[i]);
+    /**
+     * @param drvNames Comma separated driver names.
+     * @return Sorted driver names.
+     */
+    private static String driverNames(String drvNames) {
+        if (drvNames == null)
+            return null;
 
-                    tup[i] = d;
-                }
+        List<String> drvNamesList = Arrays.asList(drvNames.split(","));
 
-                for (int i = 0; i < split.length - 1; i++)
-                    data.get(i).series().rawData().add(new double[] {tup[0], tup[i + 1]});
-            }
+        Collections.sort(drvNamesList);
 
-            for (PlotData plotData : data)
-                plotData.series().finish();
+        return drvNamesList.toString().replaceAll("\\[", "").replaceAll("]", "");
+    }
 
-            return data;
+    /**
+     * @param file Probe results file.
+     * @return Probe name.
+     */
+    static String probeName(File file) {
+        String name = file.getName();
+
+        for (String ext : INPUT_FILE_EXTENSIONS) {
+            if (name.endsWith(ext))
+                return name.substring(0, name.length() - ext.length());
         }
-        catch (Exception e) {
-            errorHelp("Exception is raised while processing file (will skip): " + file.getAbsolutePath(), e);
 
-            return Collections.emptyList();
+        return name;
+    }
+
+    /**
+     * @param line Header line.
+     * @param prefix Header prefix.
+     * @return Header value or {@code NaN} if it can not be parsed.
+     */
+    private static double headerValue(String line, String prefix) {
+        try {
+            return Double.parseDouble(line.substring(prefix.length()).trim());
+        }
+        catch (NumberFormatException ignored) {
+            return Double.NaN;
         }
     }
 
@@ -955,10 +1585,417 @@ public class JFreeChartGraphPlotter {
             t.printStackTrace();
     }
 
+    /**
+     * Reads plot data from probe results file.
+     */
+    private static class ReadTask extends RecursiveTask<List<PlotData>> {
+        /** */
+        private static final long serialVersionUID = 0L;
+
+        /** */
+        private final File file;
+
+        /** */
+        private final String plotPrefix;
+
+        /** */
+        private final long from;
+
+        /** */
+        private final long to;
+
+        /** */
+        private final int maxSeriesPoints;
+
+        /**
+         * @param file File.
+         * @param plotPrefix Plot name prefix.
+         * @param from Range start in milliseconds.
+         * @param to Range end in milliseconds.
+         * @param maxSeriesPoints Maximum number of points of a time series kept in memory, {@code 0} to keep all
+         *      points.
+         */
+        ReadTask(File file, String plotPrefix, long from, long to, int maxSeriesPoints) {
+            this.file = file;
+            this.plotPrefix = plotPrefix;
+            this.from = from;
+            this.to = to;
+            this.maxSeriesPoints = maxSeriesPoints;
+        }
+
+        /** {@inheritDoc} */
+        @Override protected List<PlotData> compute() {
+            return readData(file, plotPrefix, from, to, maxSeriesPoints);
+        }
+    }
+
+    /**
+     * Calculates plot info and renders chart to PNG file, the chart is not rendered for interactive report.
+     */
+    private static class ChartTask extends RecursiveTask<List<JFreeChartPlotInfo>> {
+        /** */
+        private static final long serialVersionUID = 0L;
+
+        /** */
+        private final File file;
+
+        /** Plots shown on the chart. */
+        private final List<PlotData> plots;
+
+        /** */
+        private final JFreeChartGenerationMode mode;
+
+        /** */
+        private final JFreeChartGraphPlotterArguments args;
+
+        /** Maximum number of rendered points of a series. */
+        private final int maxPoints;
+
+        /** Whether chart is rendered to PNG file. */
+        private final boolean render;
+
+        /**
+         * @param file File to save chart to.
+         * @param plots Plots shown on the chart.
+         * @param mode Generation mode.
+         * @param args Arguments.
+         */
+        ChartTask(File file, List<PlotData> plots, JFreeChartGenerationMode mode,
+            JFreeChartGraphPlotterArguments args) {
+            this.file = file;
+            this.plots = plots;
+            this.mode = mode;
+            this.args = args;
+
+            maxPoints = args.maxPoints();
+            render = args.reportFormat() == JFreeChartReportFormat.PNG;
+        }
+
+        /** {@inheritDoc} */
+        @Override protected List<JFreeChartPlotInfo> compute() {
+            DefaultXYDataset dataSet = new DefaultXYDataset();
+
+            List<JFreeChartPlotInfo> infoList = new ArrayList<>();
+
+            String xAxisLabel = "";
+            String yAxisLabel = "";
+
+            int cnt = 0;
+
+            for (PlotData plotData : plots) {
+                // Series is downsampled for rendering only, statistics are calculated for all points.
+                if (render) {
+                    dataSet.addSeries(plotData.plotName() + "_" + cnt++,
+                        JFreeChartDownsampler.downsample(plotData.series().plotData(), maxPoints));
+                }
+
+                xAxisLabel = plotData.xAxisLabel;
+                yAxisLabel = plotData.yAxisLabel;
+
+                JFreeChartPlotInfo info = info(plotData, mode, args);
+
+                info.axisLabels(xAxisLabel, yAxisLabel);
+
+                // Full resolution series is embedded into interactive report only.
+                if (args.reportFormat() == JFreeChartReportFormat.INTERACTIVE)
+                    info.data(plotData.series().plotData());
+
+                infoList.add(info);
+            }
+
+            if (!render) {
+                for (int i = 0; i < infoList.size(); i++)
+                    infoList.get(i).color(Integer.toHexString(color(i).getRGB()).substring(2));
+
+                return infoList;
+            }
+
+            JFreeChart chart = ChartFactory.createXYLineChart(
+                "",
+                xAxisLabel,
+                yAxisLabel,
+                dataSet,
+                PlotOrientation.VERTICAL,
+                false,
+                false,
+                false);
+
+            AxisSpace as = new AxisSpace();
+
+            as.add(150, RectangleEdge.LEFT);
+
+            XYPlot plot = (XYPlot)chart.getPlot();
+
+            XYLineAndShapeRenderer renderer = new XYLineAndShapeRenderer(true, false);
+
+            BasicStroke stroke = new BasicStroke(1);
+
+            plot.setRenderer(renderer);
+            plot.setBackgroundPaint(WHITE);
+            plot.setRangeGridlinePaint(GRAY);
+            plot.setDomainGridlinePaint(GRAY);
+            plot.setFixedRangeAxisSpace(as);
+            plot.setOutlineStroke(stroke);
+
+            for (int i = 0; i < infoList.size(); i++) {
+                Color color = color(i);
+
+                renderer.setSeriesPaint(i, color);
+                renderer.setSeriesStroke(i, new BasicStroke(3)); // Line thickness.
+
+                infoList.get(i).color(Integer.toHexString(color.getRGB()).substring(2));
+            }
+
+            ValueAxis axis = plot.getRangeAxis();
+
+            Font font = new Font("Helvetica,Arial,sans-serif", Font.BOLD, axis.getTickLabelFont().getSize() + 5);
+
+            axis.setTickLabelFont(font);
+            axis.setLabelFont(font);
+            plot.getDomainAxis().setTickLabelFont(font);
+            plot.getDomainAxis().setLabelFont(font);
+
+            chart.setTitle(new TextTitle(yAxisLabel, new Font(font.getName(), font.getStyle(), 30)));
+
+            try {
+                ChartUtilities.saveChartAsPNG(file, chart, CHART_WIDTH, CHART_HEIGHT,
+                    new ChartRenderingInfo(new StandardEntityCollection()));
+            }
+            catch (IOException e) {
+                throw new IllegalStateException("Failed to save chart to file: " + file.getAbsolutePath(), e);
+            }
+
+            return infoList;
+        }
+    }
+
+    /**
+     * Builds plot data from points read from probe results file.
+     */
+    private static class DataCollector {
+        /** */
+        private final File file;
+
+        /** */
+        private final String plotPrefix;
+
+        /** */
+        private final long from;
+
+        /** */
+        private final long to;
+
+        /** Whether only points within time range are collected. */
+        private final boolean limited;
+
+        /** Maximum number of points of a time series kept in memory, {@code 0} to keep all points. */
+        private final int maxSeriesPoints;
+
+        /** */
+        private final List<PlotData> data = new ArrayList<>();
+
+        /** */
+        private String drvNames;
+
+        /** */
+        private String[] metaInfo;
+
+        /** */
+        private double probeOverhead = Double.NaN;
+
+        /** */
+        private double clockReadCost = Double.NaN;
+
+        /** Whether X values are time. */
+        private boolean timeSeries;
+
+        /** Index of the value with operation counts of the first plot points, {@code -1} if there is no such value. */
+        private int cntIdx = -1;
+
+        /** Time is converted to milliseconds when read, and to seconds when X values are calculated. */
+        private long xMul = 1;
+
+        /** */
+        private double xDiv = 1;
+
+        /** */
+        private long initTime;
+
+        /** X value of the current point. */
+        private double x;
+
+        /**
+         * @param file File.
+         * @param plotPrefix Plot name prefix.
+         * @param from Range start in milliseconds.
+         * @param to Range end in milliseconds.
+         * @param maxSeriesPoints Maximum number of points of a time series kept in memory, {@code 0} to keep all
+         *      points.
+         */
+        DataCollector(File file, String plotPrefix, long from, long to, int maxSeriesPoints) {
+            this.file = file;
+            this.plotPrefix = plotPrefix;
+            this.from = from;
+            this.to = to;
+            this.maxSeriesPoints = maxSeriesPoints;
+
+            limited = from != Long.MIN_VALUE;
+        }
+
+        /**
+         * @param metaInfo Meta info.
+         */
+        void metaInfo(String[] metaInfo) {
+            this.metaInfo = metaInfo;
+
+            String xAxisLabel = xAxisLabel();
+
+            timeSeries = xAxisLabel.startsWith(TIME_AXIS_LABEL_PREFIX);
+
+            if (timeSeries) {
+                xMul = xAxisLabel.equals(MS_TIME_AXIS_LABEL) ? 1 : 1000;
+                xDiv = 1000;
+            }
+            else if (metaInfo.length > 2 && metaInfo[metaInfo.length - 1].equals(PercentileProbe.COUNT_META_INFO))
+                cntIdx = metaInfo.length - 2;
+        }
+
+        /**
+         * @return X axis label as written by probe.
+         */
+        private String xAxisLabel() {
+            return metaInfo == null || metaInfo.length == 0 ? "" : metaInfo[0];
+        }
+
+        /**
+         * Starts new point.
+         *
+         * @param rawX X value as written by probe.
+         * @param valCnt Number of values.
+         * @return {@code False} if point is out of range and its values should be skipped.
+         * @throws Exception If failed.
+         */
+        boolean point(long rawX, int valCnt) throws Exception {
+            if (limited) {
+                if (!timeSeries)
+                    return false;
+
+                long time = rawX * xMul;
+
+                if (time < from || time > to)
+                    return false;
+            }
+
+            if (data.isEmpty()) {
+                initTime = limited ? from : rawX * xMul;
+
+                createPlots(valCnt);
+            }
+
+            x = (rawX * xMul - initTime) / xDiv;
+
+            return true;
+        }
+
+        /**
+         * @param idx Value index.
+         * @param val Value of the current point.
+         */
+        void value(int idx, double val) {
+            if (idx == cntIdx)
+                data.get(0).series().count(val);
+            else
+                data.get(idx).series().add(x, val);
+        }
+
+        /**
+         * @param plotNum Number of plots.
+         * @throws Exception If failed.
+         */
+        private void createPlots(int plotNum) throws Exception {
+            if (plotNum < 1)
+                throwException("Invalid data file: " + file.getAbsolutePath());
+
+            String xAxisLabel = xAxisLabel();
+
+            if (xAxisLabel.equals(MS_TIME_AXIS_LABEL))
+                xAxisLabel = SEC_TIME_AXIS_LABEL;
+
+            // Operation counts are kept with the distribution and are not plotted.
+            if (cntIdx > 0 && cntIdx < plotNum)
+                plotNum = cntIdx;
+            else
+                cntIdx = -1;
+
+            for (int i = 0; i < plotNum; i++) {
+                // Distributions are small and are never aggregated.
+                PlotSeries single = new PlotSeries(drvNames, timeSeries ? maxSeriesPoints : 0);
+
+                single.addConfiguration(file.getParentFile().getName());
+
+                single.probeOverhead = probeOverhead;
+                single.clockReadCost = clockReadCost;
+
+                String yAxisLabel = metaInfo == null || i + 1 >= metaInfo.length ? "" : metaInfo[i + 1];
+
+                String cnt = Integer.toString(i + 1);
+
+                cnt = cnt.length() == 1 ? "0" + cnt : cnt;
+
+                PlotData plotData = new PlotData("Plot_" + plotPrefix + probeName(file) + "_" + cnt, single,
+                    xAxisLabel, yAxisLabel);
+
+                data.add(plotData);
+            }
+        }
+
+        /**
+         * Finishes series one by one, so that only one series is copied at a time.
+         *
+         * @return Collected plot data.
+         */
+        List<PlotData> finish() {
+            for (PlotData plotData : data)
+                plotData.series().finish();
+
+            return data;
+        }
+    }
+
+    /**
+     * Collects time range of time series points instead of the points.
+     */
+    private static class TimeRangeCollector extends DataCollector {
+        /** Time of the first point in milliseconds. */
+        private long first = Long.MAX_VALUE;
+
+        /** Time of the last point in milliseconds. */
+        private long last = Long.MIN_VALUE;
+
+        /**
+         * @param file File.
+         */
+        TimeRangeCollector(File file) {
+            super(file, "", Long.MIN_VALUE, Long.MAX_VALUE, 0);
+        }
+
+        /** {@inheritDoc} */
+        @Override boolean point(long rawX, int valCnt) {
+            if (super.timeSeries) {
+                long time = rawX * super.xMul;
+
+                first = Math.min(first, time);
+                last = Math.max(last, time);
+            }
+
+            return false;
+        }
+    }
+
     /**
      *
      */
-    private static class PlotData {
+    static class PlotData {
         /** */
         private final PlotSeries series;
 
@@ -997,29 +2034,127 @@ public class JFreeChartGraphPlotter {
         public String plotName() {
             return plotName;
         }
+
+        /**
+         * @return X axis label.
+         */
+        public String xAxisLabel() {
+            return xAxisLabel;
+        }
+
+        /**
+         * @return Y axis label.
+         */
+        public String yAxisLabel() {
+            return yAxisLabel;
+        }
+
+        /**
+         * @return {@code True} if X values are time.
+         */
+        public boolean timeSeries() {
+            return xAxisLabel.startsWith(TIME_AXIS_LABEL_PREFIX);
+        }
     }
 
     /**
-     *
+     * Series of plot values.
+     * <p>
+     * Points of a time series longer than the maximum number of kept points are aggregated into buckets of
+     * consecutive points as they are added, so that memory taken by the series is bounded however long the series is.
+     * When all buckets are taken, adjacent buckets are merged and the number of points in a bucket is doubled.
+     * A bucket keeps its first point, mean and sum of squared deviations of its values from the mean, and its minimum
+     * and maximum with their X values. Average, minimum, maximum and standard deviation of any range of buckets
+     * are exact then, while first points of buckets are a systematic sample of the series. Incorrect values
+     * of aggregated series are replaced with the previous correct value.
      */
     static class PlotSeries {
+        /** */
+        private static final int INIT_CAPACITY = 64;
+
         /** */
         private final String seriesName;
 
         /** */
         private final List<String> cfg = new ArrayList<>();
 
-        /** */
-        private List<double[]> rawData = new ArrayList<>();
+        /** Maximum number of kept points, even. */
+        private final int maxPoints;
+
+        /**
+         * X values collected by {@link #add(double, double)} (of first points of buckets if series is aggregated),
+         * {@code null} when series is finished.
+         */
+        private double[] xs = new double[INIT_CAPACITY];
+
+        /**
+         * Y values collected by {@link #add(double, double)} (of first points of buckets if series is aggregated),
+         * {@code null} when series is finished.
+         */
+        private double[] ys = new double[INIT_CAPACITY];
+
+        /** Operation counts collected by {@link #count(double)}, {@code null} if series has no counts. */
+        private double[] cs;
+
+        /** Number of collected values or buckets if series is aggregated. */
+        private int size;
+
+        /** Number of points added to the series. */
+        private long total;
+
+        /** Number of points in a bucket, {@code 1} while series is not aggregated. */
+        private int stride = 1;
+
+        /** Number of points in the last bucket. */
+        private int lastCnt;
+
+        /** Last correct value of aggregated series. */
+        private double lastVal = Double.NaN;
+
+        /** Means of buckets, {@code null} while series is not aggregated. */
+        private double[] means;
+
+        /** Sums of squared deviations of values of buckets from their means. */
+        private double[] m2s;
+
+        /** Minimums of buckets. */
+        private double[] mins;
+
+        /** X values of minimums of buckets. */
+        private double[] minXs;
+
+        /** Maximums of buckets. */
+        private double[] maxs;
+
+        /** X values of maximums of buckets. */
+        private double[] maxXs;
 
         /** */
         private double[][] data;
 
+        /** Operation counts of distribution buckets of finished series, {@code null} if unknown. */
+        private double[] counts;
+
+        /** Overhead of execution aware probes per operation in nanoseconds. */
+        private double probeOverhead = Double.NaN;
+
+        /** Cost of a clock read in nanoseconds. */
+        private double clockReadCost = Double.NaN;
+
         /**
          * @param seriesName Series name.
          */
         PlotSeries(String seriesName) {
+            this(seriesName, 0);
+        }
+
+        /**
+         * @param seriesName Series name.
+         * @param maxPoints Maximum number of kept points, {@code 0} to keep all points.
+         */
+        PlotSeries(String seriesName, int maxPoints) {
             this.seriesName = seriesName;
+            this.maxPoints = maxPoints <= 0 ? Integer.MAX_VALUE - 1 : Math.max(2, maxPoints & ~1);
         }
 
         /**
@@ -1046,10 +2181,206 @@ public class JFreeChartGraphPlotter {
         }
 
         /**
-         * @return Raw data.
+         * Adds value to the series which is not finished yet.
+         *
+         * @param x X value.
+         * @param y Y value.
          */
-        public List<double[]> rawData() {
-            return rawData;
+        public void add(double x, double y) {
+            total++;
+
+            if (means == null) {
+                if (size < maxPoints) {
+                    if (size == xs.length) {
+                        int cap = (int)Math.min((long)size + (size >> 1), maxPoints);
+
+                        xs = Arrays.copyOf(xs, cap);
+                        ys = Arrays.copyOf(ys, cap);
+                    }
+
+                    xs[size] = x;
+                    ys[size] = y;
+
+                    size++;
+
+                    return;
+                }
+
+                aggregate();
+            }
+
+            if (!incorrect(y))
+                lastVal = y;
+            else if (!incorrect(lastVal))
+                y = lastVal;
+
+            if (lastCnt == stride) {
+                if (size == means.length)
+                    merge();
+
+                xs[size] = x;
+                ys[size] = y;
+                means[size] = y;
+                m2s[size] = 0;
+                mins[size] = y;
+                minXs[size] = x;
+                maxs[size] = y;
+                maxXs[size] = x;
+
+                lastCnt = 1;
+
+                size++;
+            }
+            else {
+                int idx = size - 1;
+
+                lastCnt++;
+
+                double d = y - means[idx];
+
+                means[idx] += d / lastCnt;
+                m2s[idx] += d * (y - means[idx]);
+
+                if (y < mins[idx]) {
+                    mins[idx] = y;
+                    minXs[idx] = x;
+                }
+
+                if (y > maxs[idx]) {
+                    maxs[idx] = y;
+                    maxXs[idx] = x;
+                }
+            }
+        }
+
+        /**
+         * Turns collected points into buckets of two points.
+         */
+        private void aggregate() {
+            correctValues();
+
+            lastVal = ys[size - 1];
+
+            means = Arrays.copyOf(ys, size);
+            m2s = new double[size];
+            mins = Arrays.copyOf(ys, size);
+            minXs = Arrays.copyOf(xs, size);
+            maxs = Arrays.copyOf(ys, size);
+            maxXs = Arrays.copyOf(xs, size);
+
+            lastCnt = 1;
+
+            merge();
+        }
+
+        /**
+         * Merges pairs of adjacent full buckets, number of buckets is even.
+         */
+        private void merge() {
+            int half = size / 2;
+
+            for (int i = 0; i < half; i++) {
+                int a = 2 * i;
+                int b = a + 1;
+
+                double d = means[b] - means[a];
+
+                xs[i] = xs[a];
+                ys[i] = ys[a];
+
+                m2s[i] = m2s[a] + m2s[b] + d * d * stride / 2;
+                means[i] = means[a] + d / 2;
+
+                int min = mins[b] < mins[a] ? b : a;
+
+                mins[i] = mins[min];
+                minXs[i] = minXs[min];
+
+                int max = maxs[b] > maxs[a] ? b : a;
+
+                maxs[i] = maxs[max];
+                maxXs[i] = maxXs[max];
+            }
+
+            size = half;
+            stride *= 2;
+            lastCnt = stride;
+        }
+
+        /**
+         * Sets operation count of the last added distribution bucket.
+         *
+         * @param cnt Operation count.
+         */
+        public void count(double cnt) {
+            if (size == 0)
+                return;
+
+            if (cs == null)
+                cs = new double[xs.length];
+            else if (cs.length < xs.length)
+                cs = Arrays.copyOf(cs, xs.length);
+
+            cs[size - 1] = cnt;
+        }
+
+        /**
+         * @return Number of collected values or buckets if series is aggregated.
+         */
+        public int size() {
+            return size;
+        }
+
+        /**
+         * @return {@code True} if points of the series are aggregated into buckets.
+         */
+        public boolean aggregated() {
+            return means != null;
+        }
+
+        /**
+         * @return Number of points in a bucket, {@code 1} if series is not aggregated.
+         */
+        public int stride() {
+            return stride;
+        }
+
+        /**
+         * @param idx Index of value or bucket.
+         * @return Number of points in the bucket.
+         */
+        private int bucketSize(int idx) {
+            return means != null && idx == size - 1 ? lastCnt : stride;
+        }
+
+        /**
+         * @param from Index of the first value or bucket.
+         * @param to Index following the last value or bucket.
+         * @return Number of points in the range.
+         */
+        int points(int from, int to) {
+            long res = 0;
+
+            for (int i = from; i < to; i++)
+                res += bucketSize(i);
+
+            return (int)Math.min(res, Integer.MAX_VALUE);
+        }
+
+        /**
+         * @param idx Index.
+         * @return X value.
+         */
+        public double x(int idx) {
+            return xs[idx];
+        }
+
+        /**
+         * @param idx Index.
+         * @return Y value.
+         */
+        public double y(int idx) {
+            return ys[idx];
         }
 
         /**
@@ -1058,19 +2389,19 @@ public class JFreeChartGraphPlotter {
         public void correctValues() {
             int firstNanIdx = -1;
 
-            for (int i = 0; i < rawData.size(); i++) {
-                double val = rawData.get(i)[1];
+            for (int i = 0; i < size; i++) {
+                double val = ys[i];
 
                 if (incorrect(val)) {
                     if (firstNanIdx == -1)
                         firstNanIdx = i;
                 } else if (i > 0 && firstNanIdx != -1) {
                     for (int j = i; j >= firstNanIdx; j--) {
-                        if (j - 1 >= 0 && incorrect(rawData.get(j - 1)[1])) {
-                            double newVal = j - 2 >= 0 && !incorrect(rawData.get(j - 2)[1]) ?
-                                (rawData.get(j - 2)[1] + rawData.get(j)[1]) / 2 : rawData.get(j)[1];
+                        if (j - 1 >= 0 && incorrect(ys[j - 1])) {
+                            double newVal = j - 2 >= 0 && !incorrect(ys[j - 2]) ?
+                                (ys[j - 2] + ys[j]) / 2 : ys[j];
 
-                            rawData.get(j - 1)[1] = newVal;
+                            ys[j - 1] = newVal;
                         }
                     }
 
@@ -1079,12 +2410,12 @@ public class JFreeChartGraphPlotter {
             }
 
             if (firstNanIdx != -1) {
-                for (int i = firstNanIdx; i < rawData.size(); i++) {
-                    if (i - 1 >= 0 && incorrect(rawData.get(i)[1])) {
-                        double newVal = i + 1 < rawData.size() && !incorrect(rawData.get(i + 1)[1]) ?
-                            (rawData.get(i + 1)[1] + rawData.get(i - 1)[1]) / 2 : rawData.get(i - 1)[1];
+                for (int i = firstNanIdx; i < size; i++) {
+                    if (i - 1 >= 0 && incorrect(ys[i])) {
+                        double newVal = i + 1 < size && !incorrect(ys[i + 1]) ?
+                            (ys[i + 1] + ys[i - 1]) / 2 : ys[i - 1];
 
-                        rawData.get(i)[1] = newVal;
+                        ys[i] = newVal;
                     }
                 }
             }
@@ -1102,22 +2433,139 @@ public class JFreeChartGraphPlotter {
          *
          */
         public void finish() {
-            correctValues();
+            if (means != null) {
+                means = Arrays.copyOf(means, size);
+                m2s = Arrays.copyOf(m2s, size);
+                mins = Arrays.copyOf(mins, size);
+                minXs = Arrays.copyOf(minXs, size);
+                maxs = Arrays.copyOf(maxs, size);
+                maxXs = Arrays.copyOf(maxXs, size);
+            }
+            else
+                correctValues();
 
             data = new double[2][];
 
-            data[0] = new double[rawData.size()];
-            data[1] = new double[rawData.size()];
+            data[0] = size == xs.length ? xs : Arrays.copyOf(xs, size);
+
+            // Collected values are not needed anymore.
+            xs = null;
+
+            data[1] = size == ys.length ? ys : Arrays.copyOf(ys, size);
+
+            ys = null;
+
+            if (cs != null) {
+                counts = Arrays.copyOf(cs, size);
+
+                cs = null;
+            }
+        }
+
+        /**
+         * Sets values of finished aggregated series, minimums and maximums of buckets are not known and are taken
+         * equal to their means.
+         *
+         * @param x X values of the first points of buckets.
+         * @param y Y values of the first points of buckets.
+         * @param means Means of buckets.
+         * @param stride Number of points in a bucket.
+         * @param total Number of points.
+         */
+        void finish(double[] x, double[] y, double[] means, int stride, long total) {
+            size = x.length;
+
+            this.stride = stride;
+            this.total = total;
+
+            lastCnt = (int)(total - (long)(size - 1) * stride);
+
+            this.means = means;
+
+            m2s = new double[size];
+            mins = means;
+            minXs = x;
+            maxs = means;
+            maxXs = x;
+
+            xs = null;
+            ys = null;
+
+            data = new double[][] {x, y};
+        }
+
+        /**
+         * @param stride Number of points in a bucket, a multiple of bucket size of the finished series.
+         * @return X and Y values of the first points and means of buckets of the given size.
+         */
+        double[][] buckets(int stride) {
+            int k = stride / this.stride;
+
+            int n = (size + k - 1) / k;
+
+            double[][] res = new double[3][n];
+
+            double[] vals = means != null ? means : data[1];
+
+            for (int i = 0; i < n; i++) {
+                int from = i * k;
+                int to = Math.min(size, from + k);
 
-            for (int i = 0; i < rawData.size(); i++) {
-                double[] tup = rawData.get(i);
+                res[0][i] = data[0][from];
+                res[1][i] = data[1][from];
 
-                data[0][i] = tup[0];
-                data[1][i] = tup[1];
+                double sum = 0;
+
+                for (int j = from; j < to; j++)
+                    sum += vals[j] * bucketSize(j);
+
+                res[2][i] = sum / points(from, to);
             }
 
-            // No need raw data anymore.
-            rawData = null;
+            return res;
+        }
+
+        /**
+         * @return Values of finished series, X values in the first array and Y values in the second one.
+         *      Values of aggregated series are the first points of buckets.
+         */
+        public double[][] data() {
+            return data;
+        }
+
+        /**
+         * @return Points of finished series to plot: all values or, if series is aggregated, minimum and maximum
+         *      of each bucket in the order of X values.
+         */
+        public double[][] plotData() {
+            if (means == null)
+                return data;
+
+            double[] x = new double[size * 2];
+            double[] y = new double[size * 2];
+
+            int n = 0;
+
+            for (int i = 0; i < size; i++) {
+                boolean minFirst = minXs[i] <= maxXs[i];
+
+                x[n] = minFirst ? minXs[i] : maxXs[i];
+                y[n++] = minFirst ? mins[i] : maxs[i];
+
+                if (minXs[i] != maxXs[i]) {
+                    x[n] = minFirst ? maxXs[i] : minXs[i];
+                    y[n++] = minFirst ? maxs[i] : mins[i];
+                }
+            }
+
+            return new double[][] {Arrays.copyOf(x, n), Arrays.copyOf(y, n)};
+        }
+
+        /**
+         * @return Operation counts of distribution buckets of finished series, {@code null} if unknown.
+         */
+        public double[] counts() {
+            return counts;
         }
     }
 }
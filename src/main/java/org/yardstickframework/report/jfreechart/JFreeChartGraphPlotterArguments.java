@@ -17,12 +17,16 @@ package org.yardstickframework.report.jfreechart;
 import com.beust.jcommander.Parameter;
 import java.util.ArrayList;
 import java.util.List;
+import org.yardstickframework.writers.BenchmarkResultsDb;
 
 /**
  * Graph plotter arguments.
  */
 @SuppressWarnings({"UnusedDeclaration", "FieldCanBeLocal"})
 public class JFreeChartGraphPlotterArguments {
+    /** Default maximum number of points of a time series kept in memory. */
+    static final int DFLT_MAX_SERIES_POINTS = 1 << 18;
+
     /** */
     @Parameter(names = {"-h", "--help"}, description = "Print help message", help = true, hidden = true)
     private boolean help;
@@ -53,6 +57,72 @@ public class JFreeChartGraphPlotterArguments {
             "       INDIVIDUAL_AND_SUM: individual and summary plots are displayed.\n")
     private JFreeChartSummaryMode sumMode = JFreeChartSummaryMode.SUM_ONLY;
 
+    /** */
+    @Parameter(names = {"-pl", "--parallelism"},
+        description = "Number of threads reading probe results files and rendering charts (number of CPUs by default)")
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+
+    /** */
+    @Parameter(names = {"-mp", "--maxPoints"},
+        description = "Maximum number of points of a series shown on a chart, longer series are downsampled keeping " +
+            "their shape, statistics are calculated for all points (1000 by default, 0 to show all points)")
+    private int maxPoints = 1000;
+
+    /** */
+    @Parameter(names = {"-msp", "--maxSeriesPoints"},
+        description = "Maximum number of points of a time series kept in memory while probe results are read, " +
+            "consecutive points of longer series are aggregated, so that files larger than memory can be processed " +
+            "(" + DFLT_MAX_SERIES_POINTS + " by default, 0 to keep all points)")
+    private int maxSeriesPoints = DFLT_MAX_SERIES_POINTS;
+
+    /** */
+    @Parameter(names = {"-rf", "--reportFormat"},
+        description = "Format of the generated report:\n\n" +
+            "       PNG: charts are rendered to PNG files (default).\n\n" +
+            "       INTERACTIVE: self-contained html page with embedded data, charts can be zoomed.\n")
+    private JFreeChartReportFormat reportFormat = JFreeChartReportFormat.PNG;
+
+    /** */
+    @Parameter(names = {"-nc", "--noCache"},
+        description = "Generate all charts again even if probe results have not changed since the previous generation")
+    private boolean noCache;
+
+    /** */
+    @Parameter(names = {"-tr", "--trim"},
+        description = "Number of first and last intervals of time series excluded from statistics (0 by default)")
+    private int trim;
+
+    /** */
+    @Parameter(names = {"-tt", "--trimTransients"},
+        description = "Exclude ramp-up and shutdown intervals deviating from the steady state from statistics")
+    private boolean trimTransients;
+
+    /** */
+    @Parameter(names = {"-st", "--stabilityThreshold"},
+        description = "Coefficient of variation in percent up to which a series is marked stable (5 by default)")
+    private double stabilityThreshold = 5;
+
+    /** */
+    @Parameter(names = {"-db", "--database"},
+        description = "Results database folder, runs matching -dbds, -dbcfg, -dbdn and -dbl are plotted")
+    private String db;
+
+    /** */
+    @Parameter(names = {"-dbds", "--dbDescription"}, description = "Text contained in description of database runs")
+    private String dbDesc;
+
+    /** */
+    @Parameter(names = {"-dbcfg", "--dbConfig"}, description = "Text contained in configuration of database runs")
+    private String dbCfg;
+
+    /** */
+    @Parameter(names = {"-dbdn", "--dbDriverNames"}, description = "Comma-separated driver names of database runs")
+    private String dbDrvNames;
+
+    /** */
+    @Parameter(names = {"-dbl", "--dbLast"}, description = "Number of the latest database runs")
+    private int dbLast;
+
     /**
      * @return List of input folders.
      */
@@ -87,4 +157,74 @@ public class JFreeChartGraphPlotterArguments {
     public JFreeChartSummaryMode summaryMode() {
         return sumMode;
     }
+
+    /**
+     * @return Number of threads reading probe results files and rendering charts.
+     */
+    public int parallelism() {
+        return Math.max(1, parallelism);
+    }
+
+    /**
+     * @return Maximum number of points of a series shown on a chart, {@code 0} to show all points.
+     */
+    public int maxPoints() {
+        return maxPoints;
+    }
+
+    /**
+     * @return Maximum number of points of a time series kept in memory, {@code 0} to keep all points.
+     */
+    public int maxSeriesPoints() {
+        return maxSeriesPoints;
+    }
+
+    /**
+     * @return Report format.
+     */
+    public JFreeChartReportFormat reportFormat() {
+        return reportFormat;
+    }
+
+    /**
+     * @return Whether charts of the previous generation are not reused.
+     */
+    public boolean noCache() {
+        return noCache;
+    }
+
+    /**
+     * @return Number of first and last intervals of time series excluded from statistics.
+     */
+    public int trim() {
+        return trim;
+    }
+
+    /**
+     * @return Whether ramp-up and shutdown intervals are detected and excluded from statistics.
+     */
+    public boolean trimTransients() {
+        return trimTransients;
+    }
+
+    /**
+     * @return Coefficient of variation in percent up to which a series is stable.
+     */
+    public double stabilityThreshold() {
+        return stabilityThreshold;
+    }
+
+    /**
+     * @return Results database folder.
+     */
+    public String database() {
+        return db;
+    }
+
+    /**
+     * @return Query of database runs.
+     */
+    public BenchmarkResultsDb.Query databaseQuery() {
+        return new BenchmarkResultsDb.Query().description(dbDesc).config(dbCfg).driverNames(dbDrvNames).last(dbLast);
+    }
 }
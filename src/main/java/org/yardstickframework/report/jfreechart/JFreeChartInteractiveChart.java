@@ -0,0 +1,680 @@
+/*
+ Licensed under the Apache License, Version 2.0 (the "License");
+ you may not use this file except in compliance with the License.
+ You may obtain a copy of the License at
+
+     http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing, software
+ distributed under the License is distributed on an "AS IS" BASIS,
+ WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ See the License for the specific language governing permissions and
+ limitations under the License.
+ */
+
+package org.yardstickframework.report.jfreechart;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.List;
+
+import static org.yardstickframework.report.jfreechart.JFreeChartGraphPlotter.parseTime;
+
+/**
+ * Builds charts of the interactive report which are drawn by browser.
+ * <p>
+ * Series are embedded to the page as base64 encoded little-endian doubles. Series longer than the maximum number
+ * of points are embedded twice: downsampled for the overview and with all points, which are decoded when the chart
+ * is zoomed in.
+ */
+public class JFreeChartInteractiveChart {
+    /** Style of the report page, replaces styles loaded from CDN by the PNG report. */
+    static final String[] STYLE = {
+        "body{margin:0;font-family:Helvetica,Arial,sans-serif;font-size:14px;line-height:1.4;color:#333;}",
+        "h3{font-size:24px;font-weight:500;margin:20px 0 10px;}",
+        "small{font-size:65%;color:#777;}",
+        ".container-fluid{padding:0 15px;}",
+        ".table{border-collapse:collapse;width:100%;margin-bottom:20px;}",
+        ".table th,.table td{padding:8px;border-top:1px solid #ddd;text-align:left;vertical-align:top;}",
+        ".table thead th{border-bottom:2px solid #ddd;}",
+        ".table-condensed th,.table-condensed td{padding:5px;}",
+        ".panel{border:1px solid #ddd;border-radius:4px;margin-bottom:20px;}",
+        ".panel-heading{background:#f5f5f5;border-bottom:1px solid #ddd;padding:10px 15px;}",
+        ".panel-title{margin:0;font-size:16px;font-weight:500;}",
+        ".panel-body{padding:15px;}",
+        ".row{display:flex;flex-wrap:wrap;margin:0 -15px;}",
+        ".col{box-sizing:border-box;padding:0 15px;min-width:0;}",
+        ".fa{font-style:normal;}",
+        ".fa-square:before{content:\"\\25A0\";}",
+        ".ys-legend{margin-bottom:5px;}",
+        ".ys-item{cursor:pointer;margin-right:15px;white-space:nowrap;user-select:none;}",
+        ".ys-item.off{opacity:0.35;}",
+        ".ys-reset{font-size:12px;}",
+        ".ys-wrap{position:relative;}",
+        ".ys-wrap canvas{position:absolute;left:0;top:0;}",
+        ".ys-over{cursor:crosshair;}",
+        ".ys-readout{position:absolute;display:none;pointer-events:none;background:rgba(255,255,255,0.92);",
+        "border:1px solid #bbb;border-radius:3px;padding:4px 6px;font-size:12px;white-space:nowrap;}"
+    };
+
+    /** Script drawing charts on canvas with zoom by mouse selection, series toggling and hover readout. */
+    static final String[] SCRIPT = {
+        "var YS = (function () {",
+        "    var HEIGHT = 360, LEFT = 80, RIGHT = 20, TOP = 34, BOTTOM = 44;",
+        "    var FONT = 'Helvetica,Arial,sans-serif';",
+        "    var charts = [];",
+        "",
+        "    function decode(s) {",
+        "        var bin = atob(s), view = new DataView(new ArrayBuffer(bin.length)), i;",
+        "        var res = new Float64Array(bin.length >> 3);",
+        "",
+        "        for (i = 0; i < bin.length; i++)",
+        "            view.setUint8(i, bin.charCodeAt(i));",
+        "",
+        "        for (i = 0; i < res.length; i++)",
+        "            res[i] = view.getFloat64(i << 3, true);",
+        "",
+        "        return res;",
+        "    }",
+        "",
+        "    function search(xs, x, from, to) {",
+        "        while (from < to) {",
+        "            var mid = (from + to) >> 1;",
+        "",
+        "            if (xs[mid] < x)",
+        "                from = mid + 1;",
+        "            else",
+        "                to = mid;",
+        "        }",
+        "",
+        "        return from;",
+        "    }",
+        "",
+        "    function ticks(min, max, cnt) {",
+        "        var step = Math.pow(10, Math.floor(Math.log((max - min) / cnt) / Math.LN10));",
+        "        var err = (max - min) / cnt / step;",
+        "",
+        "        if (err >= 7.5)",
+        "            step *= 10;",
+        "        else if (err >= 3.5)",
+        "            step *= 5;",
+        "        else if (err >= 1.5)",
+        "            step *= 2;",
+        "",
+        "        var res = [], v;",
+        "",
+        "        for (v = Math.ceil(min / step) * step; v <= max + step * 1e-9; v += step)",
+        "            res.push(v);",
+        "",
+        "        res.digits = Math.max(0, -Math.floor(Math.log(step) / Math.LN10 + 1e-9));",
+        "",
+        "        return res;",
+        "    }",
+        "",
+        "    function fmt(v, digits) {",
+        "        if (!isFinite(v))",
+        "            return String(v);",
+        "",
+        "        return v.toLocaleString('en-US', {minimumFractionDigits: digits, maximumFractionDigits: digits});",
+        "    }",
+        "",
+        "    function escape(s) {",
+        "        return String(s).replace(/&/g, '&amp;').replace(/</g, '&lt;').replace(/>/g, '&gt;');",
+        "    }",
+        "",
+        "    function Chart(el, def) {",
+        "        var self = this, i, s, item;",
+        "",
+        "        self.def = def;",
+        "",
+        "        self.min = Infinity;",
+        "        self.max = -Infinity;",
+        "",
+        "        for (i = 0; i < def.series.length; i++) {",
+        "            s = def.series[i];",
+        "",
+        "            s.x = decode(s.ox);",
+        "            s.y = decode(s.oy);",
+        "",
+        "            if (s.x.length > 0) {",
+        "                self.min = Math.min(self.min, s.x[0]);",
+        "                self.max = Math.max(self.max, s.x[s.x.length - 1]);",
+        "            }",
+        "        }",
+        "",
+        "        if (!(self.min < self.max)) {",
+        "            self.min = isFinite(self.min) ? self.min - 1 : 0;",
+        "            self.max = self.min + 2;",
+        "        }",
+        "",
+        "        var legend = document.createElement('div');",
+        "",
+        "        legend.className = 'ys-legend';",
+        "",
+        "        for (i = 0; i < def.series.length; i++) {",
+        "            item = document.createElement('span');",
+        "",
+        "            item.className = 'ys-item';",
+        "            item.innerHTML = '<i class=\"fa fa-square\" style=\"color:#' + def.series[i].color + '\"></i> ';",
+        "            item.appendChild(document.createTextNode(def.series[i].name));",
+        "            item.title = 'Show or hide series';",
+        "            item.onclick = (function (s, item) {",
+        "                return function () {",
+        "                    s.hidden = !s.hidden;",
+        "                    item.className = s.hidden ? 'ys-item off' : 'ys-item';",
+        "",
+        "                    self.draw();",
+        "                };",
+        "            })(def.series[i], item);",
+        "",
+        "            legend.appendChild(item);",
+        "        }",
+        "",
+        "        var reset = document.createElement('button');",
+        "",
+        "        reset.className = 'ys-reset';",
+        "        reset.innerHTML = 'Reset zoom';",
+        "        reset.onclick = function () {",
+        "            self.reset();",
+        "        };",
+        "",
+        "        legend.appendChild(reset);",
+        "",
+        "        self.wrap = document.createElement('div');",
+        "        self.wrap.className = 'ys-wrap';",
+        "        self.wrap.style.height = HEIGHT + 'px';",
+        "",
+        "        self.base = document.createElement('canvas');",
+        "        self.over = document.createElement('canvas');",
+        "        self.over.className = 'ys-over';",
+        "        self.over.title = 'Drag to zoom, double click to reset zoom';",
+        "",
+        "        self.readout = document.createElement('div');",
+        "        self.readout.className = 'ys-readout';",
+        "",
+        "        self.wrap.appendChild(self.base);",
+        "        self.wrap.appendChild(self.over);",
+        "        self.wrap.appendChild(self.readout);",
+        "",
+        "        el.appendChild(legend);",
+        "        el.appendChild(self.wrap);",
+        "",
+        "        function pos(e) {",
+        "            return e.clientX - self.over.getBoundingClientRect().left;",
+        "        }",
+        "",
+        "        self.over.onmousedown = function (e) {",
+        "            self.sel = {a: pos(e), b: pos(e)};",
+        "",
+        "            e.preventDefault();",
+        "        };",
+        "",
+        "        self.over.onmousemove = function (e) {",
+        "            if (self.sel) {",
+        "                self.sel.b = pos(e);",
+        "",
+        "                self.overlay();",
+        "            }",
+        "            else",
+        "                self.hover(pos(e));",
+        "        };",
+        "",
+        "        self.over.onmouseup = function () {",
+        "            var sel = self.sel;",
+        "",
+        "            self.sel = null;",
+        "",
+        "            if (sel && Math.abs(sel.b - sel.a) > 4) {",
+        "                var x0 = self.value(Math.min(sel.a, sel.b)), x1 = self.value(Math.max(sel.a, sel.b));",
+        "",
+        "                self.x0 = Math.max(x0, self.min);",
+        "                self.x1 = Math.min(x1, self.max);",
+        "",
+        "                if (self.x0 < self.x1)",
+        "                    self.draw();",
+        "                else",
+        "                    self.reset();",
+        "            }",
+        "            else",
+        "                self.overlay();",
+        "        };",
+        "",
+        "        self.over.onmouseleave = function () {",
+        "            self.sel = null;",
+        "            self.cursor = null;",
+        "",
+        "            self.overlay();",
+        "        };",
+        "",
+        "        self.over.ondblclick = function () {",
+        "            self.reset();",
+        "        };",
+        "",
+        "        self.reset();",
+        "    }",
+        "",
+        "    Chart.prototype.reset = function () {",
+        "        this.x0 = this.min;",
+        "        this.x1 = this.max;",
+        "",
+        "        this.draw();",
+        "    };",
+        "",
+        "    Chart.prototype.value = function (px) {",
+        "        return this.x0 + (px - LEFT) * (this.x1 - this.x0) / this.w;",
+        "    };",
+        "",
+        "    Chart.prototype.px = function (x) {",
+        "        return LEFT + (x - this.x0) * this.w / (this.x1 - this.x0);",
+        "    };",
+        "",
+        "    Chart.prototype.py = function (y) {",
+        "        return TOP + this.h - (y - this.y0) * this.h / (this.y1 - this.y0);",
+        "    };",
+        "",
+        "    Chart.prototype.points = function (s) {",
+        "        var zoomed = this.x0 > this.min || this.x1 < this.max;",
+        "",
+        "        if (!zoomed || !s.fx)",
+        "            return {x: s.x, y: s.y};",
+        "",
+        "        if (!s.full)",
+        "            s.full = {x: decode(s.fx), y: decode(s.fy)};",
+        "",
+        "        var xs = s.full.x, ys = s.full.y;",
+        "        var from = Math.max(search(xs, this.x0, 0, xs.length) - 1, 0);",
+        "        var to = Math.min(search(xs, this.x1, from, xs.length) + 1, xs.length);",
+        "",
+        "        if (to - from <= 2 * this.w)",
+        "            return {x: xs.subarray(from, to), y: ys.subarray(from, to)};",
+        "",
+        "        // Minimum and maximum of every pixel column are kept, so peaks and dips are not lost.",
+        "        var rx = [], ry = [], col = null, minIdx = 0, maxIdx = 0, i, c;",
+        "",
+        "        function flush() {",
+        "            var a = Math.min(minIdx, maxIdx), b = Math.max(minIdx, maxIdx);",
+        "",
+        "            rx.push(xs[a]);",
+        "            ry.push(ys[a]);",
+        "",
+        "            if (b !== a) {",
+        "                rx.push(xs[b]);",
+        "                ry.push(ys[b]);",
+        "            }",
+        "        }",
+        "",
+        "        for (i = from; i < to; i++) {",
+        "            c = Math.floor((xs[i] - this.x0) * this.w / (this.x1 - this.x0));",
+        "",
+        "            if (c !== col) {",
+        "                if (col !== null)",
+        "                    flush();",
+        "",
+        "                col = c;",
+        "                minIdx = maxIdx = i;",
+        "            }",
+        "            else if (ys[i] < ys[minIdx])",
+        "                minIdx = i;",
+        "            else if (ys[i] > ys[maxIdx])",
+        "                maxIdx = i;",
+        "        }",
+        "",
+        "        flush();",
+        "",
+        "        return {x: rx, y: ry};",
+        "    };",
+        "",
+        "    Chart.prototype.draw = function () {",
+        "        var width = this.wrap.clientWidth, ratio = window.devicePixelRatio || 1;",
+        "        var series = this.def.series;",
+        "        var ctx = this.base.getContext('2d'), i, j, s, p, t;",
+        "",
+        "        if (width <= LEFT + RIGHT)",
+        "            return;",
+        "",
+        "        this.width = width;",
+        "        this.w = width - LEFT - RIGHT;",
+        "        this.h = HEIGHT - TOP - BOTTOM;",
+        "",
+        "        this.pts = [];",
+        "",
+        "        var min = Infinity, max = -Infinity;",
+        "",
+        "        for (i = 0; i < series.length; i++) {",
+        "            s = series[i];",
+        "",
+        "            p = s.hidden ? null : this.points(s);",
+        "",
+        "            this.pts.push(p);",
+        "",
+        "            if (p) {",
+        "                for (j = 0; j < p.x.length; j++) {",
+        "                    if (p.x[j] >= this.x0 && p.x[j] <= this.x1 && isFinite(p.y[j])) {",
+        "                        min = Math.min(min, p.y[j]);",
+        "                        max = Math.max(max, p.y[j]);",
+        "                    }",
+        "                }",
+        "            }",
+        "        }",
+        "",
+        "        if (!(min <= max)) {",
+        "            min = 0;",
+        "            max = 1;",
+        "        }",
+        "",
+        "        var pad = (max - min) * 0.05 || Math.abs(max) * 0.05 || 1;",
+        "",
+        "        this.y0 = min - pad;",
+        "        this.y1 = max + pad;",
+        "",
+        "        var canvases = [this.base, this.over];",
+        "",
+        "        for (i = 0; i < canvases.length; i++) {",
+        "            canvases[i].width = width * ratio;",
+        "            canvases[i].height = HEIGHT * ratio;",
+        "            canvases[i].style.width = width + 'px';",
+        "            canvases[i].style.height = HEIGHT + 'px';",
+        "        }",
+        "",
+        "        ctx.setTransform(ratio, 0, 0, ratio, 0, 0);",
+        "        ctx.clearRect(0, 0, width, HEIGHT);",
+        "",
+        "        ctx.font = '12px ' + FONT;",
+        "        ctx.fillStyle = '#333';",
+        "        ctx.strokeStyle = '#ddd';",
+        "        ctx.lineWidth = 1;",
+        "",
+        "        var yTicks = ticks(this.y0, this.y1, 6);",
+        "        var xTicks = ticks(this.x0, this.x1, Math.max(2, this.w / 100));",
+        "",
+        "        this.xDigits = xTicks.digits + 1;",
+        "",
+        "        ctx.textAlign = 'right';",
+        "        ctx.textBaseline = 'middle';",
+        "",
+        "        for (i = 0; i < yTicks.length; i++) {",
+        "            t = Math.round(this.py(yTicks[i])) + 0.5;",
+        "",
+        "            ctx.beginPath();",
+        "            ctx.moveTo(LEFT, t);",
+        "            ctx.lineTo(LEFT + this.w, t);",
+        "            ctx.stroke();",
+        "",
+        "            ctx.fillText(fmt(yTicks[i], yTicks.digits), LEFT - 6, t);",
+        "        }",
+        "",
+        "        ctx.textAlign = 'center';",
+        "        ctx.textBaseline = 'top';",
+        "",
+        "        for (i = 0; i < xTicks.length; i++) {",
+        "            t = Math.round(this.px(xTicks[i])) + 0.5;",
+        "",
+        "            ctx.beginPath();",
+        "            ctx.moveTo(t, TOP);",
+        "            ctx.lineTo(t, TOP + this.h);",
+        "            ctx.stroke();",
+        "",
+        "            ctx.fillText(fmt(xTicks[i], xTicks.digits), t, TOP + this.h + 6);",
+        "        }",
+        "",
+        "        ctx.fillText(this.def.xLabel, LEFT + this.w / 2, HEIGHT - 16);",
+        "",
+        "        ctx.font = 'bold 16px ' + FONT;",
+        "        ctx.fillText(this.def.yLabel, LEFT + this.w / 2, 6);",
+        "",
+        "        ctx.strokeStyle = '#888';",
+        "        ctx.strokeRect(LEFT + 0.5, TOP + 0.5, this.w, this.h);",
+        "",
+        "        ctx.save();",
+        "        ctx.beginPath();",
+        "        ctx.rect(LEFT, TOP, this.w, this.h);",
+        "        ctx.clip();",
+        "",
+        "        ctx.lineWidth = 2;",
+        "        ctx.lineJoin = 'round';",
+        "",
+        "        for (i = 0; i < series.length; i++) {",
+        "            p = this.pts[i];",
+        "",
+        "            if (!p)",
+        "                continue;",
+        "",
+        "            ctx.strokeStyle = '#' + series[i].color;",
+        "            ctx.beginPath();",
+        "",
+        "            var started = false;",
+        "",
+        "            for (j = 0; j < p.x.length; j++) {",
+        "                if (!isFinite(p.y[j])) {",
+        "                    started = false;",
+        "",
+        "                    continue;",
+        "                }",
+        "",
+        "                if (started)",
+        "                    ctx.lineTo(this.px(p.x[j]), this.py(p.y[j]));",
+        "                else",
+        "                    ctx.moveTo(this.px(p.x[j]), this.py(p.y[j]));",
+        "",
+        "                started = true;",
+        "            }",
+        "",
+        "            // Single point is drawn as a dot.",
+        "            if (p.x.length === 1)",
+        "                ctx.lineTo(this.px(p.x[0]) + 0.1, this.py(p.y[0]));",
+        "",
+        "            ctx.stroke();",
+        "        }",
+        "",
+        "        ctx.restore();",
+        "",
+        "        this.overlay();",
+        "    };",
+        "",
+        "    Chart.prototype.hover = function (px) {",
+        "        this.cursor = px >= LEFT && px <= LEFT + this.w ? px : null;",
+        "",
+        "        this.overlay();",
+        "    };",
+        "",
+        "    Chart.prototype.overlay = function () {",
+        "        var ctx = this.over.getContext('2d'), ratio = window.devicePixelRatio || 1, i;",
+        "        var series = this.def.series;",
+        "",
+        "        ctx.setTransform(ratio, 0, 0, ratio, 0, 0);",
+        "        ctx.clearRect(0, 0, this.width, HEIGHT);",
+        "",
+        "        this.readout.style.display = 'none';",
+        "",
+        "        if (this.sel) {",
+        "            ctx.fillStyle = 'rgba(41,128,185,0.15)';",
+        "            var a = Math.min(this.sel.a, this.sel.b);",
+        "",
+        "            ctx.fillRect(a, TOP, Math.max(this.sel.a, this.sel.b) - a, this.h);",
+        "",
+        "            return;",
+        "        }",
+        "",
+        "        if (this.cursor === null || this.cursor === undefined || !this.pts)",
+        "            return;",
+        "",
+        "        var x = this.value(this.cursor), html = '';",
+        "",
+        "        for (i = 0; i < series.length; i++) {",
+        "            var p = this.pts[i];",
+        "",
+        "            if (!p || p.x.length === 0)",
+        "                continue;",
+        "",
+        "            var j = search(p.x, x, 0, p.x.length);",
+        "",
+        "            if (j === p.x.length || (j > 0 && x - p.x[j - 1] < p.x[j] - x))",
+        "                j--;",
+        "",
+        "            ctx.fillStyle = '#' + series[i].color;",
+        "            ctx.beginPath();",
+        "            ctx.arc(this.px(p.x[j]), this.py(p.y[j]), 4, 0, 2 * Math.PI);",
+        "            ctx.fill();",
+        "",
+        "            html += '<div><i class=\"fa fa-square\" style=\"color:#' + series[i].color + '\"></i> ' +",
+        "                fmt(p.x[j], this.xDigits) + ': <b>' + fmt(p.y[j], 2) + '</b></div>';",
+        "        }",
+        "",
+        "        ctx.strokeStyle = '#888';",
+        "        ctx.beginPath();",
+        "        ctx.moveTo(Math.round(this.cursor) + 0.5, TOP);",
+        "        ctx.lineTo(Math.round(this.cursor) + 0.5, TOP + this.h);",
+        "        ctx.stroke();",
+        "",
+        "        if (html) {",
+        "            html = '<div>' + escape(this.def.xLabel) + ': ' + fmt(x, this.xDigits) + '</div>' + html;",
+        "",
+        "            this.readout.innerHTML = html;",
+        "            this.readout.style.display = 'block';",
+        "",
+        "            var left = this.cursor + 12;",
+        "",
+        "            if (left + this.readout.offsetWidth > this.width)",
+        "                left = this.cursor - 12 - this.readout.offsetWidth;",
+        "",
+        "            this.readout.style.left = Math.max(0, left) + 'px';",
+        "            this.readout.style.top = TOP + 'px';",
+        "        }",
+        "    };",
+        "",
+        "    window.addEventListener('resize', function () {",
+        "        for (var i = 0; i < charts.length; i++)",
+        "            charts[i].draw();",
+        "    });",
+        "",
+        "    return {",
+        "        chart: function (id, def) {",
+        "            document.addEventListener('DOMContentLoaded', function () {",
+        "                charts.push(new Chart(document.getElementById(id), def));",
+        "            });",
+        "        }",
+        "    };",
+        "})();"
+    };
+
+    /** */
+    private static final char[] BASE64 =
+        "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/".toCharArray();
+
+    /**
+     * @param id Id of the element the chart is added to.
+     * @param infos Info of plots shown on the chart.
+     * @param maxPoints Maximum number of points of a series shown on the overview, {@code 0} to show all points.
+     * @return Script adding the chart.
+     */
+    static String script(String id, List<JFreeChartPlotInfo> infos, int maxPoints) {
+        StringBuilder sb = new StringBuilder();
+
+        String xAxisLabel = infos.isEmpty() ? "" : infos.get(0).xAxisLabel();
+        String yAxisLabel = infos.isEmpty() ? "" : infos.get(0).yAxisLabel();
+
+        sb.append("YS.chart(");
+        string(sb, id);
+        sb.append(", {xLabel: ");
+        string(sb, xAxisLabel);
+        sb.append(", yLabel: ");
+        string(sb, yAxisLabel);
+        sb.append(", series: [");
+
+        for (int i = 0; i < infos.size(); i++) {
+            JFreeChartPlotInfo info = infos.get(i);
+
+            String t = parseTime(info.name());
+
+            double[][] data = info.data();
+            double[][] overview = JFreeChartDownsampler.downsample(data, maxPoints);
+
+            if (i > 0)
+                sb.append(", ");
+
+            sb.append("{name: ");
+            string(sb, t == null ? info.name() : info.name().substring(t.length() + 1));
+            sb.append(", color: ");
+            string(sb, info.color());
+            sb.append(",\n ox: '");
+            base64(sb, overview[0]);
+            sb.append("',\n oy: '");
+            base64(sb, overview[1]);
+            sb.append('\'');
+
+            if (overview != data) {
+                sb.append(",\n fx: '");
+                base64(sb, data[0]);
+                sb.append("',\n fy: '");
+                base64(sb, data[1]);
+                sb.append('\'');
+            }
+
+            sb.append('}');
+        }
+
+        sb.append("]});");
+
+        return sb.toString();
+    }
+
+    /**
+     * Appends string literal which can be placed to script element.
+     *
+     * @param sb String builder.
+     * @param s String.
+     */
+    private static void string(StringBuilder sb, String s) {
+        sb.append('"');
+
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+
+            if (c == '"' || c == '\\')
+                sb.append('\\').append(c);
+            else if (c < ' ' || c == '<' || c == '>' || c == '&')
+                sb.append(String.format("\\u%04x", (int)c));
+            else
+                sb.append(c);
+        }
+
+        sb.append('"');
+    }
+
+    /**
+     * @param sb String builder.
+     * @param vals Values encoded as little-endian doubles.
+     */
+    static void base64(StringBuilder sb, double[] vals) {
+        ByteBuffer buf = ByteBuffer.allocate(vals.length * 8).order(ByteOrder.LITTLE_ENDIAN);
+
+        buf.asDoubleBuffer().put(vals);
+
+        byte[] bytes = buf.array();
+
+        sb.ensureCapacity(sb.length() + (bytes.length + 2) / 3 * 4);
+
+        int i = 0;
+
+        for (; i + 2 < bytes.length; i += 3) {
+            int b = (bytes[i] & 0xff) << 16 | (bytes[i + 1] & 0xff) << 8 | (bytes[i + 2] & 0xff);
+
+            sb.append(BASE64[b >>> 18]).append(BASE64[(b >>> 12) & 0x3f]).append(BASE64[(b >>> 6) & 0x3f])
+                .append(BASE64[b & 0x3f]);
+        }
+
+        if (i < bytes.length) {
+            int b = (bytes[i] & 0xff) << 16 | (i + 1 < bytes.length ? (bytes[i + 1] & 0xff) << 8 : 0);
+
+            sb.append(BASE64[b >>> 18]).append(BASE64[(b >>> 12) & 0x3f]);
+            sb.append(i + 1 < bytes.length ? BASE64[(b >>> 6) & 0x3f] : '=').append('=');
+        }
+    }
+
+    /**
+     * Ensure static class.
+     */
+    private JFreeChartInteractiveChart() {
+        // No-op.
+    }
+}
@@ -0,0 +1,56 @@
+/*
+ Licensed under the Apache License, Version 2.0 (the "License");
+ you may not use this file except in compliance with the License.
+ You may obtain a copy of the License at
+
+     http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing, software
+ distributed under the License is distributed on an "AS IS" BASIS,
+ WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ See the License for the specific language governing permissions and
+ limitations under the License.
+ */
+
+package org.yardstickframework.report.jfreechart;
+
+/**
+ * Formats values of JSON files written by the plotter and the regression gate.
+ */
+final class JFreeChartJson {
+    /**
+     * @param val Value.
+     * @return JSON number or {@code null} if value is not finite.
+     */
+    static String number(double val) {
+        return Double.isNaN(val) || Double.isInfinite(val) ? "null" : Double.toString(val);
+    }
+
+    /**
+     * @param s String.
+     * @return JSON string.
+     */
+    static String string(String s) {
+        StringBuilder sb = new StringBuilder("\"");
+
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+
+            if (c == '"' || c == '\\')
+                sb.append('\\').append(c);
+            else if (c < ' ')
+                sb.append(String.format("\\u%04x", (int)c));
+            else
+                sb.append(c);
+        }
+
+        return sb.append('"').toString();
+    }
+
+    /**
+     * Ensure static class.
+     */
+    private JFreeChartJson() {
+        // No-op.
+    }
+}
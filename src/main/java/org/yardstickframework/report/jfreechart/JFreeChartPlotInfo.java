@@ -14,12 +14,16 @@
 
 package org.yardstickframework.report.jfreechart;
 
+import java.io.Serializable;
 import java.util.Collection;
 
 /**
  * Additional info for plot.
  */
-public class JFreeChartPlotInfo {
+public class JFreeChartPlotInfo implements Serializable {
+    /** */
+    private static final long serialVersionUID = 0L;
+
     /** */
     private final String name;
 
@@ -44,6 +48,42 @@ public class JFreeChartPlotInfo {
     /** */
     private JFreeChartGenerationMode mode;
 
+    /** */
+    private double probeOverhead = Double.NaN;
+
+    /** */
+    private double clockReadCost = Double.NaN;
+
+    /**
+     * Plot points, X values in the first array and Y values in the second one. Points are kept only for
+     * interactive report until they are embedded into the page.
+     */
+    private double[][] data;
+
+    /** */
+    private String xAxisLabel;
+
+    /** */
+    private String yAxisLabel;
+
+    /** */
+    private double median = Double.NaN;
+
+    /** */
+    private double p5 = Double.NaN;
+
+    /** */
+    private double p95 = Double.NaN;
+
+    /** Number of first intervals excluded from statistics. */
+    private int trimmedFirst;
+
+    /** Number of last intervals excluded from statistics. */
+    private int trimmedLast;
+
+    /** */
+    private boolean stable;
+
     /**
      * @param name Plot name.
      * @param cfg Configuration string.
@@ -133,4 +173,138 @@ public class JFreeChartPlotInfo {
     public void mode(JFreeChartGenerationMode mode) {
         this.mode = mode;
     }
+
+    /**
+     * @return Overhead of execution aware probes per operation in nanoseconds or {@code NaN} if unknown.
+     */
+    public double probeOverhead() {
+        return probeOverhead;
+    }
+
+    /**
+     * @param probeOverhead Overhead of execution aware probes per operation in nanoseconds.
+     */
+    public void probeOverhead(double probeOverhead) {
+        this.probeOverhead = probeOverhead;
+    }
+
+    /**
+     * @return Cost of a clock read in nanoseconds or {@code NaN} if unknown.
+     */
+    public double clockReadCost() {
+        return clockReadCost;
+    }
+
+    /**
+     * @param clockReadCost Cost of a clock read in nanoseconds.
+     */
+    public void clockReadCost(double clockReadCost) {
+        this.clockReadCost = clockReadCost;
+    }
+
+    /**
+     * @return Plot points, X values in the first array and Y values in the second one, or {@code null}
+     *      if points are not kept.
+     */
+    public double[][] data() {
+        return data;
+    }
+
+    /**
+     * @param data Plot points, X values in the first array and Y values in the second one, or {@code null}
+     *      to release them.
+     */
+    public void data(double[][] data) {
+        this.data = data;
+    }
+
+    /**
+     * @param xAxisLabel X axis label.
+     * @param yAxisLabel Y axis label.
+     */
+    public void axisLabels(String xAxisLabel, String yAxisLabel) {
+        this.xAxisLabel = xAxisLabel;
+        this.yAxisLabel = yAxisLabel;
+    }
+
+    /**
+     * @return X axis label.
+     */
+    public String xAxisLabel() {
+        return xAxisLabel;
+    }
+
+    /**
+     * @return Y axis label.
+     */
+    public String yAxisLabel() {
+        return yAxisLabel;
+    }
+
+    /**
+     * @param median Median.
+     * @param p5 5th percentile.
+     * @param p95 95th percentile.
+     * @param trimmedFirst Number of first intervals excluded from statistics.
+     * @param trimmedLast Number of last intervals excluded from statistics.
+     * @param stable Whether coefficient of variation does not exceed stability threshold.
+     */
+    public void steadyState(double median, double p5, double p95, int trimmedFirst, int trimmedLast,
+        boolean stable) {
+        this.median = median;
+        this.p5 = p5;
+        this.p95 = p95;
+        this.trimmedFirst = trimmedFirst;
+        this.trimmedLast = trimmedLast;
+        this.stable = stable;
+    }
+
+    /**
+     * @return Median or {@code NaN} if unknown.
+     */
+    public double median() {
+        return median;
+    }
+
+    /**
+     * @return 5th percentile or {@code NaN} if unknown.
+     */
+    public double percentile5() {
+        return p5;
+    }
+
+    /**
+     * @return 95th percentile or {@code NaN} if unknown.
+     */
+    public double percentile95() {
+        return p95;
+    }
+
+    /**
+     * @return Coefficient of variation, standard deviation relative to the average.
+     */
+    public double coefficientOfVariation() {
+        return stdDiv / Math.abs(avg);
+    }
+
+    /**
+     * @return Number of first intervals excluded from statistics.
+     */
+    public int trimmedFirst() {
+        return trimmedFirst;
+    }
+
+    /**
+     * @return Number of last intervals excluded from statistics.
+     */
+    public int trimmedLast() {
+        return trimmedLast;
+    }
+
+    /**
+     * @return Whether coefficient of variation does not exceed stability threshold.
+     */
+    public boolean stable() {
+        return stable;
+    }
 }
@@ -0,0 +1,718 @@
+/*
+ Licensed under the Apache License, Version 2.0 (the "License");
+ you may not use this file except in compliance with the License.
+ You may obtain a copy of the License at
+
+     http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing, software
+ distributed under the License is distributed on an "AS IS" BASIS,
+ WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ See the License for the specific language governing permissions and
+ limitations under the License.
+ */
+
+package org.yardstickframework.report.jfreechart;
+
+import com.beust.jcommander.JCommander;
+import com.beust.jcommander.ParameterException;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import org.yardstickframework.probes.PercentileProbe;
+
+import static org.yardstickframework.BenchmarkUtils.jcommander;
+import static org.yardstickframework.BenchmarkUtils.println;
+import static org.yardstickframework.report.jfreechart.JFreeChartGraphPlotter.FILE_NAME_COMP;
+import static org.yardstickframework.report.jfreechart.JFreeChartGraphPlotter.errorHelp;
+import static org.yardstickframework.report.jfreechart.JFreeChartGraphPlotter.parseTime;
+import static org.yardstickframework.report.jfreechart.JFreeChartGraphPlotter.probeName;
+import static org.yardstickframework.report.jfreechart.JFreeChartGraphPlotter.readData;
+import static org.yardstickframework.report.jfreechart.JFreeChartGraphPlotter.serverFolder;
+import static org.yardstickframework.report.jfreechart.JFreeChartGraphPlotterArguments.DFLT_MAX_SERIES_POINTS;
+import static org.yardstickframework.report.jfreechart.JFreeChartJson.number;
+import static org.yardstickframework.report.jfreechart.JFreeChartJson.string;
+
+/**
+ * Compares candidate benchmark results with the baseline ones and fails if candidate is significantly slower.
+ * <p>
+ * Benchmark runs are matched by folder name without run time. Values marked as {@code (more is better)} or
+ * {@code (less is better)} by probes (throughput and mean latency of {@code ThroughputLatencyProbe}) are compared
+ * point by point, latency percentiles of {@link PercentileProbe} are compared run by run. Significance of a change
+ * is checked by two-sided Mann-Whitney U test, metrics which do not have enough samples for the test (e.g.
+ * percentiles of a single run) are compared by threshold only.
+ * <p>
+ * Verdict table is printed, JSON summary is written to the output file. Process exits with
+ * {@link #REGRESSION_EXIT_CODE} if a significant change to the worse beyond threshold is found and with
+ * {@link #ERROR_EXIT_CODE} if results can not be compared.
+ */
+public class JFreeChartRegressionGate {
+    /** */
+    public static final int REGRESSION_EXIT_CODE = 1;
+
+    /** */
+    public static final int ERROR_EXIT_CODE = 2;
+
+    /** Percentiles of latency distribution which are compared. */
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9};
+
+    /** Minimum number of samples in each result set for Mann-Whitney U test. */
+    private static final int MIN_SAMPLES = 5;
+
+    /** */
+    private static final String MORE_IS_BETTER = "(more is better)";
+
+    /** */
+    private static final String LESS_IS_BETTER = "(less is better)";
+
+    /**
+     * Verdict of a metric or of the whole comparison.
+     */
+    public enum Verdict {
+        /** No significant change beyond threshold. */
+        OK,
+
+        /** Significant change to the better beyond threshold. */
+        IMPROVEMENT,
+
+        /** Significant change to the worse beyond threshold. */
+        REGRESSION
+    }
+
+    /**
+     * @param cmdArgs Arguments.
+     */
+    public static void main(String[] cmdArgs) {
+        int code;
+
+        try {
+            JFreeChartRegressionGateArguments args = new JFreeChartRegressionGateArguments();
+
+            JCommander jCommander = jcommander(cmdArgs, args, "<regression-gate>");
+
+            if (args.help()) {
+                jCommander.usage();
+
+                return;
+            }
+
+            code = run(args);
+        }
+        catch (ParameterException e) {
+            errorHelp("Invalid parameter.", e);
+
+            code = ERROR_EXIT_CODE;
+        }
+        catch (Exception e) {
+            errorHelp("Failed to execute regression gate.", e);
+
+            code = ERROR_EXIT_CODE;
+        }
+
+        System.exit(code);
+    }
+
+    /**
+     * @param args Arguments.
+     * @return Exit code.
+     * @throws IOException If failed to write summary.
+     */
+    static int run(JFreeChartRegressionGateArguments args) throws IOException {
+        if (args.baseline().isEmpty() || args.candidate().isEmpty()) {
+            errorHelp("Baseline and candidate folders are not defined.");
+
+            return ERROR_EXIT_CODE;
+        }
+
+        Map<String, Map<String, Metric>> base = collect(args.baseline());
+        Map<String, Map<String, Metric>> cand = collect(args.candidate());
+
+        if (base == null || cand == null)
+            return ERROR_EXIT_CODE;
+
+        List<Comparison> res = compare(base, cand, args);
+
+        if (res.isEmpty()) {
+            errorHelp("No benchmark results to compare, baseline: " + base.keySet() + ", candidate: " +
+                cand.keySet());
+
+            return ERROR_EXIT_CODE;
+        }
+
+        Verdict verdict = verdict(res);
+
+        printTable(res, verdict);
+
+        File out = new File(args.output());
+
+        writeSummary(out, res, verdict, args);
+
+        println("Summary is written to file: ", out.getAbsoluteFile());
+
+        return verdict == Verdict.REGRESSION ? REGRESSION_EXIT_CODE : 0;
+    }
+
+    /**
+     * Collects samples of all metrics of the result set.
+     *
+     * @param folders Folders with probe results.
+     * @return Metrics by benchmark and metric name or {@code null} if a folder does not exist.
+     */
+    static Map<String, Map<String, Metric>> collect(List<String> folders) {
+        Map<String, Map<String, Metric>> res = new TreeMap<>();
+
+        for (String folder : folders) {
+            File f = new File(folder).getAbsoluteFile();
+
+            if (!f.isDirectory()) {
+                errorHelp("Folder does not exist: " + f.getAbsolutePath());
+
+                return null;
+            }
+
+            List<File> runs = new ArrayList<>();
+
+            runFolders(f, runs);
+
+            for (File run : runs) {
+                String name = run.getName();
+
+                String time = parseTime(name);
+
+                if (time != null && name.length() > time.length())
+                    name = name.substring(time.length() + 1);
+
+                Map<String, Metric> metrics = res.get(name);
+
+                if (metrics == null) {
+                    metrics = new TreeMap<>();
+
+                    res.put(name, metrics);
+                }
+
+                collect(run, metrics);
+            }
+        }
+
+        return res;
+    }
+
+    /**
+     * Finds folders with probe results of benchmark runs, folders with results of server probes are skipped.
+     *
+     * @param folder Folder.
+     * @param res Found folders.
+     */
+    private static void runFolders(File folder, List<File> res) {
+        File[] files = folder.listFiles();
+
+        if (files == null || serverFolder(folder))
+            return;
+
+        Arrays.sort(files, FILE_NAME_COMP);
+
+        boolean run = false;
+
+        for (File file : files) {
+            if (file.isFile() && !probeName(file).equals(file.getName()))
+                run = true;
+        }
+
+        if (run)
+            res.add(folder);
+
+        for (File file : files) {
+            if (file.isDirectory())
+                runFolders(file, res);
+        }
+    }
+
+    /**
+     * @param run Folder with probe results of a benchmark run.
+     * @param metrics Metrics.
+     */
+    private static void collect(File run, Map<String, Metric> metrics) {
+        File[] files = run.listFiles();
+
+        Arrays.sort(files, FILE_NAME_COMP);
+
+        for (File file : files) {
+            String probe = probeName(file);
+
+            if (!file.isFile() || probe.equals(file.getName()))
+                continue;
+
+            for (JFreeChartGraphPlotter.PlotData plotData : readData(file, "", Long.MIN_VALUE, Long.MAX_VALUE,
+                DFLT_MAX_SERIES_POINTS)) {
+                double[][] data = plotData.series().data();
+
+                if (plotData.timeSeries()) {
+                    String label = plotData.yAxisLabel();
+
+                    boolean more = label.endsWith(MORE_IS_BETTER);
+
+                    if (!more && !label.endsWith(LESS_IS_BETTER))
+                        continue;
+
+                    label = label.substring(0, label.lastIndexOf('(')).trim();
+
+                    Metric metric = metric(metrics, probe, label, !more, false);
+
+                    for (double val : data[1])
+                        metric.add(val);
+                }
+                else if (probe.equals(PercentileProbe.class.getSimpleName())) {
+                    for (double p : PERCENTILES) {
+                        String label = "p" + (p == Math.floor(p) ? String.valueOf((int)p) : String.valueOf(p)) +
+                            ' ' + plotData.xAxisLabel();
+
+                        metric(metrics, probe, label, true, true).add(percentile(data, p / 100));
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * @param metrics Metrics.
+     * @param probe Probe name.
+     * @param name Metric name.
+     * @param lessIsBetter Whether lower value is better.
+     * @param percentile Whether metric is latency percentile.
+     * @return Existing or created metric.
+     */
+    private static Metric metric(Map<String, Metric> metrics, String probe, String name, boolean lessIsBetter,
+        boolean percentile) {
+        String key = probe + ": " + name;
+
+        Metric res = metrics.get(key);
+
+        if (res == null) {
+            res = new Metric(probe, name, lessIsBetter, percentile);
+
+            metrics.put(key, res);
+        }
+
+        return res;
+    }
+
+    /**
+     * Finds bucket bound below which the given fraction of operations falls.
+     *
+     * @param data Latency distribution, bucket bounds in the first array and fractions of operations in the second.
+     * @param q Quantile.
+     * @return Bucket bound or {@code NaN} if there are no operations.
+     */
+    static double percentile(double[][] data, double q) {
+        double sum = 0;
+
+        for (double val : data[1])
+            sum += val;
+
+        if (!(sum > 0))
+            return Double.NaN;
+
+        double cur = 0;
+
+        for (int i = 0; i < data[1].length; i++) {
+            cur += data[1][i];
+
+            if (cur >= q * sum)
+                return data[0][i];
+        }
+
+        return data[0][data[0].length - 1];
+    }
+
+    /**
+     * Compares metrics of benchmarks found in both result sets.
+     *
+     * @param base Baseline metrics.
+     * @param cand Candidate metrics.
+     * @param args Arguments.
+     * @return Comparisons.
+     */
+    static List<Comparison> compare(Map<String, Map<String, Metric>> base, Map<String, Map<String, Metric>> cand,
+        JFreeChartRegressionGateArguments args) {
+        List<Comparison> res = new ArrayList<>();
+
+        for (Map.Entry<String, Map<String, Metric>> entry : base.entrySet()) {
+            Map<String, Metric> candMetrics = cand.get(entry.getKey());
+
+            if (candMetrics == null) {
+                println("Benchmark is not found in candidate results (will skip): " + entry.getKey());
+
+                continue;
+            }
+
+            for (Metric b : entry.getValue().values()) {
+                Metric c = candMetrics.get(b.probe + ": " + b.name);
+
+                if (c == null || b.size == 0 || c.size == 0)
+                    continue;
+
+                res.add(new Comparison(entry.getKey(), b, c,
+                    b.percentile ? args.percentileThreshold() : args.threshold(), args.alpha()));
+            }
+        }
+
+        for (String bench : cand.keySet()) {
+            if (!base.containsKey(bench))
+                println("Benchmark is not found in baseline results (will skip): " + bench);
+        }
+
+        return res;
+    }
+
+    /**
+     * @param res Comparisons.
+     * @return Overall verdict.
+     */
+    static Verdict verdict(List<Comparison> res) {
+        Verdict verdict = Verdict.OK;
+
+        for (Comparison cmp : res) {
+            if (cmp.verdict == Verdict.REGRESSION)
+                return Verdict.REGRESSION;
+
+            if (cmp.verdict == Verdict.IMPROVEMENT)
+                verdict = Verdict.IMPROVEMENT;
+        }
+
+        return verdict;
+    }
+
+    /**
+     * Two-sided Mann-Whitney U test with normal approximation, tie and continuity corrections.
+     *
+     * @param a First sample.
+     * @param b Second sample.
+     * @return P-value or {@code NaN} if samples are too small.
+     */
+    static double mannWhitney(double[] a, double[] b) {
+        int n1 = a.length;
+        int n2 = b.length;
+
+        if (n1 < MIN_SAMPLES || n2 < MIN_SAMPLES)
+            return Double.NaN;
+
+        int n = n1 + n2;
+
+        double[] all = new double[n];
+
+        System.arraycopy(a, 0, all, 0, n1);
+        System.arraycopy(b, 0, all, n1, n2);
+
+        Integer[] idx = new Integer[n];
+
+        for (int i = 0; i < n; i++)
+            idx[i] = i;
+
+        final double[] vals = all;
+
+        Arrays.sort(idx, new Comparator<Integer>() {
+            @Override public int compare(Integer i1, Integer i2) {
+                return Double.compare(vals[i1], vals[i2]);
+            }
+        });
+
+        double rankSum = 0;
+        double ties = 0;
+
+        for (int i = 0; i < n; ) {
+            int j = i + 1;
+
+            while (j < n && vals[idx[j]] == vals[idx[i]])
+                j++;
+
+            // Tied values get average rank.
+            double rank = (i + j + 1) / 2.0;
+
+            for (int k = i; k < j; k++) {
+                if (idx[k] < n1)
+                    rankSum += rank;
+            }
+
+            double t = j - i;
+
+            ties += t * t * t - t;
+
+            i = j;
+        }
+
+        double u = rankSum - n1 * (n1 + 1) / 2.0;
+
+        double mean = (double)n1 * n2 / 2;
+        double sd = Math.sqrt((double)n1 * n2 / 12 * ((n + 1) - ties / ((double)n * (n - 1))));
+
+        if (sd == 0)
+            return 1;
+
+        double z = (Math.abs(u - mean) - 0.5) / sd;
+
+        return Math.min(1, 2 * normalTail(Math.max(0, z)));
+    }
+
+    /**
+     * @param z Non-negative value.
+     * @return Probability that standard normal variable is greater than the value.
+     */
+    private static double normalTail(double z) {
+        // Complementary error function approximation with relative error less than 1.2e-7.
+        double x = z / Math.sqrt(2);
+
+        double t = 1 / (1 + 0.5 * x);
+
+        double erfc = t * Math.exp(-x * x - 1.26551223 + t * (1.00002368 + t * (0.37409196 + t * (0.09678418 +
+            t * (-0.18628806 + t * (0.27886807 + t * (-1.13520398 + t * (1.48851587 + t * (-0.82215223 +
+            t * 0.17087277)))))))));
+
+        return erfc / 2;
+    }
+
+    /**
+     * @param res Comparisons.
+     * @param verdict Overall verdict.
+     */
+    private static void printTable(List<Comparison> res, Verdict verdict) {
+        String fmt = "%-40s %-55s %15s %15s %9s %8s %s";
+
+        System.out.println(String.format(Locale.US, fmt, "Benchmark", "Metric", "Baseline", "Candidate",
+            "Delta, %", "P-value", "Verdict"));
+
+        for (Comparison cmp : res) {
+            System.out.println(String.format(Locale.US, fmt, cmp.bench, cmp.base.probe + ": " + cmp.base.name,
+                format(cmp.baseVal), format(cmp.candVal), String.format(Locale.US, "%+.2f", cmp.delta),
+                Double.isNaN(cmp.pVal) ? "n/a" : String.format(Locale.US, "%.4f", cmp.pVal), cmp.verdict));
+        }
+
+        System.out.println();
+        System.out.println("Verdict: " + verdict);
+    }
+
+    /**
+     * @param val Value.
+     * @return Formatted value.
+     */
+    private static String format(double val) {
+        return JFreeChartResultPageGenerator.NUMBER_INSTANCE.format(val);
+    }
+
+    /**
+     * @param file Summary file.
+     * @param res Comparisons.
+     * @param verdict Overall verdict.
+     * @param args Arguments.
+     * @throws IOException If failed.
+     */
+    private static void writeSummary(File file, List<Comparison> res, Verdict verdict,
+        JFreeChartRegressionGateArguments args) throws IOException {
+        try (Writer w = new OutputStreamWriter(new FileOutputStream(file), "UTF-8")) {
+            w.write("{\n");
+            w.write("  \"verdict\": \"" + verdict + "\",\n");
+            w.write("  \"alpha\": " + number(args.alpha()) + ",\n");
+            w.write("  \"threshold\": " + number(args.threshold()) + ",\n");
+            w.write("  \"percentileThreshold\": " + number(args.percentileThreshold()) + ",\n");
+            w.write("  \"metrics\": [");
+
+            for (int i = 0; i < res.size(); i++) {
+                Comparison cmp = res.get(i);
+
+                w.write(i == 0 ? "\n" : ",\n");
+                w.write("    {\"benchmark\": " + string(cmp.bench) +
+                    ", \"probe\": " + string(cmp.base.probe) +
+                    ", \"metric\": " + string(cmp.base.name) +
+                    ", \"lessIsBetter\": " + cmp.base.lessIsBetter +
+                    ", \"baseline\": " + number(cmp.baseVal) +
+                    ", \"candidate\": " + number(cmp.candVal) +
+                    ", \"deltaPercent\": " + number(cmp.delta) +
+                    ", \"pValue\": " + number(cmp.pVal) +
+                    ", \"baselineSamples\": " + cmp.base.size +
+                    ", \"candidateSamples\": " + cmp.cand.size +
+                    ", \"threshold\": " + number(cmp.threshold) +
+                    ", \"verdict\": \"" + cmp.verdict + "\"}");
+            }
+
+            w.write("\n  ]\n");
+            w.write("}\n");
+        }
+    }
+
+    /**
+     * Samples of a metric collected from a result set.
+     */
+    static class Metric {
+        /** */
+        private final String probe;
+
+        /** */
+        private final String name;
+
+        /** Whether lower value is better. */
+        private final boolean lessIsBetter;
+
+        /** Whether metric is latency percentile, samples are values of runs. */
+        private final boolean percentile;
+
+        /** */
+        private double[] vals = new double[64];
+
+        /** */
+        private int size;
+
+        /**
+         * @param probe Probe name.
+         * @param name Metric name.
+         * @param lessIsBetter Whether lower value is better.
+         * @param percentile Whether metric is latency percentile.
+         */
+        Metric(String probe, String name, boolean lessIsBetter, boolean percentile) {
+            this.probe = probe;
+            this.name = name;
+            this.lessIsBetter = lessIsBetter;
+            this.percentile = percentile;
+        }
+
+        /**
+         * @param val Sample, {@code NaN} is skipped.
+         */
+        void add(double val) {
+            if (Double.isNaN(val))
+                return;
+
+            if (size == vals.length)
+                vals = Arrays.copyOf(vals, size + (size >> 1));
+
+            vals[size++] = val;
+        }
+
+        /**
+         * @return Samples.
+         */
+        double[] values() {
+            return Arrays.copyOf(vals, size);
+        }
+
+        /**
+         * @return Mean of samples.
+         */
+        double mean() {
+            double sum = 0;
+
+            for (int i = 0; i < size; i++)
+                sum += vals[i];
+
+            return sum / size;
+        }
+    }
+
+    /**
+     * Comparison of a metric of baseline and candidate results.
+     */
+    static class Comparison {
+        /** */
+        private final String bench;
+
+        /** */
+        private final Metric base;
+
+        /** */
+        private final Metric cand;
+
+        /** */
+        private final double baseVal;
+
+        /** */
+        private final double candVal;
+
+        /** Change of candidate value relative to the baseline one in percent. */
+        private final double delta;
+
+        /** P-value of Mann-Whitney U test or {@code NaN} if there are not enough samples. */
+        private final double pVal;
+
+        /** */
+        private final double threshold;
+
+        /** */
+        private final Verdict verdict;
+
+        /**
+         * @param bench Benchmark.
+         * @param base Baseline metric.
+         * @param cand Candidate metric.
+         * @param threshold Threshold in percent.
+         * @param alpha Significance level.
+         */
+        Comparison(String bench, Metric base, Metric cand, double threshold, double alpha) {
+            this.bench = bench;
+            this.base = base;
+            this.cand = cand;
+            this.threshold = threshold;
+
+            baseVal = base.mean();
+            candVal = cand.mean();
+
+            delta = baseVal == 0 ? (candVal == 0 ? 0 : Double.POSITIVE_INFINITY * Math.signum(candVal)) :
+                (candVal - baseVal) / Math.abs(baseVal) * 100;
+
+            pVal = mannWhitney(base.values(), cand.values());
+
+            // Change is positive if it is to the worse.
+            double worse = base.lessIsBetter ? delta : -delta;
+
+            boolean significant = Double.isNaN(pVal) || pVal < alpha;
+
+            if (significant && worse > threshold)
+                verdict = Verdict.REGRESSION;
+            else if (significant && -worse > threshold)
+                verdict = Verdict.IMPROVEMENT;
+            else
+                verdict = Verdict.OK;
+        }
+
+        /**
+         * @return Verdict.
+         */
+        Verdict verdict() {
+            return verdict;
+        }
+
+        /**
+         * @return Change of candidate value relative to the baseline one in percent.
+         */
+        double delta() {
+            return delta;
+        }
+
+        /**
+         * @return P-value of Mann-Whitney U test or {@code NaN} if there are not enough samples.
+         */
+        double pValue() {
+            return pVal;
+        }
+
+        /**
+         * @return Metric name including probe name.
+         */
+        String metric() {
+            return base.probe + ": " + base.name;
+        }
+    }
+
+    /**
+     * Ensure static class.
+     */
+    private JFreeChartRegressionGate() {
+        // No-op.
+    }
+}
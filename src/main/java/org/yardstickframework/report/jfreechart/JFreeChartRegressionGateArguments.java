@@ -0,0 +1,110 @@
+/*
+ Licensed under the Apache License, Version 2.0 (the "License");
+ you may not use this file except in compliance with the License.
+ You may obtain a copy of the License at
+
+     http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing, software
+ distributed under the License is distributed on an "AS IS" BASIS,
+ WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ See the License for the specific language governing permissions and
+ limitations under the License.
+ */
+
+package org.yardstickframework.report.jfreechart;
+
+import com.beust.jcommander.Parameter;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Regression gate arguments.
+ */
+@SuppressWarnings({"UnusedDeclaration", "FieldCanBeLocal"})
+public class JFreeChartRegressionGateArguments {
+    /** */
+    @Parameter(names = {"-h", "--help"}, description = "Print help message", help = true, hidden = true)
+    private boolean help;
+
+    /** */
+    @Parameter(names = {"-b", "--baseline"}, variableArity = true,
+        description = "Space-separated list of folders with baseline probe results (required)")
+    private List<String> baseline = new ArrayList<>();
+
+    /** */
+    @Parameter(names = {"-c", "--candidate"}, variableArity = true,
+        description = "Space-separated list of folders with candidate probe results (required)")
+    private List<String> candidate = new ArrayList<>();
+
+    /** */
+    @Parameter(names = {"-a", "--alpha"},
+        description = "Significance level of Mann-Whitney U test (0.05 by default)")
+    private double alpha = 0.05;
+
+    /** */
+    @Parameter(names = {"-t", "--threshold"},
+        description = "Change of throughput or mean latency in percent which is a regression if it is significant " +
+            "(5 by default)")
+    private double threshold = 5;
+
+    /** */
+    @Parameter(names = {"-pt", "--percentileThreshold"},
+        description = "Change of latency percentile in percent which is a regression if it is significant " +
+            "(10 by default)")
+    private double percentileThreshold = 10;
+
+    /** */
+    @Parameter(names = {"-o", "--output"},
+        description = "File the machine-readable JSON summary is written to (regression-summary.json by default)")
+    private String output = "regression-summary.json";
+
+    /**
+     * @return Help.
+     */
+    public boolean help() {
+        return help;
+    }
+
+    /**
+     * @return Folders with baseline probe results.
+     */
+    public List<String> baseline() {
+        return baseline;
+    }
+
+    /**
+     * @return Folders with candidate probe results.
+     */
+    public List<String> candidate() {
+        return candidate;
+    }
+
+    /**
+     * @return Significance level.
+     */
+    public double alpha() {
+        return alpha;
+    }
+
+    /**
+     * @return Regression threshold of throughput and mean latency in percent.
+     */
+    public double threshold() {
+        return threshold;
+    }
+
+    /**
+     * @return Regression threshold of latency percentiles in percent.
+     */
+    public double percentileThreshold() {
+        return percentileThreshold;
+    }
+
+    /**
+     * @return Summary file.
+     */
+    public String output() {
+        return output;
+    }
+}
@@ -0,0 +1,182 @@
+/*
+ Licensed under the Apache License, Version 2.0 (the "License");
+ you may not use this file except in compliance with the License.
+ You may obtain a copy of the License at
+
+     http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing, software
+ distributed under the License is distributed on an "AS IS" BASIS,
+ WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ See the License for the specific language governing permissions and
+ limitations under the License.
+ */
+
+package org.yardstickframework.report.jfreechart;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.yardstickframework.BenchmarkUtils.println;
+
+/**
+ * Cache of generated charts, so that only charts of new or changed benchmark runs are generated when reports
+ * are generated again.
+ * <p>
+ * Cache of an output folder is saved to {@value #CACHE_FILE} file in the folder. It keeps plot infos of the charts
+ * together with a key built from content hashes of probe results files the charts are built from, generation mode
+ * and arguments the charts depend on. Plot infos keep statistics and axis labels, series data is kept only
+ * for interactive reports which embed it into the page, so cache of PNG report stays small. Probe results files
+ * are neither parsed nor charts are rendered while the key is the same and chart files exist, only the page
+ * is generated from the cached plot infos.
+ */
+final class JFreeChartReportCache {
+    /** Name of the file the cache of an output folder is saved to. */
+    static final String CACHE_FILE = ".plotter-cache";
+
+    /** Version of the cache, changed when charts built from the same data change. */
+    private static final int VERSION = 2;
+
+    /** */
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    /** */
+    private static final Comparator<File> PATH_COMP = new Comparator<File>() {
+        @Override public int compare(File f1, File f2) {
+            return f1.getAbsolutePath().compareTo(f2.getAbsolutePath());
+        }
+    };
+
+    /**
+     * @param files Probe results files charts are built from.
+     * @param mode Generation mode.
+     * @param args Arguments.
+     * @return Cache key or {@code null} if cache is disabled.
+     * @throws Exception If failed.
+     */
+    static String key(Collection<File> files, JFreeChartGenerationMode mode, JFreeChartGraphPlotterArguments args)
+        throws Exception {
+        if (args.noCache())
+            return null;
+
+        MessageDigest md = MessageDigest.getInstance("SHA-1");
+
+        update(md, VERSION + "," + mode + ',' + args.summaryMode() + ',' + args.reportFormat() + ',' +
+            args.maxPoints() + ',' + args.maxSeriesPoints() + ',' + args.trim() + ',' + args.trimTransients() + ',' +
+            args.stabilityThreshold());
+
+        List<File> files0 = new ArrayList<>(files);
+
+        Collections.sort(files0, PATH_COMP);
+
+        byte[] buf = new byte[64 * 1024];
+
+        for (File file : files0) {
+            update(md, file.getAbsolutePath());
+
+            try (InputStream in = new FileInputStream(file)) {
+                int len;
+
+                while ((len = in.read(buf)) > 0)
+                    md.update(buf, 0, len);
+            }
+        }
+
+        byte[] digest = md.digest();
+
+        char[] res = new char[digest.length * 2];
+
+        for (int i = 0; i < digest.length; i++) {
+            res[i * 2] = HEX[(digest[i] >> 4) & 0xF];
+            res[i * 2 + 1] = HEX[digest[i] & 0xF];
+        }
+
+        return new String(res);
+    }
+
+    /**
+     * @param md Message digest.
+     * @param s String, followed by separator so that adjacent strings can not be confused.
+     * @throws Exception If failed.
+     */
+    private static void update(MessageDigest md, String s) throws Exception {
+        md.update(s.getBytes("UTF-8"));
+        md.update((byte)0);
+    }
+
+    /**
+     * @param folder Output folder.
+     * @param key Cache key, {@code null} if cache is disabled.
+     * @param args Arguments.
+     * @return Plot infos of cached charts or {@code null} if charts should be generated.
+     */
+    @SuppressWarnings("unchecked")
+    static Map<String, List<JFreeChartPlotInfo>> load(File folder, String key, JFreeChartGraphPlotterArguments args) {
+        File file = new File(folder, CACHE_FILE);
+
+        if (key == null || !file.isFile())
+            return null;
+
+        try (ObjectInputStream in = new ObjectInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (!key.equals(in.readUTF()))
+                return null;
+
+            Map<String, List<JFreeChartPlotInfo>> infoMap = (Map<String, List<JFreeChartPlotInfo>>)in.readObject();
+
+            if (args.reportFormat() == JFreeChartReportFormat.PNG) {
+                for (String chart : infoMap.keySet()) {
+                    if (!new File(chart).isFile())
+                        return null;
+                }
+            }
+
+            println("Probe results have not changed, charts are reused: " + folder.getPath());
+
+            return infoMap;
+        }
+        catch (IOException | ClassNotFoundException | ClassCastException ignored) {
+            // Cache is damaged or written by incompatible version, charts are generated again.
+            return null;
+        }
+    }
+
+    /**
+     * @param folder Output folder.
+     * @param key Cache key, {@code null} if cache is disabled.
+     * @param infoMap Plot infos of generated charts.
+     * @throws Exception If failed.
+     */
+    static void save(File folder, String key, Map<String, List<JFreeChartPlotInfo>> infoMap) throws Exception {
+        if (key == null)
+            return;
+
+        File file = new File(folder, CACHE_FILE);
+
+        try (ObjectOutputStream out = new ObjectOutputStream(new BufferedOutputStream(new FileOutputStream(file)))) {
+            out.writeUTF(key);
+            out.writeObject(new HashMap<>(infoMap));
+        }
+    }
+
+    /**
+     * Ensure static class.
+     */
+    private JFreeChartReportCache() {
+        // No-op.
+    }
+}
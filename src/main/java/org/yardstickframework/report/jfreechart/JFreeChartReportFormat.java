@@ -0,0 +1,31 @@
+/*
+ Licensed under the Apache License, Version 2.0 (the "License");
+ you may not use this file except in compliance with the License.
+ You may obtain a copy of the License at
+
+     http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing, software
+ distributed under the License is distributed on an "AS IS" BASIS,
+ WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ See the License for the specific language governing permissions and
+ limitations under the License.
+ */
+
+package org.yardstickframework.report.jfreechart;
+
+/**
+ * Format of the generated report.
+ */
+public enum JFreeChartReportFormat {
+    /**
+     * Charts are rendered to PNG files shown on html page which loads styles and scripts from CDN.
+     */
+    PNG,
+
+    /**
+     * Single self-contained html page with embedded styles, scripts and series data, charts are drawn by browser
+     * and can be zoomed.
+     */
+    INTERACTIVE
+}
@@ -14,11 +14,15 @@
 
 package org.yardstickframework.report.jfreechart;
 
+import java.io.BufferedReader;
 import java.io.BufferedWriter;
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStreamReader;
 import java.io.OutputStreamWriter;
+import java.io.Writer;
 import java.text.NumberFormat;
 import java.text.ParseException;
 import java.util.ArrayList;
@@ -32,19 +36,26 @@ import java.util.Locale;
 import java.util.Map;
 import java.util.TreeMap;
 import org.yardstickframework.probes.PercentileProbe;
+import org.yardstickframework.probes.StackSamplingProbe;
 import org.yardstickframework.probes.ThroughputLatencyProbe;
 import org.yardstickframework.writers.BenchmarkProbePointCsvWriter;
+import org.yardstickframework.writers.BenchmarkResultTableWriter;
 
 import static org.yardstickframework.BenchmarkUtils.println;
 import static org.yardstickframework.report.jfreechart.JFreeChartGenerationMode.STANDARD;
 import static org.yardstickframework.report.jfreechart.JFreeChartGraphPlotter.FILE_NAME_COMP;
 import static org.yardstickframework.report.jfreechart.JFreeChartGraphPlotter.errorHelp;
 import static org.yardstickframework.report.jfreechart.JFreeChartGraphPlotter.parseTime;
+import static org.yardstickframework.report.jfreechart.JFreeChartJson.number;
+import static org.yardstickframework.report.jfreechart.JFreeChartJson.string;
 
 /**
  * Generates html pages with resulted graphs built by JFreeChart framework.
  */
 public class JFreeChartResultPageGenerator {
+    /** Name of the file with machine-readable summary of the charts. */
+    public static final String SUMMARY_FILE = "Results.json";
+
     /** */
     public static final NumberFormat NUMBER_INSTANCE = NumberFormat.getNumberInstance(Locale.US);
 
@@ -55,7 +66,8 @@ public class JFreeChartResultPageGenerator {
     }
 
     /**
-     * Generates a page containing all charts that belong to one test run.
+     * Generates a page containing all charts that belong to one test run. Charts of PNG report are found in the
+     * folders, charts of interactive report are built from the plot info.
      *
      * @param inFolder Input folder.
      * @param args Arguments.
@@ -63,8 +75,10 @@ public class JFreeChartResultPageGenerator {
      */
     public static void generate(File inFolder, JFreeChartGraphPlotterArguments args,
         Map<String, List<JFreeChartPlotInfo>> infoMap) {
+        boolean interactive = args.reportFormat() == JFreeChartReportFormat.INTERACTIVE;
+
         for (File folder : folders(inFolder)) {
-            Map<String, List<File>> files = files(folder.listFiles());
+            Map<String, List<File>> files = files(interactive ? charts(folder, infoMap) : folder.listFiles());
 
             if (files.isEmpty())
                 continue;
@@ -83,6 +97,8 @@ public class JFreeChartResultPageGenerator {
             }
 
             generateHtml(testTime, files, folder, args, infoMap);
+
+            generateSummary(files, folder, infoMap);
         }
     }
 
@@ -93,7 +109,8 @@ public class JFreeChartResultPageGenerator {
     private static Collection<File> folders(File folder) {
         File[] dirs = folder.listFiles();
 
-        if (dirs == null || dirs.length == 0)
+        // Folder of interactive report may be empty as chart files are not created.
+        if (dirs == null)
             return Collections.emptyList();
 
         Collection<File> res = new ArrayList<>();
@@ -108,6 +125,24 @@ public class JFreeChartResultPageGenerator {
         return res;
     }
 
+    /**
+     * @param folder Folder.
+     * @param infoMap Map with additional plot info.
+     * @return Files of the charts which plot info is collected for the folder.
+     */
+    private static File[] charts(File folder, Map<String, List<JFreeChartPlotInfo>> infoMap) {
+        List<File> res = new ArrayList<>();
+
+        for (String path : infoMap.keySet()) {
+            File file = new File(path);
+
+            if (folder.getAbsoluteFile().equals(file.getParentFile()))
+                res.add(file);
+        }
+
+        return res.toArray(new File[res.size()]);
+    }
+
     /**
      * @param files Files.
      * @return Map of files.
@@ -175,6 +210,8 @@ public class JFreeChartResultPageGenerator {
         JFreeChartGraphPlotterArguments args, Map<String, List<JFreeChartPlotInfo>> infoMap) {
         File outFile = new File(outFolder, "Results.html");
 
+        boolean interactive = args.reportFormat() == JFreeChartReportFormat.INTERACTIVE;
+
         try (BufferedWriter bw = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(outFile)))) {
             writeLine(bw, "<!DOCTYPE html>");
             writeLine(bw, "<html lang=\"en\">");
@@ -182,18 +219,39 @@ public class JFreeChartResultPageGenerator {
             writeLine(bw, "<meta charset=\"utf-8\">");
             writeLine(bw, "<meta http-equiv=\"X-UA-Compatible\" content=\"IE=edge\">");
             writeLine(bw, "<meta name=\"viewport\" content=\"width=device-width, initial-scale=1\">");
-            writeLine(bw, "<link rel=\"stylesheet\" " +
-                "href=\"http://netdna.bootstrapcdn.com/bootstrap/3.1.1/css/bootstrap.min.css\">");
-            writeLine(bw, "<link rel=\"stylesheet\" " +
-                "href=\"http://netdna.bootstrapcdn.com/font-awesome/4.1.0/css/font-awesome.min.css\">");
 
-            writeLine(bw, "<script src=\"http://code.jquery.com/jquery-1.11.0.min.js\"></script>");
-            writeLine(bw, "<script src=\"http://netdna.bootstrapcdn.com/bootstrap/3.1.1/js/bootstrap.min.js\"></script>");
+            if (interactive) {
+                // Interactive report does not load anything, so it can be viewed offline.
+                writeLine(bw, "<style>");
+
+                for (String line : JFreeChartInteractiveChart.STYLE)
+                    writeLine(bw, line);
+
+                writeLine(bw, "</style>");
+                writeLine(bw, "<script>");
+
+                for (String line : JFreeChartInteractiveChart.SCRIPT)
+                    writeLine(bw, line);
+
+                writeLine(bw, "</script>");
+            }
+            else {
+                writeLine(bw, "<link rel=\"stylesheet\" " +
+                    "href=\"http://netdna.bootstrapcdn.com/bootstrap/3.1.1/css/bootstrap.min.css\">");
+                writeLine(bw, "<link rel=\"stylesheet\" " +
+                    "href=\"http://netdna.bootstrapcdn.com/font-awesome/4.1.0/css/font-awesome.min.css\">");
+
+                writeLine(bw, "<script src=\"http://code.jquery.com/jquery-1.11.0.min.js\"></script>");
+                writeLine(bw, "<script src=\"http://netdna.bootstrapcdn.com/bootstrap/3.1.1/js/bootstrap.min.js\"></script>");
+            }
+
             writeLine(bw, "</head>");
             writeLine(bw, "<body>");
 
             writeLine(bw, "<div class=\"container-fluid\">");
-            writeLine(bw, "<img src=\"http://www.gridgain.com/images/yardstick/yardstick-logo-no-background-200x85px-rgb.png\"/>");
+
+            if (!interactive)
+                writeLine(bw, "<img src=\"http://www.gridgain.com/images/yardstick/yardstick-logo-no-background-200x85px-rgb.png\"/>");
 
             JFreeChartGenerationMode mode = generationMode(fileMap, infoMap);
 
@@ -213,7 +271,13 @@ public class JFreeChartResultPageGenerator {
 
                 if (list != null) {
                     writeLine(bw, "<table class=\"table\" style=\"width:auto;\">");
-                    writeLine(bw, "<thead><tr><th>Color</th><th>Benchmark</th><th>Configurations</th></tr></thead>");
+                    boolean overhead = false;
+
+                    for (JFreeChartPlotInfo info : list)
+                        overhead |= !Double.isNaN(info.probeOverhead()) || !Double.isNaN(info.clockReadCost());
+
+                    writeLine(bw, "<thead><tr><th>Color</th><th>Benchmark</th><th>Configurations</th>" +
+                        (overhead ? "<th>Framework Overhead</th>" : "") + "</tr></thead>");
                     writeLine(bw, "<tbody>");
 
                     for (JFreeChartPlotInfo info : list) {
@@ -236,6 +300,10 @@ public class JFreeChartResultPageGenerator {
                         writeLine(bw, "<td><i style=\"color:#" + info.color() + ";\" class=\"fa fa-square\"></i></td>");
                         writeLine(bw, "<td>" + b.replaceAll(",", "<br>") + "</td>");
                         writeLine(bw, "<td>" + cfgSb + "</td>");
+
+                        if (overhead)
+                            writeLine(bw, "<td>" + overhead(info) + "</td>");
+
                         writeLine(bw, "</tr>");
                     }
 
@@ -263,6 +331,12 @@ public class JFreeChartResultPageGenerator {
                     writeLine(bw, "<div class=\"row\">");
 
                     for (File file : sublist) {
+                        if (interactive) {
+                            writeInteractiveChart(bw, file, "chart" + id++, columnCount, args, infoMap);
+
+                            continue;
+                        }
+
                         writeLine(bw, "<div class=\"col-md-4\">");
                         writeLine(bw, "<a data-toggle=\"modal\" data-target=\"#" + id + "\" href=\"#\"><img src=\"" +
                             file.getName() + "\" class=\"img-thumbnail\"/></a>");
@@ -301,6 +375,10 @@ public class JFreeChartResultPageGenerator {
                 writeLine(bw, "</div>");
             }
 
+            writeFlameGraphs(bw, outFolder);
+
+            writeResultTables(bw, outFolder);
+
             writeLine(bw, "</div>");
 
             writeLine(bw, "</body>");
@@ -313,6 +391,114 @@ public class JFreeChartResultPageGenerator {
         }
     }
 
+    /**
+     * Generates machine-readable summary with statistics of the charts shown on the page. Charts of latency
+     * distributions are skipped as their statistics are not shown on the page too.
+     *
+     * @param fileMap Files.
+     * @param outFolder Output folder.
+     * @param infoMap Map with additional plot info.
+     */
+    private static void generateSummary(Map<String, List<File>> fileMap, File outFolder,
+        Map<String, List<JFreeChartPlotInfo>> infoMap) {
+        File outFile = new File(outFolder, SUMMARY_FILE);
+
+        try (Writer w = new OutputStreamWriter(new FileOutputStream(outFile), "UTF-8")) {
+            w.write("{\n");
+            w.write("  \"charts\": [");
+
+            boolean first = true;
+
+            for (Map.Entry<String, List<File>> entry : fileMap.entrySet()) {
+                for (File file : entry.getValue()) {
+                    List<JFreeChartPlotInfo> list = infoMap.get(file.getAbsolutePath());
+
+                    if (list == null || file.getName().contains(PercentileProbe.class.getSimpleName()))
+                        continue;
+
+                    String chart = file.getName().substring(0, file.getName().length() - ".png".length());
+
+                    String metric = list.isEmpty() || list.get(0).yAxisLabel() == null ? "" :
+                        list.get(0).yAxisLabel();
+
+                    w.write(first ? "\n" : ",\n");
+                    w.write("    {\"probe\": " + string(entry.getKey()) + ", \"chart\": " + string(chart) +
+                        ", \"metric\": " + string(metric) + ", \"series\": [");
+
+                    for (int i = 0; i < list.size(); i++) {
+                        JFreeChartPlotInfo info = list.get(i);
+
+                        StringBuilder cfg = new StringBuilder();
+
+                        for (String c : info.configuration())
+                            cfg.append(cfg.length() == 0 ? "" : ", ").append(string(c));
+
+                        w.write(i == 0 ? "\n" : ",\n");
+                        w.write("      {\"benchmark\": " + string(info.name() == null ? "" : info.name()) +
+                            ", \"configurations\": [" + cfg + "]" +
+                            ", \"trimmedFirst\": " + info.trimmedFirst() +
+                            ", \"trimmedLast\": " + info.trimmedLast() +
+                            ", \"avg\": " + number(info.average()) +
+                            ", \"min\": " + number(info.minimum()) +
+                            ", \"max\": " + number(info.maximum()) +
+                            ", \"sd\": " + number(info.standardDeviation()) +
+                            ", \"median\": " + number(info.median()) +
+                            ", \"p5\": " + number(info.percentile5()) +
+                            ", \"p95\": " + number(info.percentile95()) +
+                            ", \"cov\": " + number(info.coefficientOfVariation()) +
+                            ", \"stable\": " + info.stable() + "}");
+                    }
+
+                    w.write("\n    ]}");
+
+                    first = false;
+                }
+            }
+
+            w.write("\n  ]\n");
+            w.write("}\n");
+
+            println("Summary file is generated: ", outFile);
+        }
+        catch (Exception e) {
+            errorHelp("Exception is raised during file processing: " + outFile.getAbsolutePath(), e);
+        }
+    }
+
+    /**
+     * Writes chart of interactive report with data embedded to the page.
+     *
+     * @param bw Buffered writer.
+     * @param file Chart file, it is not created for interactive report.
+     * @param id Chart element id.
+     * @param columnCount Number of chart columns.
+     * @param args Arguments.
+     * @param infoMap Info map.
+     * @throws IOException If failed.
+     */
+    private static void writeInteractiveChart(BufferedWriter bw, File file, String id, int columnCount,
+        JFreeChartGraphPlotterArguments args, Map<String, List<JFreeChartPlotInfo>> infoMap) throws IOException {
+        List<JFreeChartPlotInfo> list = infoMap.get(file.getAbsolutePath());
+
+        writeLine(bw, "<div class=\"col\" style=\"width:" + 100 / Math.max(1, columnCount) + "%;\">");
+        writeLine(bw, "<div id=\"" + id + "\"></div>");
+
+        if (list != null) {
+            writeLine(bw, "<script>");
+            writeLine(bw, JFreeChartInteractiveChart.script(id, list, args.maxPoints()));
+            writeLine(bw, "</script>");
+
+            // Series are embedded into the page and are not needed anymore.
+            for (JFreeChartPlotInfo info : list)
+                info.data(null);
+        }
+
+        if (!file.getName().contains(PercentileProbe.class.getSimpleName()))
+            buildGraphDetailTable(infoMap, bw, file);
+
+        writeLine(bw, "</div>");
+    }
+
     /**
      * @param infoMap Info map.
      * @param bw Buffered writer.
@@ -321,6 +507,15 @@ public class JFreeChartResultPageGenerator {
      */
     private static void buildGraphDetailTable(Map<String, List<JFreeChartPlotInfo>> infoMap,
         BufferedWriter bw, File file) throws IOException {
+        List<JFreeChartPlotInfo> list = infoMap.get(file.getAbsolutePath());
+
+        boolean trimmed = false;
+
+        if (list != null) {
+            for (JFreeChartPlotInfo info : list)
+                trimmed |= info.trimmedFirst() > 0 || info.trimmedLast() > 0;
+        }
+
         writeLine(bw, "<table class=\"table table-condensed\">");
         writeLine(bw, "<thead>");
         writeLine(bw, "<tr>");
@@ -329,12 +524,19 @@ public class JFreeChartResultPageGenerator {
         writeLine(bw, "<th class=\"text-left\">Min</th>");
         writeLine(bw, "<th class=\"text-left\">Max</th>");
         writeLine(bw, "<th class=\"text-left\">SD</th>");
+        writeLine(bw, "<th class=\"text-left\">Median</th>");
+        writeLine(bw, "<th class=\"text-left\">P5</th>");
+        writeLine(bw, "<th class=\"text-left\">P95</th>");
+        writeLine(bw, "<th class=\"text-left\">CoV</th>");
+        writeLine(bw, "<th class=\"text-left\">Stable</th>");
+
+        if (trimmed)
+            writeLine(bw, "<th class=\"text-left\">Trimmed</th>");
+
         writeLine(bw, "</tr>");
         writeLine(bw, "</thead>");
         writeLine(bw, "<tbody>");
 
-        List<JFreeChartPlotInfo> list = infoMap.get(file.getAbsolutePath());
-
         if (list != null) {
             for (JFreeChartPlotInfo info : list) {
                 writeLine(bw, "<tr>");
@@ -344,6 +546,20 @@ public class JFreeChartResultPageGenerator {
                 writeValueToTable(bw, info.minimum());
                 writeValueToTable(bw, info.maximum());
                 writeValueToTable(bw, info.standardDeviation());
+                writeValueToTable(bw, info.median());
+                writeValueToTable(bw, info.percentile5());
+                writeValueToTable(bw, info.percentile95());
+
+                double cov = info.coefficientOfVariation() * 100;
+
+                writeLine(bw, "<td class=\"text-left\">" + (Double.isNaN(cov) || Double.isInfinite(cov) ? "n/a" :
+                    NUMBER_INSTANCE.format(cov) + "%") + "</td>");
+                writeLine(bw, "<td class=\"text-left\">" + (info.stable() ? "Yes" : "No") + "</td>");
+
+                if (trimmed) {
+                    writeLine(bw, "<td class=\"text-left\">" + info.trimmedFirst() + " first, " +
+                        info.trimmedLast() + " last</td>");
+                }
 
                 writeLine(bw, "</tr>");
             }
@@ -353,6 +569,118 @@ public class JFreeChartResultPageGenerator {
         writeLine(bw, "</table>");
     }
 
+    /**
+     * Writes flame graphs for all files with collapsed stacks found in the folder.
+     *
+     * @param bw Buffered writer.
+     * @param folder Folder.
+     * @throws IOException If failed.
+     */
+    private static void writeFlameGraphs(BufferedWriter bw, File folder) throws IOException {
+        File[] files = folder.listFiles();
+
+        if (files == null)
+            return;
+
+        List<File> collapsed = new ArrayList<>();
+
+        for (File file : files) {
+            if (file.isFile() && file.getName().endsWith(StackSamplingProbe.COLLAPSED_FILE_EXTENSION))
+                collapsed.add(file);
+        }
+
+        Collections.sort(collapsed, FILE_NAME_COMP);
+
+        for (File file : collapsed) {
+            String svg = JFreeChartFlameGraph.svg(file);
+
+            if (svg == null)
+                continue;
+
+            String name = file.getName().substring(0,
+                file.getName().length() - StackSamplingProbe.COLLAPSED_FILE_EXTENSION.length());
+
+            writeLine(bw, "<div class=\"panel panel-default\">");
+            writeLine(bw, "<div class=\"panel-heading\"><h2 class=\"panel-title\">" + name +
+                " Flame Graph</h2></div>");
+            writeLine(bw, "<div class=\"panel-body\" style=\"overflow-x:auto;\">");
+            writeLine(bw, svg);
+            writeLine(bw, "</div>");
+            writeLine(bw, "</div>");
+        }
+    }
+
+    /**
+     * Writes all result tables found in the folder.
+     *
+     * @param bw Buffered writer.
+     * @param folder Folder.
+     * @throws IOException If failed.
+     */
+    private static void writeResultTables(BufferedWriter bw, File folder) throws IOException {
+        File[] files = folder.listFiles();
+
+        if (files == null)
+            return;
+
+        List<File> tables = new ArrayList<>();
+
+        for (File file : files) {
+            if (file.isFile() && file.getName().endsWith(BenchmarkResultTableWriter.TABLE_FILE_EXTENSION))
+                tables.add(file);
+        }
+
+        Collections.sort(tables, FILE_NAME_COMP);
+
+        for (File file : tables) {
+            String name = file.getName().substring(0,
+                file.getName().length() - BenchmarkResultTableWriter.TABLE_FILE_EXTENSION.length());
+
+            writeLine(bw, "<div class=\"panel panel-default\">");
+            writeLine(bw, "<div class=\"panel-heading\"><h2 class=\"panel-title\">" + escape(name) + "</h2></div>");
+            writeLine(bw, "<div class=\"panel-body\" style=\"overflow-x:auto;\">");
+            writeLine(bw, "<table class=\"table table-condensed\">");
+
+            try (BufferedReader br = new BufferedReader(new InputStreamReader(new FileInputStream(file), "UTF-8"))) {
+                boolean head = true;
+
+                for (String line; (line = br.readLine()) != null; ) {
+                    if (line.isEmpty())
+                        continue;
+
+                    String cell = head ? "th" : "td";
+
+                    StringBuilder sb = new StringBuilder(head ? "<thead><tr>" : "<tr>");
+
+                    for (String val : line.split(String.valueOf(BenchmarkResultTableWriter.SEPARATOR), -1))
+                        sb.append('<').append(cell).append(" class=\"text-left\">").append(escape(val))
+                            .append("</").append(cell).append('>');
+
+                    sb.append(head ? "</tr></thead><tbody>" : "</tr>");
+
+                    writeLine(bw, sb.toString());
+
+                    head = false;
+                }
+
+                if (!head)
+                    writeLine(bw, "</tbody>");
+            }
+
+            writeLine(bw, "</table>");
+            writeLine(bw, "</div>");
+            writeLine(bw, "</div>");
+        }
+    }
+
+    /**
+     * @param s String.
+     * @return String with escaped html (and XML) special characters.
+     */
+    static String escape(String s) {
+        return s.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;").replace("\"", "&quot;");
+    }
+
     /**
      * @param fileMap File map.
      * @param infoMap Info map.
@@ -374,6 +702,22 @@ public class JFreeChartResultPageGenerator {
         return null;
     }
 
+    /**
+     * @param info Plot info.
+     * @return Framework overhead cell content.
+     */
+    private static String overhead(JFreeChartPlotInfo info) {
+        StringBuilder sb = new StringBuilder();
+
+        if (!Double.isNaN(info.probeOverhead()))
+            sb.append(NUMBER_INSTANCE.format(info.probeOverhead())).append(" nsec/op probes<br>");
+
+        if (!Double.isNaN(info.clockReadCost()))
+            sb.append(NUMBER_INSTANCE.format(info.clockReadCost())).append(" nsec clock read");
+
+        return sb.toString();
+    }
+
     /**
      * @param bw Buffered writer.
      * @param val Value.
@@ -0,0 +1,113 @@
+/*
+ Licensed under the Apache License, Version 2.0 (the "License");
+ you may not use this file except in compliance with the License.
+ You may obtain a copy of the License at
+
+     http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing, software
+ distributed under the License is distributed on an "AS IS" BASIS,
+ WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ See the License for the specific language governing permissions and
+ limitations under the License.
+ */
+
+package org.yardstickframework.report.jfreechart;
+
+import java.util.Arrays;
+
+/**
+ * Finds intervals of the steady state of a time series, so that ramp-up and shutdown do not skew statistics.
+ * <p>
+ * Transients are detected relative to the middle half of the series, which is assumed to be steady: leading
+ * and trailing intervals are trimmed while their values differ from the median of the middle half by more than
+ * {@value #MAD_MUL} scaled median absolute deviations of it (or by 1% of the median if values barely change).
+ * Not more than a quarter of intervals is trimmed from each end.
+ */
+final class JFreeChartSteadyState {
+    /** Number of median absolute deviations a steady value may differ from the median by. */
+    static final double MAD_MUL = 3;
+
+    /** Scale of median absolute deviation making it consistent with standard deviation of normal distribution. */
+    private static final double MAD_SCALE = 1.4826;
+
+    /** Minimum deviation of a steady value relative to the median. */
+    static final double MIN_BAND = 0.01;
+
+    /** Minimum number of intervals transients are detected in. */
+    static final int MIN_POINTS = 8;
+
+    /**
+     * @param y Values of intervals.
+     * @param trim Number of first and last intervals to exclude, ignored if no intervals are left.
+     * @param transients Whether ramp-up and shutdown intervals are detected and excluded.
+     * @return Index of the first steady interval and index following the last steady one.
+     */
+    static int[] range(double[] y, int trim, boolean transients) {
+        int from = 0;
+        int to = y.length;
+
+        if (trim > 0 && y.length > 2 * trim) {
+            from = trim;
+            to = y.length - trim;
+        }
+
+        int n = to - from;
+
+        if (!transients || n < MIN_POINTS)
+            return new int[] {from, to};
+
+        double[] mid = Arrays.copyOfRange(y, from + n / 4, to - n / 4);
+
+        Arrays.sort(mid);
+
+        double median = percentile(mid, 0.5);
+
+        for (int i = 0; i < mid.length; i++)
+            mid[i] = Math.abs(mid[i] - median);
+
+        Arrays.sort(mid);
+
+        double band = Math.max(MAD_MUL * MAD_SCALE * percentile(mid, 0.5), MIN_BAND * Math.abs(median));
+
+        int maxTrim = n / 4;
+
+        int start = from;
+
+        while (start - from < maxTrim && !(Math.abs(y[start] - median) <= band))
+            start++;
+
+        int end = to;
+
+        while (to - end < maxTrim && !(Math.abs(y[end - 1] - median) <= band))
+            end--;
+
+        return new int[] {start, end};
+    }
+
+    /**
+     * @param sorted Sorted values.
+     * @param q Quantile from {@code 0} to {@code 1}.
+     * @return Quantile linearly interpolated between the closest values or {@code NaN} if there are no values.
+     */
+    static double percentile(double[] sorted, double q) {
+        if (sorted.length == 0)
+            return Double.NaN;
+
+        double pos = q * (sorted.length - 1);
+
+        int idx = (int)Math.floor(pos);
+
+        if (idx >= sorted.length - 1)
+            return sorted[sorted.length - 1];
+
+        return sorted[idx] + (pos - idx) * (sorted[idx + 1] - sorted[idx]);
+    }
+
+    /**
+     * Ensure static class.
+     */
+    private JFreeChartSteadyState() {
+        // No-op.
+    }
+}
@@ -0,0 +1,65 @@
+/*
+ Licensed under the Apache License, Version 2.0 (the "License");
+ you may not use this file except in compliance with the License.
+ You may obtain a copy of the License at
+
+     http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing, software
+ distributed under the License is distributed on an "AS IS" BASIS,
+ WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ See the License for the specific language governing permissions and
+ limitations under the License.
+ */
+
+package org.yardstickframework.writers;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Input stream decompressing files written by {@link BenchmarkProbePointCsvWriter} with compression enabled.
+ * <p>
+ * File of a benchmark which is still running or was killed is not completed, such file is read up to
+ * the last flush of the writer instead of failing with {@link EOFException}.
+ */
+public class BenchmarkCompressedInputStream extends GZIPInputStream {
+    /** */
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    /** */
+    private boolean truncated;
+
+    /**
+     * @param in Compressed stream.
+     * @throws IOException If failed to read stream header.
+     */
+    public BenchmarkCompressedInputStream(InputStream in) throws IOException {
+        super(in, BUFFER_SIZE);
+    }
+
+    /** {@inheritDoc} */
+    @Override public int read(byte[] buf, int off, int len) throws IOException {
+        if (truncated)
+            return -1;
+
+        try {
+            return super.read(buf, off, len);
+        }
+        catch (EOFException ignored) {
+            // Decompressed data is returned before the end of the stream is detected, so nothing is lost here.
+            truncated = true;
+
+            return -1;
+        }
+    }
+
+    /**
+     * @return {@code True} if stream is not completed.
+     */
+    public boolean truncated() {
+        return truncated;
+    }
+}
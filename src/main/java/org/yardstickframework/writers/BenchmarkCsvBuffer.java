@@ -0,0 +1,242 @@
+/*
+ Licensed under the Apache License, Version 2.0 (the "License");
+ you may not use this file except in compliance with the License.
+ You may obtain a copy of the License at
+
+     http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing, software
+ distributed under the License is distributed on an "AS IS" BASIS,
+ WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ See the License for the specific language governing permissions and
+ limitations under the License.
+ */
+
+package org.yardstickframework.writers;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Reusable byte buffer which CSV lines are formatted to without allocating objects for numbers.
+ * <p>
+ * Doubles are formatted exactly as {@code String.format(Locale.US, "%.<precision>f", val)} does. Values for which
+ * the rounding is unambiguous are formatted from the scaled long value, the rest (values close to the rounding
+ * midpoint, large values, {@code NaN} and infinities) fall back to {@link String#format(Locale, String, Object...)}.
+ */
+final class BenchmarkCsvBuffer {
+    /** Maximum precision formatted without falling back to {@link String#format(Locale, String, Object...)}. */
+    static final int MAX_FAST_PRECISION = 9;
+
+    /** */
+    private static final long[] POW10 = new long[MAX_FAST_PRECISION + 1];
+
+    /** Scaled values starting from this one are formatted by {@link String#format(Locale, String, Object...)}. */
+    private static final double FAST_LIMIT = 1e11;
+
+    /**
+     * Scaled values which fractional part is closer to {@code 0.5} than this one are formatted by
+     * {@link String#format(Locale, String, Object...)}, it is much greater than the error of scaling.
+     */
+    private static final double MIDPOINT_EPS = 1e-3;
+
+    /** */
+    private static final byte[] LINE_SEPARATOR = System.lineSeparator().getBytes(Charset.defaultCharset());
+
+    /** */
+    static {
+        POW10[0] = 1;
+
+        for (int i = 1; i < POW10.length; i++)
+            POW10[i] = POW10[i - 1] * 10;
+    }
+
+    /** */
+    private final int precision;
+
+    /** Format used for values which are not formatted by the fast path. */
+    private final String fmt;
+
+    /** */
+    private byte[] buf = new byte[4096];
+
+    /** */
+    private int len;
+
+    /**
+     * @param precision Number of digits after the decimal point.
+     */
+    BenchmarkCsvBuffer(int precision) {
+        if (precision < 0)
+            throw new IllegalArgumentException("Precision should not be negative: " + precision);
+
+        this.precision = precision;
+
+        fmt = "%." + precision + "f";
+    }
+
+    /**
+     * @param s String, encoded in the default charset.
+     * @return {@code this} for chaining.
+     */
+    BenchmarkCsvBuffer append(String s) {
+        byte[] bytes = s.getBytes(Charset.defaultCharset());
+
+        ensure(bytes.length);
+
+        System.arraycopy(bytes, 0, buf, len, bytes.length);
+
+        len += bytes.length;
+
+        return this;
+    }
+
+    /**
+     * @param c ASCII character.
+     * @return {@code this} for chaining.
+     */
+    BenchmarkCsvBuffer append(char c) {
+        ensure(1);
+
+        buf[len++] = (byte)c;
+
+        return this;
+    }
+
+    /**
+     * @param val Value.
+     * @return {@code this} for chaining.
+     */
+    BenchmarkCsvBuffer append(long val) {
+        if (val == Long.MIN_VALUE)
+            return append(String.valueOf(val));
+
+        if (val < 0) {
+            append('-');
+
+            val = -val;
+        }
+
+        appendDigits(val, 1);
+
+        return this;
+    }
+
+    /**
+     * @param val Value.
+     * @return {@code this} for chaining.
+     */
+    BenchmarkCsvBuffer append(double val) {
+        if (precision <= MAX_FAST_PRECISION) {
+            // Negative zero and small negative values are formatted with minus sign as well.
+            boolean neg = val < 0 || (val == 0 && 1 / val < 0);
+
+            double scaled = Math.abs(val) * POW10[precision];
+
+            if (scaled < FAST_LIMIT) {
+                long units = (long)scaled;
+
+                double frac = scaled - units;
+
+                if (Math.abs(frac - 0.5) > MIDPOINT_EPS) {
+                    if (frac > 0.5)
+                        units++;
+
+                    if (neg)
+                        append('-');
+
+                    appendDigits(units / POW10[precision], 1);
+
+                    if (precision > 0) {
+                        append('.');
+
+                        appendDigits(units % POW10[precision], precision);
+                    }
+
+                    return this;
+                }
+            }
+        }
+
+        // NaN is not less than the limit, so it is formatted here as well.
+        return append(String.format(Locale.US, fmt, val));
+    }
+
+    /**
+     * @return {@code this} for chaining.
+     */
+    BenchmarkCsvBuffer newLine() {
+        ensure(LINE_SEPARATOR.length);
+
+        System.arraycopy(LINE_SEPARATOR, 0, buf, len, LINE_SEPARATOR.length);
+
+        len += LINE_SEPARATOR.length;
+
+        return this;
+    }
+
+    /**
+     * Writes buffer content by a single write call.
+     *
+     * @param out Output stream.
+     * @throws IOException If failed.
+     */
+    void writeTo(OutputStream out) throws IOException {
+        out.write(buf, 0, len);
+    }
+
+    /**
+     * Clears the buffer, allocated memory is kept.
+     */
+    void reset() {
+        len = 0;
+    }
+
+    /**
+     * @return Number of bytes in the buffer.
+     */
+    int length() {
+        return len;
+    }
+
+    /**
+     * @return Buffer content as a string.
+     */
+    @Override public String toString() {
+        return new String(buf, 0, len, Charset.defaultCharset());
+    }
+
+    /**
+     * @param val Non-negative value.
+     * @param minDigits Minimum number of digits, value is padded with leading zeros.
+     */
+    private void appendDigits(long val, int minDigits) {
+        int digits = 1;
+
+        for (long v = val / 10; v > 0; v /= 10)
+            digits++;
+
+        digits = Math.max(digits, minDigits);
+
+        ensure(digits);
+
+        for (int i = len + digits - 1; i >= len; i--) {
+            buf[i] = (byte)('0' + val % 10);
+
+            val /= 10;
+        }
+
+        len += digits;
+    }
+
+    /**
+     * @param cnt Number of bytes to be appended.
+     */
+    private void ensure(int cnt) {
+        if (len + cnt > buf.length)
+            buf = Arrays.copyOf(buf, Math.max(buf.length * 2, len + cnt));
+    }
+}
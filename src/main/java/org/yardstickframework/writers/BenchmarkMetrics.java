@@ -0,0 +1,129 @@
+/*
+ Licensed under the Apache License, Version 2.0 (the "License");
+ you may not use this file except in compliance with the License.
+ You may obtain a copy of the License at
+
+     http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing, software
+ distributed under the License is distributed on an "AS IS" BASIS,
+ WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ See the License for the specific language governing permissions and
+ limitations under the License.
+ */
+
+package org.yardstickframework.writers;
+
+import java.util.Collection;
+import org.yardstickframework.BenchmarkProbe;
+import org.yardstickframework.BenchmarkProbePoint;
+
+/**
+ * Naming and conversion of probe points shared by writers exporting them to monitoring systems.
+ */
+final class BenchmarkMetrics {
+    /** Quantiles exported for probes which points are distribution. */
+    static final double[] QUANTILES = {0.5, 0.9, 0.99, 0.999};
+
+    /** */
+    private static final String TIME_PREFIX = "Time";
+
+    /** */
+    private static final String MS_TIME = "Time, ms";
+
+    /**
+     * @param probe Probe.
+     * @return Probe name in metric name format, e.g. {@code throughput_latency} for {@code ThroughputLatencyProbe}.
+     */
+    static String probeName(BenchmarkProbe probe) {
+        String name = probe.getClass().getSimpleName();
+
+        if (name.endsWith("Probe") && name.length() > "Probe".length())
+            name = name.substring(0, name.length() - "Probe".length());
+
+        return metricName(name.replaceAll("([a-z0-9])([A-Z])", "$1_$2"));
+    }
+
+    /**
+     * @param desc Value description, e.g. {@code Operations/sec (more is better)}.
+     * @return Metric name, e.g. {@code operations_sec}.
+     */
+    static String metricName(String desc) {
+        String name = desc.replaceAll("\\(.*?\\)", "").replace("%", "percent").toLowerCase()
+            .replaceAll("[^a-z0-9]+", "_").replaceAll("^_+|_+$", "");
+
+        return name.isEmpty() ? "value" : name;
+    }
+
+    /**
+     * @param probe Probe.
+     * @return Meta info of the probe.
+     */
+    static String[] metaInfo(BenchmarkProbe probe) {
+        Collection<String> meta = probe.metaInfo();
+
+        return meta == null ? new String[0] : meta.toArray(new String[meta.size()]);
+    }
+
+    /**
+     * @param meta Meta info.
+     * @return {@code True} if point time is time, otherwise points are distribution.
+     */
+    static boolean timeSeries(String[] meta) {
+        return meta.length == 0 || meta[0].startsWith(TIME_PREFIX);
+    }
+
+    /**
+     * @param meta Meta info.
+     * @param time Point time.
+     * @return Point time in milliseconds.
+     */
+    static long timeMillis(String[] meta, long time) {
+        return meta.length == 0 || MS_TIME.equals(meta[0]) ? time : time * 1000;
+    }
+
+    /**
+     * @param meta Meta info.
+     * @param idx Value index.
+     * @return Metric name of the value.
+     */
+    static String valueName(String[] meta, int idx) {
+        return idx + 1 < meta.length ? metricName(meta[idx + 1]) : "value_" + idx;
+    }
+
+    /**
+     * Finds value below which the given fraction of operations falls, point time is a bucket bound
+     * and point value is a fraction of operations in the bucket.
+     *
+     * @param points Points.
+     * @param q Quantile.
+     * @return Bucket bound or {@code NaN} if there are no operations.
+     */
+    static double quantile(Collection<BenchmarkProbePoint> points, double q) {
+        double sum = 0;
+
+        for (BenchmarkProbePoint pt : points)
+            sum += pt.values()[0];
+
+        if (!(sum > 0))
+            return Double.NaN;
+
+        double cur = 0;
+
+        for (BenchmarkProbePoint pt : points) {
+            cur += pt.values()[0];
+
+            if (cur >= q * sum)
+                return pt.time();
+        }
+
+        return Double.NaN;
+    }
+
+    /**
+     * Ensure static class.
+     */
+    private BenchmarkMetrics() {
+        // No-op.
+    }
+}
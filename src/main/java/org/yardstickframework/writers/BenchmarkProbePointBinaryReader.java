@@ -0,0 +1,428 @@
+/*
+ Licensed under the Apache License, Version 2.0 (the "License");
+ you may not use this file except in compliance with the License.
+ You may obtain a copy of the License at
+
+     http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing, software
+ distributed under the License is distributed on an "AS IS" BASIS,
+ WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ See the License for the specific language governing permissions and
+ limitations under the License.
+ */
+
+package org.yardstickframework.writers;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.RandomAccessFile;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+
+import static org.yardstickframework.writers.BenchmarkProbePointBinaryWriter.BINARY_FILE_EXTENSION;
+import static org.yardstickframework.writers.BenchmarkProbePointBinaryWriter.MAGIC;
+import static org.yardstickframework.writers.BenchmarkProbePointBinaryWriter.UTF_8;
+import static org.yardstickframework.writers.BenchmarkProbePointBinaryWriter.VERSION;
+import static org.yardstickframework.writers.BenchmarkProbePointCsvWriter.CLOCK_READ_PREFIX;
+import static org.yardstickframework.writers.BenchmarkProbePointCsvWriter.DRV_NAMES_PREFIX;
+import static org.yardstickframework.writers.BenchmarkProbePointCsvWriter.META_INFO_PREFIX;
+import static org.yardstickframework.writers.BenchmarkProbePointCsvWriter.META_INFO_SEPARATOR;
+import static org.yardstickframework.writers.BenchmarkProbePointCsvWriter.PROBE_OVERHEAD_PREFIX;
+
+/**
+ * Reader of files written by {@link BenchmarkProbePointBinaryWriter}. File is mapped to memory by regions of up to
+ * {@link #MAX_REGION_SIZE} bytes, so files larger than 2 GB can be read, point times and values are returned
+ * as buffers backed by the mapped regions, so nothing is copied.
+ * <p>
+ * Files can be exported to CSV format of {@link BenchmarkProbePointCsvWriter} by running this class
+ * with files or folders (searched recursively) as arguments, CSV file is saved next to binary one.
+ */
+public class BenchmarkProbePointBinaryReader {
+    /** Maximum size of a mapped region, a block of points should fit into one region. */
+    public static final int MAX_REGION_SIZE = Integer.MAX_VALUE;
+
+    /** */
+    private final String probe;
+
+    /** */
+    private final long created;
+
+    /** */
+    private final String cfg;
+
+    /** */
+    private final String desc;
+
+    /** */
+    private final double probeOverhead;
+
+    /** */
+    private final double clockReadCost;
+
+    /** */
+    private final String drvNames;
+
+    /** */
+    private final List<String> metaInfo;
+
+    /** Blocks, each block is a view of the mapped file starting at block data. */
+    private final List<ByteBuffer> blocks = new ArrayList<>();
+
+    /** Number of points in blocks. */
+    private final List<Integer> sizes = new ArrayList<>();
+
+    /** Number of values in blocks. */
+    private final List<Integer> cols = new ArrayList<>();
+
+    /**
+     * @param file File.
+     * @throws IOException If file can not be read or has invalid format.
+     */
+    public BenchmarkProbePointBinaryReader(File file) throws IOException {
+        this(file, MAX_REGION_SIZE);
+    }
+
+    /**
+     * @param file File.
+     * @param regionSize Maximum size of a mapped region.
+     * @throws IOException If file can not be read or has invalid format.
+     */
+    BenchmarkProbePointBinaryReader(File file, int regionSize) throws IOException {
+        // Mappings stay valid after the channel is closed.
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+            FileChannel ch = raf.getChannel();
+
+            long fileSize = ch.size();
+
+            ByteBuffer buf = map(ch, 0, fileSize, regionSize);
+
+            if (buf.remaining() < 8 || buf.getInt() != MAGIC)
+                throw new IOException("Invalid binary probe points file: " + file.getAbsolutePath());
+
+            int ver = buf.getInt();
+
+            if (ver != VERSION)
+                throw new IOException("Unsupported binary probe points file version [file=" +
+                    file.getAbsolutePath() + ", version=" + ver + ']');
+
+            try {
+                probe = getString(buf);
+                created = buf.getLong();
+                cfg = getString(buf);
+                desc = getString(buf);
+                probeOverhead = buf.getDouble();
+                clockReadCost = buf.getDouble();
+                drvNames = getString(buf);
+
+                int metaCnt = buf.getInt();
+
+                List<String> meta = new ArrayList<>(metaCnt);
+
+                for (int i = 0; i < metaCnt; i++)
+                    meta.add(getString(buf));
+
+                metaInfo = Collections.unmodifiableList(meta);
+            }
+            catch (BufferUnderflowException | NegativeArraySizeException ignored) {
+                throw new IOException("Invalid binary probe points file: " + file.getAbsolutePath());
+            }
+
+            // File position of the mapped region.
+            long regionPos = 0;
+
+            // Number of points is zero for the block which is not written completely and for unused mapped space.
+            while (true) {
+                if (buf.remaining() < 8) {
+                    long next = regionPos + buf.position();
+
+                    if (fileSize - next < 8)
+                        break;
+
+                    regionPos = next;
+
+                    buf = map(ch, regionPos, fileSize, regionSize);
+                }
+
+                int blockPos = buf.position();
+
+                int size = buf.getInt();
+                int colCnt = buf.getInt();
+
+                long len = 8L * size * (colCnt + 1);
+
+                if (size <= 0 || colCnt < 0 || regionPos + buf.position() + len > fileSize)
+                    break;
+
+                if (len > buf.remaining()) {
+                    if (len + 8 > regionSize)
+                        throw new IOException("Block of points does not fit into mapped region [file=" +
+                            file.getAbsolutePath() + ", blockSize=" + (len + 8) + ", regionSize=" + regionSize + ']');
+
+                    // Block is mapped by the next region starting at the block.
+                    regionPos += blockPos;
+
+                    buf = map(ch, regionPos, fileSize, regionSize);
+
+                    continue;
+                }
+
+                ByteBuffer block = buf.slice();
+
+                block.limit((int)len);
+
+                blocks.add(block);
+                sizes.add(size);
+                cols.add(colCnt);
+
+                buf.position(buf.position() + (int)len);
+            }
+        }
+    }
+
+    /**
+     * @param ch File channel.
+     * @param pos Region position.
+     * @param fileSize File size.
+     * @param regionSize Maximum region size.
+     * @return Mapped region.
+     * @throws IOException If failed.
+     */
+    private static ByteBuffer map(FileChannel ch, long pos, long fileSize, int regionSize) throws IOException {
+        return ch.map(FileChannel.MapMode.READ_ONLY, pos, Math.min(regionSize, fileSize - pos));
+    }
+
+    /**
+     * @param file File.
+     * @return {@code True} if file is written by binary writer.
+     */
+    public static boolean binaryFile(File file) {
+        return file.getName().endsWith(BINARY_FILE_EXTENSION);
+    }
+
+    /**
+     * @return Probe description.
+     */
+    public String probe() {
+        return probe;
+    }
+
+    /**
+     * @return Time when writer was started.
+     */
+    public long created() {
+        return created;
+    }
+
+    /**
+     * @return Benchmark configuration.
+     */
+    public String configuration() {
+        return cfg;
+    }
+
+    /**
+     * @return Driver description.
+     */
+    public String description() {
+        return desc;
+    }
+
+    /**
+     * @return Calibrated probe overhead per operation in nanoseconds or {@code NaN}.
+     */
+    public double probeOverhead() {
+        return probeOverhead;
+    }
+
+    /**
+     * @return Calibrated clock read cost in nanoseconds or {@code NaN}.
+     */
+    public double clockReadCost() {
+        return clockReadCost;
+    }
+
+    /**
+     * @return Comma separated driver names.
+     */
+    public String driverNames() {
+        return drvNames;
+    }
+
+    /**
+     * @return Meta info, the first element describes point time.
+     */
+    public List<String> metaInfo() {
+        return metaInfo;
+    }
+
+    /**
+     * @return Number of blocks.
+     */
+    public int blocks() {
+        return blocks.size();
+    }
+
+    /**
+     * @param block Block index.
+     * @return Number of points in the block.
+     */
+    public int blockSize(int block) {
+        return sizes.get(block);
+    }
+
+    /**
+     * @param block Block index.
+     * @return Number of values of points in the block.
+     */
+    public int blockColumns(int block) {
+        return cols.get(block);
+    }
+
+    /**
+     * @param block Block index.
+     * @return Point times.
+     */
+    public LongBuffer times(int block) {
+        ByteBuffer buf = blocks.get(block).duplicate();
+
+        buf.limit(8 * sizes.get(block));
+
+        return buf.slice().asLongBuffer();
+    }
+
+    /**
+     * @param block Block index.
+     * @param col Value index.
+     * @return Point values.
+     */
+    public DoubleBuffer values(int block, int col) {
+        int size = sizes.get(block);
+
+        ByteBuffer buf = blocks.get(block).duplicate();
+
+        buf.position(8 * size * (col + 1));
+        buf.limit(8 * size * (col + 2));
+
+        return buf.slice().asDoubleBuffer();
+    }
+
+    /**
+     * Exports points to CSV file.
+     *
+     * @param out CSV file.
+     * @throws IOException If failed.
+     */
+    public void exportCsv(File out) throws IOException {
+        try (PrintWriter writer = new PrintWriter(new OutputStreamWriter(new FileOutputStream(out), UTF_8))) {
+            writer.println("--Probe dump file for probe: " + probe);
+            writer.println("--Created " + new Date(created));
+            writer.println("--Benchmark config: " + cfg.replaceAll("\n|\t|\r|\f", ""));
+            writer.println("--Description: " + desc.replaceAll("\n|\t|\r|\f", ""));
+
+            if (!Double.isNaN(probeOverhead))
+                writer.println(PROBE_OVERHEAD_PREFIX + String.format(Locale.US, "%.2f", probeOverhead));
+
+            if (!Double.isNaN(clockReadCost))
+                writer.println(CLOCK_READ_PREFIX + String.format(Locale.US, "%.2f", clockReadCost));
+
+            writer.println(DRV_NAMES_PREFIX + drvNames);
+
+            if (!metaInfo.isEmpty()) {
+                StringBuilder sb = new StringBuilder(META_INFO_PREFIX);
+
+                for (int i = 0; i < metaInfo.size(); i++)
+                    sb.append(i == 0 ? "" : META_INFO_SEPARATOR).append('"').append(metaInfo.get(i)).append('"');
+
+                writer.println(sb);
+            }
+
+            for (int b = 0; b < blocks(); b++) {
+                LongBuffer times = times(b);
+
+                DoubleBuffer[] vals = new DoubleBuffer[blockColumns(b)];
+
+                for (int j = 0; j < vals.length; j++)
+                    vals[j] = values(b, j);
+
+                for (int i = 0; i < blockSize(b); i++) {
+                    StringBuilder sb = new StringBuilder().append(times.get(i));
+
+                    for (DoubleBuffer val : vals)
+                        sb.append(',').append(String.format(Locale.US, "%.2f", val.get(i)));
+
+                    writer.println(sb);
+                }
+            }
+
+            if (writer.checkError())
+                throw new IOException("Failed to write file: " + out.getAbsolutePath());
+        }
+    }
+
+    /**
+     * @param buf Buffer.
+     * @return String.
+     */
+    private static String getString(ByteBuffer buf) {
+        byte[] bytes = new byte[buf.getInt()];
+
+        buf.get(bytes);
+
+        return new String(bytes, UTF_8);
+    }
+
+    /**
+     * Exports binary files to CSV.
+     *
+     * @param args Files or folders with binary files.
+     * @throws Exception If failed.
+     */
+    public static void main(String[] args) throws Exception {
+        if (args.length == 0) {
+            System.out.println("Usage: " + BenchmarkProbePointBinaryReader.class.getSimpleName() +
+                " <file or folder> [<file or folder> ...]");
+
+            return;
+        }
+
+        for (String arg : args)
+            export(new File(arg));
+    }
+
+    /**
+     * @param file File or folder.
+     * @throws IOException If failed.
+     */
+    private static void export(File file) throws IOException {
+        if (file.isDirectory()) {
+            File[] files = file.listFiles();
+
+            if (files != null) {
+                for (File f : files)
+                    export(f);
+            }
+        }
+        else if (binaryFile(file)) {
+            String name = file.getName();
+
+            File out = new File(file.getParentFile(),
+                name.substring(0, name.length() - BINARY_FILE_EXTENSION.length()) + ".csv");
+
+            new BenchmarkProbePointBinaryReader(file).exportCsv(out);
+
+            System.out.println("Exported: " + out.getAbsolutePath());
+        }
+    }
+}
@@ -0,0 +1,307 @@
+/*
+ Licensed under the Apache License, Version 2.0 (the "License");
+ you may not use this file except in compliance with the License.
+ You may obtain a copy of the License at
+
+     http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing, software
+ distributed under the License is distributed on an "AS IS" BASIS,
+ WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ See the License for the specific language governing permissions and
+ limitations under the License.
+ */
+
+package org.yardstickframework.writers;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.Collection;
+import org.yardstickframework.BenchmarkColumnarProbePointWriter;
+import org.yardstickframework.BenchmarkConfiguration;
+import org.yardstickframework.BenchmarkDriver;
+import org.yardstickframework.BenchmarkProbe;
+import org.yardstickframework.BenchmarkProbePoint;
+import org.yardstickframework.BenchmarkProbePointBuffer;
+import org.yardstickframework.BenchmarkUtils;
+
+/**
+ * Binary probe point writer. Points are saved with full precision to {@code <probe>.bin} file in the
+ * same results folder the CSV writer uses, the file is read by {@link BenchmarkProbePointBinaryReader}
+ * which can also export it to CSV.
+ * <p>
+ * File starts with the header: magic, version, probe, creation time, benchmark configuration,
+ * description, calibrated framework overhead, driver names and meta info. Header is followed by blocks,
+ * one block per write: number of points, number of values, point times and then values column by column.
+ * Strings are written as length and UTF-8 bytes. Number of points is written after the block data,
+ * so a block which is not written completely is never read.
+ * <p>
+ * File is appended through memory mapped regions of {@link #CHUNK_SIZE} bytes and is truncated
+ * to the written size when the writer is closed.
+ */
+public class BenchmarkProbePointBinaryWriter implements BenchmarkColumnarProbePointWriter {
+    /** */
+    public static final String BINARY_FILE_EXTENSION = ".bin";
+
+    /** File magic, {@code YSPB}. */
+    public static final int MAGIC = 0x59535042;
+
+    /** Format version. */
+    public static final int VERSION = 1;
+
+    /** Size of mapped region. */
+    public static final int CHUNK_SIZE = 1024 * 1024;
+
+    /** */
+    static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    /** */
+    private BenchmarkConfiguration cfg;
+
+    /** */
+    private BenchmarkDriver drv;
+
+    /** */
+    private long startTime;
+
+    /** */
+    private File outPath;
+
+    /** */
+    private RandomAccessFile raf;
+
+    /** */
+    private FileChannel ch;
+
+    /** Currently mapped region. */
+    private MappedByteBuffer map;
+
+    /** File position of the mapped region. */
+    private long mapPos;
+
+    /** Number of written points. */
+    private long points;
+
+    /** {@inheritDoc} */
+    @Override public void start(BenchmarkDriver drv, BenchmarkConfiguration cfg, long startTime) {
+        start(drv, cfg, startTime, BenchmarkProbePointCsvWriter.outputFolder(cfg, drv, startTime));
+    }
+
+    /**
+     * @param drv Benchmark driver.
+     * @param cfg Benchmark configuration.
+     * @param startTime Time when writers are initialized.
+     * @param outPath Folder to save file to.
+     */
+    void start(BenchmarkDriver drv, BenchmarkConfiguration cfg, long startTime, File outPath) {
+        this.cfg = cfg;
+        this.drv = drv;
+        this.startTime = startTime;
+        this.outPath = outPath;
+    }
+
+    /** {@inheritDoc} */
+    @Override public void writePoints(BenchmarkProbe probe, Collection<BenchmarkProbePoint> points) throws Exception {
+        if (raf == null)
+            writeHeader(probe);
+
+        if (points.isEmpty())
+            return;
+
+        int cols = points.iterator().next().values().length;
+
+        int blockPos = startBlock(points.size(), cols);
+
+        for (BenchmarkProbePoint pt : points)
+            map.putLong(pt.time());
+
+        for (int j = 0; j < cols; j++) {
+            for (BenchmarkProbePoint pt : points)
+                map.putDouble(j < pt.values().length ? pt.values()[j] : Double.NaN);
+        }
+
+        map.putInt(blockPos, points.size());
+
+        this.points += points.size();
+    }
+
+    /** {@inheritDoc} */
+    @Override public void writePoints(BenchmarkProbe probe, BenchmarkProbePointBuffer buf) throws Exception {
+        if (raf == null)
+            writeHeader(probe);
+
+        int size = buf.size();
+
+        if (size == 0)
+            return;
+
+        try {
+            int blockPos = startBlock(size, buf.columns());
+
+            for (int i = 0; i < size; i++)
+                map.putLong(buf.time(i));
+
+            for (int j = 0; j < buf.columns(); j++) {
+                for (int i = 0; i < size; i++)
+                    map.putDouble(buf.value(i, j));
+            }
+
+            map.putInt(blockPos, size);
+
+            points += size;
+        }
+        finally {
+            buf.release(size);
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override public void close() throws Exception {
+        if (raf != null) {
+            if (map != null) {
+                long size = mapPos + map.position();
+
+                map = null;
+
+                // Unlike channel truncation, it is not affected by thread interruption.
+                try {
+                    raf.setLength(size);
+                }
+                catch (IOException ignored) {
+                    // Some platforms do not truncate files with mapped regions, reader skips unused space.
+                }
+            }
+
+            raf.close();
+        }
+    }
+
+    /**
+     * @return Number of written points.
+     */
+    long points() {
+        return points;
+    }
+
+    /**
+     * Reserves space for the block and writes its header with zero number of points.
+     *
+     * @param size Number of points.
+     * @param cols Number of values.
+     * @return Position of the number of points in the mapped region.
+     * @throws Exception If failed.
+     */
+    private int startBlock(int size, int cols) throws Exception {
+        ensureCapacity(8 + 8L * size * (cols + 1));
+
+        int pos = map.position();
+
+        map.putInt(0);
+        map.putInt(cols);
+
+        return pos;
+    }
+
+    /**
+     * Creates file and writes header.
+     *
+     * @param probe Probe.
+     * @throws Exception If failed.
+     */
+    private void writeHeader(BenchmarkProbe probe) throws Exception {
+        File f = new File(outPath, probe.getClass().getSimpleName() + BINARY_FILE_EXTENSION);
+
+        raf = new RandomAccessFile(f, "rw");
+
+        raf.setLength(0);
+
+        ch = raf.getChannel();
+
+        map = ch.map(FileChannel.MapMode.READ_WRITE, 0, CHUNK_SIZE);
+
+        BenchmarkUtils.println(cfg, probe.getClass().getSimpleName() + " results will be saved to: " +
+            f.getAbsolutePath());
+
+        String drvNames = BenchmarkUtils.driverNames(cfg);
+
+        Collection<String> metaInfo = probe.metaInfo();
+
+        putInt(MAGIC);
+        putInt(VERSION);
+        putString(probe + " (" + probe.getClass() + ")");
+        putLong(startTime);
+        putString(cfg.toString());
+        putString(drv.description() == null ? "" : drv.description());
+        putDouble(cfg.probeOverhead());
+        putDouble(cfg.clockReadCost());
+        putString(drvNames == null ? "" : drvNames);
+        putInt(metaInfo == null ? 0 : metaInfo.size());
+
+        if (metaInfo != null) {
+            for (String s : metaInfo)
+                putString(s);
+        }
+    }
+
+    /**
+     * @param val Value.
+     * @throws Exception If failed.
+     */
+    private void putInt(int val) throws Exception {
+        ensureCapacity(4);
+
+        map.putInt(val);
+    }
+
+    /**
+     * @param val Value.
+     * @throws Exception If failed.
+     */
+    private void putLong(long val) throws Exception {
+        ensureCapacity(8);
+
+        map.putLong(val);
+    }
+
+    /**
+     * @param val Value.
+     * @throws Exception If failed.
+     */
+    private void putDouble(double val) throws Exception {
+        ensureCapacity(8);
+
+        map.putDouble(val);
+    }
+
+    /**
+     * @param val Value.
+     * @throws Exception If failed.
+     */
+    private void putString(String val) throws Exception {
+        byte[] bytes = val.getBytes(UTF_8);
+
+        ensureCapacity(4 + bytes.length);
+
+        map.putInt(bytes.length);
+        map.put(bytes);
+    }
+
+    /**
+     * Maps the next region of the file if the current one does not have enough space.
+     *
+     * @param bytes Number of bytes to write.
+     * @throws Exception If failed.
+     */
+    private void ensureCapacity(long bytes) throws Exception {
+        if (map.remaining() >= bytes)
+            return;
+
+        mapPos += map.position();
+
+        map = ch.map(FileChannel.MapMode.READ_WRITE, mapPos, Math.max(CHUNK_SIZE, bytes));
+    }
+}
@@ -0,0 +1,175 @@
+/*
+ Licensed under the Apache License, Version 2.0 (the "License");
+ you may not use this file except in compliance with the License.
+ You may obtain a copy of the License at
+
+     http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing, software
+ distributed under the License is distributed on an "AS IS" BASIS,
+ WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ See the License for the specific language governing permissions and
+ limitations under the License.
+ */
+
+package org.yardstickframework.writers;
+
+import java.io.Flushable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import org.yardstickframework.BenchmarkColumnarProbePointWriter;
+import org.yardstickframework.BenchmarkConfiguration;
+import org.yardstickframework.BenchmarkDriver;
+import org.yardstickframework.BenchmarkProbe;
+import org.yardstickframework.BenchmarkProbePoint;
+import org.yardstickframework.BenchmarkProbePointBuffer;
+import org.yardstickframework.BenchmarkProbePointWriter;
+
+/**
+ * Writer fanning out probe points to several writers, e.g. to CSV files and to monitoring system at the same time.
+ * Every writer gets the same batch of points: the same collection of points, or a view of the probe buffer
+ * if the writer is columnar, points of the buffer are converted to objects at most once per batch for other writers.
+ * If a writer fails, the rest of writers still get the points and the first exception is thrown.
+ */
+public class BenchmarkProbePointCompositeWriter implements BenchmarkColumnarProbePointWriter, Flushable {
+    /** */
+    private final List<BenchmarkProbePointWriter> writers;
+
+    /**
+     * @param writers Writers.
+     */
+    public BenchmarkProbePointCompositeWriter(List<BenchmarkProbePointWriter> writers) {
+        if (writers.isEmpty())
+            throw new IllegalArgumentException("Writers are not defined.");
+
+        this.writers = new ArrayList<>(writers);
+    }
+
+    /**
+     * @return Writers.
+     */
+    public List<BenchmarkProbePointWriter> writers() {
+        return writers;
+    }
+
+    /** {@inheritDoc} */
+    @Override public void start(BenchmarkDriver drv, BenchmarkConfiguration cfg, long startTime) {
+        for (BenchmarkProbePointWriter writer : writers)
+            writer.start(drv, cfg, startTime);
+    }
+
+    /** {@inheritDoc} */
+    @SuppressWarnings("ForLoopReplaceableByForEach")
+    @Override public void writePoints(BenchmarkProbe probe, Collection<BenchmarkProbePoint> points) throws Exception {
+        Exception err = null;
+
+        for (int i = 0; i < writers.size(); i++) {
+            try {
+                writers.get(i).writePoints(probe, points);
+            }
+            catch (Exception e) {
+                err = suppress(err, e);
+            }
+        }
+
+        if (err != null)
+            throw err;
+    }
+
+    /** {@inheritDoc} */
+    @SuppressWarnings("ForLoopReplaceableByForEach")
+    @Override public void writePoints(BenchmarkProbe probe, BenchmarkProbePointBuffer buf) throws Exception {
+        // Points added while writers are reading the batch are left for the next batch.
+        int size = buf.size();
+
+        Exception err = null;
+
+        Collection<BenchmarkProbePoint> points = null;
+
+        try {
+            for (int i = 0; i < writers.size(); i++) {
+                BenchmarkProbePointWriter writer = writers.get(i);
+
+                try {
+                    if (writer instanceof BenchmarkColumnarProbePointWriter)
+                        ((BenchmarkColumnarProbePointWriter)writer).writePoints(probe, buf.view(size));
+                    else {
+                        if (points == null)
+                            points = buf.view(size).drainPoints();
+
+                        writer.writePoints(probe, points);
+                    }
+                }
+                catch (Exception e) {
+                    err = suppress(err, e);
+                }
+            }
+        }
+        finally {
+            buf.release(size);
+        }
+
+        if (err != null)
+            throw err;
+    }
+
+    /** {@inheritDoc} */
+    @Override public void flush() throws IOException {
+        IOException err = null;
+
+        for (BenchmarkProbePointWriter writer : writers) {
+            if (writer instanceof Flushable) {
+                try {
+                    ((Flushable)writer).flush();
+                }
+                catch (IOException e) {
+                    if (err == null)
+                        err = e;
+                    else
+                        err.addSuppressed(e);
+                }
+            }
+        }
+
+        if (err != null)
+            throw err;
+    }
+
+    /** {@inheritDoc} */
+    @Override public void close() throws Exception {
+        Exception err = null;
+
+        for (BenchmarkProbePointWriter writer : writers) {
+            try {
+                writer.close();
+            }
+            catch (Exception e) {
+                err = suppress(err, e);
+            }
+        }
+
+        if (err != null)
+            throw err;
+    }
+
+    /**
+     * @param err First exception or {@code null}.
+     * @param e Exception.
+     * @return First exception.
+     */
+    private static Exception suppress(Exception err, Exception e) {
+        if (err == null)
+            return e;
+
+        err.addSuppressed(e);
+
+        return err;
+    }
+
+    /** {@inheritDoc} */
+    @Override public String toString() {
+        return getClass().getSimpleName() + writers;
+    }
+}
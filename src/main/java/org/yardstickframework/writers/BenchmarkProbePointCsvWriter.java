@@ -16,46 +16,88 @@ package org.yardstickframework.writers;
 
 import java.io.File;
 import java.io.FileOutputStream;
-import java.io.OutputStreamWriter;
-import java.io.PrintWriter;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.text.SimpleDateFormat;
 import java.util.Collection;
 import java.util.Date;
 import java.util.Locale;
+import java.util.zip.GZIPOutputStream;
+import org.yardstickframework.BenchmarkColumnarProbePointWriter;
 import org.yardstickframework.BenchmarkConfiguration;
 import org.yardstickframework.BenchmarkDriver;
 import org.yardstickframework.BenchmarkProbe;
 import org.yardstickframework.BenchmarkProbePoint;
-import org.yardstickframework.BenchmarkProbePointWriter;
+import org.yardstickframework.BenchmarkProbePointBuffer;
 import org.yardstickframework.BenchmarkUtils;
 
 import static org.yardstickframework.BenchmarkUtils.WEIGHT_DELIMITER;
 import static org.yardstickframework.BenchmarkUtils.fixFolderName;
 
 /**
- * CSV probe point writer.
+ * CSV probe point writer. Points are formatted to a reusable byte buffer without allocating objects for numbers,
+ * with the number of digits after the decimal point defined by {@code BENCHMARK_WRITER_CSV_PRECISION} property
+ * (2 by default), and every batch of points is written to the file by a single write call.
+ * <p>
+ * If {@code BENCHMARK_WRITER_COMPRESS} property is {@code true}, points are saved to {@code <probe>.csv.gz} files
+ * compressed by gzip as they are written. Every flush completes the compressed data written so far, so the file
+ * can be read at any moment and nothing but the compressor state is kept in memory.
  */
-public class BenchmarkProbePointCsvWriter implements BenchmarkProbePointWriter {
+public class BenchmarkProbePointCsvWriter implements BenchmarkColumnarProbePointWriter, Flushable {
     /** */
     private static final String DUPLICATE_TO_OUTPUT = "BENCHMARK_WRITER_DUPLICATE_TO_OUTPUT";
 
     /** */
     private static final boolean DEFAULT_DUPLICATE_TO_OUTPUT = false;
 
+    /** */
+    public static final String COMPRESS = "BENCHMARK_WRITER_COMPRESS";
+
+    /** */
+    private static final boolean DEFAULT_COMPRESS = false;
+
+    /** */
+    public static final String CSV_FILE_EXTENSION = ".csv";
+
+    /** Extension appended to names of compressed files. */
+    public static final String GZIP_FILE_EXTENSION = ".gz";
+
+    /** */
+    private static final int GZIP_BUFFER_SIZE = 64 * 1024;
+
+    /** Number of digits after the decimal point in probe values. */
+    public static final String PRECISION = "BENCHMARK_WRITER_CSV_PRECISION";
+
+    /** */
+    public static final int DEFAULT_PRECISION = 2;
+
     /** */
     public static final String META_INFO_SEPARATOR = ",";
 
     /** */
     public static final String DRV_NAMES_PREFIX = "@@";
 
+    /** */
+    public static final String PROBE_OVERHEAD_PREFIX = "--Probe overhead, nsec/op: ";
+
+    /** */
+    public static final String CLOCK_READ_PREFIX = "--Clock read, nsec: ";
+
+    /** Prefix of folders with results of probes running in benchmark servers. */
+    public static final String SERVER_FOLDER_PREFIX = "server-";
+
     /** */
     public static final String META_INFO_PREFIX = "**";
 
     /** */
     public static final SimpleDateFormat FORMAT = new SimpleDateFormat("yyyyMMdd-HHmmss");
 
+    /** File stream or {@code null} if header is not written yet. */
+    private OutputStream out;
+
     /** */
-    private PrintWriter writer;
+    private BenchmarkCsvBuffer buf;
 
     /** */
     private BenchmarkConfiguration cfg;
@@ -69,6 +111,9 @@ public class BenchmarkProbePointCsvWriter implements BenchmarkProbePointWriter {
     /** */
     private boolean dupToOutput;
 
+    /** */
+    private boolean compress;
+
     /** */
     private File outPath;
 
@@ -80,139 +125,237 @@ public class BenchmarkProbePointCsvWriter implements BenchmarkProbePointWriter {
 
         dupToOutput = duplicateToOutput(cfg);
 
-        String path = cfg.outputFolder();
+        compress = compress(cfg);
 
-        File folder = null;
+        buf = new BenchmarkCsvBuffer(precision(cfg));
 
-        if (path != null) {
-            folder = new File(path);
+        outPath = outputFolder(cfg, drv, startTime);
+    }
 
-            if (!folder.exists()) {
-                if (!folder.mkdirs())
-                    throw new IllegalStateException("Can not create folder: " + folder.getAbsolutePath());
+    /** {@inheritDoc} */
+    @Override public void writePoints(BenchmarkProbe probe, Collection<BenchmarkProbePoint> points) throws Exception {
+        if (out == null)
+            writeHeader(probe);
+
+        for (BenchmarkProbePoint pt : points) {
+            buf.append(pt.time());
+
+            double[] vals = pt.values();
+
+            for (double val : vals)
+                buf.append(',').append(val);
+
+            buf.newLine();
+        }
+
+        writeBuffer();
+    }
+
+    /** {@inheritDoc} */
+    @Override public void writePoints(BenchmarkProbe probe, BenchmarkProbePointBuffer buf) throws Exception {
+        if (out == null)
+            writeHeader(probe);
+
+        int size = buf.size();
+
+        try {
+            for (int i = 0; i < size; i++) {
+                this.buf.append(buf.time(i));
+
+                for (int j = 0; j < buf.columns(); j++)
+                    this.buf.append(',').append(buf.value(i, j));
+
+                this.buf.newLine();
             }
         }
+        finally {
+            buf.release(size);
+        }
 
-        String desc = drv.description() == null ? "" : drv.description();
+        writeBuffer();
+    }
 
-        desc = desc.replaceAll("-+", "-").replaceAll(",|\\\\|/|\\||%|:|<|>|\\*|\\?|\"|\\s", "-");
+    /**
+     * Writes formatted points to file and to output if needed.
+     *
+     * @throws IOException If failed.
+     */
+    private void writeBuffer() throws IOException {
+        try {
+            buf.writeTo(out);
 
-        desc = desc.charAt(0) == '-' ? desc : '-' + desc;
+            if (dupToOutput)
+                buf.writeTo(cfg.output());
+        }
+        finally {
+            buf.reset();
+        }
+    }
 
-        String subFolderName = FORMAT.format(new Date(startTime));
+    /**
+     * Creates file and writes header.
+     *
+     * @param probe Probe.
+     * @throws Exception If failed.
+     */
+    private void writeHeader(BenchmarkProbe probe) throws Exception {
+        String fileName = probe.getClass().getSimpleName() + CSV_FILE_EXTENSION + (compress ? GZIP_FILE_EXTENSION : "");
 
-        String hostName = cfg.hostName().isEmpty() ? "" : '-' + cfg.hostName();
+        File f = outPath == null ? new File(fileName) : new File(outPath, fileName);
 
-        if (cfg.driverNames().size() > 1) {
-            StringBuilder sb = new StringBuilder();
+        OutputStream out = new FileOutputStream(f);
 
-            for (String drvName : cfg.driverNames())
-                sb.append(drvName.split(WEIGHT_DELIMITER)[0].trim()).append('-');
+        // Sync flush makes all data written before flush readable without closing the stream.
+        if (compress)
+            out = new GZIPOutputStream(out, GZIP_BUFFER_SIZE, true);
 
-            if (sb.length() > 0)
-                sb.delete(sb.length() - 1, sb.length());
+        this.out = out;
 
-            subFolderName += '-' + sb.toString();
+        String parent;
 
-            subFolderName += File.separator + desc.substring(1) + hostName;
+        // Multiple drivers.
+        if (multipleDrivers(cfg)) {
+            File outPath0 = outPath.getParentFile();
+
+            parent = outPath0.getParent() == null ? outPath.getPath() : outPath0.getPath();
         }
         else
-            subFolderName += desc + hostName;
+            parent = outPath.getParent() == null ? outPath.getPath() : outPath.getParent();
 
-        subFolderName = fixFolderName(subFolderName);
+        BenchmarkUtils.println(cfg, probe.getClass().getSimpleName() + " results will be saved to: " + parent);
 
-        outPath = folder == null ? new File(subFolderName) : new File(folder, subFolderName);
+        println("--Probe dump file for probe: " + probe + " (" + probe.getClass() + ")");
+        println("--Created " + new Date(startTime));
+        println("--Benchmark config: " + removeUnwantedChars(cfg.toString()));
+        println("--Description: " + removeUnwantedChars(drv.description() == null ? "" : drv.description()));
 
-        if (!outPath.exists()) {
-            if (!outPath.mkdirs())
-                throw new IllegalStateException("Can not create folder: " + outPath.getAbsolutePath());
+        if (!Double.isNaN(cfg.probeOverhead()))
+            println(PROBE_OVERHEAD_PREFIX + String.format(Locale.US, "%.2f", cfg.probeOverhead()));
+
+        if (!Double.isNaN(cfg.clockReadCost()))
+            println(CLOCK_READ_PREFIX + String.format(Locale.US, "%.2f", cfg.clockReadCost()));
+
+        println(DRV_NAMES_PREFIX + BenchmarkUtils.driverNames(cfg));
+
+        if (probe.metaInfo() != null && !probe.metaInfo().isEmpty()) {
+            StringBuilder sb = new StringBuilder(META_INFO_PREFIX);
+
+            int i = 0;
+
+            for (String metaInfo : probe.metaInfo())
+                sb.append("\"" + metaInfo + "\"" + (++i == probe.metaInfo().size() ? "" : META_INFO_SEPARATOR));
+
+            println(sb.toString());
         }
     }
 
     /** {@inheritDoc} */
-    @Override public void writePoints(BenchmarkProbe probe, Collection<BenchmarkProbePoint> points) throws Exception {
-        if (writer == null) {
-            String fileName = probe.getClass().getSimpleName() + ".csv";
+    @Override public void flush() throws IOException {
+        if (out != null)
+            out.flush();
+    }
 
-            File f = outPath == null ? new File(fileName) : new File(outPath, fileName);
+    /** {@inheritDoc} */
+    @Override public void close() throws Exception {
+        if (out != null)
+            out.close();
+    }
 
-            writer = new PrintWriter(new OutputStreamWriter(new FileOutputStream(f)));
+    /**
+     * Creates (if needed) and returns folder where probe points of the given driver are saved.
+     *
+     * @param cfg Benchmark configuration.
+     * @param drv Benchmark driver.
+     * @param startTime Time when writers are initialized.
+     * @return Results folder.
+     */
+    public static File outputFolder(BenchmarkConfiguration cfg, BenchmarkDriver drv, long startTime) {
+        String path = cfg.outputFolder();
 
-            String parent;
+        File folder = null;
 
-            // Multiple drivers.
-            if (cfg.driverNames().size() > 1) {
-                File outPath0 = outPath.getParentFile();
+        if (path != null) {
+            folder = new File(path);
 
-                parent = outPath0.getParent() == null ? outPath.getPath() : outPath0.getPath();
+            if (!folder.exists()) {
+                if (!folder.mkdirs())
+                    throw new IllegalStateException("Can not create folder: " + folder.getAbsolutePath());
             }
-            else
-                parent = outPath.getParent() == null ? outPath.getPath() : outPath.getParent();
+        }
 
-            BenchmarkUtils.println(cfg, probe.getClass().getSimpleName() + " results will be saved to: " + parent);
+        String subFolderName = runFolderName(cfg, drv, startTime);
 
-            println("--Probe dump file for probe: " + probe + " (" + probe.getClass() + ")");
-            println("--Created " + new Date(startTime));
-            println("--Benchmark config: " + removeUnwantedChars(cfg.toString()));
-            println("--Description: " + removeUnwantedChars(drv.description() == null ? "" : drv.description()));
-            println(DRV_NAMES_PREFIX + cfg.driverNames().toString().replaceAll("\\[", "").replaceAll("]", ""));
+        File outPath = folder == null ? new File(subFolderName) : new File(folder, subFolderName);
 
-            if (probe.metaInfo() != null && !probe.metaInfo().isEmpty()) {
-                print(META_INFO_PREFIX);
+        if (!outPath.exists()) {
+            if (!outPath.mkdirs())
+                throw new IllegalStateException("Can not create folder: " + outPath.getAbsolutePath());
+        }
 
-                int i = 0;
+        return outPath;
+    }
 
-                for (String metaInfo : probe.metaInfo())
-                    print("\"" + metaInfo + "\"" + (++i == probe.metaInfo().size() ? "" : META_INFO_SEPARATOR));
+    /**
+     * @param cfg Benchmark configuration.
+     * @param drv Benchmark driver.
+     * @param startTime Time when writers are initialized.
+     * @return Path of the folder where probe points of the given driver are saved relative to the output folder.
+     */
+    public static String runFolderName(BenchmarkConfiguration cfg, BenchmarkDriver drv, long startTime) {
+        String desc = drv.description() == null ? "" : drv.description();
 
-                if (i != 0)
-                    println("");
-            }
-        }
+        desc = desc.replaceAll("-+", "-").replaceAll(",|\\\\|/|\\||%|:|<|>|\\*|\\?|\"|\\s", "-");
 
-        for (BenchmarkProbePoint pt : points) {
-            print(String.valueOf(pt.time()));
-            print(",");
+        desc = desc.charAt(0) == '-' ? desc : '-' + desc;
 
-            double[] vals = pt.values();
+        String subFolderName = FORMAT.format(new Date(startTime));
 
-            for (int i = 0; i < vals.length; i++) {
-                print(String.format(Locale.US, "%.2f", vals[i]));
+        String hostName = cfg.hostName().isEmpty() ? "" : '-' + cfg.hostName();
 
-                if (i != vals.length - 1)
-                    print(",");
-            }
+        if (multipleDrivers(cfg)) {
+            StringBuilder sb = new StringBuilder();
+
+            for (String drvName : cfg.driverNames())
+                sb.append(drvName.split(WEIGHT_DELIMITER)[0].trim()).append('-');
+
+            if (sb.length() > 0)
+                sb.delete(sb.length() - 1, sb.length());
+
+            subFolderName += '-' + sb.toString();
 
-            println("");
+            subFolderName += File.separator + desc.substring(1) + hostName;
         }
+        else if (serverSide(cfg))
+            subFolderName = SERVER_FOLDER_PREFIX + subFolderName + desc + hostName;
+        else
+            subFolderName += desc + hostName;
 
-        writer.flush();
+        return fixFolderName(subFolderName);
     }
 
-    /** {@inheritDoc} */
-    @Override public void close() throws Exception {
-        if (writer != null)
-            writer.close();
+    /**
+     * @param cfg Benchmark configuration.
+     * @return {@code True} if probes run in benchmark server.
+     */
+    private static boolean serverSide(BenchmarkConfiguration cfg) {
+        return cfg.driverNames() == null && cfg.serverName() != null;
     }
 
     /**
-     * @param s String to write.
+     * @param cfg Benchmark configuration.
+     * @return {@code True} if several drivers are run.
      */
-    private void print(String s) {
-        writer.print(s);
-
-        if (dupToOutput)
-            cfg.output().print(s);
+    private static boolean multipleDrivers(BenchmarkConfiguration cfg) {
+        return cfg.driverNames() != null && cfg.driverNames().size() > 1;
     }
 
     /**
+     * Appends header line to the buffer, it is written to file (and to output if needed) with the first points.
+     *
      * @param s String to write.
      */
     private void println(String s) {
-        writer.println(s);
-
-        if (dupToOutput)
-            BenchmarkUtils.println(cfg, s);
+        buf.append(s).newLine();
     }
 
     /**
@@ -228,11 +371,41 @@ public class BenchmarkProbePointCsvWriter implements BenchmarkProbePointWriter {
      * @return Flat indicating whether to duplicate to output or not.
      */
     private boolean duplicateToOutput(BenchmarkConfiguration cfg) {
+        return booleanProperty(cfg, DUPLICATE_TO_OUTPUT, DEFAULT_DUPLICATE_TO_OUTPUT);
+    }
+
+    /**
+     * @param cfg Config.
+     * @return Number of digits after the decimal point in probe values.
+     */
+    private static int precision(BenchmarkConfiguration cfg) {
         try {
-            return Boolean.parseBoolean(cfg.customProperties().get(DUPLICATE_TO_OUTPUT));
+            int res = Integer.parseInt(cfg.customProperties().get(PRECISION));
+
+            return res >= 0 ? res : DEFAULT_PRECISION;
         }
         catch (NumberFormatException | NullPointerException ignored) {
-            return DEFAULT_DUPLICATE_TO_OUTPUT;
+            return DEFAULT_PRECISION;
         }
     }
+
+    /**
+     * @param cfg Config.
+     * @return Flag indicating whether to compress written files or not.
+     */
+    private boolean compress(BenchmarkConfiguration cfg) {
+        return booleanProperty(cfg, COMPRESS, DEFAULT_COMPRESS);
+    }
+
+    /**
+     * @param cfg Config.
+     * @param name Property name.
+     * @param dflt Default value used if property is not set.
+     * @return Property value.
+     */
+    private static boolean booleanProperty(BenchmarkConfiguration cfg, String name, boolean dflt) {
+        String val = cfg.customProperties() == null ? null : cfg.customProperties().get(name);
+
+        return val == null ? dflt : Boolean.parseBoolean(val);
+    }
 }
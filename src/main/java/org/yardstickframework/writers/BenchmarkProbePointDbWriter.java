@@ -0,0 +1,107 @@
+/*
+ Licensed under the Apache License, Version 2.0 (the "License");
+ you may not use this file except in compliance with the License.
+ You may obtain a copy of the License at
+
+     http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing, software
+ distributed under the License is distributed on an "AS IS" BASIS,
+ WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ See the License for the specific language governing permissions and
+ limitations under the License.
+ */
+
+package org.yardstickframework.writers;
+
+import java.io.File;
+import java.util.Collection;
+import org.yardstickframework.BenchmarkColumnarProbePointWriter;
+import org.yardstickframework.BenchmarkConfiguration;
+import org.yardstickframework.BenchmarkDriver;
+import org.yardstickframework.BenchmarkProbe;
+import org.yardstickframework.BenchmarkProbePoint;
+import org.yardstickframework.BenchmarkProbePointBuffer;
+
+import static org.yardstickframework.BenchmarkUtils.driverNames;
+
+/**
+ * Probe point writer saving points to {@link BenchmarkResultsDb results database} defined by
+ * {@code BENCHMARK_RESULTS_DB} property. Points are saved in binary format to the run folder of the database,
+ * the run is added to the database index when the writer is closed.
+ */
+public class BenchmarkProbePointDbWriter implements BenchmarkColumnarProbePointWriter {
+    /** */
+    private final BenchmarkProbePointBinaryWriter writer = new BenchmarkProbePointBinaryWriter();
+
+    /** */
+    private BenchmarkConfiguration cfg;
+
+    /** */
+    private BenchmarkDriver drv;
+
+    /** */
+    private long startTime;
+
+    /** */
+    private File db;
+
+    /** */
+    private String run;
+
+    /** */
+    private File outPath;
+
+    /** Probe or {@code null} if nothing is written. */
+    private BenchmarkProbe probe;
+
+    /** {@inheritDoc} */
+    @Override public void start(BenchmarkDriver drv, BenchmarkConfiguration cfg, long startTime) {
+        this.cfg = cfg;
+        this.drv = drv;
+        this.startTime = startTime;
+
+        db = BenchmarkResultsDb.folder(cfg);
+
+        String folderName = new File(BenchmarkProbePointCsvWriter.runFolderName(cfg, drv, startTime)).getName();
+
+        run = BenchmarkResultsDb.runKey(startTime, folderName);
+
+        outPath = new File(new File(new File(db, BenchmarkResultsDb.RUNS_FOLDER), run), folderName);
+
+        if (!outPath.exists() && !outPath.mkdirs())
+            throw new IllegalStateException("Can not create folder: " + outPath.getAbsolutePath());
+
+        writer.start(drv, cfg, startTime, outPath);
+    }
+
+    /** {@inheritDoc} */
+    @Override public void writePoints(BenchmarkProbe probe, Collection<BenchmarkProbePoint> points) throws Exception {
+        this.probe = probe;
+
+        writer.writePoints(probe, points);
+    }
+
+    /** {@inheritDoc} */
+    @Override public void writePoints(BenchmarkProbe probe, BenchmarkProbePointBuffer buf) throws Exception {
+        this.probe = probe;
+
+        writer.writePoints(probe, buf);
+    }
+
+    /** {@inheritDoc} */
+    @Override public void close() throws Exception {
+        writer.close();
+
+        if (probe == null)
+            return;
+
+        String drvNames = driverNames(cfg);
+
+        String name = probe.getClass().getSimpleName();
+
+        BenchmarkResultsDb.append(db, new BenchmarkResultsDb.Record(run, startTime, drvNames,
+            drv.description(), name, BenchmarkResultsDb.RUNS_FOLDER + '/' + run + '/' + outPath.getName() + '/' +
+            name + BenchmarkProbePointBinaryWriter.BINARY_FILE_EXTENSION, writer.points(), cfg.toString()));
+    }
+}
@@ -0,0 +1,408 @@
+/*
+ Licensed under the Apache License, Version 2.0 (the "License");
+ you may not use this file except in compliance with the License.
+ You may obtain a copy of the License at
+
+     http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing, software
+ distributed under the License is distributed on an "AS IS" BASIS,
+ WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ See the License for the specific language governing permissions and
+ limitations under the License.
+ */
+
+package org.yardstickframework.writers;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.Charset;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import org.yardstickframework.BenchmarkConfiguration;
+import org.yardstickframework.BenchmarkDriver;
+import org.yardstickframework.BenchmarkProbe;
+import org.yardstickframework.BenchmarkProbePoint;
+import org.yardstickframework.BenchmarkProbePointWriter;
+import org.yardstickframework.BenchmarkUtils;
+
+import static org.yardstickframework.BenchmarkUtils.driverName;
+import static org.yardstickframework.BenchmarkUtils.errorHelp;
+import static org.yardstickframework.writers.BenchmarkMetrics.QUANTILES;
+import static org.yardstickframework.writers.BenchmarkMetrics.metaInfo;
+import static org.yardstickframework.writers.BenchmarkMetrics.metricName;
+import static org.yardstickframework.writers.BenchmarkMetrics.probeName;
+import static org.yardstickframework.writers.BenchmarkMetrics.quantile;
+import static org.yardstickframework.writers.BenchmarkMetrics.timeSeries;
+import static org.yardstickframework.writers.BenchmarkMetrics.valueName;
+
+/**
+ * Probe point writer exposing the latest probe values in Prometheus text format on
+ * {@code http://<host>:<port>/metrics} endpoint served by the JDK HTTP server, so a running benchmark
+ * can be watched the same way as production systems.
+ * <p>
+ * Every probe value becomes a gauge named {@code yardstick_<probe>_<value>}, for example
+ * {@code yardstick_throughput_latency_operations_sec}, labeled by driver and host. Points of probes
+ * which are not time series (e.g. latency distribution of {@code PercentileProbe}) are exposed
+ * as a summary with quantiles of the distribution.
+ * <p>
+ * Exposition text is built when points are written, scrapes only send the prepared bytes.
+ * All writers of the JVM share one endpoint per port ({@code BENCHMARK_WRITER_PROMETHEUS_PORT}, 9464 by default),
+ * endpoint is stopped when the last writer is closed or, if {@code BENCHMARK_WRITER_PROMETHEUS_LINGER} is set,
+ * the given number of seconds later, so the final values can be scraped.
+ */
+public class BenchmarkProbePointPrometheusWriter implements BenchmarkProbePointWriter {
+    /** */
+    public static final String PORT = "BENCHMARK_WRITER_PROMETHEUS_PORT";
+
+    /** */
+    public static final int DEFAULT_PORT = 9464;
+
+    /** Seconds the endpoint keeps serving the final values after the last writer is closed. */
+    public static final String LINGER = "BENCHMARK_WRITER_PROMETHEUS_LINGER";
+
+    /** */
+    public static final String PATH = "/metrics";
+
+    /** */
+    public static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    /** */
+    private static final String METRIC_PREFIX = "yardstick_";
+
+    /** */
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    /** Endpoints by configured port. */
+    private static final Map<Integer, Endpoint> endpoints = new HashMap<>();
+
+    /** */
+    private BenchmarkConfiguration cfg;
+
+    /** Labels of all samples. */
+    private String labels;
+
+    /** */
+    private Endpoint endpoint;
+
+    /** {@inheritDoc} */
+    @Override public void start(BenchmarkDriver drv, BenchmarkConfiguration cfg, long startTime) {
+        this.cfg = cfg;
+
+        // Each driver of a multiple drivers run has its own writer, so samples of the writers must differ in labels.
+        String drvName = driverName(cfg, drv);
+
+        labels = "driver=\"" + escape(drvName == null ? "" : drvName) + "\",host=\"" + escape(cfg.hostName()) + '"';
+
+        endpoint = acquire(cfg, intProperty(cfg, PORT, DEFAULT_PORT));
+    }
+
+    /** {@inheritDoc} */
+    @Override public void writePoints(BenchmarkProbe probe, Collection<BenchmarkProbePoint> points) throws Exception {
+        if (endpoint == null || points.isEmpty())
+            return;
+
+        String[] meta = metaInfo(probe);
+
+        String prefix = METRIC_PREFIX + probeName(probe);
+
+        Map<String, Sample> samples = new TreeMap<>();
+
+        if (timeSeries(meta)) {
+            BenchmarkProbePoint last = null;
+
+            for (BenchmarkProbePoint pt : points)
+                last = pt;
+
+            double[] vals = last.values();
+
+            for (int i = 0; i < vals.length; i++) {
+                String name = prefix + '_' + valueName(meta, i);
+
+                samples.put(name, new Sample("gauge", name + '{' + labels + "} " + vals[i] + '\n'));
+            }
+        }
+        else {
+            String name = prefix + '_' + metricName(meta[0]);
+
+            StringBuilder sb = new StringBuilder();
+
+            for (double q : QUANTILES) {
+                sb.append(name).append('{').append(labels).append(",quantile=\"").append(q).append("\"} ")
+                    .append(quantile(points, q)).append('\n');
+            }
+
+            samples.put(name, new Sample("summary", sb.toString()));
+        }
+
+        endpoint.update(this, samples);
+    }
+
+    /** {@inheritDoc} */
+    @Override public void close() throws Exception {
+        if (endpoint != null) {
+            release(cfg, endpoint, this);
+
+            endpoint = null;
+        }
+    }
+
+    /**
+     * @return Port the endpoint is bound to or {@code -1} if endpoint is not started.
+     */
+    public int port() {
+        Endpoint endpoint0 = endpoint;
+
+        return endpoint0 == null ? -1 : endpoint0.srv.getAddress().getPort();
+    }
+
+    /**
+     * @param val Label value.
+     * @return Escaped label value.
+     */
+    private static String escape(String val) {
+        return val.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+
+    /**
+     * @param cfg Config.
+     * @param name Property name.
+     * @param dflt Default value.
+     * @return Property value.
+     */
+    private static int intProperty(BenchmarkConfiguration cfg, String name, int dflt) {
+        try {
+            return Integer.parseInt(cfg.customProperties().get(name));
+        }
+        catch (NumberFormatException | NullPointerException ignored) {
+            return dflt;
+        }
+    }
+
+    /**
+     * @param cfg Config.
+     * @param port Port.
+     * @return Endpoint or {@code null} if it can not be started.
+     */
+    private static synchronized Endpoint acquire(BenchmarkConfiguration cfg, int port) {
+        Endpoint endpoint = endpoints.get(port);
+
+        if (endpoint == null) {
+            try {
+                endpoint = new Endpoint(port);
+            }
+            catch (IOException e) {
+                errorHelp(cfg, "Failed to start Prometheus endpoint (will continue without it) [port=" + port +
+                    ", err=" + e.getMessage() + ']');
+
+                return null;
+            }
+
+            endpoints.put(port, endpoint);
+
+            BenchmarkUtils.println(cfg, "Probe values are exposed to Prometheus at: http://" +
+                (cfg.hostName().isEmpty() ? "localhost" : cfg.hostName()) + ':' +
+                endpoint.srv.getAddress().getPort() + PATH);
+        }
+
+        endpoint.refs++;
+
+        return endpoint;
+    }
+
+    /**
+     * @param cfg Config.
+     * @param endpoint Endpoint.
+     * @param writer Closed writer, its samples are not served anymore.
+     */
+    private static synchronized void release(BenchmarkConfiguration cfg, final Endpoint endpoint,
+        BenchmarkProbePointWriter writer) {
+        endpoint.remove(writer);
+
+        if (--endpoint.refs > 0)
+            return;
+
+        endpoints.values().remove(endpoint);
+
+        final int linger = intProperty(cfg, LINGER, 0);
+
+        if (linger <= 0) {
+            endpoint.stop();
+
+            return;
+        }
+
+        // Not a daemon thread, so JVM is not stopped until the final values are served.
+        Thread t = new Thread("prometheus-endpoint-linger") {
+            @Override public void run() {
+                try {
+                    Thread.sleep(linger * 1000L);
+                }
+                catch (InterruptedException ignored) {
+                    // No-op.
+                }
+
+                endpoint.stop();
+            }
+        };
+
+        t.start();
+    }
+
+    /**
+     * HTTP endpoint serving exposition text of all writers using the same port.
+     */
+    private static class Endpoint implements HttpHandler {
+        /** */
+        private final HttpServer srv;
+
+        /** */
+        private final ExecutorService exec;
+
+        /** Samples by writer, samples are mapped by metric name. */
+        private final Map<BenchmarkProbePointWriter, Map<String, Sample>> samples = new IdentityHashMap<>();
+
+        /** Prepared response. */
+        private volatile byte[] body = new byte[0];
+
+        /** Number of writers using endpoint, guarded by writer class. */
+        private int refs;
+
+        /**
+         * @param port Port.
+         * @throws IOException If failed.
+         */
+        Endpoint(int port) throws IOException {
+            srv = HttpServer.create(new InetSocketAddress(port), 0);
+
+            srv.createContext(PATH, this);
+
+            exec = Executors.newSingleThreadExecutor(new ThreadFactory() {
+                @Override public Thread newThread(Runnable r) {
+                    Thread t = new Thread(r, "prometheus-endpoint");
+
+                    t.setDaemon(true);
+
+                    return t;
+                }
+            });
+
+            srv.setExecutor(exec);
+
+            srv.start();
+        }
+
+        /**
+         * Stops endpoint.
+         */
+        void stop() {
+            srv.stop(0);
+
+            exec.shutdown();
+        }
+
+        /**
+         * Replaces samples of the writer and rebuilds response.
+         *
+         * @param writer Writer.
+         * @param writerSamples Samples by metric name.
+         */
+        synchronized void update(BenchmarkProbePointWriter writer, Map<String, Sample> writerSamples) {
+            samples.put(writer, writerSamples);
+
+            rebuild();
+        }
+
+        /**
+         * Removes samples of the writer and rebuilds response.
+         *
+         * @param writer Writer.
+         */
+        synchronized void remove(BenchmarkProbePointWriter writer) {
+            if (samples.remove(writer) != null)
+                rebuild();
+        }
+
+        /**
+         * Rebuilds response from samples of all writers.
+         */
+        private void rebuild() {
+            // Samples of the same metric written by different writers must be grouped under one TYPE line.
+            Map<String, StringBuilder> metrics = new TreeMap<>();
+
+            for (Map<String, Sample> m : samples.values()) {
+                for (Map.Entry<String, Sample> e : m.entrySet()) {
+                    StringBuilder sb = metrics.get(e.getKey());
+
+                    if (sb == null) {
+                        sb = new StringBuilder("# TYPE ").append(e.getKey()).append(' ').append(e.getValue().type)
+                            .append('\n');
+
+                        metrics.put(e.getKey(), sb);
+                    }
+
+                    sb.append(e.getValue().text);
+                }
+            }
+
+            StringBuilder res = new StringBuilder();
+
+            for (StringBuilder sb : metrics.values())
+                res.append(sb);
+
+            body = res.toString().getBytes(UTF_8);
+        }
+
+        /** {@inheritDoc} */
+        @Override public void handle(HttpExchange exchange) throws IOException {
+            try {
+                byte[] body0 = body;
+
+                exchange.getResponseHeaders().set("Content-Type", CONTENT_TYPE);
+
+                if ("HEAD".equals(exchange.getRequestMethod()))
+                    exchange.sendResponseHeaders(200, -1);
+                else {
+                    exchange.sendResponseHeaders(200, body0.length);
+
+                    try (OutputStream out = exchange.getResponseBody()) {
+                        out.write(body0);
+                    }
+                }
+            }
+            finally {
+                exchange.close();
+            }
+        }
+    }
+
+    /**
+     * Exposition text of a metric written by one writer.
+     */
+    private static class Sample {
+        /** Metric type. */
+        private final String type;
+
+        /** Sample lines. */
+        private final String text;
+
+        /**
+         * @param type Metric type.
+         * @param text Sample lines.
+         */
+        Sample(String type, String text) {
+            this.type = type;
+            this.text = text;
+        }
+    }
+}
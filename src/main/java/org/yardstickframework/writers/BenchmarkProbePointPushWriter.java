@@ -0,0 +1,461 @@
+/*
+ Licensed under the Apache License, Version 2.0 (the "License");
+ you may not use this file except in compliance with the License.
+ You may obtain a copy of the License at
+
+     http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing, software
+ distributed under the License is distributed on an "AS IS" BASIS,
+ WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ See the License for the specific language governing permissions and
+ limitations under the License.
+ */
+
+package org.yardstickframework.writers;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ByteChannel;
+import java.nio.channels.DatagramChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.Charset;
+import java.util.Collection;
+import org.yardstickframework.BenchmarkConfiguration;
+import org.yardstickframework.BenchmarkDriver;
+import org.yardstickframework.BenchmarkProbe;
+import org.yardstickframework.BenchmarkProbePoint;
+import org.yardstickframework.BenchmarkProbePointWriter;
+
+import static org.yardstickframework.BenchmarkUtils.driverName;
+import static org.yardstickframework.BenchmarkUtils.errorHelp;
+import static org.yardstickframework.BenchmarkUtils.println;
+import static org.yardstickframework.writers.BenchmarkMetrics.QUANTILES;
+import static org.yardstickframework.writers.BenchmarkMetrics.metaInfo;
+import static org.yardstickframework.writers.BenchmarkMetrics.metricName;
+import static org.yardstickframework.writers.BenchmarkMetrics.probeName;
+import static org.yardstickframework.writers.BenchmarkMetrics.quantile;
+import static org.yardstickframework.writers.BenchmarkMetrics.timeMillis;
+import static org.yardstickframework.writers.BenchmarkMetrics.timeSeries;
+import static org.yardstickframework.writers.BenchmarkMetrics.valueName;
+
+/**
+ * Probe point writer pushing every probe point to StatsD over UDP or to Graphite over TCP plaintext protocol,
+ * so benchmark load can be shown on the timelines of the existing cluster monitoring.
+ * <p>
+ * Metric keys are {@code <prefix>.<driver>.<host>.<probe>.<value>}, for example
+ * {@code yardstick.MyBenchmark.host1.throughput_latency.operations_sec}. Points of probes which are not
+ * time series (e.g. latency distribution of {@code PercentileProbe}) are pushed as quantiles,
+ * e.g. {@code ...percentile.latency_microseconds.p99}.
+ * <p>
+ * Metrics of all points written at once are batched: StatsD metrics are sent in datagrams of up to
+ * {@link #MAX_DATAGRAM_SIZE} bytes, Graphite metrics are buffered and written in one call. Channels are
+ * non-blocking, so unavailable receiver never delays other writers: metrics which can not be sent or
+ * buffered are dropped and counted, and connection is reestablished at most once per
+ * {@link #RECONNECT_INTERVAL} milliseconds.
+ */
+public class BenchmarkProbePointPushWriter implements BenchmarkProbePointWriter {
+    /** Protocol: {@code statsd} (default) or {@code graphite}. */
+    public static final String PROTOCOL = "BENCHMARK_WRITER_PUSH_PROTOCOL";
+
+    /** */
+    public static final String HOST = "BENCHMARK_WRITER_PUSH_HOST";
+
+    /** Port, 8125 for StatsD and 2003 for Graphite by default. */
+    public static final String PORT = "BENCHMARK_WRITER_PUSH_PORT";
+
+    /** */
+    public static final String PREFIX = "BENCHMARK_WRITER_PUSH_PREFIX";
+
+    /** */
+    public static final String STATSD = "statsd";
+
+    /** */
+    public static final String GRAPHITE = "graphite";
+
+    /** */
+    public static final int DEFAULT_STATSD_PORT = 8125;
+
+    /** */
+    public static final int DEFAULT_GRAPHITE_PORT = 2003;
+
+    /** */
+    public static final String DEFAULT_PREFIX = "yardstick";
+
+    /** Datagram size fitting into Ethernet MTU. */
+    public static final int MAX_DATAGRAM_SIZE = 1432;
+
+    /** Size of the buffer keeping Graphite metrics which are not sent yet. */
+    public static final int STREAM_BUFFER_SIZE = 256 * 1024;
+
+    /** Minimal interval between connection attempts in milliseconds. */
+    public static final long RECONNECT_INTERVAL = 1000;
+
+    /** Time given to send buffered metrics on close in milliseconds. */
+    private static final long CLOSE_TIMEOUT = 1000;
+
+    /** */
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    /** */
+    private BenchmarkConfiguration cfg;
+
+    /** */
+    private boolean graphite;
+
+    /** */
+    private String host;
+
+    /** */
+    private int port;
+
+    /** Key prefix including driver and host. */
+    private String keyPrefix;
+
+    /** Metrics which are not sent yet, a single datagram for StatsD. */
+    private ByteBuffer batch;
+
+    /** */
+    private ByteChannel ch;
+
+    /** */
+    private long lastConnectAttempt;
+
+    /** Whether a line is partially sent to the current connection. */
+    private boolean midLine;
+
+    /** Whether connection failure is reported. */
+    private boolean failureReported;
+
+    /** Number of dropped metrics. */
+    private long dropped;
+
+    /** {@inheritDoc} */
+    @Override public void start(BenchmarkDriver drv, BenchmarkConfiguration cfg, long startTime) {
+        this.cfg = cfg;
+
+        graphite = GRAPHITE.equalsIgnoreCase(property(cfg, PROTOCOL, STATSD));
+
+        host = property(cfg, HOST, "localhost");
+
+        try {
+            port = Integer.parseInt(property(cfg, PORT, ""));
+        }
+        catch (NumberFormatException ignored) {
+            port = graphite ? DEFAULT_GRAPHITE_PORT : DEFAULT_STATSD_PORT;
+        }
+
+        // Each driver of a multiple drivers run has its own writer, so keys of the writers must differ.
+        String drvName = driverName(cfg, drv);
+
+        keyPrefix = property(cfg, PREFIX, DEFAULT_PREFIX) + '.' + keyPart(drvName == null ? "" : drvName) +
+            (cfg.hostName().isEmpty() ? "" : '.' + keyPart(cfg.hostName())) + '.';
+
+        batch = ByteBuffer.allocate(graphite ? STREAM_BUFFER_SIZE : MAX_DATAGRAM_SIZE);
+
+        println(cfg, "Probe points will be pushed to " + (graphite ? "Graphite" : "StatsD") + " at: " + host + ':' +
+            port);
+    }
+
+    /** {@inheritDoc} */
+    @Override public void writePoints(BenchmarkProbe probe, Collection<BenchmarkProbePoint> points) throws Exception {
+        if (points.isEmpty())
+            return;
+
+        String[] meta = metaInfo(probe);
+
+        String prefix = keyPrefix + probeName(probe) + '.';
+
+        if (timeSeries(meta)) {
+            for (BenchmarkProbePoint pt : points) {
+                long time = timeMillis(meta, pt.time());
+
+                double[] vals = pt.values();
+
+                for (int i = 0; i < vals.length; i++)
+                    add(prefix + valueName(meta, i), vals[i], time);
+            }
+        }
+        else {
+            String name = prefix + metricName(meta[0]) + ".p";
+
+            long time = System.currentTimeMillis();
+
+            for (double q : QUANTILES) {
+                String pct = BigDecimal.valueOf(q).movePointRight(2).stripTrailingZeros().toPlainString();
+
+                add(name + pct.replace('.', '_'), quantile(points, q), time);
+            }
+        }
+
+        flush();
+    }
+
+    /** {@inheritDoc} */
+    @Override public void close() throws Exception {
+        if (batch == null)
+            return;
+
+        long deadline = System.currentTimeMillis() + CLOSE_TIMEOUT;
+
+        while (batch.position() > 0 && ch != null && System.currentTimeMillis() < deadline) {
+            flush();
+
+            if (batch.position() > 0)
+                Thread.sleep(10);
+        }
+
+        dropBatch();
+
+        midLine = false;
+
+        disconnect();
+
+        if (dropped > 0)
+            println(cfg, "Metrics which were not pushed [dropped=" + dropped + ", host=" + host + ", port=" + port +
+                ']');
+    }
+
+    /**
+     * @return Number of dropped metrics.
+     */
+    public long dropped() {
+        return dropped;
+    }
+
+    /**
+     * Adds metric to the batch.
+     *
+     * @param key Metric key.
+     * @param val Value.
+     * @param time Time in milliseconds.
+     * @throws Exception If failed.
+     */
+    private void add(String key, double val, long time) throws Exception {
+        // Neither protocol supports NaN and infinity.
+        if (Double.isNaN(val) || Double.isInfinite(val))
+            return;
+
+        String num = BigDecimal.valueOf(val).stripTrailingZeros().toPlainString();
+
+        String line;
+
+        if (graphite)
+            line = key + ' ' + num + ' ' + time / 1000 + '\n';
+        else {
+            line = key + ':' + num + "|g\n";
+
+            // Signed gauge value is a delta in StatsD, so negative value is set by reset to zero first.
+            if (val < 0)
+                line = key + ":0|g\n" + line;
+        }
+
+        byte[] bytes = line.getBytes(UTF_8);
+
+        if (bytes.length > batch.remaining())
+            flush();
+
+        if (bytes.length > batch.remaining())
+            dropped++;
+        else
+            batch.put(bytes);
+    }
+
+    /**
+     * Sends batched metrics, connecting if needed.
+     */
+    private void flush() {
+        if (batch.position() == 0)
+            return;
+
+        if (ch == null && !connect()) {
+            // Graphite metrics are kept until buffer is full, datagram is dropped.
+            if (!graphite)
+                dropBatch();
+
+            return;
+        }
+
+        try {
+            batch.flip();
+
+            if (graphite) {
+                if (((SocketChannel)ch).finishConnect()) {
+                    ch.write(batch);
+
+                    if (batch.position() > 0)
+                        midLine = batch.get(batch.position() - 1) != '\n';
+                }
+
+                batch.compact();
+            }
+            else {
+                if (ch.write(batch) == 0)
+                    dropped += lines(batch, 0, batch.limit());
+
+                batch.clear();
+            }
+
+            failureReported = false;
+        }
+        catch (IOException e) {
+            if (graphite)
+                batch.compact();
+            else {
+                dropped += lines(batch, 0, batch.limit());
+
+                batch.clear();
+            }
+
+            reportFailure(e);
+
+            disconnect();
+        }
+    }
+
+    /**
+     * @return {@code True} if channel is opened.
+     */
+    private boolean connect() {
+        long now = System.currentTimeMillis();
+
+        if (now - lastConnectAttempt < RECONNECT_INTERVAL)
+            return false;
+
+        lastConnectAttempt = now;
+
+        InetSocketAddress addr = new InetSocketAddress(host, port);
+
+        try {
+            if (addr.isUnresolved())
+                throw new IOException("Unknown host: " + host);
+
+            if (graphite) {
+                SocketChannel sockCh = SocketChannel.open();
+
+                ch = sockCh;
+
+                sockCh.configureBlocking(false);
+
+                sockCh.connect(addr);
+            }
+            else {
+                DatagramChannel dgCh = DatagramChannel.open();
+
+                ch = dgCh;
+
+                dgCh.configureBlocking(false);
+
+                dgCh.connect(addr);
+            }
+
+            return true;
+        }
+        catch (IOException e) {
+            reportFailure(e);
+
+            disconnect();
+
+            return false;
+        }
+    }
+
+    /**
+     * Closes channel, the line partially sent to it is dropped.
+     */
+    private void disconnect() {
+        if (ch != null) {
+            try {
+                ch.close();
+            }
+            catch (IOException ignored) {
+                // No-op.
+            }
+
+            ch = null;
+        }
+
+        if (midLine) {
+            int pos = 0;
+
+            while (pos < batch.position() && batch.get(pos) != '\n')
+                pos++;
+
+            int end = Math.min(pos + 1, batch.position());
+
+            batch.flip();
+            batch.position(end);
+            batch.compact();
+
+            dropped++;
+
+            midLine = false;
+        }
+    }
+
+    /**
+     * Drops all batched metrics.
+     */
+    private void dropBatch() {
+        dropped += lines(batch, 0, batch.position());
+
+        batch.clear();
+    }
+
+    /**
+     * @param e Exception.
+     */
+    private void reportFailure(IOException e) {
+        if (failureReported)
+            return;
+
+        failureReported = true;
+
+        errorHelp(cfg, "Failed to push probe points (will reconnect) [host=" + host + ", port=" + port +
+            ", err=" + e.getMessage() + ']');
+    }
+
+    /**
+     * @param buf Buffer.
+     * @param from Start position.
+     * @param to End position.
+     * @return Number of lines.
+     */
+    private static int lines(ByteBuffer buf, int from, int to) {
+        int res = 0;
+
+        for (int i = from; i < to; i++) {
+            if (buf.get(i) == '\n')
+                res++;
+        }
+
+        return res;
+    }
+
+    /**
+     * @param val Value.
+     * @return Key part without dots and characters not supported by monitoring systems.
+     */
+    private static String keyPart(String val) {
+        return val.replaceAll("[^A-Za-z0-9_\\-]+", "_");
+    }
+
+    /**
+     * @param cfg Config.
+     * @param name Property name.
+     * @param dflt Default value.
+     * @return Property value.
+     */
+    private static String property(BenchmarkConfiguration cfg, String name, String dflt) {
+        try {
+            String val = cfg.customProperties().get(name);
+
+            return val == null ? dflt : val.trim();
+        }
+        catch (NullPointerException ignored) {
+            return dflt;
+        }
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ Licensed under the Apache License, Version 2.0 (the "License");
+ you may not use this file except in compliance with the License.
+ You may obtain a copy of the License at
+
+     http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing, software
+ distributed under the License is distributed on an "AS IS" BASIS,
+ WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ See the License for the specific language governing permissions and
+ limitations under the License.
+ */
+
+package org.yardstickframework.writers;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Writes tables which complement probe points (for example, the list of the slowest operations)
+ * to the results folder. Table is saved as tab-separated file with column names in the first line,
+ * such files are shown as tables on the results page.
+ */
+public class BenchmarkResultTableWriter {
+    /** Table file extension. */
+    public static final String TABLE_FILE_EXTENSION = ".tsv";
+
+    /** Column separator. */
+    public static final char SEPARATOR = '\t';
+
+    /**
+     * @param folder Results folder, current folder is used if {@code null}.
+     * @param name Table name (file name without extension).
+     * @param cols Column names.
+     * @param rows Rows.
+     * @return Written file.
+     * @throws IOException If failed.
+     */
+    public static File write(File folder, String name, List<String> cols, Collection<List<String>> rows)
+        throws IOException {
+        String fileName = name + TABLE_FILE_EXTENSION;
+
+        File f = folder == null ? new File(fileName) : new File(folder, fileName);
+
+        try (PrintWriter writer = new PrintWriter(new OutputStreamWriter(new FileOutputStream(f), "UTF-8"))) {
+            writeRow(writer, cols);
+
+            for (List<String> row : rows)
+                writeRow(writer, row);
+
+            if (writer.checkError())
+                throw new IOException("Failed to write table: " + f.getAbsolutePath());
+        }
+
+        return f;
+    }
+
+    /**
+     * @param writer Writer.
+     * @param row Row values.
+     */
+    private static void writeRow(PrintWriter writer, List<String> row) {
+        for (int i = 0; i < row.size(); i++) {
+            if (i > 0)
+                writer.print(SEPARATOR);
+
+            String val = row.get(i);
+
+            writer.print(val == null ? "" : val.replace(SEPARATOR, ' ').replace('\n', ' ').replace('\r', ' '));
+        }
+
+        writer.println();
+    }
+
+    /**
+     * Ensure static class.
+     */
+    private BenchmarkResultTableWriter() {
+        // No-op.
+    }
+}
@@ -0,0 +1,1013 @@
+/*
+ Licensed under the Apache License, Version 2.0 (the "License");
+ you may not use this file except in compliance with the License.
+ You may obtain a copy of the License at
+
+     http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing, software
+ distributed under the License is distributed on an "AS IS" BASIS,
+ WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ See the License for the specific language governing permissions and
+ limitations under the License.
+ */
+
+package org.yardstickframework.writers;
+
+import com.beust.jcommander.JCommander;
+import com.beust.jcommander.ParameterException;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import org.yardstickframework.BenchmarkConfiguration;
+import org.yardstickframework.BenchmarkProbePoint;
+
+import static org.yardstickframework.BenchmarkUtils.jcommander;
+import static org.yardstickframework.writers.BenchmarkProbePointBinaryWriter.BINARY_FILE_EXTENSION;
+import static org.yardstickframework.writers.BenchmarkProbePointBinaryWriter.UTF_8;
+import static org.yardstickframework.writers.BenchmarkProbePointCsvWriter.CSV_FILE_EXTENSION;
+import static org.yardstickframework.writers.BenchmarkProbePointCsvWriter.DRV_NAMES_PREFIX;
+import static org.yardstickframework.writers.BenchmarkProbePointCsvWriter.GZIP_FILE_EXTENSION;
+import static org.yardstickframework.writers.BenchmarkProbePointCsvWriter.META_INFO_PREFIX;
+import static org.yardstickframework.writers.BenchmarkProbePointCsvWriter.META_INFO_SEPARATOR;
+
+/**
+ * File based database of benchmark results keeping history of runs.
+ * <p>
+ * Database folder contains {@code runs} folder with probe results of every run, in the same layout as
+ * results folders (so it can be plotted directly), and {@code index.tsv} file with one record per probe
+ * of a run: run, creation time, driver names, description, probe, results file, number of points and
+ * benchmark configuration. Records are appended by {@link BenchmarkProbePointDbWriter} and by import of
+ * existing results folders. Index is loaded to memory and indexed by run, driver names, description and probe,
+ * so runs are found without reading results files.
+ * <p>
+ * Running this class imports results and prints aggregated probe values of the matching runs, for example
+ * 99th percentile of latency of the last 50 runs with {@code -t=64} description:
+ * <pre>
+ * BenchmarkResultsDb -db results-db -ds "-t=64" -p ThroughputLatencyProbe -c 2 -s p99 -l 50
+ * </pre>
+ */
+public class BenchmarkResultsDb {
+    /** Database folder. */
+    public static final String DB = "BENCHMARK_RESULTS_DB";
+
+    /** Name of database folder created next to the output folder by default. */
+    public static final String DEFAULT_DB = "results-db";
+
+    /** */
+    public static final String INDEX_FILE = "index.tsv";
+
+    /** */
+    public static final String RUNS_FOLDER = "runs";
+
+    /** */
+    private static final String SEPARATOR = "\t";
+
+    /** Format of the creation time written to CSV files. */
+    private static final String CREATED_FORMAT = "EEE MMM dd HH:mm:ss zzz yyyy";
+
+    /** */
+    private final File dir;
+
+    /** Records sorted by creation time. */
+    private final List<Record> records = new ArrayList<>();
+
+    /** */
+    private final Map<String, List<Record>> byRun = new HashMap<>();
+
+    /** */
+    private final Map<String, List<Record>> byDrvNames = new HashMap<>();
+
+    /** */
+    private final Map<String, List<Record>> byDesc = new HashMap<>();
+
+    /** */
+    private final Map<String, List<Record>> byProbe = new HashMap<>();
+
+    /**
+     * Opens database, folder is created if it does not exist.
+     *
+     * @param dir Database folder.
+     * @throws IOException If failed to read index.
+     */
+    public BenchmarkResultsDb(File dir) throws IOException {
+        this.dir = dir;
+
+        if (!dir.exists() && !dir.mkdirs())
+            throw new IOException("Can not create folder: " + dir.getAbsolutePath());
+
+        File idx = new File(dir, INDEX_FILE);
+
+        if (idx.exists()) {
+            List<Record> recs = new ArrayList<>();
+
+            try (BufferedReader br = new BufferedReader(new InputStreamReader(new FileInputStream(idx), UTF_8))) {
+                for (String line; (line = br.readLine()) != null; ) {
+                    Record rec = Record.parse(line);
+
+                    if (rec != null)
+                        recs.add(rec);
+                }
+            }
+
+            for (Record rec : recs)
+                index(rec);
+        }
+    }
+
+    /**
+     * @param cfg Configuration.
+     * @return Database folder defined by {@link #DB} property or {@link #DEFAULT_DB} folder next to the output folder.
+     */
+    public static File folder(BenchmarkConfiguration cfg) {
+        String path = cfg.customProperties() == null ? null : cfg.customProperties().get(DB);
+
+        if (path != null && !path.trim().isEmpty())
+            return new File(path.trim());
+
+        File parent = cfg.outputFolder() == null ? null :
+            new File(cfg.outputFolder()).getAbsoluteFile().getParentFile();
+
+        return parent == null ? new File(DEFAULT_DB) : new File(parent, DEFAULT_DB);
+    }
+
+    /**
+     * @return Database folder.
+     */
+    public File folder() {
+        return dir;
+    }
+
+    /**
+     * @return All records sorted by creation time.
+     */
+    public List<Record> records() {
+        return Collections.unmodifiableList(records);
+    }
+
+    /**
+     * @param run Run.
+     * @return Folder which can be passed to the graph plotter as input folder.
+     */
+    public File runFolder(String run) {
+        return new File(new File(dir, RUNS_FOLDER), run);
+    }
+
+    /**
+     * @param rec Record.
+     * @return Results file.
+     */
+    public File file(Record rec) {
+        return new File(dir, rec.file());
+    }
+
+    /**
+     * Finds records matching the query.
+     *
+     * @param q Query.
+     * @return Records sorted by creation time.
+     */
+    public List<Record> query(Query q) {
+        // Starts with the smallest index matching exactly.
+        Collection<Record> candidates = records;
+
+        candidates = narrow(candidates, byRun, q.run);
+        candidates = narrow(candidates, byDrvNames, q.drvNames);
+        candidates = narrow(candidates, byProbe, q.probe);
+
+        if (q.desc != null) {
+            // Descriptions are matched by text, records are taken from index entries of the matching descriptions.
+            List<Record> byDesc0 = new ArrayList<>();
+
+            for (Map.Entry<String, List<Record>> e : byDesc.entrySet()) {
+                if (e.getKey().contains(q.desc))
+                    byDesc0.addAll(e.getValue());
+            }
+
+            if (byDesc0.size() < candidates.size())
+                candidates = byDesc0;
+        }
+
+        List<Record> res = new ArrayList<>();
+
+        for (Record rec : candidates) {
+            if (q.matches(rec))
+                res.add(rec);
+        }
+
+        Collections.sort(res);
+
+        if (q.last > 0) {
+            Set<String> runs = new LinkedHashSet<>();
+
+            for (int i = res.size() - 1; i >= 0 && runs.size() < q.last; i--)
+                runs.add(res.get(i).run);
+
+            List<Record> res0 = new ArrayList<>();
+
+            for (Record rec : res) {
+                if (runs.contains(rec.run))
+                    res0.add(rec);
+            }
+
+            res = res0;
+        }
+
+        return res;
+    }
+
+    /**
+     * @param recs Records.
+     * @return Distinct runs of the records in the order of records.
+     */
+    public static List<String> runs(Collection<Record> recs) {
+        Set<String> res = new LinkedHashSet<>();
+
+        for (Record rec : recs)
+            res.add(rec.run);
+
+        return new ArrayList<>(res);
+    }
+
+    /**
+     * Imports probe results files, folders are searched recursively. Results of already imported runs are skipped.
+     *
+     * @param file Results file or folder.
+     * @return Number of imported files.
+     * @throws IOException If failed.
+     */
+    public int importResults(File file) throws IOException {
+        if (file.isDirectory()) {
+            File[] files = file.listFiles();
+
+            if (files == null)
+                return 0;
+
+            Arrays.sort(files);
+
+            int res = 0;
+
+            for (File f : files)
+                res += importResults(f);
+
+            return res;
+        }
+
+        if (!probeFile(file))
+            return 0;
+
+        ProbeData data;
+
+        try {
+            data = ProbeData.read(file);
+        }
+        catch (IOException | RuntimeException e) {
+            System.err.println("Skipping file which is not probe results [file=" + file.getAbsolutePath() +
+                ", err=" + e + ']');
+
+            return 0;
+        }
+
+        String folderName = file.getAbsoluteFile().getParentFile().getName();
+
+        String run = runKey(data.created, folderName);
+
+        String probe = probeName(file);
+
+        List<Record> existing = byRun.get(run);
+
+        if (existing != null) {
+            for (Record rec : existing) {
+                if (rec.probe.equals(probe))
+                    return 0;
+            }
+        }
+
+        File target = new File(new File(runFolder(run), folderName), file.getName());
+
+        if (!target.getParentFile().exists() && !target.getParentFile().mkdirs())
+            throw new IOException("Can not create folder: " + target.getParentFile().getAbsolutePath());
+
+        Files.copy(file.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+
+        add(new Record(run, data.created, data.drvNames, data.desc, probe, relativePath(target), data.points.size(),
+            data.cfg));
+
+        return 1;
+    }
+
+    /**
+     * Appends record to index.
+     *
+     * @param rec Record.
+     * @throws IOException If failed.
+     */
+    public void add(Record rec) throws IOException {
+        append(dir, rec);
+
+        index(rec);
+    }
+
+    /**
+     * Appends record to index file of the database, index file is locked, so several processes can append
+     * records to the same database.
+     *
+     * @param dir Database folder.
+     * @param rec Record.
+     * @throws IOException If failed.
+     */
+    static void append(File dir, Record rec) throws IOException {
+        if (!dir.exists() && !dir.mkdirs())
+            throw new IOException("Can not create folder: " + dir.getAbsolutePath());
+
+        try (FileOutputStream out = new FileOutputStream(new File(dir, INDEX_FILE), true)) {
+            FileChannel ch = out.getChannel();
+
+            FileLock lock = ch.lock();
+
+            try {
+                ch.write(ByteBuffer.wrap((rec.toLine() + '\n').getBytes(UTF_8)));
+            }
+            finally {
+                lock.release();
+            }
+        }
+    }
+
+    /**
+     * @param created Creation time of results.
+     * @param folderName Name of the folder with results.
+     * @return Run key, unique for results folders of different runs.
+     */
+    static String runKey(long created, String folderName) {
+        String time = new SimpleDateFormat("yyyyMMdd-HHmmss").format(new Date(created));
+
+        return folderName.contains(time) ? folderName : time + '-' + folderName;
+    }
+
+    /**
+     * @param file File.
+     * @return Path relative to database folder.
+     */
+    String relativePath(File file) {
+        return dir.getAbsoluteFile().toURI().relativize(file.getAbsoluteFile().toURI()).getPath();
+    }
+
+    /**
+     * @param file File.
+     * @return {@code True} if file name has extension of probe results file.
+     */
+    static boolean probeFile(File file) {
+        String name = file.getName();
+
+        return name.endsWith(CSV_FILE_EXTENSION) || name.endsWith(CSV_FILE_EXTENSION + GZIP_FILE_EXTENSION) ||
+            name.endsWith(BINARY_FILE_EXTENSION);
+    }
+
+    /**
+     * @param file Probe results file.
+     * @return Probe name.
+     */
+    static String probeName(File file) {
+        String name = file.getName();
+
+        int idx = name.indexOf('.');
+
+        return idx < 0 ? name : name.substring(0, idx);
+    }
+
+    /**
+     * @param rec Record.
+     */
+    private void index(Record rec) {
+        int pos = records.size();
+
+        while (pos > 0 && records.get(pos - 1).compareTo(rec) > 0)
+            pos--;
+
+        records.add(pos, rec);
+
+        index(byRun, rec.run, rec);
+        index(byDrvNames, rec.drvNames, rec);
+        index(byDesc, rec.desc, rec);
+        index(byProbe, rec.probe, rec);
+    }
+
+    /**
+     * @param idx Index.
+     * @param key Key.
+     * @param rec Record.
+     */
+    private static void index(Map<String, List<Record>> idx, String key, Record rec) {
+        List<Record> list = idx.get(key);
+
+        if (list == null) {
+            list = new ArrayList<>();
+
+            idx.put(key, list);
+        }
+
+        list.add(rec);
+    }
+
+    /**
+     * @param candidates Candidates.
+     * @param idx Index.
+     * @param key Key or {@code null}.
+     * @return Candidates of smaller size.
+     */
+    private static Collection<Record> narrow(Collection<Record> candidates, Map<String, List<Record>> idx,
+        String key) {
+        if (key == null)
+            return candidates;
+
+        List<Record> res = idx.get(key);
+
+        if (res == null)
+            return Collections.emptyList();
+
+        return res.size() < candidates.size() ? res : candidates;
+    }
+
+    /**
+     * Aggregates probe value.
+     *
+     * @param data Probe data.
+     * @param col Value index starting with 1.
+     * @param stat Aggregate: {@code mean}, {@code min}, {@code max} or percentile like {@code p99}.
+     * @return Aggregated value or {@code NaN} if there are no values.
+     */
+    public static double aggregate(ProbeData data, int col, String stat) {
+        String stat0 = stat.toLowerCase();
+
+        if (!BenchmarkMetrics.timeSeries(data.metaInfo)) {
+            // Points are latency distribution.
+            if (stat0.startsWith("p"))
+                return BenchmarkMetrics.quantile(data.points, percentile(stat0) / 100);
+
+            double sum = 0;
+            double weights = 0;
+
+            for (BenchmarkProbePoint pt : data.points) {
+                sum += pt.time() * pt.values()[0];
+                weights += pt.values()[0];
+            }
+
+            return weights > 0 ? sum / weights : Double.NaN;
+        }
+
+        List<Double> vals = new ArrayList<>(data.points.size());
+
+        for (BenchmarkProbePoint pt : data.points) {
+            if (col - 1 < pt.values().length && !Double.isNaN(pt.values()[col - 1]))
+                vals.add(pt.values()[col - 1]);
+        }
+
+        if (vals.isEmpty())
+            return Double.NaN;
+
+        Collections.sort(vals);
+
+        switch (stat0) {
+            case "min":
+                return vals.get(0);
+
+            case "max":
+                return vals.get(vals.size() - 1);
+
+            case "mean":
+                double sum = 0;
+
+                for (double v : vals)
+                    sum += v;
+
+                return sum / vals.size();
+
+            default:
+                int idx = (int)Math.ceil(percentile(stat0) / 100 * vals.size()) - 1;
+
+                return vals.get(Math.max(0, Math.min(vals.size() - 1, idx)));
+        }
+    }
+
+    /**
+     * @param stat Percentile like {@code p99.9}.
+     * @return Percentile.
+     */
+    private static double percentile(String stat) {
+        if (!stat.startsWith("p"))
+            throw new IllegalArgumentException("Unknown aggregate: " + stat);
+
+        double res = Double.parseDouble(stat.substring(1));
+
+        if (res <= 0 || res > 100)
+            throw new IllegalArgumentException("Invalid percentile: " + stat);
+
+        return res;
+    }
+
+    /**
+     * Imports results and prints aggregated probe values.
+     *
+     * @param cmdArgs Arguments.
+     * @throws Exception If failed.
+     */
+    public static void main(String[] cmdArgs) throws Exception {
+        BenchmarkResultsDbArguments args = new BenchmarkResultsDbArguments();
+
+        JCommander jCommander;
+
+        try {
+            jCommander = jcommander(cmdArgs, args, "<results-db>");
+        }
+        catch (ParameterException e) {
+            System.err.println("ERROR: " + e.getMessage());
+
+            jCommander = new JCommander(args);
+
+            jCommander.setProgramName("<results-db>");
+
+            jCommander.usage();
+
+            return;
+        }
+
+        if (args.help() || args.database() == null) {
+            jCommander.usage();
+
+            return;
+        }
+
+        BenchmarkResultsDb db = new BenchmarkResultsDb(new File(args.database()));
+
+        if (!args.imports().isEmpty()) {
+            for (String path : args.imports()) {
+                File f = new File(path);
+
+                if (!f.exists()) {
+                    System.err.println("ERROR: File does not exist: " + f.getAbsolutePath());
+
+                    continue;
+                }
+
+                System.out.println("Imported " + db.importResults(f) + " files from: " + f.getAbsolutePath());
+            }
+
+            return;
+        }
+
+        SimpleDateFormat fmt = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
+
+        System.out.println("Created" + SEPARATOR + "Run" + SEPARATOR + "Drivers" + SEPARATOR + "Probe" + SEPARATOR +
+            "Value" + SEPARATOR + args.stat());
+
+        for (Record rec : db.query(args.query())) {
+            ProbeData data = ProbeData.read(db.file(rec));
+
+            String valName = BenchmarkMetrics.timeSeries(data.metaInfo) ?
+                (args.column() < data.metaInfo.length ? data.metaInfo[args.column()] : "value " + args.column()) :
+                (data.metaInfo.length > 0 ? data.metaInfo[0] : "value");
+
+            System.out.println(fmt.format(new Date(rec.created)) + SEPARATOR + rec.run + SEPARATOR + rec.drvNames +
+                SEPARATOR + rec.probe + SEPARATOR + valName + SEPARATOR +
+                String.format(Locale.US, "%.2f", aggregate(data, args.column(), args.stat())));
+        }
+    }
+
+    /**
+     * Query of records, {@code null} criteria match all records.
+     */
+    public static class Query {
+        /** */
+        private String run;
+
+        /** */
+        private String drvNames;
+
+        /** */
+        private String desc;
+
+        /** */
+        private String cfg;
+
+        /** */
+        private String probe;
+
+        /** */
+        private int last;
+
+        /**
+         * @param run Run.
+         * @return {@code this} for chaining.
+         */
+        public Query run(String run) {
+            this.run = run;
+
+            return this;
+        }
+
+        /**
+         * @param drvNames Comma-separated driver names.
+         * @return {@code this} for chaining.
+         */
+        public Query driverNames(String drvNames) {
+            this.drvNames = drvNames;
+
+            return this;
+        }
+
+        /**
+         * @param desc Text contained in description.
+         * @return {@code this} for chaining.
+         */
+        public Query description(String desc) {
+            this.desc = desc;
+
+            return this;
+        }
+
+        /**
+         * @param cfg Text contained in configuration.
+         * @return {@code this} for chaining.
+         */
+        public Query config(String cfg) {
+            this.cfg = cfg;
+
+            return this;
+        }
+
+        /**
+         * @param probe Probe class simple name.
+         * @return {@code this} for chaining.
+         */
+        public Query probe(String probe) {
+            this.probe = probe;
+
+            return this;
+        }
+
+        /**
+         * @param last Number of the latest runs, {@code 0} for all runs.
+         * @return {@code this} for chaining.
+         */
+        public Query last(int last) {
+            this.last = last;
+
+            return this;
+        }
+
+        /**
+         * @param rec Record.
+         * @return {@code True} if record matches.
+         */
+        private boolean matches(Record rec) {
+            return (run == null || run.equals(rec.run)) &&
+                (drvNames == null || drvNames.equals(rec.drvNames)) &&
+                (desc == null || rec.desc.contains(desc)) &&
+                (cfg == null || rec.cfg.contains(cfg)) &&
+                (probe == null || probe.equals(rec.probe));
+        }
+    }
+
+    /**
+     * Index record describing results of a probe in a run.
+     */
+    public static class Record implements Comparable<Record> {
+        /** */
+        private final String run;
+
+        /** */
+        private final long created;
+
+        /** */
+        private final String drvNames;
+
+        /** */
+        private final String desc;
+
+        /** */
+        private final String probe;
+
+        /** Path relative to database folder. */
+        private final String file;
+
+        /** */
+        private final long points;
+
+        /** */
+        private final String cfg;
+
+        /**
+         * @param run Run.
+         * @param created Creation time.
+         * @param drvNames Driver names.
+         * @param desc Description.
+         * @param probe Probe.
+         * @param file Path relative to database folder.
+         * @param points Number of points.
+         * @param cfg Benchmark configuration.
+         */
+        public Record(String run, long created, String drvNames, String desc, String probe, String file,
+            long points, String cfg) {
+            this.run = clean(run);
+            this.created = created;
+            this.drvNames = clean(drvNames);
+            this.desc = clean(desc);
+            this.probe = clean(probe);
+            this.file = clean(file);
+            this.points = points;
+            this.cfg = clean(cfg);
+        }
+
+        /**
+         * @return Run.
+         */
+        public String run() {
+            return run;
+        }
+
+        /**
+         * @return Creation time.
+         */
+        public long created() {
+            return created;
+        }
+
+        /**
+         * @return Driver names.
+         */
+        public String driverNames() {
+            return drvNames;
+        }
+
+        /**
+         * @return Description.
+         */
+        public String description() {
+            return desc;
+        }
+
+        /**
+         * @return Probe.
+         */
+        public String probe() {
+            return probe;
+        }
+
+        /**
+         * @return Path relative to database folder.
+         */
+        public String file() {
+            return file;
+        }
+
+        /**
+         * @return Number of points.
+         */
+        public long points() {
+            return points;
+        }
+
+        /**
+         * @return Benchmark configuration.
+         */
+        public String config() {
+            return cfg;
+        }
+
+        /**
+         * @return Index line.
+         */
+        String toLine() {
+            return run + SEPARATOR + created + SEPARATOR + drvNames + SEPARATOR + desc + SEPARATOR + probe +
+                SEPARATOR + file + SEPARATOR + points + SEPARATOR + cfg;
+        }
+
+        /**
+         * @param line Index line.
+         * @return Record or {@code null} if line is not complete.
+         */
+        static Record parse(String line) {
+            String[] parts = line.split(SEPARATOR, -1);
+
+            if (parts.length < 8)
+                return null;
+
+            try {
+                return new Record(parts[0], Long.parseLong(parts[1]), parts[2], parts[3], parts[4], parts[5],
+                    Long.parseLong(parts[6]), parts[7]);
+            }
+            catch (NumberFormatException ignored) {
+                return null;
+            }
+        }
+
+        /**
+         * @param val Value.
+         * @return Value without separators.
+         */
+        private static String clean(String val) {
+            return val == null ? "" : val.replaceAll("\t|\n|\r|\f", " ");
+        }
+
+        /** {@inheritDoc} */
+        @Override public int compareTo(Record o) {
+            int res = Long.compare(created, o.created);
+
+            return res != 0 ? res : run.compareTo(o.run);
+        }
+
+        /** {@inheritDoc} */
+        @Override public String toString() {
+            return toLine();
+        }
+    }
+
+    /**
+     * Points and header of a probe results file in any of supported formats.
+     */
+    public static class ProbeData {
+        /** */
+        private long created;
+
+        /** */
+        private String cfg = "";
+
+        /** */
+        private String desc = "";
+
+        /** */
+        private String drvNames = "";
+
+        /** */
+        private String[] metaInfo = new String[0];
+
+        /** */
+        private final List<BenchmarkProbePoint> points = new ArrayList<>();
+
+        /**
+         * @param file CSV, compressed CSV or binary probe results file.
+         * @return Probe data.
+         * @throws IOException If failed.
+         */
+        public static ProbeData read(File file) throws IOException {
+            ProbeData res = new ProbeData();
+
+            res.created = file.lastModified();
+
+            if (BenchmarkProbePointBinaryReader.binaryFile(file)) {
+                BenchmarkProbePointBinaryReader rdr = new BenchmarkProbePointBinaryReader(file);
+
+                res.created = rdr.created();
+                res.cfg = rdr.configuration();
+                res.desc = rdr.description();
+                res.drvNames = rdr.driverNames();
+                res.metaInfo = rdr.metaInfo().toArray(new String[rdr.metaInfo().size()]);
+
+                for (int b = 0; b < rdr.blocks(); b++) {
+                    LongBuffer times = rdr.times(b);
+
+                    DoubleBuffer[] vals = new DoubleBuffer[rdr.blockColumns(b)];
+
+                    for (int j = 0; j < vals.length; j++)
+                        vals[j] = rdr.values(b, j);
+
+                    for (int i = 0; i < rdr.blockSize(b); i++) {
+                        double[] vals0 = new double[vals.length];
+
+                        for (int j = 0; j < vals.length; j++)
+                            vals0[j] = vals[j].get(i);
+
+                        res.points.add(new BenchmarkProbePoint(times.get(i), vals0));
+                    }
+                }
+
+                return res;
+            }
+
+            InputStream in = new FileInputStream(file);
+
+            if (file.getName().endsWith(GZIP_FILE_EXTENSION))
+                in = new BenchmarkCompressedInputStream(in);
+
+            try (BufferedReader br = new BufferedReader(new InputStreamReader(in))) {
+                for (String line; (line = br.readLine()) != null; ) {
+                    if (line.isEmpty())
+                        continue;
+
+                    if (line.startsWith("--Created "))
+                        res.created = parseCreated(line.substring("--Created ".length()), res.created);
+                    else if (line.startsWith("--Benchmark config: "))
+                        res.cfg = line.substring("--Benchmark config: ".length());
+                    else if (line.startsWith("--Description: "))
+                        res.desc = line.substring("--Description: ".length());
+                    else if (line.startsWith("--"))
+                        continue;
+                    else if (line.startsWith(DRV_NAMES_PREFIX))
+                        res.drvNames = line.substring(DRV_NAMES_PREFIX.length());
+                    else if (line.startsWith(META_INFO_PREFIX)) {
+                        String[] meta = line.substring(META_INFO_PREFIX.length())
+                            .split("\"" + META_INFO_SEPARATOR + "\"");
+
+                        for (int i = 0; i < meta.length; i++)
+                            meta[i] = meta[i].replace("\"", "");
+
+                        res.metaInfo = meta;
+                    }
+                    else {
+                        String[] split = line.split(",");
+
+                        double[] vals = new double[split.length - 1];
+
+                        for (int i = 1; i < split.length; i++)
+                            vals[i - 1] = Double.parseDouble(split[i]);
+
+                        res.points.add(new BenchmarkProbePoint(Long.parseLong(split[0]), vals));
+                    }
+                }
+            }
+
+            return res;
+        }
+
+        /**
+         * @param val Creation time written by CSV writer.
+         * @param dflt Default value.
+         * @return Creation time.
+         */
+        private static long parseCreated(String val, long dflt) {
+            try {
+                return new SimpleDateFormat(CREATED_FORMAT, Locale.US).parse(val).getTime();
+            }
+            catch (ParseException ignored) {
+                return dflt;
+            }
+        }
+
+        /**
+         * @return Creation time.
+         */
+        public long created() {
+            return created;
+        }
+
+        /**
+         * @return Benchmark configuration.
+         */
+        public String config() {
+            return cfg;
+        }
+
+        /**
+         * @return Description.
+         */
+        public String description() {
+            return desc;
+        }
+
+        /**
+         * @return Driver names.
+         */
+        public String driverNames() {
+            return drvNames;
+        }
+
+        /**
+         * @return Meta info.
+         */
+        public String[] metaInfo() {
+            return metaInfo;
+        }
+
+        /**
+         * @return Points.
+         */
+        public List<BenchmarkProbePoint> points() {
+            return points;
+        }
+    }
+}
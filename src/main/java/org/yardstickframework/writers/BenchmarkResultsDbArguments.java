@@ -0,0 +1,136 @@
+/*
+ Licensed under the Apache License, Version 2.0 (the "License");
+ you may not use this file except in compliance with the License.
+ You may obtain a copy of the License at
+
+     http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing, software
+ distributed under the License is distributed on an "AS IS" BASIS,
+ WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ See the License for the specific language governing permissions and
+ limitations under the License.
+ */
+
+package org.yardstickframework.writers;
+
+import com.beust.jcommander.IParameterValidator;
+import com.beust.jcommander.Parameter;
+import com.beust.jcommander.ParameterException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Results database tool arguments.
+ */
+@SuppressWarnings({"UnusedDeclaration", "FieldCanBeLocal"})
+public class BenchmarkResultsDbArguments {
+    /** */
+    @Parameter(names = {"-h", "--help"}, description = "Print help message", help = true, hidden = true)
+    private boolean help;
+
+    /** */
+    @Parameter(names = {"-db", "--database"}, description = "Results database folder (required)")
+    private String db;
+
+    /** */
+    @Parameter(names = {"-i", "--import"}, variableArity = true,
+        description = "Space-separated list of results folders or files to import to the database")
+    private List<String> imports = new ArrayList<>();
+
+    /** */
+    @Parameter(names = {"-r", "--run"}, description = "Run")
+    private String run;
+
+    /** */
+    @Parameter(names = {"-dn", "--driverNames"}, description = "Comma-separated driver names")
+    private String drvNames;
+
+    /** */
+    @Parameter(names = {"-ds", "--description"}, description = "Text contained in benchmark description")
+    private String desc;
+
+    /** */
+    @Parameter(names = {"-cfg", "--config"}, description = "Text contained in benchmark configuration")
+    private String cfg;
+
+    /** */
+    @Parameter(names = {"-p", "--probe"}, description = "Probe class simple name")
+    private String probe;
+
+    /** */
+    @Parameter(names = {"-l", "--last"}, description = "Number of the latest runs to show")
+    private int last;
+
+    /** */
+    @Parameter(names = {"-c", "--column"}, validateWith = ColumnValidator.class,
+        description = "Index of the probe value to aggregate, starting with 1")
+    private int col = 1;
+
+    /** */
+    @Parameter(names = {"-s", "--stat"}, description = "Aggregate: mean (default), min, max, p50, p90, p99 or p99.9")
+    private String stat = "mean";
+
+    /**
+     * @return Help.
+     */
+    public boolean help() {
+        return help;
+    }
+
+    /**
+     * @return Database folder.
+     */
+    public String database() {
+        return db;
+    }
+
+    /**
+     * @return Results to import.
+     */
+    public List<String> imports() {
+        return imports;
+    }
+
+    /**
+     * @return Query.
+     */
+    public BenchmarkResultsDb.Query query() {
+        return new BenchmarkResultsDb.Query().run(run).driverNames(drvNames).description(desc).config(cfg)
+            .probe(probe).last(last);
+    }
+
+    /**
+     * @return Value index.
+     */
+    public int column() {
+        return col;
+    }
+
+    /**
+     * @return Aggregate.
+     */
+    public String stat() {
+        return stat;
+    }
+
+    /**
+     * Checks that column index is positive, as the first column of probe points is time.
+     */
+    public static class ColumnValidator implements IParameterValidator {
+        /** {@inheritDoc} */
+        @Override public void validate(String name, String val) throws ParameterException {
+            int col;
+
+            try {
+                col = Integer.parseInt(val);
+            }
+            catch (NumberFormatException ignored) {
+                throw new ParameterException("Parameter " + name + " should be an integer (found " + val + ')');
+            }
+
+            if (col < 1)
+                throw new ParameterException("Parameter " + name + " should be 1 or greater (found " + val + ')');
+        }
+    }
+}
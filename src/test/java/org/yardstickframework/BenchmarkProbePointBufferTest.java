@@ -0,0 +1,148 @@
+/*
+ Licensed under the Apache License, Version 2.0 (the "License");
+ you may not use this file except in compliance with the License.
+ You may obtain a copy of the License at
+
+     http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing, software
+ distributed under the License is distributed on an "AS IS" BASIS,
+ WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ See the License for the specific language governing permissions and
+ limitations under the License.
+ */
+
+package org.yardstickframework;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests probe point buffer.
+ */
+public class BenchmarkProbePointBufferTest {
+    /**
+     *
+     */
+    @Test
+    public void testCapacity() {
+        assertEquals(1, new BenchmarkProbePointBuffer(1, 1).capacity());
+        assertEquals(8, new BenchmarkProbePointBuffer(1, 5).capacity());
+        assertEquals(8, new BenchmarkProbePointBuffer(1, 8).capacity());
+    }
+
+    /**
+     *
+     */
+    @Test
+    public void testWrapAround() {
+        BenchmarkProbePointBuffer buf = new BenchmarkProbePointBuffer(2, 4);
+
+        for (int i = 0; i < 10; i++) {
+            assertTrue(buf.add(i, i * 10, i * 100));
+
+            assertEquals(1, buf.size());
+            assertEquals(i, buf.time(0));
+            assertEquals(i * 10, buf.value(0, 0), 0);
+            assertEquals(i * 100, buf.value(0, 1), 0);
+
+            buf.release(1);
+
+            assertEquals(0, buf.size());
+        }
+
+        assertEquals(0, buf.dropped());
+    }
+
+    /**
+     *
+     */
+    @Test
+    public void testDropWhenFull() {
+        BenchmarkProbePointBuffer buf = new BenchmarkProbePointBuffer(1, 2);
+
+        assertTrue(buf.add(1, 1));
+        assertTrue(buf.add(2, 2));
+        assertFalse(buf.add(3, 3));
+        assertFalse(buf.startPoint(4));
+
+        assertEquals(2, buf.size());
+        assertEquals(2, buf.dropped());
+
+        buf.release(1);
+
+        assertTrue(buf.add(5, 5));
+
+        assertEquals(2, buf.time(0));
+        assertEquals(5, buf.time(1));
+    }
+
+    /**
+     *
+     */
+    @Test
+    public void testDrainPoints() {
+        BenchmarkProbePointBuffer buf = new BenchmarkProbePointBuffer(3, 4);
+
+        for (int i = 0; i < 3; i++) {
+            assertTrue(buf.startPoint(i));
+
+            for (int j = 0; j < 3; j++)
+                buf.set(j, i + j);
+
+            buf.finishPoint();
+        }
+
+        List<BenchmarkProbePoint> points = new ArrayList<>(buf.drainPoints());
+
+        assertEquals(0, buf.size());
+        assertEquals(3, points.size());
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals(i, points.get(i).time());
+            assertArrayEquals(new double[] {i, i + 1, i + 2}, points.get(i).values(), 0);
+        }
+    }
+
+    /**
+     *
+     */
+    @Test
+    public void testView() {
+        BenchmarkProbePointBuffer buf = new BenchmarkProbePointBuffer(1, 4);
+
+        assertTrue(buf.add(1, 10));
+        assertTrue(buf.add(2, 20));
+
+        BenchmarkProbePointBuffer view = buf.view(buf.size());
+
+        // Points added after the view is created are not visible in the view.
+        assertTrue(buf.add(3, 30));
+
+        for (int i = 0; i < 2; i++) {
+            BenchmarkProbePointBuffer v = i == 0 ? view : buf.view(2);
+
+            assertEquals(2, v.size());
+            assertEquals(1, v.time(0));
+            assertEquals(20, v.value(1, 0), 0);
+
+            v.release(2);
+
+            assertEquals(0, v.size());
+        }
+
+        // Points are freed in the buffer only when buffer is released.
+        assertEquals(3, buf.size());
+
+        buf.release(2);
+
+        assertEquals(1, buf.size());
+        assertEquals(3, buf.time(0));
+    }
+}
@@ -0,0 +1,303 @@
+/*
+ Licensed under the Apache License, Version 2.0 (the "License");
+ you may not use this file except in compliance with the License.
+ You may obtain a copy of the License at
+
+     http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing, software
+ distributed under the License is distributed on an "AS IS" BASIS,
+ WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ See the License for the specific language governing permissions and
+ limitations under the License.
+ */
+
+package org.yardstickframework.impl;
+
+import java.io.Flushable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+import org.yardstickframework.BenchmarkConfiguration;
+import org.yardstickframework.BenchmarkDriver;
+import org.yardstickframework.BenchmarkProbe;
+import org.yardstickframework.BenchmarkProbePoint;
+import org.yardstickframework.BenchmarkProbePointWriter;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests probe writer pipeline.
+ */
+public class BenchmarkProbeWriterPipelineTest {
+    /**
+     * @throws Exception If failed.
+     */
+    @Test
+    public void testQueueFull() throws Exception {
+        BenchmarkConfiguration cfg = config();
+
+        BenchmarkProbeWriterPipeline pipeline = new BenchmarkProbeWriterPipeline(2);
+
+        try {
+            TestWriter writer = new TestWriter();
+
+            assertTrue(pipeline.offer(cfg, null, writer, points(1)));
+
+            assertTrue(writer.blocked.await(10, TimeUnit.SECONDS));
+
+            assertTrue(pipeline.offer(cfg, null, writer, points(2)));
+            assertTrue(pipeline.offer(cfg, null, writer, points(3)));
+
+            int dropped = 0;
+
+            for (int i = 0; i < 3; i++) {
+                if (!pipeline.offer(cfg, null, writer, points(4 + i)))
+                    dropped++;
+            }
+
+            assertEquals(3, dropped);
+
+            writer.release.countDown();
+
+            pipeline.await();
+
+            assertTrue(pipeline.offer(cfg, null, writer, points(7)));
+
+            pipeline.shutdown();
+
+            List<String> evts = writer.events();
+
+            assertEquals(Arrays.asList("write 1", "write 2", "write 3", "write 7"), writes(evts));
+            assertEquals("flush", evts.get(evts.size() - 1));
+        }
+        finally {
+            pipeline.shutdown();
+        }
+    }
+
+    /**
+     * @throws Exception If failed.
+     */
+    @Test
+    public void testCloseWhilePending() throws Exception {
+        BenchmarkConfiguration cfg = config();
+
+        BenchmarkProbeWriterPipeline pipeline = new BenchmarkProbeWriterPipeline(8);
+
+        try {
+            TestWriter writer = new TestWriter();
+            TestWriter other = new TestWriter();
+
+            other.release.countDown();
+
+            assertTrue(pipeline.offer(cfg, null, writer, points(1)));
+
+            assertTrue(writer.blocked.await(10, TimeUnit.SECONDS));
+
+            assertTrue(pipeline.offer(cfg, null, writer, points(2)));
+            assertTrue(pipeline.offer(cfg, null, other, points(3)));
+
+            pipeline.close(cfg, null, writer);
+
+            writer.release.countDown();
+
+            pipeline.shutdown();
+
+            // Pending points are written before close, closed writer is not flushed.
+            assertEquals(Arrays.asList("write 1", "write 2", "close"), writer.events());
+            assertEquals(Arrays.asList("write 3", "flush"), other.events());
+        }
+        finally {
+            pipeline.shutdown();
+        }
+    }
+
+    /**
+     * @throws Exception If failed.
+     */
+    @Test
+    public void testShutdown() throws Exception {
+        BenchmarkConfiguration cfg = config();
+
+        BenchmarkProbeWriterPipeline pipeline = new BenchmarkProbeWriterPipeline(8);
+
+        TestWriter writer = new TestWriter();
+
+        writer.release.countDown();
+
+        assertTrue(pipeline.offer(cfg, null, writer, points(1)));
+
+        pipeline.close(cfg, null, writer);
+
+        pipeline.shutdown();
+
+        assertEquals(Arrays.asList("write 1", "close"), writer.events());
+
+        assertFalse(pipeline.offer(cfg, null, writer, points(2)));
+
+        try {
+            pipeline.await();
+
+            fail("Stopped pipeline should reject tasks.");
+        }
+        catch (IllegalStateException ignored) {
+            // Expected.
+        }
+
+        // Repeated stop is no-op.
+        pipeline.shutdown();
+    }
+
+    /**
+     * @throws Exception If failed.
+     */
+    @Test
+    public void testAwaitConcurrentWithShutdown() throws Exception {
+        for (int i = 0; i < 50; i++) {
+            final BenchmarkProbeWriterPipeline pipeline = new BenchmarkProbeWriterPipeline(1);
+
+            final CountDownLatch done = new CountDownLatch(4);
+
+            for (int j = 0; j < 4; j++) {
+                new Thread(new Runnable() {
+                    @Override public void run() {
+                        try {
+                            pipeline.await();
+                        }
+                        catch (IllegalStateException | InterruptedException ignored) {
+                            // Rejected by stopped pipeline.
+                        }
+                        finally {
+                            done.countDown();
+                        }
+                    }
+                }).start();
+            }
+
+            pipeline.shutdown();
+
+            // Barriers queued before stop are released, later ones are rejected, none hangs.
+            assertTrue(done.await(10, TimeUnit.SECONDS));
+        }
+    }
+
+    /**
+     * @throws Exception If failed.
+     */
+    @Test
+    public void testStopSharedInstance() throws Exception {
+        BenchmarkConfiguration cfg = config();
+
+        BenchmarkProbeWriterPipeline pipeline = BenchmarkProbeWriterPipeline.instance(cfg);
+
+        BenchmarkProbeWriterPipeline.stop();
+
+        assertFalse(pipeline.offer(cfg, null, new TestWriter(), points(1)));
+
+        BenchmarkProbeWriterPipeline pipeline0 = BenchmarkProbeWriterPipeline.instance(cfg);
+
+        assertNotSame(pipeline, pipeline0);
+
+        pipeline0.await();
+
+        BenchmarkProbeWriterPipeline.stop();
+    }
+
+    /**
+     * @param evts Events.
+     * @return Write events.
+     */
+    private static List<String> writes(List<String> evts) {
+        List<String> res = new ArrayList<>();
+
+        for (String evt : evts) {
+            if (evt.startsWith("write"))
+                res.add(evt);
+        }
+
+        return res;
+    }
+
+    /**
+     * @return Configuration.
+     */
+    private static BenchmarkConfiguration config() {
+        BenchmarkConfiguration cfg = new BenchmarkConfiguration();
+
+        cfg.output(System.out);
+        cfg.error(System.err);
+
+        return cfg;
+    }
+
+    /**
+     * @param time Time of the point.
+     * @return Points.
+     */
+    private static Collection<BenchmarkProbePoint> points(long time) {
+        return Collections.singletonList(new BenchmarkProbePoint(time, new double[] {1}));
+    }
+
+    /**
+     * Writer recording its calls, the first write blocks until the writer is released.
+     */
+    private static class TestWriter implements BenchmarkProbePointWriter, Flushable {
+        /** Counted down when the first write is started. */
+        private final CountDownLatch blocked = new CountDownLatch(1);
+
+        /** Counted down to let writes proceed. */
+        private final CountDownLatch release = new CountDownLatch(1);
+
+        /** */
+        private final List<String> events = new ArrayList<>();
+
+        /** {@inheritDoc} */
+        @Override public void start(BenchmarkDriver drv, BenchmarkConfiguration cfg, long startTime) {
+            // No-op.
+        }
+
+        /** {@inheritDoc} */
+        @Override public void writePoints(BenchmarkProbe probe, Collection<BenchmarkProbePoint> points)
+            throws Exception {
+            blocked.countDown();
+
+            assertTrue(release.await(10, TimeUnit.SECONDS));
+
+            event("write " + points.iterator().next().time());
+        }
+
+        /** {@inheritDoc} */
+        @Override public void flush() {
+            event("flush");
+        }
+
+        /** {@inheritDoc} */
+        @Override public void close() {
+            event("close");
+        }
+
+        /**
+         * @param evt Event.
+         */
+        private synchronized void event(String evt) {
+            events.add(evt);
+        }
+
+        /**
+         * @return Recorded events.
+         */
+        private synchronized List<String> events() {
+            return new ArrayList<>(events);
+        }
+    }
+}
@@ -0,0 +1,135 @@
+/*
+ Licensed under the Apache License, Version 2.0 (the "License");
+ you may not use this file except in compliance with the License.
+ You may obtain a copy of the License at
+
+     http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing, software
+ distributed under the License is distributed on an "AS IS" BASIS,
+ WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ See the License for the specific language governing permissions and
+ limitations under the License.
+ */
+
+package org.yardstickframework.report.jfreechart;
+
+import java.io.ByteArrayInputStream;
+import java.util.Locale;
+import java.util.Random;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests that CSV reader parses lines and numbers as {@link String#split(String)}, {@link Long#parseLong(String)}
+ * and {@link Double#parseDouble(String)} do.
+ */
+public class JFreeChartCsvReaderTest {
+    /**
+     * @throws Exception If failed.
+     */
+    @Test
+    public void testLines() throws Exception {
+        JFreeChartCsvReader rdr = reader("--Header\r\n1000,0.13,-2.00,\n\n2000,1e3,NaN");
+
+        assertTrue(rdr.nextLine());
+        assertTrue(rdr.startsWith("--"));
+        assertFalse(rdr.startsWith("--Header!"));
+        assertEquals("--Header", rdr.line());
+
+        assertTrue(rdr.nextLine());
+        assertEquals("1000,0.13,-2.00,".split(",").length, rdr.fields());
+        assertEquals(1000, rdr.nextLong());
+        assertEquals(0.13, rdr.nextDouble(), 0);
+        assertEquals(-2, rdr.nextDouble(), 0);
+
+        assertTrue(rdr.nextLine());
+        assertEquals("", rdr.line());
+
+        try {
+            rdr.nextLong();
+
+            fail();
+        }
+        catch (NumberFormatException ignored) {
+            // Expected.
+        }
+
+        assertTrue(rdr.nextLine());
+        assertEquals(3, rdr.fields());
+        assertEquals(2000, rdr.nextLong());
+        assertEquals(1000, rdr.nextDouble(), 0);
+        assertTrue(Double.isNaN(rdr.nextDouble()));
+
+        assertFalse(rdr.nextLine());
+    }
+
+    /**
+     * @throws Exception If failed.
+     */
+    @Test
+    public void testNumbers() throws Exception {
+        Random rnd = new Random(42);
+
+        StringBuilder sb = new StringBuilder();
+
+        int cnt = 20_000;
+
+        String[] vals = new String[cnt];
+
+        for (int i = 0; i < cnt; i++) {
+            switch (i % 5) {
+                case 0:
+                    vals[i] = String.format(Locale.US, "%.2f", rnd.nextDouble() * Math.pow(10, rnd.nextInt(12)));
+
+                    break;
+
+                case 1:
+                    vals[i] = String.format(Locale.US, "%." + rnd.nextInt(20) + "f", rnd.nextGaussian());
+
+                    break;
+
+                case 2:
+                    vals[i] = Double.toString(rnd.nextGaussian() * Math.pow(10, rnd.nextInt(40) - 20));
+
+                    break;
+
+                case 3:
+                    vals[i] = Long.toString(rnd.nextLong() >> rnd.nextInt(64)) + '.' + rnd.nextInt(100);
+
+                    break;
+
+                default:
+                    vals[i] = "-0.00";
+            }
+
+            sb.append(i).append(',').append(vals[i]).append('\n');
+        }
+
+        JFreeChartCsvReader rdr = reader(sb.toString());
+
+        for (int i = 0; i < cnt; i++) {
+            assertTrue(rdr.nextLine());
+            assertEquals(2, rdr.fields());
+            assertEquals(i, rdr.nextLong());
+
+            double exp = Double.parseDouble(vals[i]);
+
+            assertEquals(vals[i], Double.doubleToLongBits(exp), Double.doubleToLongBits(rdr.nextDouble()));
+        }
+
+        assertFalse(rdr.nextLine());
+    }
+
+    /**
+     * @param s Content.
+     * @return Reader.
+     */
+    private static JFreeChartCsvReader reader(String s) {
+        return new JFreeChartCsvReader(new ByteArrayInputStream(s.getBytes()));
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ Licensed under the Apache License, Version 2.0 (the "License");
+ you may not use this file except in compliance with the License.
+ You may obtain a copy of the License at
+
+     http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing, software
+ distributed under the License is distributed on an "AS IS" BASIS,
+ WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ See the License for the specific language governing permissions and
+ limitations under the License.
+ */
+
+package org.yardstickframework.report.jfreechart;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests that downsampling keeps the shape of a series.
+ */
+public class JFreeChartDownsamplerTest {
+    /**
+     *
+     */
+    @Test
+    public void testDownsample() {
+        int len = 86_400;
+
+        double[][] data = new double[2][len];
+
+        for (int i = 0; i < len; i++) {
+            data[0][i] = i * 1000;
+            data[1][i] = 100 + Math.sin(i / 1000.0);
+        }
+
+        // Single spike and single dip.
+        data[1][12_345] = 1000;
+        data[1][54_321] = -1000;
+
+        double[][] res = JFreeChartDownsampler.downsample(data, 1000);
+
+        assertEquals(1000, res[0].length);
+        assertEquals(1000, res[1].length);
+
+        assertEquals(data[0][0], res[0][0], 0);
+        assertEquals(data[1][0], res[1][0], 0);
+        assertEquals(data[0][len - 1], res[0][999], 0);
+        assertEquals(data[1][len - 1], res[1][999], 0);
+
+        boolean spike = false;
+        boolean dip = false;
+
+        for (int i = 0; i < res[0].length; i++) {
+            if (i > 0)
+                assertTrue(res[0][i] > res[0][i - 1]);
+
+            spike |= res[1][i] == 1000;
+            dip |= res[1][i] == -1000;
+        }
+
+        assertTrue(spike);
+        assertTrue(dip);
+    }
+
+    /**
+     *
+     */
+    @Test
+    public void testSmallSeries() {
+        double[][] data = {{1, 2, 3}, {4, 5, 6}};
+
+        assertSame(data, JFreeChartDownsampler.downsample(data, 3));
+        assertSame(data, JFreeChartDownsampler.downsample(data, 0));
+        assertSame(data, JFreeChartDownsampler.downsample(data, 1000));
+    }
+}
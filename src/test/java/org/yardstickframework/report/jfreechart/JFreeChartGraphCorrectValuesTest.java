@@ -40,16 +40,15 @@ public class JFreeChartGraphCorrectValuesTest {
     public void check() {
         JFreeChartGraphPlotter.PlotSeries series = new JFreeChartGraphPlotter.PlotSeries("test");
 
-        series.rawData().addAll(input);
+        for (double[] pnt : input)
+            series.add(pnt[0], pnt[1]);
 
         series.correctValues();
 
-        List<double[]> actual = series.rawData();
-
-        assertEquals("Size", expected.size(), actual.size());
+        assertEquals("Size", expected.size(), series.size());
 
         for (int i = 0; i < expected.size(); i++)
-            assertArrayEquals("Arrays", expected.get(i), actual.get(i), 0.001);
+            assertArrayEquals("Arrays", expected.get(i), new double[] {series.x(i), series.y(i)}, 0.001);
     }
 
     /**
@@ -0,0 +1,90 @@
+/*
+ Licensed under the Apache License, Version 2.0 (the "License");
+ you may not use this file except in compliance with the License.
+ You may obtain a copy of the License at
+
+     http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing, software
+ distributed under the License is distributed on an "AS IS" BASIS,
+ WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ See the License for the specific language governing permissions and
+ limitations under the License.
+ */
+
+package org.yardstickframework.report.jfreechart;
+
+import java.util.Arrays;
+import java.util.Collections;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests series encoding of the interactive report.
+ */
+public class JFreeChartInteractiveChartTest {
+    /**
+     *
+     */
+    @Test
+    public void testBase64() {
+        assertEquals("", base64());
+        assertEquals("AAAAAAAA8D8=", base64(1));
+        assertEquals("AAAAAAAA8D8AAAAAAAAAQA==", base64(1, 2));
+        assertEquals("mpmZmZmZuT8AAAAAAAAMwAAAAAAAAPh/", base64(0.1, -3.5, Double.NaN));
+    }
+
+    /**
+     *
+     */
+    @Test
+    public void testScript() {
+        double[][] data = new double[2][2000];
+
+        for (int i = 0; i < data[0].length; i++) {
+            data[0][i] = i;
+            data[1][i] = i % 10;
+        }
+
+        JFreeChartPlotInfo info = new JFreeChartPlotInfo("20141110-171537-Bench</script>",
+            Collections.<String>emptyList(), 0, 0, 0, 0, JFreeChartGenerationMode.STANDARD);
+
+        info.color("27ae60");
+        info.axisLabels("Time, sec", "Latency \"avg\"");
+        info.data(data);
+
+        String script = JFreeChartInteractiveChart.script("chart0", Collections.singletonList(info), 100);
+
+        assertTrue(script, script.startsWith("YS.chart(\"chart0\", {xLabel: \"Time, sec\", " +
+            "yLabel: \"Latency \\\"avg\\\"\", series: [{name: \"Bench\\u003c/script\\u003e\", color: \"27ae60\""));
+        assertFalse(script.contains("</script>"));
+
+        // Full resolution series is embedded for zooming.
+        assertTrue(script.contains("fx: '" + base64(data[0]) + "'"));
+        assertTrue(script.contains("fy: '" + base64(data[1]) + "'"));
+
+        double[][] overview = JFreeChartDownsampler.downsample(data, 100);
+
+        assertTrue(script.contains("ox: '" + base64(overview[0]) + "'"));
+
+        script = JFreeChartInteractiveChart.script("chart0", Arrays.asList(info), 0);
+
+        assertFalse(script.contains("fx: "));
+        assertTrue(script.contains("ox: '" + base64(data[0]) + "'"));
+    }
+
+    /**
+     * @param vals Values.
+     * @return Encoded values.
+     */
+    private static String base64(double... vals) {
+        StringBuilder sb = new StringBuilder();
+
+        JFreeChartInteractiveChart.base64(sb, vals);
+
+        return sb.toString();
+    }
+}
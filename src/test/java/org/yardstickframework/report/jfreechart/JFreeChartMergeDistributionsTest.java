@@ -0,0 +1,106 @@
+/*
+ Licensed under the Apache License, Version 2.0 (the "License");
+ you may not use this file except in compliance with the License.
+ You may obtain a copy of the License at
+
+     http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing, software
+ distributed under the License is distributed on an "AS IS" BASIS,
+ WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ See the License for the specific language governing permissions and
+ limitations under the License.
+ */
+
+package org.yardstickframework.report.jfreechart;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Tests merging of latency distributions of several drivers.
+ */
+public class JFreeChartMergeDistributionsTest {
+    /** */
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    /**
+     * @throws Exception If failed.
+     */
+    @Test
+    public void testDifferentLayouts() throws Exception {
+        // 100 operations of the first driver are mostly fast, 900 operations of the second one are slow.
+        List<JFreeChartGraphPlotter.PlotData> drv1 = read("drv1", "0,0,0\n100,0.9,90\n200,0.1,10\n300,0,0\n400,0,0\n");
+        List<JFreeChartGraphPlotter.PlotData> drv2 = read("drv2", "0,0,0\n200,0,0\n400,1,900\n");
+
+        assertEquals("Counts are not plotted", 1, drv1.size());
+
+        List<JFreeChartGraphPlotter.PlotData> sum = JFreeChartGraphPlotter.addSummaryPlot(Arrays.asList(drv1, drv2));
+
+        assertEquals(1, sum.size());
+
+        double[][] data = sum.get(0).series().data();
+
+        assertArrayEquals(new double[] {0, 100, 200, 300, 400}, data[0], 0);
+        assertArrayEquals(new double[] {0, 0.09, 0.01, 0.45, 0.45}, data[1], 1e-9);
+        assertArrayEquals(new double[] {0, 90, 10, 450, 450}, sum.get(0).series().counts(), 1e-9);
+
+        assertEquals(300, JFreeChartRegressionGate.percentile(data, 0.5), 0);
+        assertEquals(400, JFreeChartRegressionGate.percentile(data, 0.99), 0);
+    }
+
+    /**
+     * @throws Exception If failed.
+     */
+    @Test
+    public void testNoCounts() throws Exception {
+        List<JFreeChartGraphPlotter.PlotData> drv1 = read("drv1", "0,0\n100,1\n200,0\n", "\"Operations, %\"");
+        List<JFreeChartGraphPlotter.PlotData> drv2 = read("drv2", "0,0\n100,0.5\n200,0.5\n", "\"Operations, %\"");
+
+        List<JFreeChartGraphPlotter.PlotData> sum = JFreeChartGraphPlotter.addSummaryPlot(Arrays.asList(drv1, drv2));
+
+        assertArrayEquals(new double[] {0, 0.75, 0.25}, sum.get(0).series().data()[1], 1e-9);
+        assertNull(sum.get(0).series().counts());
+    }
+
+    /**
+     * @param drv Driver folder name.
+     * @param points Points.
+     * @return Plot data.
+     * @throws Exception If failed.
+     */
+    private List<JFreeChartGraphPlotter.PlotData> read(String drv, String points) throws Exception {
+        return read(drv, points, "\"Operations, %\",\"Operations, count\"");
+    }
+
+    /**
+     * @param drv Driver folder name.
+     * @param points Points.
+     * @param meta Meta info of values.
+     * @return Plot data.
+     * @throws Exception If failed.
+     */
+    private List<JFreeChartGraphPlotter.PlotData> read(String drv, String points, String meta) throws Exception {
+        File file = new File(tmp.newFolder(drv), "PercentileProbe.csv");
+
+        try (Writer w = new OutputStreamWriter(new FileOutputStream(file), "UTF-8")) {
+            w.write("--Created 2014-11-10 17:15:37\n");
+            w.write("**\"Latency, microseconds\"," + meta + "\n");
+            w.write(points);
+        }
+
+        return JFreeChartGraphPlotter.readData(file, "", Long.MIN_VALUE, Long.MAX_VALUE, 0);
+    }
+}
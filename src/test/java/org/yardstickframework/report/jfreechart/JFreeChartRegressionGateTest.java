@@ -0,0 +1,148 @@
+/*
+ Licensed under the Apache License, Version 2.0 (the "License");
+ you may not use this file except in compliance with the License.
+ You may obtain a copy of the License at
+
+     http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing, software
+ distributed under the License is distributed on an "AS IS" BASIS,
+ WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ See the License for the specific language governing permissions and
+ limitations under the License.
+ */
+
+package org.yardstickframework.report.jfreechart;
+
+import com.beust.jcommander.JCommander;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.util.Locale;
+import java.util.Random;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.yardstickframework.report.jfreechart.JFreeChartRegressionGate.REGRESSION_EXIT_CODE;
+
+/**
+ * Tests regression gate.
+ */
+public class JFreeChartRegressionGateTest {
+    /** */
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    /**
+     *
+     */
+    @Test
+    public void testMannWhitney() {
+        assertEquals(0.0121858, JFreeChartRegressionGate.mannWhitney(new double[] {1, 2, 3, 4, 5},
+            new double[] {6, 7, 8, 9, 10}), 1e-6);
+
+        // Ties get average ranks.
+        assertEquals(0.0437279, JFreeChartRegressionGate.mannWhitney(new double[] {1, 2, 2, 3, 4, 5},
+            new double[] {3, 3, 4, 6, 7, 8, 9}), 1e-6);
+
+        assertEquals(1, JFreeChartRegressionGate.mannWhitney(new double[] {1, 1, 1, 1, 1},
+            new double[] {1, 1, 1, 1, 1}), 0);
+
+        assertTrue(Double.isNaN(JFreeChartRegressionGate.mannWhitney(new double[] {1}, new double[] {2})));
+    }
+
+    /**
+     *
+     */
+    @Test
+    public void testPercentile() {
+        double[][] data = {{0, 100, 200, 300, 400}, {0, 0.5, 0.4, 0.09, 0.01}};
+
+        assertEquals(100, JFreeChartRegressionGate.percentile(data, 0.5), 0);
+        assertEquals(200, JFreeChartRegressionGate.percentile(data, 0.9), 0);
+        assertEquals(300, JFreeChartRegressionGate.percentile(data, 0.99), 0);
+        assertEquals(400, JFreeChartRegressionGate.percentile(data, 0.999), 0);
+    }
+
+    /**
+     * @throws Exception If failed.
+     */
+    @Test
+    public void testGate() throws Exception {
+        File base = tmp.newFolder("base");
+        File same = tmp.newFolder("same");
+        File slow = tmp.newFolder("slow");
+
+        write(new File(base, "20141110-171537-Bench-t=1"), 1, 1);
+        write(new File(same, "20141110-181537-Bench-t=1"), 1, 1);
+        write(new File(slow, "20141110-191537-Bench-t=1"), 0.8, 1.25);
+
+        File summary = new File(tmp.getRoot(), "summary.json");
+
+        assertEquals(0, run(base, same, summary));
+
+        assertEquals(REGRESSION_EXIT_CODE, run(base, slow, summary));
+
+        String json = new String(Files.readAllBytes(summary.toPath()), "UTF-8");
+
+        assertTrue(json, json.contains("\"verdict\": \"REGRESSION\""));
+        assertTrue(json, json.contains("\"metric\": \"Operations/sec\""));
+
+        // Candidate with higher threshold passes.
+        assertEquals(0, run(base, slow, summary, "-t", "30"));
+    }
+
+    /**
+     * @param base Baseline folder.
+     * @param cand Candidate folder.
+     * @param summary Summary file.
+     * @param extra Extra arguments.
+     * @return Exit code.
+     * @throws Exception If failed.
+     */
+    private static int run(File base, File cand, File summary, String... extra) throws Exception {
+        JFreeChartRegressionGateArguments args = new JFreeChartRegressionGateArguments();
+
+        String[] cmdArgs = {"-b", base.getPath(), "-c", cand.getPath(), "-o", summary.getPath()};
+
+        String[] all = new String[cmdArgs.length + extra.length];
+
+        System.arraycopy(cmdArgs, 0, all, 0, cmdArgs.length);
+        System.arraycopy(extra, 0, all, cmdArgs.length, extra.length);
+
+        new JCommander(args, all);
+
+        return JFreeChartRegressionGate.run(args);
+    }
+
+    /**
+     * Writes throughput and latency probe results with noise.
+     *
+     * @param run Run folder.
+     * @param throughputMul Throughput multiplier.
+     * @param latencyMul Latency multiplier.
+     * @throws Exception If failed.
+     */
+    private static void write(File run, double throughputMul, double latencyMul) throws Exception {
+        assertTrue(run.mkdirs());
+
+        Random rnd = new Random(run.getName().hashCode());
+
+        try (Writer w = new OutputStreamWriter(new FileOutputStream(new File(run, "ThroughputLatencyProbe.csv")),
+            "UTF-8")) {
+            w.write("@@Bench\n");
+            w.write("**\"Time, ms\",\"Operations/sec (more is better)\",\"Latency, nsec (less is better)\"\n");
+
+            for (int i = 0; i < 60; i++) {
+                w.write(String.format(Locale.US, "%d,%.2f,%.2f\n", 1415639737000L + i * 1000L,
+                    (100_000 + rnd.nextGaussian() * 2_000) * throughputMul,
+                    (20_000 + rnd.nextGaussian() * 400) * latencyMul));
+            }
+        }
+    }
+}
@@ -0,0 +1,258 @@
+/*
+ Licensed under the Apache License, Version 2.0 (the "License");
+ you may not use this file except in compliance with the License.
+ You may obtain a copy of the License at
+
+     http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing, software
+ distributed under the License is distributed on an "AS IS" BASIS,
+ WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ See the License for the specific language governing permissions and
+ limitations under the License.
+ */
+
+package org.yardstickframework.report.jfreechart;
+
+import com.beust.jcommander.JCommander;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.ObjectInputStream;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.yardstickframework.report.jfreechart.JFreeChartGenerationMode.COMPOUND;
+import static org.yardstickframework.report.jfreechart.JFreeChartGenerationMode.STANDARD;
+
+/**
+ * Tests cache of generated charts.
+ */
+public class JFreeChartReportCacheTest {
+    /** */
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    /**
+     * @throws Exception If failed.
+     */
+    @Test
+    public void testKey() throws Exception {
+        File file = write("ThroughputLatencyProbe.csv", "1000,1.0\n");
+
+        List<File> files = Collections.singletonList(file);
+
+        String key = JFreeChartReportCache.key(files, STANDARD, args());
+
+        assertEquals(key, JFreeChartReportCache.key(files, STANDARD, args()));
+
+        assertFalse(key.equals(JFreeChartReportCache.key(files, COMPOUND, args())));
+        assertFalse(key.equals(JFreeChartReportCache.key(files, STANDARD, args("-mp", "10"))));
+
+        write("ThroughputLatencyProbe.csv", "1000,2.0\n");
+
+        assertFalse(key.equals(JFreeChartReportCache.key(files, STANDARD, args())));
+
+        assertNull(JFreeChartReportCache.key(files, STANDARD, args("-nc")));
+    }
+
+    /**
+     * @throws Exception If failed.
+     */
+    @Test
+    public void testLoad() throws Exception {
+        File folder = tmp.getRoot();
+
+        File chart = write("Plot_ThroughputLatencyProbe_01.png", "");
+
+        Map<String, List<JFreeChartPlotInfo>> infoMap = new HashMap<>();
+
+        infoMap.put(chart.getAbsolutePath(), Collections.singletonList(new JFreeChartPlotInfo("drv",
+            Collections.singletonList("cfg"), 2, 1, 3, 0.5, STANDARD)));
+
+        JFreeChartReportCache.save(folder, "key", infoMap);
+
+        assertNull(JFreeChartReportCache.load(folder, "other", args()));
+        assertNull(JFreeChartReportCache.load(folder, null, args()));
+
+        Map<String, List<JFreeChartPlotInfo>> cached = JFreeChartReportCache.load(folder, "key", args());
+
+        assertNotNull(cached);
+
+        JFreeChartPlotInfo info = cached.get(chart.getAbsolutePath()).get(0);
+
+        assertEquals("drv", info.name());
+        assertEquals(2, info.average(), 0);
+        assertEquals(0.5, info.standardDeviation(), 0);
+
+        // Charts are generated again if chart files are removed.
+        assertTrue(chart.delete());
+
+        assertNull(JFreeChartReportCache.load(folder, "key", args()));
+        assertNotNull(JFreeChartReportCache.load(folder, "key", args("-rf", "INTERACTIVE")));
+    }
+
+    /**
+     * @throws Exception If failed.
+     */
+    @Test
+    public void testSeriesCachedForInteractiveReportOnly() throws Exception {
+        System.setProperty("java.awt.headless", "true");
+
+        for (JFreeChartReportFormat fmt : JFreeChartReportFormat.values()) {
+            File res = tmp.newFolder("results-" + fmt);
+
+            File run = new File(res, "20141110-171537-Bench");
+
+            assertTrue(run.mkdirs());
+
+            write(new File(run, "ThroughputLatencyProbe.csv"), points("Bench", 1415632537000L, 20));
+
+            JFreeChartGraphPlotter.main(new String[] {"-i", res.getAbsolutePath(), "-gm", "STANDARD",
+                "-rf", fmt.name()});
+
+            Map<String, List<JFreeChartPlotInfo>> infoMap = read(new File(run, JFreeChartReportCache.CACHE_FILE));
+
+            assertFalse(infoMap.isEmpty());
+
+            for (List<JFreeChartPlotInfo> infos : infoMap.values()) {
+                for (JFreeChartPlotInfo info : infos) {
+                    assertEquals("Operations/sec (more is better)", info.yAxisLabel());
+
+                    if (fmt == JFreeChartReportFormat.INTERACTIVE)
+                        assertEquals(20, info.data()[1].length);
+                    else
+                        assertNull(info.data());
+                }
+            }
+        }
+    }
+
+    /**
+     * @throws Exception If failed.
+     */
+    @Test
+    public void testServerFilesOutsideRun() throws Exception {
+        System.setProperty("java.awt.headless", "true");
+
+        File res = tmp.newFolder("results");
+
+        long time = 1415632537000L;
+
+        File run = new File(res, "20141110-171537-Bench");
+        File srv = new File(res, "server-20141110-171530-Server");
+        File other = new File(res, "server-20141111-171530-Server");
+
+        assertTrue(run.mkdirs() && srv.mkdirs() && other.mkdirs());
+
+        write(new File(run, "ThroughputLatencyProbe.csv"), points("Bench", time, 20));
+        write(new File(srv, "ServerProbe.csv"), points("Server", time - 5000, 40));
+        write(new File(other, "ServerProbe.csv"), points("Server", time + 86_400_000L, 40));
+
+        String[] cmdArgs = {"-i", res.getAbsolutePath(), "-gm", "STANDARD", "-rf", "INTERACTIVE"};
+
+        JFreeChartGraphPlotter.main(cmdArgs);
+
+        String key = key(new File(run, JFreeChartReportCache.CACHE_FILE));
+
+        // Server run which does not overlap the benchmark run is not a part of the key.
+        write(new File(other, "ServerProbe.csv"), points("Server", time + 86_400_000L, 50));
+
+        JFreeChartGraphPlotter.main(cmdArgs);
+
+        assertEquals(key, key(new File(run, JFreeChartReportCache.CACHE_FILE)));
+
+        write(new File(srv, "ServerProbe.csv"), points("Server", time - 5000, 50));
+
+        JFreeChartGraphPlotter.main(cmdArgs);
+
+        assertFalse(key.equals(key(new File(run, JFreeChartReportCache.CACHE_FILE))));
+    }
+
+    /**
+     * @param drvNames Driver names.
+     * @param time Time of the first point.
+     * @param cnt Number of points, one point per second.
+     * @return Probe results file content.
+     */
+    private static String points(String drvNames, long time, int cnt) {
+        StringBuilder sb = new StringBuilder("@@").append(drvNames)
+            .append("\n**\"Time, ms\",\"Operations/sec (more is better)\"\n");
+
+        for (int i = 0; i < cnt; i++)
+            sb.append(time + i * 1000L).append(',').append(100 + i).append('\n');
+
+        return sb.toString();
+    }
+
+    /**
+     * @param file Cache file.
+     * @return Cache key.
+     * @throws Exception If failed.
+     */
+    private static String key(File file) throws Exception {
+        try (ObjectInputStream in = new ObjectInputStream(new FileInputStream(file))) {
+            return in.readUTF();
+        }
+    }
+
+    /**
+     * @param file Cache file.
+     * @return Cached plot infos.
+     * @throws Exception If failed.
+     */
+    @SuppressWarnings("unchecked")
+    private static Map<String, List<JFreeChartPlotInfo>> read(File file) throws Exception {
+        try (ObjectInputStream in = new ObjectInputStream(new FileInputStream(file))) {
+            in.readUTF();
+
+            return (Map<String, List<JFreeChartPlotInfo>>)in.readObject();
+        }
+    }
+
+    /**
+     * @param name File name.
+     * @param content File content.
+     * @return File.
+     * @throws Exception If failed.
+     */
+    private File write(String name, String content) throws Exception {
+        return write(new File(tmp.getRoot(), name), content);
+    }
+
+    /**
+     * @param file File.
+     * @param content File content.
+     * @return File.
+     * @throws Exception If failed.
+     */
+    private static File write(File file, String content) throws Exception {
+        try (FileOutputStream out = new FileOutputStream(file)) {
+            out.write(content.getBytes("UTF-8"));
+        }
+
+        return file;
+    }
+
+    /**
+     * @param cmdArgs Command line arguments.
+     * @return Plotter arguments.
+     */
+    private static JFreeChartGraphPlotterArguments args(String... cmdArgs) {
+        JFreeChartGraphPlotterArguments args = new JFreeChartGraphPlotterArguments();
+
+        new JCommander(args, cmdArgs);
+
+        return args;
+    }
+}
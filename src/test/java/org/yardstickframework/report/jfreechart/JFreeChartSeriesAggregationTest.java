@@ -0,0 +1,246 @@
+/*
+ Licensed under the Apache License, Version 2.0 (the "License");
+ you may not use this file except in compliance with the License.
+ You may obtain a copy of the License at
+
+     http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing, software
+ distributed under the License is distributed on an "AS IS" BASIS,
+ WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ See the License for the specific language governing permissions and
+ limitations under the License.
+ */
+
+package org.yardstickframework.report.jfreechart;
+
+import com.beust.jcommander.JCommander;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.yardstickframework.report.jfreechart.JFreeChartGenerationMode.STANDARD;
+
+/**
+ * Tests aggregation of long time series.
+ */
+public class JFreeChartSeriesAggregationTest {
+    /** */
+    private static final int MAX_POINTS = 64;
+
+    /**
+     *
+     */
+    @Test
+    public void testShortSeries() {
+        double[] y = values(MAX_POINTS, 1);
+
+        JFreeChartGraphPlotter.PlotSeries series = series(y);
+
+        assertFalse(series.aggregated());
+
+        assertArrayEquals(y, series.data()[1], 0);
+        assertArrayEquals(y, series.plotData()[1], 0);
+    }
+
+    /**
+     *
+     */
+    @Test
+    public void testLongSeries() {
+        double[] y = values(100_003, 2);
+
+        JFreeChartGraphPlotter.PlotSeries series = series(y);
+
+        assertTrue(series.aggregated());
+        assertTrue(series.size() <= MAX_POINTS);
+        assertEquals(y.length, series.points(0, series.size()));
+
+        JFreeChartPlotInfo info = info(series, args());
+
+        double[] exact = stats(y, 0, y.length);
+
+        assertEquals(exact[0], info.average(), 1e-6);
+        assertEquals(exact[1], info.minimum(), 0);
+        assertEquals(exact[2], info.maximum(), 0);
+        assertEquals(exact[3], info.standardDeviation(), 1e-6);
+
+        // Extremes are plotted.
+        double[] plotted = series.plotData()[1].clone();
+
+        Arrays.sort(plotted);
+
+        assertEquals(exact[1], plotted[0], 0);
+        assertEquals(exact[2], plotted[plotted.length - 1], 0);
+
+        // First values of buckets are kept.
+        assertEquals(y[series.stride()], series.data()[1][1], 0);
+    }
+
+    /**
+     *
+     */
+    @Test
+    public void testTrim() {
+        double[] y = values(10_000, 3);
+
+        JFreeChartGraphPlotter.PlotSeries series = series(y);
+
+        int stride = series.stride();
+
+        JFreeChartPlotInfo info = info(series, args("-tr", Integer.toString(stride + 1)));
+
+        // Whole buckets covering trimmed intervals are excluded.
+        int first = 2 * stride;
+        int last = y.length - (series.size() - 2) * stride;
+
+        assertEquals(first, info.trimmedFirst());
+        assertEquals(last, info.trimmedLast());
+
+        double[] exact = stats(y, first, y.length - last);
+
+        assertEquals(exact[0], info.average(), 1e-6);
+        assertEquals(exact[3], info.standardDeviation(), 1e-6);
+    }
+
+    /**
+     *
+     */
+    @Test
+    public void testIncorrectValues() {
+        double[] y = values(1_000, 4);
+
+        y[500] = Double.NaN;
+        y[501] = Double.POSITIVE_INFINITY;
+
+        JFreeChartGraphPlotter.PlotSeries series = series(y);
+
+        y[500] = y[499];
+        y[501] = y[499];
+
+        double[] exact = stats(y, 0, y.length);
+
+        JFreeChartPlotInfo info = info(series, args());
+
+        assertEquals(exact[0], info.average(), 1e-6);
+        assertEquals(exact[3], info.standardDeviation(), 1e-6);
+    }
+
+    /**
+     *
+     */
+    @Test
+    public void testSummary() {
+        double[] y1 = values(4_096, 5);
+        double[] y2 = values(1_024, 6);
+
+        List<JFreeChartGraphPlotter.PlotData> sum = JFreeChartGraphPlotter.addSummaryPlot(Arrays.asList(
+            Collections.singletonList(plot(series(y1))), Collections.singletonList(plot(series(y2)))));
+
+        JFreeChartGraphPlotter.PlotSeries series = sum.get(0).series();
+
+        assertTrue(series.aggregated());
+        assertEquals(y2.length, series.points(0, series.size()));
+
+        double[] y = new double[y2.length];
+
+        for (int i = 0; i < y.length; i++)
+            y[i] = y1[i] + y2[i];
+
+        assertEquals(stats(y, 0, y.length)[0], info(series, args()).average(), 1e-6);
+    }
+
+    /**
+     * @param series Series.
+     * @param args Arguments.
+     * @return Plot info.
+     */
+    private static JFreeChartPlotInfo info(JFreeChartGraphPlotter.PlotSeries series,
+        JFreeChartGraphPlotterArguments args) {
+        return JFreeChartGraphPlotter.info(plot(series), STANDARD, args);
+    }
+
+    /**
+     * @param series Series.
+     * @return Time series plot.
+     */
+    private static JFreeChartGraphPlotter.PlotData plot(JFreeChartGraphPlotter.PlotSeries series) {
+        return new JFreeChartGraphPlotter.PlotData("Plot", series, "Time, sec", "Value");
+    }
+
+    /**
+     * @param y Values.
+     * @return Finished series limited to {@link #MAX_POINTS} points.
+     */
+    private static JFreeChartGraphPlotter.PlotSeries series(double[] y) {
+        JFreeChartGraphPlotter.PlotSeries series = new JFreeChartGraphPlotter.PlotSeries("test", MAX_POINTS);
+
+        for (int i = 0; i < y.length; i++)
+            series.add(i, y[i]);
+
+        series.finish();
+
+        return series;
+    }
+
+    /**
+     * @param cnt Number of values.
+     * @param seed Random seed.
+     * @return Values.
+     */
+    private static double[] values(int cnt, long seed) {
+        Random rnd = new Random(seed);
+
+        double[] res = new double[cnt];
+
+        for (int i = 0; i < cnt; i++)
+            res[i] = 1000 + 100 * rnd.nextGaussian();
+
+        return res;
+    }
+
+    /**
+     * @param y Values.
+     * @param from Index of the first value.
+     * @param to Index following the last value.
+     * @return Average, minimum, maximum and standard deviation.
+     */
+    private static double[] stats(double[] y, int from, int to) {
+        double sum = 0;
+        double min = Double.POSITIVE_INFINITY;
+        double max = Double.NEGATIVE_INFINITY;
+
+        for (int i = from; i < to; i++) {
+            sum += y[i];
+            min = Math.min(min, y[i]);
+            max = Math.max(max, y[i]);
+        }
+
+        double avg = sum / (to - from);
+
+        double s = 0;
+
+        for (int i = from; i < to; i++)
+            s += (y[i] - avg) * (y[i] - avg);
+
+        return new double[] {avg, min, max, Math.sqrt(s / (to - from - 1))};
+    }
+
+    /**
+     * @param cmdArgs Command line arguments.
+     * @return Plotter arguments.
+     */
+    private static JFreeChartGraphPlotterArguments args(String... cmdArgs) {
+        JFreeChartGraphPlotterArguments args = new JFreeChartGraphPlotterArguments();
+
+        new JCommander(args, cmdArgs);
+
+        return args;
+    }
+}
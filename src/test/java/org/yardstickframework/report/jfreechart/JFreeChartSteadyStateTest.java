@@ -0,0 +1,81 @@
+/*
+ Licensed under the Apache License, Version 2.0 (the "License");
+ you may not use this file except in compliance with the License.
+ You may obtain a copy of the License at
+
+     http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing, software
+ distributed under the License is distributed on an "AS IS" BASIS,
+ WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ See the License for the specific language governing permissions and
+ limitations under the License.
+ */
+
+package org.yardstickframework.report.jfreechart;
+
+import java.util.Random;
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Tests steady state detection.
+ */
+public class JFreeChartSteadyStateTest {
+    /**
+     *
+     */
+    @Test
+    public void testTrim() {
+        double[] y = {1, 2, 3, 4, 5, 6};
+
+        assertArrayEquals(new int[] {0, 6}, JFreeChartSteadyState.range(y, 0, false));
+        assertArrayEquals(new int[] {2, 4}, JFreeChartSteadyState.range(y, 2, false));
+
+        // Nothing is left after trimming.
+        assertArrayEquals(new int[] {0, 6}, JFreeChartSteadyState.range(y, 3, false));
+    }
+
+    /**
+     *
+     */
+    @Test
+    public void testTransients() {
+        Random rnd = new Random(42);
+
+        double[] y = new double[60];
+
+        for (int i = 0; i < y.length; i++)
+            y[i] = 100_000 + rnd.nextGaussian() * 1_000;
+
+        // Ramp-up of 4 intervals and shutdown of 2 intervals.
+        y[0] = 10_000;
+        y[1] = 40_000;
+        y[2] = 70_000;
+        y[3] = 90_000;
+        y[58] = 80_000;
+        y[59] = 5_000;
+
+        assertArrayEquals(new int[] {4, 58}, JFreeChartSteadyState.range(y, 0, true));
+
+        // Transients are detected after explicit trimming.
+        assertArrayEquals(new int[] {4, 58}, JFreeChartSteadyState.range(y, 1, true));
+        assertArrayEquals(new int[] {0, 60}, JFreeChartSteadyState.range(y, 0, false));
+    }
+
+    /**
+     *
+     */
+    @Test
+    public void testPercentile() {
+        double[] sorted = {10, 20, 30, 40, 50};
+
+        assertEquals(30, JFreeChartSteadyState.percentile(sorted, 0.5), 0);
+        assertEquals(12, JFreeChartSteadyState.percentile(sorted, 0.05), 1e-9);
+        assertEquals(48, JFreeChartSteadyState.percentile(sorted, 0.95), 1e-9);
+        assertEquals(50, JFreeChartSteadyState.percentile(sorted, 1), 0);
+        assertEquals(Double.NaN, JFreeChartSteadyState.percentile(new double[0], 0.5), 0);
+    }
+}
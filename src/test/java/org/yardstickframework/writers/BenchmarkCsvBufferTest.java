@@ -0,0 +1,106 @@
+/*
+ Licensed under the Apache License, Version 2.0 (the "License");
+ you may not use this file except in compliance with the License.
+ You may obtain a copy of the License at
+
+     http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing, software
+ distributed under the License is distributed on an "AS IS" BASIS,
+ WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ See the License for the specific language governing permissions and
+ limitations under the License.
+ */
+
+package org.yardstickframework.writers;
+
+import java.util.Locale;
+import java.util.Random;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Tests that CSV buffer formats numbers exactly as {@link String#format(Locale, String, Object...)}.
+ */
+public class BenchmarkCsvBufferTest {
+    /** */
+    private static final double[] VALS = {
+        0, -0.0, 0.5, 1.5, 2.5, -0.5, 0.125, -0.001, 1.005, 2.675, 0.045, 1e-10, 99.995, 99.994999, 12345.675,
+        1e10, 1e11, 1e20, -1e20, Double.MIN_VALUE, Double.MAX_VALUE, -Double.MAX_VALUE, Double.NaN,
+        Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY, Long.MAX_VALUE, Long.MIN_VALUE
+    };
+
+    /**
+     *
+     */
+    @Test
+    public void testDouble() {
+        Random rnd = new Random(42);
+
+        for (int precision = 0; precision <= BenchmarkCsvBuffer.MAX_FAST_PRECISION + 2; precision++) {
+            BenchmarkCsvBuffer buf = new BenchmarkCsvBuffer(precision);
+
+            for (double val : VALS)
+                check(buf, precision, val);
+
+            for (int i = 0; i < 20_000; i++) {
+                double val;
+
+                switch (i % 4) {
+                    case 0:
+                        val = rnd.nextDouble() * 1000;
+
+                        break;
+
+                    case 1:
+                        // Values with few decimal digits hit rounding midpoints often.
+                        val = (rnd.nextInt(2_000_000) - 1_000_000) / 1000.0;
+
+                        break;
+
+                    case 2:
+                        val = rnd.nextGaussian() * Math.pow(10, rnd.nextInt(30) - 10);
+
+                        break;
+
+                    default:
+                        val = rnd.nextLong();
+                }
+
+                check(buf, precision, val);
+            }
+        }
+    }
+
+    /**
+     *
+     */
+    @Test
+    public void testLong() {
+        BenchmarkCsvBuffer buf = new BenchmarkCsvBuffer(2);
+
+        for (long val : new long[] {0, 1, -1, 9, 10, 1_000_000_007, Long.MAX_VALUE, Long.MIN_VALUE}) {
+            buf.reset();
+
+            assertEquals(String.valueOf(val), buf.append(val).toString());
+        }
+
+        buf.reset();
+
+        assertEquals("1000,0.13,2.00" + System.lineSeparator(),
+            buf.append(1000L).append(',').append(0.125).append(',').append(2d).newLine().toString());
+    }
+
+    /**
+     * @param buf Buffer.
+     * @param precision Precision.
+     * @param val Value.
+     */
+    private static void check(BenchmarkCsvBuffer buf, int precision, double val) {
+        buf.reset();
+
+        assertEquals("Wrong format [val=" + val + ", precision=" + precision + ']',
+            String.format(Locale.US, "%." + precision + "f", val), buf.append(val).toString());
+    }
+}
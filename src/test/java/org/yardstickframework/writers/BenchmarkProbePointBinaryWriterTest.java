@@ -0,0 +1,177 @@
+/*
+ Licensed under the Apache License, Version 2.0 (the "License");
+ you may not use this file except in compliance with the License.
+ You may obtain a copy of the License at
+
+     http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing, software
+ distributed under the License is distributed on an "AS IS" BASIS,
+ WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ See the License for the specific language governing permissions and
+ limitations under the License.
+ */
+
+package org.yardstickframework.writers;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.DoubleBuffer;
+import java.nio.LongBuffer;
+import java.util.Arrays;
+import java.util.Collections;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.yardstickframework.BenchmarkConfiguration;
+import org.yardstickframework.BenchmarkDriver;
+import org.yardstickframework.BenchmarkProbe;
+import org.yardstickframework.BenchmarkProbePoint;
+import org.yardstickframework.BenchmarkProbePointBuffer;
+import org.yardstickframework.writers.BenchmarkWriterTestUtils.TestProbe;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.yardstickframework.writers.BenchmarkWriterTestUtils.config;
+import static org.yardstickframework.writers.BenchmarkWriterTestUtils.driver;
+
+/**
+ * Tests binary probe point writer and reader.
+ */
+public class BenchmarkProbePointBinaryWriterTest {
+    /** */
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    /**
+     * @throws Exception If failed.
+     */
+    @Test
+    public void testWriteRead() throws Exception {
+        File folder = tmp.getRoot();
+
+        BenchmarkConfiguration cfg = config("-dn", "TestDriver", "-of", folder.getAbsolutePath());
+
+        BenchmarkDriver drv = driver(cfg);
+
+        BenchmarkProbePointBinaryWriter writer = new BenchmarkProbePointBinaryWriter();
+
+        writer.start(drv, cfg, System.currentTimeMillis());
+
+        BenchmarkProbe probe = new TestProbe();
+
+        writer.writePoints(probe, Arrays.asList(
+            new BenchmarkProbePoint(1000, new double[] {0.125, 1e-9}),
+            new BenchmarkProbePoint(2000, new double[] {Double.NaN, 123456789.987654321})));
+
+        BenchmarkProbePointBuffer buf = new BenchmarkProbePointBuffer(2, 4);
+
+        buf.add(3000, 3, 4);
+
+        writer.writePoints(probe, buf);
+
+        writer.writePoints(probe, Collections.<BenchmarkProbePoint>emptyList());
+
+        writer.close();
+
+        assertEquals(0, buf.size());
+
+        File[] runs = folder.listFiles();
+
+        assertEquals(1, runs.length);
+
+        File file = new File(runs[0], TestProbe.class.getSimpleName() + ".bin");
+
+        assertTrue(file.exists());
+
+        BenchmarkProbePointBinaryReader rdr = new BenchmarkProbePointBinaryReader(file);
+
+        assertEquals("TestDriver", rdr.driverNames());
+        assertEquals(probe.metaInfo(), rdr.metaInfo());
+        assertEquals(2, rdr.blocks());
+
+        assertEquals(2, rdr.blockSize(0));
+        assertEquals(2, rdr.blockColumns(0));
+
+        LongBuffer times = rdr.times(0);
+        DoubleBuffer vals0 = rdr.values(0, 0);
+        DoubleBuffer vals1 = rdr.values(0, 1);
+
+        assertEquals(1000, times.get(0));
+        assertEquals(2000, times.get(1));
+        assertEquals(0.125, vals0.get(0), 0);
+        assertTrue(Double.isNaN(vals0.get(1)));
+        assertEquals(1e-9, vals1.get(0), 0);
+        assertEquals(123456789.987654321, vals1.get(1), 0);
+
+        assertEquals(1, rdr.blockSize(1));
+        assertEquals(3000, rdr.times(1).get(0));
+        assertEquals(3, rdr.values(1, 0).get(0), 0);
+        assertEquals(4, rdr.values(1, 1).get(0), 0);
+    }
+
+    /**
+     * @throws Exception If failed.
+     */
+    @Test
+    public void testRegions() throws Exception {
+        File folder = tmp.getRoot();
+
+        BenchmarkConfiguration cfg = config("-dn", "TestDriver", "-of", folder.getAbsolutePath());
+
+        BenchmarkDriver drv = driver(cfg);
+
+        BenchmarkProbePointBinaryWriter writer = new BenchmarkProbePointBinaryWriter();
+
+        writer.start(drv, cfg, System.currentTimeMillis());
+
+        BenchmarkProbe probe = new TestProbe();
+
+        long time = 0;
+
+        for (int b = 0; b < 100; b++) {
+            BenchmarkProbePointBuffer buf = new BenchmarkProbePointBuffer(2, 20);
+
+            for (int i = 0; i <= b % 20; i++, time++)
+                buf.add(time, time * 0.5, -time);
+
+            writer.writePoints(probe, buf);
+        }
+
+        writer.writePoints(probe, Collections.singletonList(new BenchmarkProbePoint(time, new double[1000])));
+
+        writer.close();
+
+        File file = new File(folder.listFiles()[0], TestProbe.class.getSimpleName() + ".bin");
+
+        BenchmarkProbePointBinaryReader rdr = new BenchmarkProbePointBinaryReader(file, 16 * 1024);
+
+        assertEquals(101, rdr.blocks());
+
+        long expTime = 0;
+
+        for (int b = 0; b < 100; b++) {
+            assertEquals(b % 20 + 1, rdr.blockSize(b));
+
+            LongBuffer times = rdr.times(b);
+            DoubleBuffer vals = rdr.values(b, 1);
+
+            for (int i = 0; i < rdr.blockSize(b); i++, expTime++) {
+                assertEquals(expTime, times.get(i));
+                assertEquals(-expTime, vals.get(i), 0);
+            }
+        }
+
+        assertEquals(1000, rdr.blockColumns(100));
+
+        try {
+            new BenchmarkProbePointBinaryReader(file, 4096);
+
+            fail("Block larger than mapped region is read.");
+        }
+        catch (IOException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("does not fit into mapped region"));
+        }
+    }
+}
@@ -0,0 +1,146 @@
+/*
+ Licensed under the Apache License, Version 2.0 (the "License");
+ you may not use this file except in compliance with the License.
+ You may obtain a copy of the License at
+
+     http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing, software
+ distributed under the License is distributed on an "AS IS" BASIS,
+ WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ See the License for the specific language governing permissions and
+ limitations under the License.
+ */
+
+package org.yardstickframework.writers;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import org.junit.Test;
+import org.yardstickframework.BenchmarkColumnarProbePointWriter;
+import org.yardstickframework.BenchmarkConfiguration;
+import org.yardstickframework.BenchmarkDriver;
+import org.yardstickframework.BenchmarkProbe;
+import org.yardstickframework.BenchmarkProbePoint;
+import org.yardstickframework.BenchmarkProbePointBuffer;
+import org.yardstickframework.BenchmarkProbePointWriter;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests composite probe point writer.
+ */
+public class BenchmarkProbePointCompositeWriterTest {
+    /**
+     * @throws Exception If failed.
+     */
+    @Test
+    public void testBuffer() throws Exception {
+        ColumnarWriter failing = new ColumnarWriter(true);
+        ColumnarWriter columnar = new ColumnarWriter(false);
+        Writer plain0 = new Writer();
+        Writer plain1 = new Writer();
+
+        BenchmarkProbePointCompositeWriter writer = new BenchmarkProbePointCompositeWriter(
+            Arrays.<BenchmarkProbePointWriter>asList(failing, plain0, columnar, plain1));
+
+        BenchmarkProbePointBuffer buf = new BenchmarkProbePointBuffer(1, 4);
+
+        buf.add(1, 10);
+        buf.add(2, 20);
+
+        try {
+            writer.writePoints(null, buf);
+
+            fail();
+        }
+        catch (IllegalStateException ignored) {
+            // Expected.
+        }
+
+        assertEquals(0, buf.size());
+
+        assertEquals(Arrays.asList(1L, 2L), failing.times);
+        assertEquals(Arrays.asList(1L, 2L), columnar.times);
+
+        assertEquals(2, plain0.points.size());
+        assertEquals(20, plain0.points.get(1).values()[0], 0);
+
+        // Points are converted to objects once for all writers which are not columnar.
+        assertSame(plain0.batch, plain1.batch);
+
+        writer.close();
+
+        assertTrue(failing.closed);
+        assertTrue(columnar.closed);
+        assertTrue(plain0.closed);
+        assertTrue(plain1.closed);
+    }
+
+    /**
+     *
+     */
+    private static class Writer implements BenchmarkProbePointWriter {
+        /** */
+        Collection<BenchmarkProbePoint> batch;
+
+        /** */
+        final List<BenchmarkProbePoint> points = new ArrayList<>();
+
+        /** */
+        boolean closed;
+
+        /** {@inheritDoc} */
+        @Override public void start(BenchmarkDriver drv, BenchmarkConfiguration cfg, long startTime) {
+            // No-op.
+        }
+
+        /** {@inheritDoc} */
+        @Override public void writePoints(BenchmarkProbe probe, Collection<BenchmarkProbePoint> points) {
+            batch = points;
+
+            this.points.addAll(points);
+        }
+
+        /** {@inheritDoc} */
+        @Override public void close() {
+            closed = true;
+        }
+    }
+
+    /**
+     *
+     */
+    private static class ColumnarWriter extends Writer implements BenchmarkColumnarProbePointWriter {
+        /** */
+        private final boolean fail;
+
+        /** */
+        final List<Long> times = new ArrayList<>();
+
+        /**
+         * @param fail Whether write fails after points are read.
+         */
+        ColumnarWriter(boolean fail) {
+            this.fail = fail;
+        }
+
+        /** {@inheritDoc} */
+        @Override public void writePoints(BenchmarkProbe probe, BenchmarkProbePointBuffer buf) {
+            int size = buf.size();
+
+            for (int i = 0; i < size; i++)
+                times.add(buf.time(i));
+
+            buf.release(size);
+
+            if (fail)
+                throw new IllegalStateException("Test failure.");
+        }
+    }
+}
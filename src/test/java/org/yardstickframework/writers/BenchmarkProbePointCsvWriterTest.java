@@ -0,0 +1,163 @@
+/*
+ Licensed under the Apache License, Version 2.0 (the "License");
+ you may not use this file except in compliance with the License.
+ You may obtain a copy of the License at
+
+     http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing, software
+ distributed under the License is distributed on an "AS IS" BASIS,
+ WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ See the License for the specific language governing permissions and
+ limitations under the License.
+ */
+
+package org.yardstickframework.writers;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.yardstickframework.BenchmarkConfiguration;
+import org.yardstickframework.BenchmarkDriver;
+import org.yardstickframework.BenchmarkProbe;
+import org.yardstickframework.BenchmarkProbePoint;
+import org.yardstickframework.writers.BenchmarkWriterTestUtils.TestProbe;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.yardstickframework.writers.BenchmarkWriterTestUtils.config;
+import static org.yardstickframework.writers.BenchmarkWriterTestUtils.driver;
+
+/**
+ * Tests CSV probe point writer.
+ */
+public class BenchmarkProbePointCsvWriterTest {
+    /** */
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    /**
+     * @throws Exception If failed.
+     */
+    @Test
+    public void testCompressed() throws Exception {
+        File folder = tmp.getRoot();
+
+        BenchmarkConfiguration cfg = config("-dn", "TestDriver", "-of", folder.getAbsolutePath());
+
+        cfg.customProperties(Collections.singletonMap(BenchmarkProbePointCsvWriter.COMPRESS, "true"));
+
+        BenchmarkDriver drv = driver(cfg);
+
+        BenchmarkProbePointCsvWriter writer = new BenchmarkProbePointCsvWriter();
+
+        writer.start(drv, cfg, System.currentTimeMillis());
+
+        BenchmarkProbe probe = new TestProbe();
+
+        writer.writePoints(probe, Arrays.asList(
+            new BenchmarkProbePoint(1000, new double[] {0.125, 2}),
+            new BenchmarkProbePoint(2000, new double[] {3, 4.5})));
+
+        writer.flush();
+
+        File[] runs = folder.listFiles();
+
+        assertEquals(1, runs.length);
+
+        File file = new File(runs[0], TestProbe.class.getSimpleName() + ".csv.gz");
+
+        assertTrue(file.exists());
+
+        // Flushed points are readable before the writer is closed.
+        assertEquals(Arrays.asList("1000,0.13,2.00", "2000,3.00,4.50"), points(file));
+
+        writer.writePoints(probe, Collections.singletonList(new BenchmarkProbePoint(3000, new double[] {5, 6})));
+
+        writer.close();
+
+        assertEquals(Arrays.asList("1000,0.13,2.00", "2000,3.00,4.50", "3000,5.00,6.00"), points(file));
+    }
+
+    /**
+     * @throws Exception If failed.
+     */
+    @Test
+    public void testDuplicateToOutput() throws Exception {
+        File folder = tmp.getRoot();
+
+        BenchmarkConfiguration cfg = config("-dn", "TestDriver", "-of", folder.getAbsolutePath());
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        cfg.output(new PrintStream(out, true, "UTF-8"));
+
+        cfg.customProperties(Collections.singletonMap("BENCHMARK_WRITER_DUPLICATE_TO_OUTPUT", "true"));
+
+        BenchmarkDriver drv = driver(cfg);
+
+        BenchmarkProbePointCsvWriter writer = new BenchmarkProbePointCsvWriter();
+
+        writer.start(drv, cfg, System.currentTimeMillis());
+
+        writer.writePoints(new TestProbe(), Arrays.asList(
+            new BenchmarkProbePoint(1000, new double[] {0.125, 2}),
+            new BenchmarkProbePoint(2000, new double[] {3, 4.5})));
+
+        writer.close();
+
+        File[] runs = folder.listFiles();
+
+        assertEquals(1, runs.length);
+
+        List<String> fileLines = Files.readAllLines(
+            new File(runs[0], TestProbe.class.getSimpleName() + ".csv").toPath(), Charset.forName("UTF-8"));
+
+        List<String> outLines = Arrays.asList(out.toString("UTF-8").split("\\r?\\n"));
+
+        assertTrue(fileLines.size() > 2);
+
+        // Every header and point line is printed to output exactly once.
+        for (String line : fileLines) {
+            int cnt = 0;
+
+            for (String outLine : outLines) {
+                if (outLine.endsWith(line))
+                    cnt++;
+            }
+
+            assertEquals(line, 1, cnt);
+        }
+    }
+
+    /**
+     * @param file Compressed file.
+     * @return Point lines.
+     * @throws Exception If failed.
+     */
+    private static List<String> points(File file) throws Exception {
+        List<String> res = new ArrayList<>();
+
+        try (BufferedReader br = new BufferedReader(new InputStreamReader(
+            new BenchmarkCompressedInputStream(new FileInputStream(file))))) {
+            for (String line; (line = br.readLine()) != null; ) {
+                if (Character.isDigit(line.charAt(0)))
+                    res.add(line);
+            }
+        }
+
+        return res;
+    }
+}
@@ -0,0 +1,169 @@
+/*
+ Licensed under the Apache License, Version 2.0 (the "License");
+ you may not use this file except in compliance with the License.
+ You may obtain a copy of the License at
+
+     http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing, software
+ distributed under the License is distributed on an "AS IS" BASIS,
+ WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ See the License for the specific language governing permissions and
+ limitations under the License.
+ */
+
+package org.yardstickframework.writers;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.junit.Test;
+import org.yardstickframework.BenchmarkConfiguration;
+import org.yardstickframework.BenchmarkDriver;
+import org.yardstickframework.BenchmarkProbePoint;
+import org.yardstickframework.writers.BenchmarkWriterTestUtils.DistributionTestProbe;
+import org.yardstickframework.writers.BenchmarkWriterTestUtils.OtherTestDriver;
+import org.yardstickframework.writers.BenchmarkWriterTestUtils.TestProbe;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.yardstickframework.writers.BenchmarkWriterTestUtils.config;
+import static org.yardstickframework.writers.BenchmarkWriterTestUtils.driver;
+
+/**
+ * Tests Prometheus probe point writer.
+ */
+public class BenchmarkProbePointPrometheusWriterTest {
+    /**
+     * @throws Exception If failed.
+     */
+    @Test
+    public void testScrape() throws Exception {
+        BenchmarkConfiguration cfg = config("-dn", "TestDriver");
+
+        cfg.customProperties(Collections.singletonMap(BenchmarkProbePointPrometheusWriter.PORT, "0"));
+
+        BenchmarkDriver drv = driver(cfg);
+
+        BenchmarkProbePointPrometheusWriter writer = new BenchmarkProbePointPrometheusWriter();
+        BenchmarkProbePointPrometheusWriter distWriter = new BenchmarkProbePointPrometheusWriter();
+
+        writer.start(drv, cfg, System.currentTimeMillis());
+        distWriter.start(drv, cfg, System.currentTimeMillis());
+
+        try {
+            assertTrue(writer.port() > 0);
+            assertEquals(writer.port(), distWriter.port());
+
+            writer.writePoints(new TestProbe(), Arrays.asList(
+                new BenchmarkProbePoint(1000, new double[] {10, 2}),
+                new BenchmarkProbePoint(2000, new double[] {30, 4.5})));
+
+            distWriter.writePoints(new DistributionTestProbe(), Arrays.asList(
+                new BenchmarkProbePoint(100, new double[] {0.5}),
+                new BenchmarkProbePoint(200, new double[] {0.45}),
+                new BenchmarkProbePoint(300, new double[] {0.05})));
+
+            String labels = "{driver=\"TestDriver\",host=\"\"";
+
+            assertEquals(
+                "# TYPE yardstick_distribution_test_latency_microseconds summary\n" +
+                "yardstick_distribution_test_latency_microseconds" + labels + ",quantile=\"0.5\"} 100.0\n" +
+                "yardstick_distribution_test_latency_microseconds" + labels + ",quantile=\"0.9\"} 200.0\n" +
+                "yardstick_distribution_test_latency_microseconds" + labels + ",quantile=\"0.99\"} 300.0\n" +
+                "yardstick_distribution_test_latency_microseconds" + labels + ",quantile=\"0.999\"} 300.0\n" +
+                "# TYPE yardstick_test_latency_nsec gauge\n" +
+                "yardstick_test_latency_nsec" + labels + "} 4.5\n" +
+                "# TYPE yardstick_test_operations_sec gauge\n" +
+                "yardstick_test_operations_sec" + labels + "} 30.0\n",
+                scrape(writer.port()));
+
+            distWriter.close();
+
+            // Values of closed writer are not served while other writers share the endpoint.
+            assertEquals(
+                "# TYPE yardstick_test_latency_nsec gauge\n" +
+                "yardstick_test_latency_nsec" + labels + "} 4.5\n" +
+                "# TYPE yardstick_test_operations_sec gauge\n" +
+                "yardstick_test_operations_sec" + labels + "} 30.0\n",
+                scrape(writer.port()));
+        }
+        finally {
+            writer.close();
+            distWriter.close();
+        }
+
+        assertEquals(-1, writer.port());
+    }
+
+    /**
+     * @throws Exception If failed.
+     */
+    @Test
+    public void testMultipleDrivers() throws Exception {
+        BenchmarkConfiguration cfg = config("-dn", "TestDriver", "OtherTestDriver");
+
+        cfg.customProperties(Collections.singletonMap(BenchmarkProbePointPrometheusWriter.PORT, "0"));
+
+        BenchmarkDriver drv = driver(cfg);
+        BenchmarkDriver otherDrv = driver(cfg, new OtherTestDriver());
+
+        BenchmarkProbePointPrometheusWriter writer = new BenchmarkProbePointPrometheusWriter();
+        BenchmarkProbePointPrometheusWriter otherWriter = new BenchmarkProbePointPrometheusWriter();
+
+        writer.start(drv, cfg, System.currentTimeMillis());
+        otherWriter.start(otherDrv, cfg, System.currentTimeMillis());
+
+        try {
+            writer.writePoints(new TestProbe(), Collections.singletonList(
+                new BenchmarkProbePoint(1000, new double[] {10, 2})));
+
+            otherWriter.writePoints(new TestProbe(), Collections.singletonList(
+                new BenchmarkProbePoint(1000, new double[] {20, 3})));
+
+            List<String> lines = Arrays.asList(scrape(writer.port()).split("\n"));
+
+            // Each driver has its own series under one TYPE line of the metric.
+            assertEquals(6, lines.size());
+            assertEquals(1, Collections.frequency(lines, "# TYPE yardstick_test_operations_sec gauge"));
+
+            assertTrue(lines.contains("yardstick_test_operations_sec{driver=\"TestDriver\",host=\"\"} 10.0"));
+            assertTrue(lines.contains("yardstick_test_operations_sec{driver=\"OtherTestDriver\",host=\"\"} 20.0"));
+        }
+        finally {
+            writer.close();
+            otherWriter.close();
+        }
+    }
+
+    /**
+     * @param port Port.
+     * @return Response body.
+     * @throws Exception If failed.
+     */
+    private static String scrape(int port) throws Exception {
+        HttpURLConnection conn = (HttpURLConnection)new URL("http://localhost:" + port +
+            BenchmarkProbePointPrometheusWriter.PATH).openConnection();
+
+        try {
+            assertEquals(200, conn.getResponseCode());
+            assertEquals(BenchmarkProbePointPrometheusWriter.CONTENT_TYPE, conn.getContentType());
+
+            StringBuilder sb = new StringBuilder();
+
+            try (BufferedReader br = new BufferedReader(new InputStreamReader(conn.getInputStream(), "UTF-8"))) {
+                for (String line; (line = br.readLine()) != null; )
+                    sb.append(line).append('\n');
+            }
+
+            return sb.toString();
+        }
+        finally {
+            conn.disconnect();
+        }
+    }
+}
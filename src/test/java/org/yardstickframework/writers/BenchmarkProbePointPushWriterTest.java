@@ -0,0 +1,259 @@
+/*
+ Licensed under the Apache License, Version 2.0 (the "License");
+ you may not use this file except in compliance with the License.
+ You may obtain a copy of the License at
+
+     http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing, software
+ distributed under the License is distributed on an "AS IS" BASIS,
+ WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ See the License for the specific language governing permissions and
+ limitations under the License.
+ */
+
+package org.yardstickframework.writers;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.Test;
+import org.yardstickframework.BenchmarkConfiguration;
+import org.yardstickframework.BenchmarkDriver;
+import org.yardstickframework.BenchmarkProbe;
+import org.yardstickframework.BenchmarkProbePoint;
+import org.yardstickframework.writers.BenchmarkWriterTestUtils.DistributionTestProbe;
+import org.yardstickframework.writers.BenchmarkWriterTestUtils.OtherTestDriver;
+import org.yardstickframework.writers.BenchmarkWriterTestUtils.TestDriver;
+import org.yardstickframework.writers.BenchmarkWriterTestUtils.TestProbe;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.yardstickframework.writers.BenchmarkWriterTestUtils.config;
+import static org.yardstickframework.writers.BenchmarkWriterTestUtils.driver;
+
+/**
+ * Tests StatsD and Graphite push writer with local fake receivers.
+ */
+public class BenchmarkProbePointPushWriterTest {
+    /**
+     * @throws Exception If failed.
+     */
+    @Test
+    public void testStatsd() throws Exception {
+        try (DatagramSocket sock = new DatagramSocket(0)) {
+            sock.setSoTimeout(5000);
+
+            BenchmarkProbePointPushWriter writer = writer(BenchmarkProbePointPushWriter.STATSD, sock.getLocalPort());
+
+            try {
+                writer.writePoints(new TestProbe(), Arrays.asList(
+                    new BenchmarkProbePoint(1000, new double[] {10, 2.5}),
+                    new BenchmarkProbePoint(2000, new double[] {30, -4})));
+
+                // All points written at once are sent in one datagram.
+                assertEquals(
+                    "yardstick.TestDriver.test.operations_sec:10|g\n" +
+                    "yardstick.TestDriver.test.latency_nsec:2.5|g\n" +
+                    "yardstick.TestDriver.test.operations_sec:30|g\n" +
+                    "yardstick.TestDriver.test.latency_nsec:0|g\n" +
+                    "yardstick.TestDriver.test.latency_nsec:-4|g\n",
+                    receive(sock));
+
+                writer.writePoints(new DistributionTestProbe(), Arrays.asList(
+                    new BenchmarkProbePoint(100, new double[] {0.5}),
+                    new BenchmarkProbePoint(200, new double[] {0.45}),
+                    new BenchmarkProbePoint(300, new double[] {0.05})));
+
+                assertEquals(
+                    "yardstick.TestDriver.distribution_test.latency_microseconds.p50:100|g\n" +
+                    "yardstick.TestDriver.distribution_test.latency_microseconds.p90:200|g\n" +
+                    "yardstick.TestDriver.distribution_test.latency_microseconds.p99:300|g\n" +
+                    "yardstick.TestDriver.distribution_test.latency_microseconds.p99_9:300|g\n",
+                    receive(sock));
+            }
+            finally {
+                writer.close();
+            }
+        }
+    }
+
+    /**
+     * @throws Exception If failed.
+     */
+    @Test
+    public void testGraphiteReconnect() throws Exception {
+        try (ServerSocket srv = new ServerSocket(0)) {
+            srv.setSoTimeout(5000);
+
+            BenchmarkProbePointPushWriter writer = writer(BenchmarkProbePointPushWriter.GRAPHITE, srv.getLocalPort());
+
+            BenchmarkProbe probe = new TestProbe();
+
+            try {
+                writer.writePoints(probe,
+                    Collections.singletonList(new BenchmarkProbePoint(1000, new double[] {1, 2})));
+
+                try (Socket sock = srv.accept()) {
+                    sock.setSoTimeout(5000);
+
+                    // Points buffered while connection is established are sent with the next points.
+                    writer.writePoints(probe,
+                        Collections.singletonList(new BenchmarkProbePoint(2000, new double[] {3, 4})));
+
+                    BufferedReader rdr = new BufferedReader(new InputStreamReader(sock.getInputStream(), "UTF-8"));
+
+                    assertEquals("yardstick.TestDriver.test.operations_sec 1 1", rdr.readLine());
+                    assertEquals("yardstick.TestDriver.test.latency_nsec 2 1", rdr.readLine());
+                    assertEquals("yardstick.TestDriver.test.operations_sec 3 2", rdr.readLine());
+                    assertEquals("yardstick.TestDriver.test.latency_nsec 4 2", rdr.readLine());
+                }
+
+                srv.setSoTimeout(200);
+
+                Socket sock = null;
+
+                long time = 3000;
+
+                // Writer detects closed connection and reconnects.
+                for (long end = System.currentTimeMillis() + 10_000; sock == null && System.currentTimeMillis() < end;
+                    time += 1000) {
+                    writer.writePoints(probe,
+                        Collections.singletonList(new BenchmarkProbePoint(time, new double[] {5, 6})));
+
+                    try {
+                        sock = srv.accept();
+                    }
+                    catch (SocketTimeoutException ignored) {
+                        // No-op.
+                    }
+                }
+
+                assertNotNull(sock);
+
+                try {
+                    sock.setSoTimeout(5000);
+
+                    writer.writePoints(probe,
+                        Collections.singletonList(new BenchmarkProbePoint(100_000, new double[] {7, 8})));
+
+                    BufferedReader rdr = new BufferedReader(new InputStreamReader(sock.getInputStream(), "UTF-8"));
+
+                    for (String line; !(line = rdr.readLine()).endsWith(" 100"); )
+                        assertTrue(line, line.matches("yardstick\\.TestDriver\\.test\\.\\w+ [56] \\d+"));
+                }
+                finally {
+                    sock.close();
+                }
+            }
+            finally {
+                writer.close();
+            }
+        }
+    }
+
+    /**
+     * @throws Exception If failed.
+     */
+    @Test
+    public void testMultipleDrivers() throws Exception {
+        try (DatagramSocket sock = new DatagramSocket(0)) {
+            sock.setSoTimeout(5000);
+
+            BenchmarkProbePointPushWriter writer = writer(BenchmarkProbePointPushWriter.STATSD, sock.getLocalPort(),
+                new TestDriver(), "TestDriver", "OtherTestDriver");
+
+            BenchmarkProbePointPushWriter otherWriter = writer(BenchmarkProbePointPushWriter.STATSD,
+                sock.getLocalPort(), new OtherTestDriver(), "TestDriver", "OtherTestDriver");
+
+            try {
+                writer.writePoints(new TestProbe(), Collections.singletonList(
+                    new BenchmarkProbePoint(1000, new double[] {10, 2})));
+
+                assertEquals(
+                    "yardstick.TestDriver.test.operations_sec:10|g\n" +
+                    "yardstick.TestDriver.test.latency_nsec:2|g\n",
+                    receive(sock));
+
+                otherWriter.writePoints(new TestProbe(), Collections.singletonList(
+                    new BenchmarkProbePoint(1000, new double[] {20, 3})));
+
+                assertEquals(
+                    "yardstick.OtherTestDriver.test.operations_sec:20|g\n" +
+                    "yardstick.OtherTestDriver.test.latency_nsec:3|g\n",
+                    receive(sock));
+            }
+            finally {
+                writer.close();
+                otherWriter.close();
+            }
+        }
+    }
+
+    /**
+     * @param protocol Protocol.
+     * @param port Port.
+     * @return Started writer.
+     * @throws Exception If failed.
+     */
+    private static BenchmarkProbePointPushWriter writer(String protocol, int port) throws Exception {
+        return writer(protocol, port, new TestDriver(), "TestDriver");
+    }
+
+    /**
+     * @param protocol Protocol.
+     * @param port Port.
+     * @param drv Driver.
+     * @param drvNames Driver names of the run.
+     * @return Started writer.
+     * @throws Exception If failed.
+     */
+    private static BenchmarkProbePointPushWriter writer(String protocol, int port, BenchmarkDriver drv,
+        String... drvNames) throws Exception {
+        List<String> args = new ArrayList<>();
+
+        args.add("-dn");
+        args.addAll(Arrays.asList(drvNames));
+
+        BenchmarkConfiguration cfg = config(args.toArray(new String[args.size()]));
+
+        Map<String, String> props = new HashMap<>();
+
+        props.put(BenchmarkProbePointPushWriter.PROTOCOL, protocol);
+        props.put(BenchmarkProbePointPushWriter.HOST, "127.0.0.1");
+        props.put(BenchmarkProbePointPushWriter.PORT, String.valueOf(port));
+
+        cfg.customProperties(props);
+
+        BenchmarkProbePointPushWriter writer = new BenchmarkProbePointPushWriter();
+
+        writer.start(driver(cfg, drv), cfg, System.currentTimeMillis());
+
+        return writer;
+    }
+
+    /**
+     * @param sock Socket.
+     * @return Received datagram.
+     * @throws Exception If failed.
+     */
+    private static String receive(DatagramSocket sock) throws Exception {
+        DatagramPacket packet = new DatagramPacket(new byte[BenchmarkProbePointPushWriter.MAX_DATAGRAM_SIZE],
+            BenchmarkProbePointPushWriter.MAX_DATAGRAM_SIZE);
+
+        sock.receive(packet);
+
+        return new String(packet.getData(), 0, packet.getLength(), "UTF-8");
+    }
+}
@@ -0,0 +1,137 @@
+/*
+ Licensed under the Apache License, Version 2.0 (the "License");
+ you may not use this file except in compliance with the License.
+ You may obtain a copy of the License at
+
+     http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing, software
+ distributed under the License is distributed on an "AS IS" BASIS,
+ WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ See the License for the specific language governing permissions and
+ limitations under the License.
+ */
+
+package org.yardstickframework.writers;
+
+import com.beust.jcommander.ParameterException;
+import java.io.File;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.yardstickframework.BenchmarkConfiguration;
+import org.yardstickframework.BenchmarkProbePoint;
+import org.yardstickframework.writers.BenchmarkWriterTestUtils.TestProbe;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+import static org.yardstickframework.BenchmarkUtils.jcommander;
+import static org.yardstickframework.writers.BenchmarkWriterTestUtils.config;
+import static org.yardstickframework.writers.BenchmarkWriterTestUtils.driver;
+
+/**
+ * Tests results database.
+ */
+public class BenchmarkResultsDbTest {
+    /** */
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    /**
+     * @throws Exception If failed.
+     */
+    @Test
+    public void testImportAndQuery() throws Exception {
+        File folder = tmp.getRoot();
+
+        File out = new File(folder, "results");
+
+        long time = System.currentTimeMillis();
+
+        write(out, time - 60_000, 1, 2, 3);
+        write(out, time, 4, 5, 6);
+
+        BenchmarkResultsDb db = new BenchmarkResultsDb(new File(folder, "db"));
+
+        assertEquals(2, db.importResults(out));
+
+        // Already imported runs are skipped.
+        assertEquals(0, db.importResults(out));
+
+        // Index is read when database is opened.
+        db = new BenchmarkResultsDb(new File(folder, "db"));
+
+        assertEquals(2, db.records().size());
+
+        List<BenchmarkResultsDb.Record> recs = db.query(new BenchmarkResultsDb.Query()
+            .probe(TestProbe.class.getSimpleName()).driverNames("TestDriver"));
+
+        assertEquals(2, recs.size());
+        assertEquals(2, BenchmarkResultsDb.runs(recs).size());
+
+        recs = db.query(new BenchmarkResultsDb.Query().last(1));
+
+        assertEquals(1, recs.size());
+        assertEquals(3, recs.get(0).points());
+
+        BenchmarkResultsDb.ProbeData data = BenchmarkResultsDb.ProbeData.read(db.file(recs.get(0)));
+
+        assertEquals(5, BenchmarkResultsDb.aggregate(data, 1, "mean"), 0);
+        assertEquals(4, BenchmarkResultsDb.aggregate(data, 1, "min"), 0);
+        assertEquals(6, BenchmarkResultsDb.aggregate(data, 1, "p99"), 0);
+        assertEquals(5, BenchmarkResultsDb.aggregate(data, 1, "p50"), 0);
+
+        assertEquals(0, db.query(new BenchmarkResultsDb.Query().description("unknown")).size());
+    }
+
+    /**
+     *
+     */
+    @Test
+    public void testColumnValidation() {
+        BenchmarkResultsDbArguments args = new BenchmarkResultsDbArguments();
+
+        jcommander(new String[] {"-db", "db", "-c", "2"}, args, "test");
+
+        assertEquals(2, args.column());
+
+        for (String col : new String[] {"0", "-1", "x"}) {
+            try {
+                jcommander(new String[] {"-db", "db", "-c", col}, new BenchmarkResultsDbArguments(), "test");
+
+                fail("Invalid column should be rejected: " + col);
+            }
+            catch (ParameterException ignored) {
+                // Expected.
+            }
+        }
+    }
+
+    /**
+     * @param out Output folder.
+     * @param startTime Start time.
+     * @param vals Point values.
+     * @throws Exception If failed.
+     */
+    private static void write(File out, long startTime, double... vals) throws Exception {
+        BenchmarkConfiguration cfg = config("-dn", "TestDriver", "-of", out.getAbsolutePath());
+
+        cfg.customProperties(Collections.<String, String>emptyMap());
+
+        BenchmarkProbePointCsvWriter writer = new BenchmarkProbePointCsvWriter();
+
+        writer.start(driver(cfg), cfg, startTime);
+
+        BenchmarkProbePoint[] points = new BenchmarkProbePoint[vals.length];
+
+        for (int i = 0; i < vals.length; i++)
+            points[i] = new BenchmarkProbePoint(startTime + i * 1000, new double[] {vals[i], 0});
+
+        writer.writePoints(new TestProbe(), Arrays.asList(points));
+
+        writer.close();
+    }
+}
@@ -0,0 +1,132 @@
+/*
+ Licensed under the Apache License, Version 2.0 (the "License");
+ you may not use this file except in compliance with the License.
+ You may obtain a copy of the License at
+
+     http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing, software
+ distributed under the License is distributed on an "AS IS" BASIS,
+ WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ See the License for the specific language governing permissions and
+ limitations under the License.
+ */
+
+package org.yardstickframework.writers;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import org.yardstickframework.BenchmarkConfiguration;
+import org.yardstickframework.BenchmarkDriver;
+import org.yardstickframework.BenchmarkDriverAdapter;
+import org.yardstickframework.BenchmarkProbe;
+import org.yardstickframework.BenchmarkProbePoint;
+
+import static org.yardstickframework.BenchmarkUtils.jcommander;
+
+/**
+ * Fixtures of probe point writer tests.
+ */
+final class BenchmarkWriterTestUtils {
+    /**
+     * @param args Command line arguments.
+     * @return Configuration printing to standard streams.
+     */
+    static BenchmarkConfiguration config(String... args) {
+        BenchmarkConfiguration cfg = new BenchmarkConfiguration();
+
+        jcommander(args, cfg, "test");
+
+        cfg.output(System.out);
+        cfg.error(System.err);
+
+        return cfg;
+    }
+
+    /**
+     * @param cfg Configuration.
+     * @return Driver set up with the configuration.
+     * @throws Exception If failed.
+     */
+    static BenchmarkDriver driver(BenchmarkConfiguration cfg) throws Exception {
+        return driver(cfg, new TestDriver());
+    }
+
+    /**
+     * @param cfg Configuration.
+     * @param drv Driver.
+     * @return Driver set up with the configuration.
+     * @throws Exception If failed.
+     */
+    static BenchmarkDriver driver(BenchmarkConfiguration cfg, BenchmarkDriver drv) throws Exception {
+        drv.setUp(cfg);
+
+        return drv;
+    }
+
+    /**
+     * Ensure static class.
+     */
+    private BenchmarkWriterTestUtils() {
+        // No-op.
+    }
+
+    /**
+     *
+     */
+    static class TestDriver extends BenchmarkDriverAdapter {
+        /** {@inheritDoc} */
+        @Override public boolean test(Map<Object, Object> ctx) throws Exception {
+            return true;
+        }
+    }
+
+    /**
+     * Second driver of a run with several drivers.
+     */
+    static class OtherTestDriver extends TestDriver {
+        // No-op.
+    }
+
+    /**
+     * Time series probe with two values.
+     */
+    static class TestProbe implements BenchmarkProbe {
+        /** {@inheritDoc} */
+        @Override public void start(BenchmarkDriver drv, BenchmarkConfiguration cfg) {
+            // No-op.
+        }
+
+        /** {@inheritDoc} */
+        @Override public void stop() {
+            // No-op.
+        }
+
+        /** {@inheritDoc} */
+        @Override public Collection<String> metaInfo() {
+            return Arrays.asList("Time, ms", "Operations/sec (more is better)", "Latency, nsec (less is better)");
+        }
+
+        /** {@inheritDoc} */
+        @Override public Collection<BenchmarkProbePoint> points() {
+            return Collections.emptyList();
+        }
+
+        /** {@inheritDoc} */
+        @Override public void buildPoint(long time) {
+            // No-op.
+        }
+    }
+
+    /**
+     * Latency distribution probe.
+     */
+    static class DistributionTestProbe extends TestProbe {
+        /** {@inheritDoc} */
+        @Override public Collection<String> metaInfo() {
+            return Arrays.asList("Latency, microseconds", "Operations, %");
+        }
+    }
+}